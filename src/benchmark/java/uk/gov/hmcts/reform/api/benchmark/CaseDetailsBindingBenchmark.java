@@ -0,0 +1,90 @@
+package uk.gov.hmcts.reform.api.benchmark;
+
+import jakarta.validation.Validation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.Errors;
+import org.springframework.validation.Validator;
+import org.springframework.validation.beanvalidation.SpringValidatorAdapter;
+import tools.jackson.databind.json.JsonMapper;
+import uk.gov.hmcts.reform.api.casedetails.CaseDetailsMessageConverter;
+import uk.gov.hmcts.reform.api.casedetails.CaseDetailsValidator;
+import uk.gov.hmcts.reform.api.config.IntakeProperties;
+import uk.gov.hmcts.reform.api.models.DivorceCaseDetails;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Binding and validating one divorce {@code case} part: Jackson data binding with the bean validator, as with
+ * {@code app.intake.fast-case-binding} off, against the streaming reader with the compiled validation plan.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class CaseDetailsBindingBenchmark {
+
+    private static final byte[] VALID = """
+        {"applicantName": "Jane Mary Doe", "respondentName": "John Doe", "marriageDate": "2012-05-04",
+         "ukMarriage": false, "countryOfMarriage": "France", "translationProvided": false,
+         "placeOfMarriage": "Paris", "certificateNumber": "CERT-123456"}
+        """.getBytes(StandardCharsets.UTF_8);
+
+    private static final byte[] INVALID = """
+        {"applicantName": " ", "respondentName": "John Doe", "ukMarriage": false,
+         "translationProvided": false, "placeOfMarriage": "Paris", "certificateNumber": "CERT-123456"}
+        """.getBytes(StandardCharsets.UTF_8);
+
+    private JsonMapper jsonMapper;
+    private Validator beanValidator;
+    private CaseDetailsMessageConverter converter;
+    private Validator planValidator;
+
+    @Setup
+    public void setup() {
+        jsonMapper = JsonMapper.builder().build();
+        beanValidator = new SpringValidatorAdapter(Validation.buildDefaultValidatorFactory().getValidator());
+        converter = new CaseDetailsMessageConverter(new IntakeProperties());
+        planValidator = new CaseDetailsValidator();
+    }
+
+    @Benchmark
+    public Errors jacksonAndBeanValidatorValid() {
+        return validate(jsonMapper.readValue(VALID, DivorceCaseDetails.class), beanValidator);
+    }
+
+    @Benchmark
+    public Errors jacksonAndBeanValidatorInvalid() {
+        return validate(jsonMapper.readValue(INVALID, DivorceCaseDetails.class), beanValidator);
+    }
+
+    @Benchmark
+    public Errors streamingReaderAndPlanValid() throws IOException {
+        return validate(converter.read(DivorceCaseDetails.class, new MockHttpInputMessage(VALID)), planValidator);
+    }
+
+    @Benchmark
+    public Errors streamingReaderAndPlanInvalid() throws IOException {
+        return validate(converter.read(DivorceCaseDetails.class, new MockHttpInputMessage(INVALID)), planValidator);
+    }
+
+    private static Errors validate(Object details, Validator validator) {
+        Errors errors = new BeanPropertyBindingResult(details, "case");
+        validator.validate(details, errors);
+        return errors;
+    }
+}
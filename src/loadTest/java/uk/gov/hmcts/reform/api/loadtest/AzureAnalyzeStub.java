@@ -0,0 +1,98 @@
+package uk.gov.hmcts.reform.api.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+
+/**
+ * Minimal stand-in for the Document Intelligence analyze API.
+ *
+ * <p>{@code POST ...:analyze} drains the body, waits for the configured latency and answers 202 with an
+ * {@code Operation-Location}. {@code GET .../analyzeResults/{id}} reports the operation as succeeded straight
+ * away.
+ */
+final class AzureAnalyzeStub {
+
+    private static final String RESULT_BODY = """
+        {"status":"succeeded","createdDateTime":"2025-01-01T00:00:00Z","lastUpdatedDateTime":"2025-01-01T00:00:01Z",\
+        "analyzeResult":{"apiVersion":"2024-11-30","modelId":"prebuilt-layout","content":"","pages":[]}}""";
+
+    private final HttpServer server;
+    private final Duration latency;
+
+    private AzureAnalyzeStub(HttpServer server, Duration latency) {
+        this.server = server;
+        this.latency = latency;
+    }
+
+    static AzureAnalyzeStub start(Duration latency) {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            AzureAnalyzeStub stub = new AzureAnalyzeStub(server, latency);
+            server.createContext("/", stub::handle);
+            server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+            server.start();
+            return stub;
+        } catch (IOException ex) {
+            throw new IllegalStateException("Could not start Azure stub", ex);
+        }
+    }
+
+    String baseUrl() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    void stop() {
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String path = exchange.getRequestURI().getPath();
+            if ("POST".equals(exchange.getRequestMethod()) && path.endsWith(":analyze")) {
+                drain(exchange.getRequestBody());
+                sleep(latency);
+                String model = path.substring(path.lastIndexOf('/') + 1, path.length() - ":analyze".length());
+                exchange.getResponseHeaders().add(
+                    "Operation-Location",
+                    baseUrl() + "/documentintelligence/documentModels/" + model + "/analyzeResults/"
+                        + UUID.randomUUID() + "?api-version=2024-11-30"
+                );
+                exchange.getResponseHeaders().add("Retry-After", "0");
+                exchange.sendResponseHeaders(202, -1);
+            } else if ("GET".equals(exchange.getRequestMethod()) && path.contains("/analyzeResults/")) {
+                byte[] body = RESULT_BODY.getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            } else {
+                exchange.sendResponseHeaders(404, -1);
+            }
+        }
+    }
+
+    private static void drain(InputStream body) throws IOException {
+        byte[] buffer = new byte[64 * 1024];
+        while (body.read(buffer) != -1) {
+            // discard
+        }
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package uk.gov.hmcts.reform.api.loadtest;
+
+import com.azure.ai.documentintelligence.DocumentIntelligenceClientBuilder;
+import com.azure.core.http.HttpClient;
+import com.azure.core.http.HttpPipelineBuilder;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import uk.gov.hmcts.reform.api.endpoints.AnalysisClientFactory;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Drives the document endpoints with a realistic mix of uploads and gates on the SLOs in
+ * {@code load-test-slo.properties}. Analysis is enabled and spread over {@code stub-instances} instances of
+ * {@link AzureAnalyzeStub}, each registered as an endpoint of the analysis pool.
+ */
+@Slf4j
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class DocumentLoadTest {
+
+    private static final LoadTestConfig PROFILE = LoadTestConfig.load("load-test.properties");
+    private static final LoadTestConfig SLO = LoadTestConfig.load("load-test-slo.properties");
+    private static final List<AzureAnalyzeStub> STUBS = startStubs();
+
+    @Value("${local.server.port}")
+    private int port;
+
+    @DynamicPropertySource
+    static void azureStub(DynamicPropertyRegistry registry) {
+        registry.add("azure.document-intelligence.endpoint", STUBS.getFirst()::baseUrl);
+        registry.add("azure.document-intelligence.key", () -> "load-test");
+        registry.add("azure.document-intelligence.analysis-enabled", () -> "true");
+        for (int i = 0; i < STUBS.size(); i++) {
+            String prefix = "azure.document-intelligence.pool.endpoints[" + i + "].";
+            String name = "stub-" + i;
+            registry.add(prefix + "name", () -> name);
+            registry.add(prefix + "endpoint", STUBS.get(i)::baseUrl);
+            registry.add(prefix + "key", () -> "load-test");
+        }
+    }
+
+    @AfterAll
+    static void stopStubs() {
+        STUBS.forEach(AzureAnalyzeStub::stop);
+    }
+
+    @Test
+    void meetsLatencyAndThroughputSlos() throws Exception {
+        LoadCorpus corpus = LoadCorpus.generate(PROFILE.getLong("seed"));
+        LoadDriver driver = new LoadDriver(
+            URI.create("http://localhost:" + port),
+            corpus,
+            PROFILE.getInt("concurrency"),
+            PROFILE.getLong("seed")
+        );
+
+        driver.run(PROFILE.getDuration("warmup"));
+        LoadResult result = driver.run(PROFILE.getDuration("duration"));
+        log.info("Load test result: {}", result.summary());
+        result.writeReport(Path.of(System.getProperty("loadtest.report-dir", "build/reports/load-test")));
+
+        assertThat(result.errorRate()).as("error rate").isLessThanOrEqualTo(SLO.getDouble("error-rate-max"));
+        assertThat(result.p99Millis()).as("p99 latency (ms)").isLessThanOrEqualTo(SLO.getDouble("p99-millis-max"));
+        assertThat(result.throughputPerSecond())
+            .as("throughput (req/s)")
+            .isGreaterThanOrEqualTo(SLO.getDouble("throughput-per-second-min"));
+    }
+
+    @TestConfiguration
+    static class StubClientConfiguration {
+
+        /**
+         * Key credentials are refused over plain HTTP, so the stub clients are built without the auth policy.
+         */
+        @Bean
+        @Primary
+        AnalysisClientFactory stubAnalysisClientFactory() {
+            return (endpoint, retries) -> new DocumentIntelligenceClientBuilder()
+                .endpoint(endpoint.getEndpoint())
+                .pipeline(new HttpPipelineBuilder().httpClient(HttpClient.createDefault()).build())
+                .buildClient();
+        }
+    }
+
+    private static List<AzureAnalyzeStub> startStubs() {
+        List<AzureAnalyzeStub> stubs = new ArrayList<>();
+        for (int i = 0; i < PROFILE.getInt("stub-instances"); i++) {
+            stubs.add(AzureAnalyzeStub.start(PROFILE.getDuration("stub-latency")));
+        }
+        return stubs;
+    }
+}
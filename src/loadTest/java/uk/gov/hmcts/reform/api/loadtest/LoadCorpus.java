@@ -0,0 +1,126 @@
+package uk.gov.hmcts.reform.api.loadtest;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A weighted mix of generated documents resembling real intake traffic: mostly short certificate PDFs and
+ * phone photos, with a tail of longer bundles and scans.
+ */
+final class LoadCorpus {
+
+    private static final String DIVORCE = "/documents/divorce";
+    private static final String PROBATE = "/documents/probate";
+    private static final String DIVORCE_CASE = """
+        {"applicantName":"Jane Doe","respondentName":"John Doe","marriageDate":"2012-05-04",\
+        "ukMarriage":true,"countryOfMarriage":"UK","translationProvided":false,\
+        "placeOfMarriage":"London","certificateNumber":"CERT-123"}""";
+    private static final String PROBATE_CASE = "{\"caseNumber\":\"LOAD-123\"}";
+
+    private final List<Sample> samples = new ArrayList<>();
+    private int totalWeight;
+
+    private LoadCorpus() {
+    }
+
+    static LoadCorpus generate(long seed) throws IOException {
+        Random random = new Random(seed);
+        LoadCorpus corpus = new LoadCorpus();
+        corpus.add(30, DIVORCE, DIVORCE_CASE, "certificate.pdf", "application/pdf", pdf(1, random));
+        corpus.add(10, DIVORCE, DIVORCE_CASE, "bundle.pdf", "application/pdf", pdf(40, random));
+        corpus.add(20, PROBATE, PROBATE_CASE, "will.pdf", "application/pdf", pdf(5, random));
+        corpus.add(15, DIVORCE, DIVORCE_CASE, "photo.jpg", "image/jpeg", image(1600, 1200, "jpg", random));
+        corpus.add(15, DIVORCE, DIVORCE_CASE, "scan.png", "image/png", image(1240, 1754, "png", random));
+        corpus.add(10, PROBATE, PROBATE_CASE, "scan.tiff", "image/tiff", image(1240, 1754, "tiff", random));
+        return corpus;
+    }
+
+    Sample next(Random random) {
+        int pick = random.nextInt(totalWeight);
+        for (Sample sample : samples) {
+            pick -= sample.weight();
+            if (pick < 0) {
+                return sample;
+            }
+        }
+        return samples.get(samples.size() - 1);
+    }
+
+    private void add(int weight, String path, String caseJson, String filename, String contentType, byte[] content) {
+        samples.add(new Sample(weight, path, caseJson, filename, contentType, content));
+        totalWeight += weight;
+    }
+
+    private static byte[] pdf(int pages, Random random) throws IOException {
+        PDType1Font font = new PDType1Font(Standard14Fonts.FontName.HELVETICA);
+        try (PDDocument document = new PDDocument()) {
+            for (int i = 0; i < pages; i++) {
+                PDPage page = new PDPage();
+                document.addPage(page);
+                try (PDPageContentStream content = new PDPageContentStream(document, page)) {
+                    content.beginText();
+                    content.setFont(font, 11);
+                    content.newLineAtOffset(50, 740);
+                    for (int line = 0; line < 40; line++) {
+                        content.showText(line(random));
+                        content.newLineAtOffset(0, -16);
+                    }
+                    content.endText();
+                }
+            }
+            try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+                document.save(out);
+                return out.toByteArray();
+            }
+        }
+    }
+
+    private static byte[] image(int width, int height, String format, Random random) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        try {
+            graphics.setColor(new Color(245, 243, 238));
+            graphics.fillRect(0, 0, width, height);
+            graphics.setColor(new Color(30, 30, 40));
+            graphics.setFont(new Font(Font.SERIF, Font.PLAIN, height / 60));
+            for (int y = height / 12; y < height - height / 12; y += height / 40) {
+                graphics.drawString(line(random), width / 12, y);
+            }
+        } finally {
+            graphics.dispose();
+        }
+        try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            ImageIO.write(image, format, out);
+            return out.toByteArray();
+        }
+    }
+
+    private static String line(Random random) {
+        StringBuilder text = new StringBuilder();
+        while (text.length() < 70) {
+            int length = 2 + random.nextInt(9);
+            for (int i = 0; i < length; i++) {
+                text.append((char) ('a' + random.nextInt(26)));
+            }
+            text.append(' ');
+        }
+        return text.toString();
+    }
+
+    record Sample(int weight, String path, String caseJson, String filename, String contentType, byte[] content) {
+    }
+}
@@ -0,0 +1,146 @@
+package uk.gov.hmcts.reform.api.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop load generator: a fixed number of workers each send one upload at a time for the run duration.
+ */
+final class LoadDriver {
+
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(5);
+    private static final Duration REQUEST_TIMEOUT = Duration.ofMinutes(2);
+
+    private final URI baseUri;
+    private final LoadCorpus corpus;
+    private final int concurrency;
+    private final long seed;
+    private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+    LoadDriver(URI baseUri, LoadCorpus corpus, int concurrency, long seed) {
+        this.baseUri = baseUri;
+        this.corpus = corpus;
+        this.concurrency = concurrency;
+        this.seed = seed;
+    }
+
+    LoadResult run(Duration duration) throws InterruptedException {
+        Histogram latencies = new ConcurrentHistogram(MAX_LATENCY_MICROS, 3);
+        AtomicLong succeeded = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+
+        final long gcCountBefore = gcCount();
+        final long gcMillisBefore = gcMillis();
+        ManagementFactory.getMemoryPoolMXBeans().forEach(MemoryPoolMXBean::resetPeakUsage);
+
+        long start = System.nanoTime();
+        long deadline = start + duration.toNanos();
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            Random random = new Random(seed + i);
+            workers.submit(() -> {
+                while (System.nanoTime() < deadline) {
+                    long sent = System.nanoTime();
+                    boolean ok = send(corpus.next(random));
+                    latencies.recordValue(Math.min(
+                        TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - sent),
+                        MAX_LATENCY_MICROS
+                    ));
+                    (ok ? succeeded : failed).incrementAndGet();
+                }
+            });
+        }
+        workers.shutdown();
+        if (!workers.awaitTermination(duration.plus(REQUEST_TIMEOUT).toMillis(), TimeUnit.MILLISECONDS)) {
+            workers.shutdownNow();
+        }
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        return new LoadResult(
+            latencies,
+            succeeded.get(),
+            failed.get(),
+            elapsed,
+            gcCount() - gcCountBefore,
+            gcMillis() - gcMillisBefore,
+            peakHeapBytes()
+        );
+    }
+
+    private boolean send(LoadCorpus.Sample sample) {
+        String boundary = "load-" + UUID.randomUUID();
+        HttpRequest request = HttpRequest.newBuilder(baseUri.resolve(sample.path()))
+            .timeout(REQUEST_TIMEOUT)
+            .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+            .POST(HttpRequest.BodyPublishers.ofByteArray(multipart(boundary, sample)))
+            .build();
+        try {
+            return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200;
+        } catch (IOException ex) {
+            return false;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Each request carries a unique trailer after the document's end marker, which parsers ignore. Without it
+     * every upload of a sample would share a content hash and be coalesced, flattering the results.
+     */
+    private static byte[] multipart(String boundary, LoadCorpus.Sample sample) {
+        ByteArrayOutputStream body = new ByteArrayOutputStream(sample.content().length + 1024);
+        String fileHeader = "--" + boundary + "\r\n"
+            + "Content-Disposition: form-data; name=\"file\"; filename=\"" + sample.filename() + "\"\r\n"
+            + "Content-Type: " + sample.contentType() + "\r\n\r\n";
+        body.writeBytes(fileHeader.getBytes(StandardCharsets.UTF_8));
+        body.writeBytes(sample.content());
+        body.writeBytes(("\n%" + UUID.randomUUID() + "\n").getBytes(StandardCharsets.US_ASCII));
+
+        String caseHeader = "\r\n--" + boundary + "\r\n"
+            + "Content-Disposition: form-data; name=\"case\"\r\n"
+            + "Content-Type: application/json\r\n\r\n";
+        body.writeBytes(caseHeader.getBytes(StandardCharsets.UTF_8));
+        body.writeBytes(sample.caseJson().getBytes(StandardCharsets.UTF_8));
+        body.writeBytes(("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.UTF_8));
+        return body.toByteArray();
+    }
+
+    private static long gcCount() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+            .mapToLong(GarbageCollectorMXBean::getCollectionCount)
+            .sum();
+    }
+
+    private static long gcMillis() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+            .mapToLong(GarbageCollectorMXBean::getCollectionTime)
+            .sum();
+    }
+
+    private static long peakHeapBytes() {
+        return ManagementFactory.getMemoryPoolMXBeans().stream()
+            .filter(pool -> pool.getType() == MemoryType.HEAP)
+            .mapToLong(pool -> pool.getPeakUsage().getUsed())
+            .sum();
+    }
+}
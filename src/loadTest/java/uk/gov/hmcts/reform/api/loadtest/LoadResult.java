@@ -0,0 +1,78 @@
+package uk.gov.hmcts.reform.api.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Latency distribution, throughput and JVM memory behaviour for one measured run.
+ */
+final class LoadResult {
+
+    private static final double MICROS_PER_MILLI = 1000.0;
+
+    private final Histogram latencies;
+    private final long succeeded;
+    private final long failed;
+    private final Duration elapsed;
+    private final long gcCount;
+    private final long gcMillis;
+    private final long peakHeapBytes;
+
+    LoadResult(Histogram latencies, long succeeded, long failed, Duration elapsed,
+               long gcCount, long gcMillis, long peakHeapBytes) {
+        this.latencies = latencies;
+        this.succeeded = succeeded;
+        this.failed = failed;
+        this.elapsed = elapsed;
+        this.gcCount = gcCount;
+        this.gcMillis = gcMillis;
+        this.peakHeapBytes = peakHeapBytes;
+    }
+
+    double p99Millis() {
+        return latencies.getValueAtPercentile(99.0) / MICROS_PER_MILLI;
+    }
+
+    double throughputPerSecond() {
+        return succeeded / (elapsed.toNanos() / 1_000_000_000.0);
+    }
+
+    double errorRate() {
+        long total = succeeded + failed;
+        return total == 0 ? 1.0 : (double) failed / total;
+    }
+
+    String summary() {
+        return String.format(
+            "requests=%d failed=%d elapsed=%ds throughput=%.1f/s p50=%.1fms p95=%.1fms p99=%.1fms max=%.1fms "
+                + "gc.count=%d gc.time=%dms heap.peak=%dMB",
+            succeeded + failed,
+            failed,
+            elapsed.toSeconds(),
+            throughputPerSecond(),
+            latencies.getValueAtPercentile(50.0) / MICROS_PER_MILLI,
+            latencies.getValueAtPercentile(95.0) / MICROS_PER_MILLI,
+            p99Millis(),
+            latencies.getMaxValue() / MICROS_PER_MILLI,
+            gcCount,
+            gcMillis,
+            peakHeapBytes / (1024 * 1024)
+        );
+    }
+
+    /**
+     * Writes the summary and an HdrHistogram percentile distribution (plottable with HistogramLogAnalyzer).
+     */
+    void writeReport(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        Files.writeString(directory.resolve("summary.txt"), summary() + System.lineSeparator());
+        try (PrintStream out = new PrintStream(Files.newOutputStream(directory.resolve("latency.hgrm")))) {
+            latencies.outputPercentileDistribution(out, MICROS_PER_MILLI);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package uk.gov.hmcts.reform.api.loadtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Properties;
+
+/**
+ * Reads a properties file from the load test classpath, letting {@code -Dloadtest.<key>} override each entry.
+ */
+final class LoadTestConfig {
+
+    private static final String OVERRIDE_PREFIX = "loadtest.";
+
+    private final Properties properties;
+
+    private LoadTestConfig(Properties properties) {
+        this.properties = properties;
+    }
+
+    static LoadTestConfig load(String resource) {
+        Properties properties = new Properties();
+        try (InputStream in = LoadTestConfig.class.getClassLoader().getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IllegalStateException("Missing load test resource " + resource);
+            }
+            properties.load(in);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return new LoadTestConfig(properties);
+    }
+
+    String get(String key) {
+        String value = System.getProperty(OVERRIDE_PREFIX + key, properties.getProperty(key));
+        if (value == null) {
+            throw new IllegalStateException("Missing load test setting " + key);
+        }
+        return value.trim();
+    }
+
+    int getInt(String key) {
+        return Integer.parseInt(get(key));
+    }
+
+    long getLong(String key) {
+        return Long.parseLong(get(key));
+    }
+
+    double getDouble(String key) {
+        return Double.parseDouble(get(key));
+    }
+
+    Duration getDuration(String key) {
+        return Duration.parse(get(key));
+    }
+}
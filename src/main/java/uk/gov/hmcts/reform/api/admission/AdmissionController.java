@@ -0,0 +1,146 @@
+package uk.gov.hmcts.reform.api.admission;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import uk.gov.hmcts.reform.api.config.AdmissionProperties;
+import uk.gov.hmcts.reform.api.errorhandling.exceptions.CapacityExceededException;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Admits document requests against a global memory budget.
+ *
+ * <p>Each request reserves an estimate based on its content length when it arrives. The validator refines the
+ * estimate once the media type, image dimensions or page count are known. When the budget stays exhausted
+ * for longer than {@code app.admission.max-queue-wait} the request is turned away with a 503. Work outside a request,
+ * such as a background analysis job, is admitted the same way through {@link #runAdmitted}.
+ */
+@Slf4j
+@Component
+public class AdmissionController {
+
+    static final String RESERVATION_ATTRIBUTE = AdmissionController.class.getName() + ".reservation";
+    private static final String BUSY_MESSAGE = "Service is busy, please retry later.";
+
+    private final AdmissionProperties properties;
+    private final MemoryBudget budget;
+    private final MemoryCostEstimator estimator;
+    private final Counter rejected;
+    private final Timer queueWait;
+    private final ThreadLocal<Reservation> backgroundReservation = new ThreadLocal<>();
+
+    public AdmissionController(AdmissionProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.budget = new MemoryBudget(properties.getMemoryBudget().toBytes());
+        this.estimator = new MemoryCostEstimator(properties);
+
+        Gauge.builder("documents.admission.budget.capacity", budget, MemoryBudget::getCapacity)
+            .baseUnit(BaseUnits.BYTES)
+            .register(meterRegistry);
+        Gauge.builder("documents.admission.budget.reserved", budget, MemoryBudget::getReserved)
+            .baseUnit(BaseUnits.BYTES)
+            .register(meterRegistry);
+        Gauge.builder("documents.admission.budget.utilisation", budget, MemoryBudget::utilisation)
+            .register(meterRegistry);
+        Gauge.builder("documents.admission.queue.waiting", budget, MemoryBudget::getWaiting)
+            .register(meterRegistry);
+        this.rejected = Counter.builder("documents.admission.rejected").register(meterRegistry);
+        this.queueWait = Timer.builder("documents.admission.wait").register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    public Reservation admit(long contentLength) {
+        long estimate = estimator.forUpload(contentLength);
+        long start = System.nanoTime();
+        long granted;
+        try {
+            granted = budget.tryReserve(estimate, properties.getMaxQueueWait());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw reject(estimate);
+        } finally {
+            queueWait.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+
+        if (granted < 0) {
+            throw reject(estimate);
+        }
+        return new Reservation(budget, granted);
+    }
+
+    /**
+     * Runs {@code work} on this thread under a reservation of its own, so estimates refined while it runs resize
+     * that reservation as they would an upload's.
+     *
+     * @throws CapacityExceededException if the budget stays exhausted for longer than the maximum queue wait
+     */
+    public <T> T runAdmitted(long contentLength, Supplier<T> work) {
+        if (!isEnabled() || currentReservation() != null) {
+            return work.get();
+        }
+        try (Reservation reservation = admit(contentLength)) {
+            backgroundReservation.set(reservation);
+            return work.get();
+        } finally {
+            backgroundReservation.remove();
+        }
+    }
+
+    public void refineForMediaType(long contentLength, String mediaType) {
+        refine(estimator.forMediaType(contentLength, mediaType));
+    }
+
+    public void refineForFrames(long contentLength, long largestFramePixels, int concurrentFrames) {
+        refine(estimator.forFrames(contentLength, largestFramePixels, concurrentFrames));
+    }
+
+    public void refineForPdf(long contentLength, int pages) {
+        refine(estimator.forPdf(contentLength, pages));
+    }
+
+    public void refineForNormalisation(long contentLength, long outputPixels, long bandPixels) {
+        refine(estimator.forNormalisation(contentLength, outputPixels, bandPixels));
+    }
+
+    private void refine(long estimate) {
+        Reservation reservation = currentReservation();
+        if (reservation == null) {
+            return;
+        }
+
+        try {
+            if (!reservation.resize(estimate, properties.getMaxQueueWait())) {
+                throw reject(estimate);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw reject(estimate);
+        }
+    }
+
+    private Reservation currentReservation() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return backgroundReservation.get();
+        }
+        return (Reservation) attributes.getAttribute(RESERVATION_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+    }
+
+    private CapacityExceededException reject(long estimate) {
+        rejected.increment();
+        log.warn("Memory budget exhausted, rejecting request needing {} bytes ({} of {} reserved)",
+                 estimate, budget.getReserved(), budget.getCapacity());
+        return new CapacityExceededException(BUSY_MESSAGE, properties.getRetryAfter());
+    }
+}
@@ -0,0 +1,63 @@
+package uk.gov.hmcts.reform.api.admission;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+import uk.gov.hmcts.reform.api.errorhandling.exceptions.CapacityExceededException;
+
+import java.io.IOException;
+
+/**
+ * Reserves memory for document uploads before the multipart body is read, so an overloaded pod rejects
+ * work up front instead of failing part way through parsing. Runs ahead of the ordered multipart filter, which
+ * reads the body.
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+public class AdmissionFilter extends OncePerRequestFilter {
+
+    private static final String DOCUMENTS_PATH = "/documents/";
+
+    private final AdmissionController admissionController;
+    private final HandlerExceptionResolver exceptionResolver;
+
+    public AdmissionFilter(AdmissionController admissionController,
+                           @Qualifier("handlerExceptionResolver") HandlerExceptionResolver exceptionResolver) {
+        this.admissionController = admissionController;
+        this.exceptionResolver = exceptionResolver;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !admissionController.isEnabled()
+            || !HttpMethod.POST.matches(request.getMethod())
+            || !request.getRequestURI().startsWith(request.getContextPath() + DOCUMENTS_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        Reservation reservation;
+        try {
+            reservation = admissionController.admit(request.getContentLengthLong());
+        } catch (CapacityExceededException ex) {
+            // Hand over to GlobalExceptionHandler so the 503 body and Retry-After match other errors.
+            exceptionResolver.resolveException(request, response, null, ex);
+            return;
+        }
+
+        request.setAttribute(AdmissionController.RESERVATION_ATTRIBUTE, reservation);
+        try (reservation) {
+            filterChain.doFilter(request, response);
+        }
+    }
+}
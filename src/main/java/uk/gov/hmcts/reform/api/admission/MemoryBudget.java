@@ -0,0 +1,89 @@
+package uk.gov.hmcts.reform.api.admission;
+
+import java.time.Duration;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A global pool of bytes that in-flight requests reserve from before doing memory-heavy work.
+ *
+ * <p>A single request estimated above the whole budget is clamped to the budget, so it can still run on its
+ * own rather than being rejected forever.
+ */
+public class MemoryBudget {
+
+    private final long capacity;
+    private final ReentrantLock lock = new ReentrantLock(true);
+    private final Condition released = lock.newCondition();
+    private long reserved;
+    private int waiting;
+
+    public MemoryBudget(long capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Reserves {@code bytes}, waiting up to {@code maxWait} for other requests to release.
+     *
+     * @return the number of bytes actually reserved, or -1 if the budget stayed exhausted
+     */
+    public long tryReserve(long bytes, Duration maxWait) throws InterruptedException {
+        long request = Math.min(Math.max(bytes, 0), capacity);
+        long remaining = maxWait.toNanos();
+
+        lock.lock();
+        try {
+            waiting++;
+            try {
+                while (reserved + request > capacity) {
+                    if (remaining <= 0) {
+                        return -1;
+                    }
+                    remaining = released.awaitNanos(remaining);
+                }
+            } finally {
+                waiting--;
+            }
+            reserved += request;
+            return request;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void release(long bytes) {
+        lock.lock();
+        try {
+            reserved = Math.max(0, reserved - bytes);
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getCapacity() {
+        return capacity;
+    }
+
+    public long getReserved() {
+        lock.lock();
+        try {
+            return reserved;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getWaiting() {
+        lock.lock();
+        try {
+            return waiting;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public double utilisation() {
+        return capacity == 0 ? 0 : (double) getReserved() / capacity;
+    }
+}
@@ -0,0 +1,60 @@
+package uk.gov.hmcts.reform.api.admission;
+
+import uk.gov.hmcts.reform.api.config.AdmissionProperties;
+
+/**
+ * Estimates the peak heap a request will need, refined in stages as the document is inspected.
+ */
+public class MemoryCostEstimator {
+
+    private final AdmissionProperties properties;
+
+    public MemoryCostEstimator(AdmissionProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Before the multipart body is parsed, only the request's content length is known.
+     */
+    public long forUpload(long contentLength) {
+        return base() + Math.max(contentLength, 0) * properties.getUploadCostMultiplier();
+    }
+
+    /**
+     * Once the media type is detected. Compressed images expand far more than PDFs when decoded.
+     */
+    public long forMediaType(long contentLength, String mediaType) {
+        int multiplier = "application/pdf".equals(mediaType)
+            ? properties.getPdfCostMultiplier()
+            : properties.getImageCostMultiplier();
+        return base() + contentLength * multiplier;
+    }
+
+    /**
+     * Once image dimensions are read from the header: the decoded rasters dominate, and multi-frame images
+     * decode up to {@code concurrentFrames} of the largest frame at once.
+     */
+    public long forFrames(long contentLength, long largestFramePixels, int concurrentFrames) {
+        return base() + contentLength
+            + largestFramePixels * properties.getBytesPerPixel() * Math.max(concurrentFrames, 1);
+    }
+
+    /**
+     * Once the page count is known: parser working set plus per-page object cost.
+     */
+    public long forPdf(long contentLength, int pages) {
+        return base() + contentLength * properties.getPdfCostMultiplier()
+            + pages * properties.getPdfPageCost().toBytes();
+    }
+
+    /**
+     * For page normalisation: one greyscale output buffer plus the source band being decoded and its greyscale copy.
+     */
+    public long forNormalisation(long contentLength, long outputPixels, long bandPixels) {
+        return base() + contentLength + outputPixels + bandPixels * (properties.getBytesPerPixel() + 1);
+    }
+
+    private long base() {
+        return properties.getBaseRequestCost().toBytes();
+    }
+}
@@ -0,0 +1,57 @@
+package uk.gov.hmcts.reform.api.admission;
+
+import java.time.Duration;
+
+/**
+ * A request's share of the {@link MemoryBudget}. The estimate can be revised as more is learned about the
+ * document; closing the reservation returns everything it holds.
+ */
+public class Reservation implements AutoCloseable {
+
+    private final MemoryBudget budget;
+    private long bytes;
+    private boolean closed;
+
+    Reservation(MemoryBudget budget, long bytes) {
+        this.budget = budget;
+        this.bytes = bytes;
+    }
+
+    /**
+     * Grows or shrinks the reservation to {@code estimate}.
+     *
+     * @return false if growing would exceed the budget for longer than {@code maxWait}
+     */
+    public synchronized boolean resize(long estimate, Duration maxWait) throws InterruptedException {
+        if (closed) {
+            return true;
+        }
+        // Clamped like a first reservation, so a request refined above the budget can still run on its own.
+        long target = Math.min(estimate, budget.getCapacity());
+        if (target <= bytes) {
+            budget.release(bytes - target);
+            bytes = target;
+            return true;
+        }
+
+        long granted = budget.tryReserve(target - bytes, maxWait);
+        if (granted < 0) {
+            return false;
+        }
+        bytes += granted;
+        return true;
+    }
+
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (!closed) {
+            closed = true;
+            budget.release(bytes);
+            bytes = 0;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package uk.gov.hmcts.reform.api.assembly;
+
+import lombok.Value;
+import uk.gov.hmcts.reform.api.intake.SpooledDocument;
+import uk.gov.hmcts.reform.api.models.PageSource;
+
+import java.util.List;
+
+/**
+ * A PDF assembled from several uploads, with the upload each page came from. Closing it deletes the PDF.
+ */
+@Value
+public class CompositeDocument implements AutoCloseable {
+    SpooledDocument document;
+    List<PageSource> pages;
+
+    @Override
+    public void close() {
+        document.close();
+    }
+}
@@ -0,0 +1,222 @@
+package uk.gov.hmcts.reform.api.assembly;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.io.IOUtils;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.graphics.color.PDColorSpace;
+import org.apache.pdfbox.pdmodel.graphics.color.PDDeviceGray;
+import org.apache.pdfbox.pdmodel.graphics.color.PDDeviceRGB;
+import org.apache.pdfbox.pdmodel.graphics.image.CCITTFactory;
+import org.apache.pdfbox.pdmodel.graphics.image.LosslessFactory;
+import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
+import org.springframework.stereotype.Component;
+import uk.gov.hmcts.reform.api.admission.AdmissionController;
+import uk.gov.hmcts.reform.api.config.AssemblyProperties;
+import uk.gov.hmcts.reform.api.errorhandling.exceptions.InvalidFileException;
+import uk.gov.hmcts.reform.api.intake.SpooledDocument;
+import uk.gov.hmcts.reform.api.models.PageSource;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.stream.ImageInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Combines several validated images, such as the front, back and translation of a certificate photographed
+ * separately, into one PDF so they are analysed in a single call.
+ *
+ * <p>JPEG data is copied into the PDF as a DCT stream without being decoded or re-encoded, straight from the
+ * spooled file. CCITT fax TIFFs are likewise passed through. Other images are decoded one frame at a time and
+ * stored losslessly. The PDF is built with a temp-file-only stream cache and saved to the spool directory, so
+ * heap use is bounded by the largest decoded frame rather than by the size of the bundle.
+ *
+ * <p>Each page records the upload and frame it came from, so page numbers in the analysis result can be
+ * traced back to the original files.
+ */
+@Slf4j
+@Component
+public class CompositeDocumentAssembler {
+
+    private static final String JPEG = "jpeg";
+    private static final String TIFF = "tif";
+    private static final float POINTS_PER_INCH = 72f;
+
+    private final AssemblyProperties properties;
+    private final AdmissionController admissionController;
+
+    public CompositeDocumentAssembler(AssemblyProperties properties, AdmissionController admissionController) {
+        this.properties = properties;
+        this.admissionController = admissionController;
+    }
+
+    /**
+     * Assembles {@code images}, in order, into one PDF. The caller closes the result.
+     */
+    public CompositeDocument assemble(List<SpooledDocument> images) {
+        if (images.isEmpty()) {
+            throw new InvalidFileException("At least one file is required.");
+        }
+        if (images.size() > properties.getMaxFiles()) {
+            throw new InvalidFileException(String.format(
+                "Too many files to combine (maximum %d).",
+                properties.getMaxFiles()
+            ));
+        }
+
+        Path target;
+        try {
+            target = Files.createTempFile(images.getFirst().getPath().getParent(), "composite-", ".pdf");
+        } catch (IOException ex) {
+            throw new IllegalStateException("Could not create composite document", ex);
+        }
+
+        try {
+            List<PageSource> pages = new ArrayList<>();
+            try (PDDocument pdf = new PDDocument(IOUtils.createTempFileOnlyStreamCache())) {
+                Assembly assembly = new Assembly(pdf, pages, totalSize(images));
+                for (SpooledDocument image : images) {
+                    assembly.add(image);
+                }
+                pdf.save(target.toFile());
+            }
+            return new CompositeDocument(new SpooledDocument(target, "composite.pdf", "application/pdf"), pages);
+        } catch (IOException ex) {
+            deleteQuietly(target);
+            throw new InvalidFileException("Files could not be combined.");
+        } catch (RuntimeException ex) {
+            deleteQuietly(target);
+            throw ex;
+        }
+    }
+
+    private static long totalSize(List<SpooledDocument> images) {
+        return images.stream().mapToLong(SpooledDocument::getSize).sum();
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ex) {
+            log.warn("Failed to delete composite document {}", path, ex);
+        }
+    }
+
+    /**
+     * The state of one PDF being built.
+     */
+    private final class Assembly {
+        private final PDDocument pdf;
+        private final List<PageSource> pages;
+        private final long contentLength;
+        private long largestDecodedPixels;
+
+        Assembly(PDDocument pdf, List<PageSource> pages, long contentLength) {
+            this.pdf = pdf;
+            this.pages = pages;
+            this.contentLength = contentLength;
+        }
+
+        void add(SpooledDocument image) throws IOException {
+            try (ImageInputStream input = image.openImageStream()) {
+                Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+                if (!readers.hasNext()) {
+                    throw new InvalidFileException("Only images can be combined.");
+                }
+
+                ImageReader reader = readers.next();
+                try {
+                    reader.setInput(input, false, true);
+                    String format = reader.getFormatName();
+                    if (JPEG.equalsIgnoreCase(format)) {
+                        PDImageXObject passThrough = passThroughJpeg(image, reader);
+                        if (passThrough != null) {
+                            addPage(passThrough, image, 0);
+                            return;
+                        }
+                    }
+
+                    int frames = TIFF.equalsIgnoreCase(format) ? reader.getNumImages(true) : 1;
+                    for (int frame = 0; frame < frames; frame++) {
+                        PDImageXObject pageImage =
+                            TIFF.equalsIgnoreCase(format) ? passThroughCcitt(image, frame) : null;
+                        if (pageImage == null) {
+                            pageImage = decode(reader, frame);
+                        }
+                        addPage(pageImage, image, frame);
+                    }
+                } finally {
+                    reader.dispose();
+                }
+            }
+        }
+
+        /**
+         * Embeds the JPEG's own bytes; null for colour models a PDF DCT stream cannot describe directly.
+         */
+        private PDImageXObject passThroughJpeg(SpooledDocument image, ImageReader reader) throws IOException {
+            // Null for CMYK and YCCK, which need Adobe-specific decode handling.
+            ImageTypeSpecifier raw = reader.getRawImageType(0);
+            PDColorSpace colorSpace = raw == null ? null : switch (raw.getNumBands()) {
+                case 1 -> PDDeviceGray.INSTANCE;
+                case 3 -> PDDeviceRGB.INSTANCE;
+                default -> null;
+            };
+            if (colorSpace == null) {
+                return null;
+            }
+
+            try (InputStream encoded = image.openStream()) {
+                return new PDImageXObject(
+                    pdf,
+                    encoded,
+                    COSName.DCT_DECODE,
+                    reader.getWidth(0),
+                    reader.getHeight(0),
+                    raw.getSampleModel().getSampleSize(0),
+                    colorSpace
+                );
+            }
+        }
+
+        /**
+         * Embeds a CCITT Group 3 or 4 frame as is; null if the frame uses another compression.
+         */
+        private PDImageXObject passThroughCcitt(SpooledDocument image, int frame) {
+            try {
+                return CCITTFactory.createFromFile(pdf, image.getPath().toFile(), frame);
+            } catch (IOException ex) {
+                return null;
+            }
+        }
+
+        private PDImageXObject decode(ImageReader reader, int frame) throws IOException {
+            long pixels = (long) reader.getWidth(frame) * reader.getHeight(frame);
+            if (pixels > largestDecodedPixels) {
+                largestDecodedPixels = pixels;
+                admissionController.refineForFrames(contentLength, pixels, 1);
+            }
+            return LosslessFactory.createFromImage(pdf, reader.read(frame));
+        }
+
+        private void addPage(PDImageXObject pageImage, SpooledDocument image, int frame) throws IOException {
+            float scale = POINTS_PER_INCH / properties.getAssumedDpi();
+            PDPage page = new PDPage(new PDRectangle(pageImage.getWidth() * scale, pageImage.getHeight() * scale));
+            pdf.addPage(page);
+            try (PDPageContentStream content = new PDPageContentStream(pdf, page)) {
+                content.drawImage(pageImage, 0, 0, page.getMediaBox().getWidth(), page.getMediaBox().getHeight());
+            }
+            pages.add(new PageSource(pages.size() + 1, image.getOriginalFilename(), frame));
+        }
+    }
+}
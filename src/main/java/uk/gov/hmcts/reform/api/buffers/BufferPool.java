@@ -0,0 +1,151 @@
+package uk.gov.hmcts.reform.api.buffers;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import lombok.Value;
+import org.springframework.stereotype.Component;
+import uk.gov.hmcts.reform.api.config.BufferPoolProperties;
+
+import javax.imageio.ImageTypeSpecifier;
+import java.awt.image.BufferedImage;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Reuses the large, short-lived buffers of the decode path: scratch byte arrays and ImageIO destination images.
+ *
+ * <p>Buffers are bucketed by power-of-two size class, so a lease may be larger than asked for; images are bucketed
+ * by {@link ImageTypeSpecifier} and by size class on each edge, and callers decode into the top-left corner
+ * through {@link javax.imageio.ImageReadParam#setDestination}. Returned buffers are kept until
+ * {@code app.buffers.max-retained} is reached; beyond that, and for buffers larger than
+ * {@code app.buffers.max-buffer}, they are left to the garbage collector.
+ *
+ * <p>{@code documents.buffers.allocated} counts the bytes allocated because no pooled buffer was free. Divided by
+ * the request count, it is the decode path's allocation rate per request.
+ */
+@Component
+public class BufferPool {
+
+    static final String LEASES_METRIC = "documents.buffers.leases";
+    static final String ALLOCATED_METRIC = "documents.buffers.allocated";
+    private static final int MIN_BYTES_CLASS = 4 * 1024;
+    private static final int MIN_IMAGE_EDGE_CLASS = 64;
+
+    private final boolean enabled;
+    private final long maxRetained;
+    private final long maxBuffer;
+    private final Map<Object, Deque<Object>> free = new ConcurrentHashMap<>();
+    private final AtomicLong retained = new AtomicLong();
+    private final AtomicLong leased = new AtomicLong();
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter allocated;
+
+    public BufferPool(BufferPoolProperties properties, MeterRegistry meterRegistry) {
+        this.enabled = properties.isEnabled();
+        this.maxRetained = properties.getMaxRetained().toBytes();
+        this.maxBuffer = properties.getMaxBuffer().toBytes();
+
+        Gauge.builder("documents.buffers.retained", retained, AtomicLong::get)
+            .baseUnit(BaseUnits.BYTES)
+            .register(meterRegistry);
+        Gauge.builder("documents.buffers.leased", leased, AtomicLong::get)
+            .baseUnit(BaseUnits.BYTES)
+            .register(meterRegistry);
+        this.hits = Counter.builder(LEASES_METRIC).tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder(LEASES_METRIC).tag("result", "miss").register(meterRegistry);
+        this.allocated = Counter.builder(ALLOCATED_METRIC).baseUnit(BaseUnits.BYTES).register(meterRegistry);
+    }
+
+    /**
+     * A byte array of at least {@code minLength} bytes, with unspecified contents.
+     */
+    public Lease<byte[]> leaseBytes(int minLength) {
+        if (minLength > maxBuffer) {
+            return allocate(null, minLength, () -> new byte[minLength]);
+        }
+        int length = sizeClass(minLength, MIN_BYTES_CLASS);
+        return lease(byte[].class, length, length, () -> new byte[length]);
+    }
+
+    /**
+     * An image of {@code type} at least {@code width} by {@code height} pixels, with unspecified contents.
+     */
+    public Lease<BufferedImage> leaseImage(ImageTypeSpecifier type, int width, int height) {
+        int bucketWidth = sizeClass(width, MIN_IMAGE_EDGE_CLASS);
+        int bucketHeight = sizeClass(height, MIN_IMAGE_EDGE_CLASS);
+        long bytes = (long) bucketWidth * bucketHeight * bytesPerPixel(type);
+        if (bytes > maxBuffer) {
+            long exact = (long) width * height * bytesPerPixel(type);
+            return allocate(null, exact, () -> type.createBufferedImage(width, height));
+        }
+        ImageKey key = new ImageKey(type, bucketWidth, bucketHeight);
+        return lease(BufferedImage.class, key, bytes, () -> type.createBufferedImage(bucketWidth, bucketHeight));
+    }
+
+    public long getRetained() {
+        return retained.get();
+    }
+
+    void release(Lease<?> lease) {
+        leased.addAndGet(-lease.bytes());
+        if (!lease.isPoolable()) {
+            return;
+        }
+        if (retained.addAndGet(lease.bytes()) > maxRetained) {
+            retained.addAndGet(-lease.bytes());
+            return;
+        }
+        // LIFO, so the most recently used buffer, likely still in cache, goes out next.
+        free.computeIfAbsent(lease.key(), key -> new ConcurrentLinkedDeque<>()).offerFirst(lease.get());
+    }
+
+    private <T> Lease<T> lease(Class<T> kind, Object key, long bytes, Supplier<T> factory) {
+        if (!enabled) {
+            return allocate(null, bytes, factory);
+        }
+
+        Deque<Object> bucket = free.get(key);
+        Object pooled = bucket == null ? null : bucket.pollFirst();
+        if (pooled == null) {
+            return allocate(key, bytes, factory);
+        }
+        retained.addAndGet(-bytes);
+        leased.addAndGet(bytes);
+        hits.increment();
+        return new Lease<>(this, key, kind.cast(pooled), bytes, true);
+    }
+
+    private <T> Lease<T> allocate(Object key, long bytes, Supplier<T> factory) {
+        final T value = factory.get();
+        leased.addAndGet(bytes);
+        misses.increment();
+        allocated.increment(bytes);
+        return new Lease<>(this, key, value, bytes, key != null);
+    }
+
+    private static int sizeClass(int size, int minimum) {
+        return size <= minimum ? minimum : Integer.highestOneBit(size - 1) << 1;
+    }
+
+    private static int bytesPerPixel(ImageTypeSpecifier type) {
+        int bits = 0;
+        for (int bandBits : type.getSampleModel().getSampleSize()) {
+            bits += bandBits;
+        }
+        return Math.max(1, (bits + 7) / 8);
+    }
+
+    @Value
+    private static class ImageKey {
+        ImageTypeSpecifier type;
+        int width;
+        int height;
+    }
+}
@@ -0,0 +1,48 @@
+package uk.gov.hmcts.reform.api.buffers;
+
+/**
+ * A buffer borrowed from the {@link BufferPool}; closing it hands the buffer back.
+ *
+ * <p>The buffer must not be used after the lease is closed. Closing twice is harmless.
+ */
+public final class Lease<T> implements AutoCloseable {
+
+    private final BufferPool pool;
+    private final Object key;
+    private final T value;
+    private final long bytes;
+    private final boolean poolable;
+    private boolean released;
+
+    Lease(BufferPool pool, Object key, T value, long bytes, boolean poolable) {
+        this.pool = pool;
+        this.key = key;
+        this.value = value;
+        this.bytes = bytes;
+        this.poolable = poolable;
+    }
+
+    public T get() {
+        return value;
+    }
+
+    Object key() {
+        return key;
+    }
+
+    long bytes() {
+        return bytes;
+    }
+
+    boolean isPoolable() {
+        return poolable;
+    }
+
+    @Override
+    public void close() {
+        if (!released) {
+            released = true;
+            pool.release(this);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package uk.gov.hmcts.reform.api.casedetails;
+
+import org.springframework.web.bind.WebDataBinder;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.InitBinder;
+import uk.gov.hmcts.reform.api.config.IntakeProperties;
+import uk.gov.hmcts.reform.api.controllers.DocumentController;
+
+/**
+ * Swaps the bean validator for the {@link CaseDetailsValidator} when a {@code case} part is bound. Violations are
+ * still raised as {@code MethodArgumentNotValidException}, so error responses are unchanged.
+ */
+@ControllerAdvice(assignableTypes = DocumentController.class)
+public class CaseDetailsBinding {
+
+    private final IntakeProperties properties;
+    private final CaseDetailsValidator validator;
+
+    public CaseDetailsBinding(IntakeProperties properties, CaseDetailsValidator validator) {
+        this.properties = properties;
+        this.validator = validator;
+    }
+
+    @InitBinder
+    public void useValidationPlan(WebDataBinder binder) {
+        Object target = binder.getTarget();
+        if (properties.isFastCaseBinding() && target != null && validator.supports(target.getClass())) {
+            binder.setValidator(validator);
+        }
+    }
+}
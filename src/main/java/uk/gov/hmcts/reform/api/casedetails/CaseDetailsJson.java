@@ -0,0 +1,92 @@
+package uk.gov.hmcts.reform.api.casedetails;
+
+import com.azure.json.JsonReader;
+import com.azure.json.JsonToken;
+import uk.gov.hmcts.reform.api.models.CaseDetails;
+import uk.gov.hmcts.reform.api.models.DivorceCaseDetails;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Hand-written streaming readers for the case parts, accepting what the Jackson binding accepts: unknown fields are
+ * skipped, scalars are coerced to strings and {@code "true"}/{@code "false"} strings to booleans.
+ */
+final class CaseDetailsJson {
+
+    // Matches the @JsonFormat pattern on DivorceCaseDetails.marriageDate.
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+
+    private CaseDetailsJson() {
+    }
+
+    static DivorceCaseDetails readDivorce(JsonReader reader) throws IOException {
+        return reader.readObject(object -> {
+            DivorceCaseDetails details = new DivorceCaseDetails();
+            while (object.nextToken() != JsonToken.END_OBJECT) {
+                String field = object.getFieldName();
+                object.nextToken();
+                switch (field) {
+                    case "applicantName" -> details.setApplicantName(text(object));
+                    case "respondentName" -> details.setRespondentName(text(object));
+                    case "marriageDate" -> details.setMarriageDate(date(object));
+                    case "ukMarriage" -> details.setUkMarriage(bool(object));
+                    case "countryOfMarriage" -> details.setCountryOfMarriage(text(object));
+                    case "translationProvided" -> details.setTranslationProvided(bool(object));
+                    case "placeOfMarriage" -> details.setPlaceOfMarriage(text(object));
+                    case "certificateNumber" -> details.setCertificateNumber(text(object));
+                    default -> object.skipChildren();
+                }
+            }
+            return details;
+        });
+    }
+
+    static CaseDetails readProbate(JsonReader reader) throws IOException {
+        return reader.readObject(object -> {
+            CaseDetails details = new CaseDetails();
+            while (object.nextToken() != JsonToken.END_OBJECT) {
+                String field = object.getFieldName();
+                object.nextToken();
+                if ("caseNumber".equals(field)) {
+                    details.setCaseNumber(text(object));
+                } else {
+                    object.skipChildren();
+                }
+            }
+            return details;
+        });
+    }
+
+    private static String text(JsonReader reader) throws IOException {
+        JsonToken token = reader.currentToken();
+        if (token == JsonToken.NULL) {
+            return null;
+        }
+        if (token == JsonToken.STRING || token == JsonToken.NUMBER || token == JsonToken.BOOLEAN) {
+            return reader.getText();
+        }
+        throw new IllegalStateException("Expected a value but found " + token);
+    }
+
+    private static boolean bool(JsonReader reader) throws IOException {
+        JsonToken token = reader.currentToken();
+        if (token == JsonToken.BOOLEAN) {
+            return reader.getBoolean();
+        }
+        String value = text(reader);
+        if (value == null) {
+            return false;
+        }
+        if ("true".equals(value) || "false".equals(value)) {
+            return Boolean.parseBoolean(value);
+        }
+        throw new IllegalStateException("Expected a boolean but found " + value);
+    }
+
+    private static LocalDate date(JsonReader reader) throws IOException {
+        String value = text(reader);
+        return value == null ? null : LocalDate.parse(value, DATE_FORMAT);
+    }
+}
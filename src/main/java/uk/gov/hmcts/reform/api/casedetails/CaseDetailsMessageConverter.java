@@ -0,0 +1,82 @@
+package uk.gov.hmcts.reform.api.casedetails;
+
+import com.azure.json.JsonProviders;
+import com.azure.json.JsonReader;
+import com.azure.json.ReadValueCallback;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.stereotype.Component;
+import uk.gov.hmcts.reform.api.config.IntakeProperties;
+import uk.gov.hmcts.reform.api.diagnostics.UploadStageEvent;
+import uk.gov.hmcts.reform.api.models.CaseDetails;
+import uk.gov.hmcts.reform.api.models.DivorceCaseDetails;
+
+import java.io.IOException;
+import java.time.DateTimeException;
+import java.util.Map;
+
+/**
+ * Reads the {@code case} part with the streaming readers in {@link CaseDetailsJson} rather than Jackson data
+ * binding, so no reflection or bean introspection happens per request. Registered ahead of the Jackson converter
+ * for these types only, and only while {@code app.intake.fast-case-binding} is on; it never writes.
+ */
+@Component
+public class CaseDetailsMessageConverter extends AbstractHttpMessageConverter<Object> {
+
+    private static final Map<Class<?>, ReadValueCallback<JsonReader, ?>> READERS = Map.of(
+        DivorceCaseDetails.class, CaseDetailsJson::readDivorce,
+        CaseDetails.class, CaseDetailsJson::readProbate
+    );
+
+    private final IntakeProperties properties;
+
+    public CaseDetailsMessageConverter(IntakeProperties properties) {
+        super(MediaType.APPLICATION_JSON);
+        this.properties = properties;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return properties.isFastCaseBinding() && READERS.containsKey(clazz);
+    }
+
+    @Override
+    public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected boolean canWrite(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        Object details;
+        UploadStageEvent event = UploadStageEvent.start("case-binding");
+        try (JsonReader reader = JsonProviders.createReader(inputMessage.getBody())) {
+            details = READERS.get(clazz).read(reader);
+        } catch (IOException | IllegalStateException | DateTimeException ex) {
+            throw new HttpMessageNotReadableException("Invalid case details: " + ex.getMessage(), ex, inputMessage);
+        } finally {
+            MediaType contentType = inputMessage.getHeaders().getContentType();
+            event.finish(
+                inputMessage.getHeaders().getContentLength(),
+                contentType != null ? contentType.toString() : null,
+                0
+            );
+        }
+        if (details == null) {
+            throw new HttpMessageNotReadableException("Case details are missing", inputMessage);
+        }
+        return details;
+    }
+
+    @Override
+    protected void writeInternal(Object details, HttpOutputMessage outputMessage) {
+        // Never called: canWrite is always false.
+    }
+}
@@ -0,0 +1,50 @@
+package uk.gov.hmcts.reform.api.casedetails;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.Errors;
+import org.springframework.validation.Validator;
+import uk.gov.hmcts.reform.api.models.CaseDetails;
+import uk.gov.hmcts.reform.api.models.DivorceCaseDetails;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Validates case parts against a {@link ValidationPlan} compiled once per type at startup. Other types, and a case
+ * type whose constraints the plan cannot express, are reported as unsupported so the bean validator keeps them.
+ */
+@Slf4j
+@Component
+public class CaseDetailsValidator implements Validator {
+
+    private final Map<Class<?>, ValidationPlan> plans = new HashMap<>();
+
+    public CaseDetailsValidator() {
+        compile(DivorceCaseDetails.class);
+        compile(CaseDetails.class);
+    }
+
+    @Override
+    public boolean supports(Class<?> clazz) {
+        return plans.containsKey(clazz);
+    }
+
+    @Override
+    public void validate(Object target, Errors errors) {
+        ValidationPlan plan = plans.get(target.getClass());
+        if (plan == null) {
+            throw new IllegalArgumentException("No validation plan for " + target.getClass().getName());
+        }
+        plan.validate(target, errors);
+    }
+
+    private void compile(Class<?> type) {
+        ValidationPlan plan = ValidationPlan.compile(type);
+        if (plan == null) {
+            log.info("No validation plan for {}, leaving it to the bean validator", type.getName());
+            return;
+        }
+        plans.put(type, plan);
+    }
+}
@@ -0,0 +1,207 @@
+package uk.gov.hmcts.reform.api.casedetails;
+
+import jakarta.validation.Constraint;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import org.springframework.validation.Errors;
+
+import java.beans.Introspector;
+import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The Bean Validation constraints of one type, read once and compiled into a list of checks over method handles,
+ * so validating an instance walks that list instead of the bean validator's metadata.
+ *
+ * <p>Only {@code @NotNull}, {@code @NotBlank}, {@code @Size} on strings and {@code @AssertTrue} on boolean
+ * getters are understood, with the default group and either the default message or a literal one. A type using
+ * anything else, including class-level constraints or cascaded {@code @Valid}, gets no plan and is left to the
+ * bean validator. Default messages are the bean validator's English ones.
+ */
+final class ValidationPlan {
+
+    private static final String DEFAULT_MESSAGE = "{jakarta.validation.constraints.";
+    private static final MethodType GETTER = MethodType.methodType(Object.class, Object.class);
+
+    private final List<Check> checks;
+
+    private ValidationPlan(List<Check> checks) {
+        this.checks = checks;
+    }
+
+    /**
+     * Compiles the plan for {@code type}, or returns null if it has constraints the plan does not understand.
+     */
+    static ValidationPlan compile(Class<?> type) {
+        try {
+            return new ValidationPlan(checksFor(type));
+        } catch (UnsupportedConstraintException ex) {
+            return null;
+        }
+    }
+
+    void validate(Object target, Errors errors) {
+        for (Check check : checks) {
+            Object value;
+            try {
+                value = (Object) check.getter.invokeExact(target);
+            } catch (RuntimeException | Error ex) {
+                throw ex;
+            } catch (Throwable ex) {
+                throw new IllegalStateException("Could not read " + check.property, ex);
+            }
+            if (!check.test.isValid(value)) {
+                errors.rejectValue(check.property, check.code, check.message);
+            }
+        }
+    }
+
+    private static List<Check> checksFor(Class<?> type) throws UnsupportedConstraintException {
+        if (!constraints(type.getAnnotations()).isEmpty()) {
+            throw new UnsupportedConstraintException();
+        }
+        List<Check> checks = new ArrayList<>();
+        for (Class<?> current = type; current != Object.class; current = current.getSuperclass()) {
+            for (Field field : current.getDeclaredFields()) {
+                if (field.isAnnotationPresent(Valid.class)) {
+                    throw new UnsupportedConstraintException();
+                }
+                if (Modifier.isStatic(field.getModifiers())) {
+                    continue;
+                }
+                List<Annotation> constraints = constraints(field.getAnnotations());
+                for (Annotation constraint : constraints) {
+                    checks.add(check(field.getName(), getter(type, field), field.getType(), constraint));
+                }
+            }
+            for (Method method : current.getDeclaredMethods()) {
+                List<Annotation> constraints = constraints(method.getAnnotations());
+                if (constraints.isEmpty()) {
+                    continue;
+                }
+                if (method.getParameterCount() > 0 || !method.getName().startsWith("is")) {
+                    throw new UnsupportedConstraintException();
+                }
+                String property = Introspector.decapitalize(method.getName().substring(2));
+                for (Annotation constraint : constraints) {
+                    checks.add(check(property, handle(method), method.getReturnType(), constraint));
+                }
+            }
+        }
+        return checks;
+    }
+
+    private static Check check(String property, MethodHandle getter, Class<?> valueType, Annotation constraint)
+        throws UnsupportedConstraintException {
+        if (constraint instanceof NotNull notNull) {
+            requireDefaultGroup(notNull.groups());
+            return new Check(property, getter, "NotNull", message(notNull.message(), "must not be null"),
+                             value -> value != null);
+        }
+        if (constraint instanceof NotBlank notBlank && CharSequence.class.isAssignableFrom(valueType)) {
+            requireDefaultGroup(notBlank.groups());
+            return new Check(property, getter, "NotBlank", message(notBlank.message(), "must not be blank"),
+                             value -> value != null && !value.toString().trim().isEmpty());
+        }
+        if (constraint instanceof Size size && CharSequence.class.isAssignableFrom(valueType)) {
+            requireDefaultGroup(size.groups());
+            String message = message(
+                size.message(),
+                String.format("size must be between %d and %d", size.min(), size.max())
+            );
+            return new Check(property, getter, "Size", message, value -> {
+                if (value == null) {
+                    return true;
+                }
+                int length = ((CharSequence) value).length();
+                return length >= size.min() && length <= size.max();
+            });
+        }
+        if (constraint instanceof AssertTrue assertTrue && (valueType == boolean.class || valueType == Boolean.class)) {
+            requireDefaultGroup(assertTrue.groups());
+            return new Check(property, getter, "AssertTrue", message(assertTrue.message(), "must be true"),
+                             value -> value == null || (Boolean) value);
+        }
+        throw new UnsupportedConstraintException();
+    }
+
+    private static List<Annotation> constraints(Annotation[] annotations) {
+        List<Annotation> constraints = new ArrayList<>();
+        for (Annotation annotation : annotations) {
+            if (annotation.annotationType().isAnnotationPresent(Constraint.class)) {
+                constraints.add(annotation);
+            }
+        }
+        return constraints;
+    }
+
+    private static String message(String template, String defaultMessage) throws UnsupportedConstraintException {
+        if (template.startsWith(DEFAULT_MESSAGE)) {
+            return defaultMessage;
+        }
+        if (template.indexOf('{') >= 0 || template.indexOf('$') >= 0) {
+            // Needs interpolating, which is the bean validator's job.
+            throw new UnsupportedConstraintException();
+        }
+        return template;
+    }
+
+    private static void requireDefaultGroup(Class<?>[] groups) throws UnsupportedConstraintException {
+        if (groups.length > 0) {
+            throw new UnsupportedConstraintException();
+        }
+    }
+
+    private static MethodHandle getter(Class<?> type, Field field) throws UnsupportedConstraintException {
+        String suffix = Character.toUpperCase(field.getName().charAt(0)) + field.getName().substring(1);
+        String prefix = field.getType() == boolean.class ? "is" : "get";
+        try {
+            return handle(type.getMethod(prefix + suffix));
+        } catch (NoSuchMethodException ex) {
+            throw new UnsupportedConstraintException();
+        }
+    }
+
+    private static MethodHandle handle(Method method) throws UnsupportedConstraintException {
+        try {
+            return MethodHandles.publicLookup().unreflect(method).asType(GETTER);
+        } catch (IllegalAccessException ex) {
+            throw new UnsupportedConstraintException();
+        }
+    }
+
+    @FunctionalInterface
+    private interface ValueTest {
+        boolean isValid(Object value);
+    }
+
+    private static final class Check {
+        private final String property;
+        private final MethodHandle getter;
+        private final String code;
+        private final String message;
+        private final ValueTest test;
+
+        private Check(String property, MethodHandle getter, String code, String message, ValueTest test) {
+            this.property = property;
+            this.getter = getter;
+            this.code = code;
+            this.message = message;
+            this.test = test;
+        }
+    }
+
+    private static final class UnsupportedConstraintException extends Exception {
+        private static final long serialVersionUID = 1L;
+    }
+}
@@ -0,0 +1,14 @@
+package uk.gov.hmcts.reform.api.concurrency;
+
+import lombok.Value;
+
+/**
+ * Identifies a unit of work that can be shared between identical concurrent requests: the stage, the content it
+ * works on, and whatever else the stage's result depends on, such as the analysis model or the declared media type.
+ */
+@Value
+public class CoalescingKey {
+    String stage;
+    String contentHash;
+    String variant;
+}
@@ -0,0 +1,68 @@
+package uk.gov.hmcts.reform.api.concurrency;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight execution of work keyed by stage, content hash and variant.
+ *
+ * <p>The first caller for a key runs the work on its own thread. Callers arriving while that work is
+ * still in flight wait on the same future and receive the same result or exception. Once the work
+ * completes the key is released, so later requests run afresh.
+ */
+@Component
+public class RequestCoalescer {
+
+    static final String SUPPRESSED_METRIC = "documents.coalescing.suppressed";
+    static final String IN_FLIGHT_METRIC = "documents.coalescing.inflight";
+
+    private final ConcurrentMap<CoalescingKey, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+
+    public RequestCoalescer(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        meterRegistry.gaugeMapSize(IN_FLIGHT_METRIC, Tags.empty(), inFlight);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T coalesce(CoalescingKey key, Supplier<T> work) {
+        CompletableFuture<Object> leader = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, leader);
+        if (existing != null) {
+            meterRegistry.counter(SUPPRESSED_METRIC, "stage", key.getStage()).increment();
+            return (T) await(existing);
+        }
+
+        try {
+            T result = work.get();
+            leader.complete(result);
+            return result;
+        } catch (RuntimeException | Error ex) {
+            leader.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(key, leader);
+        }
+    }
+
+    private Object await(CompletableFuture<Object> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (ex.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw ex;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package uk.gov.hmcts.reform.api.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "app.admission")
+public class AdmissionProperties {
+    private boolean enabled = true;
+    private DataSize memoryBudget = DataSize.ofMegabytes(1024);
+    private Duration maxQueueWait = Duration.ofSeconds(2);
+    private Duration retryAfter = Duration.ofSeconds(5);
+    private DataSize baseRequestCost = DataSize.ofMegabytes(4);
+    private int uploadCostMultiplier = 4;
+    private int pdfCostMultiplier = 3;
+    private int imageCostMultiplier = 10;
+    private int bytesPerPixel = 4;
+    private DataSize pdfPageCost = DataSize.ofKilobytes(64);
+}
@@ -0,0 +1,27 @@
+package uk.gov.hmcts.reform.api.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "azure.document-intelligence.pool")
+public class AnalysisEndpointProperties {
+    private List<Endpoint> endpoints = new ArrayList<>();
+    private Duration latencyDecay = Duration.ofSeconds(10);
+    private int maxAttempts = 2;
+    private int consecutiveFailures = 3;
+    private Duration ejectionTime = Duration.ofSeconds(30);
+    private Duration maxEjectionTime = Duration.ofMinutes(5);
+
+    @Data
+    public static class Endpoint {
+        private String name;
+        private String endpoint;
+        private String key;
+        private double requestsPerSecond = 15;
+    }
+}
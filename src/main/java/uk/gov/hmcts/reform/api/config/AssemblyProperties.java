@@ -0,0 +1,11 @@
+package uk.gov.hmcts.reform.api.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "app.assembly")
+public class AssemblyProperties {
+    private int maxFiles = 10;
+    private int assumedDpi = 200;
+}
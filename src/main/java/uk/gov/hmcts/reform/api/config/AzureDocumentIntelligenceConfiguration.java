@@ -1,29 +1,34 @@
 package uk.gov.hmcts.reform.api.config;
 
-import com.azure.ai.documentintelligence.DocumentIntelligenceClient;
 import com.azure.ai.documentintelligence.DocumentIntelligenceClientBuilder;
 import com.azure.core.credential.AzureKeyCredential;
-import org.springframework.beans.factory.annotation.Value;
+import com.azure.core.http.policy.FixedDelayOptions;
+import com.azure.core.http.policy.RetryOptions;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import uk.gov.hmcts.reform.api.endpoints.AnalysisClientFactory;
+
+import java.time.Duration;
 
 /**
  * MI or WL identity should be used in production, this should be for local only.
+ *
+ * <p>Clients are built by the endpoint pool when the first analysis needs them, keeping the HTTP pipeline off the
+ * cold-start path and out of pods that run with analysis disabled.
  */
 @Configuration
 public class AzureDocumentIntelligenceConfiguration {
 
-    @Value("${azure.document-intelligence.key}")
-    private String key;
-
-    @Value("${azure.document-intelligence.endpoint}")
-    private String endpoint;
-
     @Bean
-    public DocumentIntelligenceClient documentIntelligenceClient() {
-        return new DocumentIntelligenceClientBuilder()
-            .credential(new AzureKeyCredential(key))
-            .endpoint(endpoint)
-            .buildClient();
+    public AnalysisClientFactory analysisClientFactory() {
+        return (endpoint, retries) -> {
+            DocumentIntelligenceClientBuilder builder = new DocumentIntelligenceClientBuilder()
+                .credential(new AzureKeyCredential(endpoint.getKey()))
+                .endpoint(endpoint.getEndpoint());
+            if (!retries) {
+                builder.retryOptions(new RetryOptions(new FixedDelayOptions(0, Duration.ZERO)));
+            }
+            return builder.buildClient();
+        };
     }
 }
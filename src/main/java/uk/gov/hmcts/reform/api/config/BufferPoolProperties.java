@@ -0,0 +1,13 @@
+package uk.gov.hmcts.reform.api.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+@Data
+@ConfigurationProperties(prefix = "app.buffers")
+public class BufferPoolProperties {
+    private boolean enabled = true;
+    private DataSize maxRetained = DataSize.ofMegabytes(128);
+    private DataSize maxBuffer = DataSize.ofMegabytes(16);
+}
@@ -0,0 +1,15 @@
+package uk.gov.hmcts.reform.api.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "app.dedup")
+public class DeduplicationProperties {
+    private boolean enabled;
+    private String directory;
+    private int maxDistance = 8;
+    private int maxPages = 10;
+    private int maxEntries = 1_000_000;
+    private int sampleSize = 1024;
+}
@@ -0,0 +1,28 @@
+package uk.gov.hmcts.reform.api.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import uk.gov.hmcts.reform.api.distribution.FileSystemWorkQueue;
+import uk.gov.hmcts.reform.api.distribution.InMemoryWorkQueue;
+import uk.gov.hmcts.reform.api.distribution.WorkQueue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Picks the {@link WorkQueue} backend. The filesystem backend needs a directory every node can see.
+ */
+@Configuration
+public class DistributionConfiguration {
+
+    @Bean
+    public WorkQueue workQueue(DistributionProperties properties) throws IOException {
+        if (!properties.isEnabled() || properties.getBackend() == DistributionProperties.Backend.MEMORY) {
+            return new InMemoryWorkQueue();
+        }
+        if (properties.getDirectory() == null || properties.getDirectory().isBlank()) {
+            throw new IllegalStateException("app.distribution.directory is required for the filesystem backend");
+        }
+        return new FileSystemWorkQueue(Path.of(properties.getDirectory()), properties.getPollInterval());
+    }
+}
@@ -0,0 +1,21 @@
+package uk.gov.hmcts.reform.api.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "app.distribution")
+public class DistributionProperties {
+    private boolean enabled;
+    private Backend backend = Backend.MEMORY;
+    private String directory;
+    private String nodeId;
+    private int workers = 4;
+    private Duration lease = Duration.ofSeconds(30);
+    private Duration pollInterval = Duration.ofMillis(200);
+    private Duration resultTimeout = Duration.ofMinutes(10);
+
+    public enum Backend { MEMORY, FILESYSTEM }
+}
@@ -0,0 +1,31 @@
+package uk.gov.hmcts.reform.api.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "app.flight-recorder")
+public class FlightRecorderProperties {
+    private Continuous continuous = new Continuous();
+    private OnDemand onDemand = new OnDemand();
+
+    @Data
+    public static class Continuous {
+        private boolean enabled = true;
+        private String settings = "default";
+        private Duration maxAge = Duration.ofMinutes(30);
+        private DataSize maxSize = DataSize.ofMegabytes(250);
+    }
+
+    @Data
+    public static class OnDemand {
+        private String settings = "profile";
+        private Duration defaultDuration = Duration.ofMinutes(1);
+        private Duration maxDuration = Duration.ofMinutes(10);
+        private DataSize maxSize = DataSize.ofMegabytes(250);
+        private int maxRecordings = 2;
+    }
+}
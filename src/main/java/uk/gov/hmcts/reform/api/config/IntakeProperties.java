@@ -0,0 +1,12 @@
+package uk.gov.hmcts.reform.api.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "app.intake")
+public class IntakeProperties {
+    private boolean fastCaseBinding = true;
+    private boolean orderedParts = false;
+    private int maxParts = 50;
+}
@@ -0,0 +1,28 @@
+package uk.gov.hmcts.reform.api.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "app.jobs")
+public class JobProperties {
+    private int chunkPages = 4;
+    private int chunkParallelism = 4;
+    private int workers = 4;
+    private int maxJobs = 1000;
+    private Duration retention = Duration.ofMinutes(15);
+    private Duration eventTimeout = Duration.ofMinutes(10);
+    private Duration retryAfter = Duration.ofSeconds(5);
+    private QueuedPayloads queuedPayloads = new QueuedPayloads();
+
+    @Data
+    public static class QueuedPayloads {
+        private DataSize maxBytes = DataSize.ofGigabytes(10);
+        private boolean compress;
+        private DataSize compressAbove = DataSize.ofMegabytes(500);
+        private double minSaving = 0.1;
+    }
+}
@@ -0,0 +1,16 @@
+package uk.gov.hmcts.reform.api.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "app.normalisation")
+public class NormalisationProperties {
+    private boolean enabled;
+    private int sampleSize = 1024;
+    private int inkThreshold = 128;
+    private double maxSkewDegrees = 15;
+    private double minCorrectionDegrees = 0.2;
+    private int bandHeight = 1024;
+    private int parallelism;
+}
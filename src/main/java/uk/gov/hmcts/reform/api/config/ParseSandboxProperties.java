@@ -0,0 +1,33 @@
+package uk.gov.hmcts.reform.api.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "app.parsing")
+public class ParseSandboxProperties {
+    private boolean enabled = true;
+    private int threads;
+    private int queueCapacity = 64;
+    private Duration deadline = Duration.ofSeconds(15);
+    private Duration cpuBudget = Duration.ofSeconds(10);
+    private DataSize allocationBudget = DataSize.ofGigabytes(2);
+    private Duration checkInterval = Duration.ofMillis(50);
+    private Duration retryAfter = Duration.ofSeconds(5);
+    private Workers workers = new Workers();
+
+    @Data
+    public static class Workers {
+        private boolean enabled;
+        private int count = 2;
+        private DataSize maxHeap = DataSize.ofMegabytes(512);
+        private int maxJobs = 200;
+        private Duration startTimeout = Duration.ofSeconds(30);
+        private List<String> jvmOptions = new ArrayList<>();
+    }
+}
@@ -0,0 +1,15 @@
+package uk.gov.hmcts.reform.api.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "app.rejection-log")
+public class RejectionLogProperties {
+    private boolean enabled = true;
+    private Duration flushInterval = Duration.ofSeconds(1);
+    private int maxDetailsPerInterval = 20;
+    private int maxReasons = 100;
+}
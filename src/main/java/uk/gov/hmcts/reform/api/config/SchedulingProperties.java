@@ -0,0 +1,24 @@
+package uk.gov.hmcts.reform.api.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "app.scheduling")
+public class SchedulingProperties {
+    private boolean enabled = true;
+    private int maxConcurrent;
+    private int maxQueued = 500;
+    private Duration maxQueueWait = Duration.ofSeconds(10);
+    private Duration retryAfter = Duration.ofSeconds(5);
+    private Duration agingInterval = Duration.ofSeconds(2);
+    private int defaultWeight = 1;
+    private Map<String, Integer> tenantWeights = new HashMap<>();
+    private List<String> trustedCallers = new ArrayList<>();
+}
@@ -4,6 +4,7 @@ import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.util.unit.DataSize;
 
+import java.util.ArrayList;
 import java.util.List;
 
 @Data
@@ -11,8 +12,33 @@ import java.util.List;
 public class UploadValidationProperties {
     private DataSize maxFileSize;
     private int maxPdfPages;
+    private int maxTiffPages;
     private long maxImagePixels;
     private int minImageDimension;
     private int maxImageDimension;
     private List<String> allowedTypes;
+    private String spoolDirectory;
+    private int frameValidationParallelism;
+    private Quality quality = new Quality();
+    private Rules rules = new Rules();
+
+    @Data
+    public static class Quality {
+        public enum Mode { OFF, FLAG, REJECT }
+
+        private Mode mode = Mode.FLAG;
+        private int sampleSize = 512;
+        private int inkThreshold = 128;
+        private double minSharpness = 100;
+        private double minContrast = 12;
+        private double minInkCoverage = 0.002;
+        private double maxInkCoverage = 0.7;
+    }
+
+    @Data
+    public static class Rules {
+        // Names of cheap rules to skip, e.g. declared-type; detection and parser rules always run.
+        private List<String> disabled = new ArrayList<>();
+        private int pdfTrailerBytes = 4096;
+    }
 }
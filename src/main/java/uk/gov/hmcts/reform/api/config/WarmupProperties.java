@@ -0,0 +1,15 @@
+package uk.gov.hmcts.reform.api.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "app.warmup")
+public class WarmupProperties {
+    private boolean enabled = true;
+    private Duration maxDuration = Duration.ofSeconds(30);
+    private int iterationsPerRound = 50;
+    private Duration settleThreshold = Duration.ofMillis(20);
+}
@@ -0,0 +1,25 @@
+package uk.gov.hmcts.reform.api.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "app.webhooks")
+public class WebhookProperties {
+    private boolean enabled;
+    private List<String> allowedDestinations = new ArrayList<>();
+    private String signingSecret;
+    private String queueDirectory;
+    private int maxBatchSize = 50;
+    private Duration batchWindow = Duration.ofSeconds(1);
+    private int maxConcurrentDeliveries = 4;
+    private Duration connectTimeout = Duration.ofSeconds(5);
+    private Duration requestTimeout = Duration.ofSeconds(10);
+    private Duration initialBackoff = Duration.ofSeconds(1);
+    private Duration maxBackoff = Duration.ofMinutes(5);
+    private int maxAttempts = 8;
+}
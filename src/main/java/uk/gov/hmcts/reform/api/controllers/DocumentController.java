@@ -1,6 +1,8 @@
 package uk.gov.hmcts.reform.api.controllers;
 
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.enums.ParameterIn;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -11,14 +13,20 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestPart;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
 import uk.gov.hmcts.reform.api.models.CaseDetails;
 import uk.gov.hmcts.reform.api.models.DivorceCaseDetails;
+import uk.gov.hmcts.reform.api.models.PageSource;
+import uk.gov.hmcts.reform.api.scheduling.SchedulingFilter;
 import uk.gov.hmcts.reform.api.services.DocumentService;
 import uk.gov.hmcts.reform.api.validation.annotations.ValidDocumentFile;
 
+import java.net.URI;
+import java.util.List;
+
 import static org.springframework.http.ResponseEntity.ok;
 
 @RestController
@@ -27,6 +35,10 @@ import static org.springframework.http.ResponseEntity.ok;
 @Tag(name = "Documents", description = "Document intake endpoints")
 public class DocumentController {
 
+    static final String PREFER_HEADER = "Prefer";
+    static final String RESPOND_ASYNC = "respond-async";
+    static final String CALLBACK_HEADER = "X-Callback-Url";
+
     private final DocumentService documentService;
 
     public DocumentController(DocumentService documentService) {
@@ -41,19 +53,89 @@ public class DocumentController {
         summary = "Submit divorce document",
         description = "Accepts a divorce document (PDF/PNG/JPEG/TIFF up to 25MB) with associated case details."
     )
+    @Parameter(
+        in = ParameterIn.HEADER,
+        name = SchedulingFilter.PRIORITY_HEADER,
+        description = "Scheduling priority; defaults to interactive.",
+        schema = @Schema(allowableValues = {"urgent", "interactive", "bulk"})
+    )
+    @Parameter(
+        in = ParameterIn.HEADER,
+        name = SchedulingFilter.TENANT_HEADER,
+        description = "Calling service, for fair queuing between callers; defaults to the case type."
+    )
+    @Parameter(
+        in = ParameterIn.HEADER,
+        name = PREFER_HEADER,
+        description = "respond-async to get a job id at once and follow progress under /jobs/{id}.",
+        schema = @Schema(allowableValues = {RESPOND_ASYNC})
+    )
+    @Parameter(
+        in = ParameterIn.HEADER,
+        name = CALLBACK_HEADER,
+        description = "With respond-async, an allowed URL to receive a signed webhook when the job finishes."
+    )
     @ApiResponse(responseCode = "200", description = "Document accepted")
+    @ApiResponse(responseCode = "202", description = "Analysis started; the body is the job id")
     @ApiResponse(
         responseCode = "400",
         description = "Validation failed",
         content = @Content(schema = @Schema(hidden = true))
     )
+    @ApiResponse(
+        responseCode = "503",
+        description = "Service busy; retry after the Retry-After delay",
+        content = @Content(schema = @Schema(hidden = true))
+    )
     public ResponseEntity<String> processDivorce(
         @ValidDocumentFile @RequestPart("file") MultipartFile file,
-        @Valid @RequestPart("case") DivorceCaseDetails caseDetails
+        @Valid @RequestPart("case") DivorceCaseDetails caseDetails,
+        @RequestHeader(value = PREFER_HEADER, required = false) String prefer,
+        @RequestHeader(value = CALLBACK_HEADER, required = false) String callbackUrl
     ) {
+        if (RESPOND_ASYNC.equalsIgnoreCase(prefer)) {
+            return accepted(documentService.submitDivorceDocument(file, caseDetails, callbackUrl));
+        }
         return ok(documentService.processDivorceDocument(file, caseDetails));
     }
 
+    @PostMapping(
+        value = "/divorce/bundle",
+        consumes = MediaType.MULTIPART_FORM_DATA_VALUE
+    )
+    @Operation(
+        summary = "Submit divorce document images as one bundle",
+        description = "Combines several images (PNG/JPEG/TIFF) of one divorce document into a single analysis."
+    )
+    @Parameter(
+        in = ParameterIn.HEADER,
+        name = SchedulingFilter.PRIORITY_HEADER,
+        description = "Scheduling priority; defaults to interactive.",
+        schema = @Schema(allowableValues = {"urgent", "interactive", "bulk"})
+    )
+    @Parameter(
+        in = ParameterIn.HEADER,
+        name = SchedulingFilter.TENANT_HEADER,
+        description = "Calling service, for fair queuing between callers; defaults to the case type."
+    )
+    @ApiResponse(responseCode = "200", description = "Documents accepted; lists the upload behind each page")
+    @ApiResponse(
+        responseCode = "400",
+        description = "Validation failed",
+        content = @Content(schema = @Schema(hidden = true))
+    )
+    @ApiResponse(
+        responseCode = "503",
+        description = "Service busy; retry after the Retry-After delay",
+        content = @Content(schema = @Schema(hidden = true))
+    )
+    public ResponseEntity<List<PageSource>> processDivorceBundle(
+        @RequestPart("files") List<@ValidDocumentFile MultipartFile> files,
+        @Valid @RequestPart("case") DivorceCaseDetails caseDetails
+    ) {
+        return ok(documentService.processDivorceDocuments(files, caseDetails));
+    }
+
     @PostMapping(
         value = "/probate",
         consumes = MediaType.MULTIPART_FORM_DATA_VALUE
@@ -62,16 +144,90 @@ public class DocumentController {
         summary = "Submit probate document",
         description = "Accepts a probate document (PDF/PNG/JPEG/TIFF up to 25MB) with associated case details."
     )
+    @Parameter(
+        in = ParameterIn.HEADER,
+        name = SchedulingFilter.PRIORITY_HEADER,
+        description = "Scheduling priority; defaults to interactive.",
+        schema = @Schema(allowableValues = {"urgent", "interactive", "bulk"})
+    )
+    @Parameter(
+        in = ParameterIn.HEADER,
+        name = SchedulingFilter.TENANT_HEADER,
+        description = "Calling service, for fair queuing between callers; defaults to the case type."
+    )
+    @Parameter(
+        in = ParameterIn.HEADER,
+        name = PREFER_HEADER,
+        description = "respond-async to get a job id at once and follow progress under /jobs/{id}.",
+        schema = @Schema(allowableValues = {RESPOND_ASYNC})
+    )
+    @Parameter(
+        in = ParameterIn.HEADER,
+        name = CALLBACK_HEADER,
+        description = "With respond-async, an allowed URL to receive a signed webhook when the job finishes."
+    )
     @ApiResponse(responseCode = "200", description = "Document accepted")
+    @ApiResponse(responseCode = "202", description = "Analysis started; the body is the job id")
     @ApiResponse(
         responseCode = "400",
         description = "Validation failed",
         content = @Content(schema = @Schema(hidden = true))
     )
+    @ApiResponse(
+        responseCode = "503",
+        description = "Service busy; retry after the Retry-After delay",
+        content = @Content(schema = @Schema(hidden = true))
+    )
     public ResponseEntity<String> processProbate(
         @ValidDocumentFile @RequestPart("file") MultipartFile file,
-        @Valid @RequestPart("case") CaseDetails caseDetails
+        @Valid @RequestPart("case") CaseDetails caseDetails,
+        @RequestHeader(value = PREFER_HEADER, required = false) String prefer,
+        @RequestHeader(value = CALLBACK_HEADER, required = false) String callbackUrl
     ) {
+        if (RESPOND_ASYNC.equalsIgnoreCase(prefer)) {
+            return accepted(documentService.submitProbateDocument(file, caseDetails, callbackUrl));
+        }
         return ok(documentService.processProbateDocument(file, caseDetails));
     }
+
+    @PostMapping(
+        value = "/probate/bundle",
+        consumes = MediaType.MULTIPART_FORM_DATA_VALUE
+    )
+    @Operation(
+        summary = "Submit probate document images as one bundle",
+        description = "Combines several images (PNG/JPEG/TIFF) of one probate document into a single analysis."
+    )
+    @Parameter(
+        in = ParameterIn.HEADER,
+        name = SchedulingFilter.PRIORITY_HEADER,
+        description = "Scheduling priority; defaults to interactive.",
+        schema = @Schema(allowableValues = {"urgent", "interactive", "bulk"})
+    )
+    @Parameter(
+        in = ParameterIn.HEADER,
+        name = SchedulingFilter.TENANT_HEADER,
+        description = "Calling service, for fair queuing between callers; defaults to the case type."
+    )
+    @ApiResponse(responseCode = "200", description = "Documents accepted; lists the upload behind each page")
+    @ApiResponse(
+        responseCode = "400",
+        description = "Validation failed",
+        content = @Content(schema = @Schema(hidden = true))
+    )
+    @ApiResponse(
+        responseCode = "503",
+        description = "Service busy; retry after the Retry-After delay",
+        content = @Content(schema = @Schema(hidden = true))
+    )
+    public ResponseEntity<List<PageSource>> processProbateBundle(
+        @RequestPart("files") List<@ValidDocumentFile MultipartFile> files,
+        @Valid @RequestPart("case") CaseDetails caseDetails
+    ) {
+        return ok(documentService.processProbateDocuments(files, caseDetails));
+    }
+
+    private static ResponseEntity<String> accepted(String jobId) {
+        return ResponseEntity.accepted().location(URI.create("/jobs/" + jobId)).body(jobId);
+    }
 }
@@ -0,0 +1,61 @@
+package uk.gov.hmcts.reform.api.controllers;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import uk.gov.hmcts.reform.api.jobs.AnalysisJob;
+import uk.gov.hmcts.reform.api.jobs.AnalysisJobRegistry;
+
+import static org.springframework.http.ResponseEntity.ok;
+
+@RestController
+@RequestMapping("/jobs")
+@Tag(name = "Jobs", description = "Progress of documents submitted with Prefer: respond-async")
+public class JobController {
+
+    private final AnalysisJobRegistry registry;
+
+    public JobController(AnalysisJobRegistry registry) {
+        this.registry = registry;
+    }
+
+    @GetMapping("/{id}")
+    @Operation(
+        summary = "Get analysis job",
+        description = "Returns the job's status and the page ranges analysed so far."
+    )
+    @ApiResponse(responseCode = "200", description = "Job found")
+    @ApiResponse(
+        responseCode = "404",
+        description = "No such job, or it finished too long ago",
+        content = @Content(schema = @Schema(hidden = true))
+    )
+    public ResponseEntity<AnalysisJob> getJob(@PathVariable String id) {
+        return ok(registry.get(id));
+    }
+
+    @GetMapping(value = "/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(
+        summary = "Stream analysis job results",
+        description = "Server-Sent Events: a 'partial' event per analysed page range, including those already "
+            + "finished, then 'completed' or 'failed'."
+    )
+    @ApiResponse(responseCode = "200", description = "Event stream")
+    @ApiResponse(
+        responseCode = "404",
+        description = "No such job, or it finished too long ago",
+        content = @Content(schema = @Schema(hidden = true))
+    )
+    public SseEmitter streamJob(@PathVariable String id) {
+        return registry.subscribe(id);
+    }
+}
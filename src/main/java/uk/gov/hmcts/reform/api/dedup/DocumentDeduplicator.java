@@ -0,0 +1,286 @@
+package uk.gov.hmcts.reform.api.dedup;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import uk.gov.hmcts.reform.api.buffers.BufferPool;
+import uk.gov.hmcts.reform.api.config.DeduplicationProperties;
+import uk.gov.hmcts.reform.api.intake.SpooledDocument;
+import uk.gov.hmcts.reform.api.sandbox.ParseSandbox;
+import uk.gov.hmcts.reform.api.services.AnalysisResult;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UTFDataFormatException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Reuses the analysis of a document already analysed, such as the same certificate uploaded again for a related
+ * case, when {@code app.dedup.enabled} is set.
+ *
+ * <p>Documents of up to {@code max-pages} pages are fingerprinted in the parse sandbox with a {@link PerceptualHash}
+ * per page and a digest of the pixels behind them. A {@link NearDuplicateIndex} in memory finds stored documents for
+ * the same model with the same page count and every page within {@code max-distance} bits, in tens of microseconds
+ * over millions of entries. The hashes alone cannot tell one couple's certificate from another couple's on the same
+ * form, so a stored result is only reused when the digest matches too: the pages render to the same pixels. A
+ * rescan never does, and is analysed again.
+ *
+ * <p>Entries are appended to {@code index.bin} and results to {@code results.bin} in {@code app.dedup.directory},
+ * and the index is rebuilt from them on startup; a record cut short by a crash is dropped. Without a directory they
+ * go to a temporary one and last as long as the process. Records written before digests were kept cannot be
+ * confirmed and are not loaded. Stored results are case data and the directory should be
+ * treated like the spool directory. Once {@code max-entries} are stored, no more are added. Lookups are counted in
+ * {@code documents.dedup.lookups}, tagged with their outcome.
+ */
+@Slf4j
+@Component
+public class DocumentDeduplicator implements DisposableBean {
+
+    static final String LOOKUPS_METRIC = "documents.dedup.lookups";
+    static final String INDEX_FILE = "index.bin";
+    static final String RESULTS_FILE = "results.bin";
+
+    private static final int MAX_RECORD_BYTES = 64 * 1024;
+
+    private final DeduplicationProperties properties;
+    private final ParseSandbox sandbox;
+    private final DocumentFingerprinter fingerprinter;
+    private final NearDuplicateIndex index;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final FileChannel indexFile;
+    private final FileChannel resultsFile;
+    private final Counter hits;
+    private final Counter misses;
+
+    public DocumentDeduplicator(DeduplicationProperties properties,
+                                ParseSandbox sandbox,
+                                BufferPool bufferPool,
+                                MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.sandbox = sandbox;
+        this.fingerprinter = new DocumentFingerprinter(
+            bufferPool, properties.getSampleSize(), properties.getMaxPages()
+        );
+        if (properties.isEnabled()) {
+            this.index = new NearDuplicateIndex(properties.getMaxDistance(), properties.getMaxEntries());
+            try {
+                Path directory = StringUtils.hasText(properties.getDirectory())
+                    ? Files.createDirectories(Path.of(properties.getDirectory()))
+                    : Files.createTempDirectory("dedup");
+                this.indexFile = open(directory.resolve(INDEX_FILE));
+                this.resultsFile = open(directory.resolve(RESULTS_FILE));
+                load();
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        } else {
+            this.index = null;
+            this.indexFile = null;
+            this.resultsFile = null;
+        }
+
+        Gauge.builder("documents.dedup.entries", this, DocumentDeduplicator::size).register(meterRegistry);
+        this.hits = Counter.builder(LOOKUPS_METRIC).tag("outcome", "hit").register(meterRegistry);
+        this.misses = Counter.builder(LOOKUPS_METRIC).tag("outcome", "miss").register(meterRegistry);
+    }
+
+    /**
+     * Returns the fingerprint of {@code document}, or null when deduplication is off or the document cannot be
+     * fingerprinted. Never fails the request: a document that cannot be fingerprinted is simply analysed.
+     */
+    public DocumentFingerprint fingerprint(SpooledDocument document) {
+        if (!properties.isEnabled()) {
+            return null;
+        }
+        try {
+            return sandbox.run(() -> fingerprinter.fingerprint(document));
+        } catch (RuntimeException ex) {
+            // Over a parse limit, no parse thread free, or a page PDFBox cannot render: analyse it as usual.
+            log.debug("Not fingerprinting {}", document.getOriginalFilename(), ex);
+            return null;
+        }
+    }
+
+    /**
+     * Returns the stored result of the same document analysed with {@code modelId}, or null.
+     */
+    public AnalysisResult findPrior(DocumentFingerprint fingerprint, String modelId) {
+        if (fingerprint == null) {
+            return null;
+        }
+        long offset;
+        lock.readLock().lock();
+        try {
+            offset = index.find(modelId, fingerprint);
+        } finally {
+            lock.readLock().unlock();
+        }
+        String resultJson = offset == NearDuplicateIndex.NOT_FOUND ? null : readResult(offset);
+        if (resultJson == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return new AnalysisResult(modelId, resultJson);
+    }
+
+    /**
+     * Stores {@code result} for documents with {@code fingerprint}. Skipped analyses are not stored.
+     */
+    public void remember(DocumentFingerprint fingerprint, AnalysisResult result) {
+        if (fingerprint == null || result.getResultJson() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (index.size() >= properties.getMaxEntries()
+                || index.find(result.getModelId(), fingerprint) != NearDuplicateIndex.NOT_FOUND) {
+                return;
+            }
+            long offset = resultsFile.size();
+            byte[] json = result.getResultJson().getBytes(StandardCharsets.UTF_8);
+            writeFully(resultsFile, ByteBuffer.allocate(Integer.BYTES + json.length).putInt(json.length).put(json));
+            writeFully(indexFile, record(result.getModelId(), fingerprint, offset));
+            index.add(result.getModelId(), fingerprint, offset);
+        } catch (IOException ex) {
+            log.warn("Could not store analysis result for deduplication", ex);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    int size() {
+        if (index == null) {
+            return 0;
+        }
+        lock.readLock().lock();
+        try {
+            return index.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        if (indexFile != null) {
+            indexFile.close();
+            resultsFile.close();
+        }
+    }
+
+    private void load() throws IOException {
+        long resultsSize = resultsFile.size();
+        long valid = 0;
+        DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(indexFile)));
+        while (true) {
+            String modelId;
+            long[] pageHashes;
+            long offset;
+            byte[] contentDigest;
+            int length;
+            try {
+                length = in.readInt();
+                if (length <= 0 || length > MAX_RECORD_BYTES) {
+                    break;
+                }
+                byte[] record = new byte[length];
+                in.readFully(record);
+                DataInputStream fields = new DataInputStream(new ByteArrayInputStream(record));
+                modelId = fields.readUTF();
+                int pages = fields.readInt();
+                if (pages <= 0 || pages > MAX_RECORD_BYTES / Long.BYTES) {
+                    break;
+                }
+                pageHashes = new long[pages];
+                for (int page = 0; page < pages; page++) {
+                    pageHashes[page] = fields.readLong();
+                }
+                offset = fields.readLong();
+                if (fields.available() >= DocumentFingerprint.DIGEST_BYTES) {
+                    contentDigest = new byte[DocumentFingerprint.DIGEST_BYTES];
+                    fields.readFully(contentDigest);
+                } else {
+                    contentDigest = null;
+                }
+            } catch (EOFException | UTFDataFormatException ex) {
+                break;
+            }
+            valid += Integer.BYTES + length;
+            if (contentDigest != null && offset < resultsSize && index.size() < properties.getMaxEntries()) {
+                index.add(modelId, new DocumentFingerprint(pageHashes, contentDigest), offset);
+            }
+        }
+        // Drop a record cut short by a crash, so the next append starts on a record boundary.
+        indexFile.truncate(valid);
+        log.info("Loaded {} deduplication entries", index.size());
+    }
+
+    private String readResult(long offset) {
+        try {
+            ByteBuffer length = ByteBuffer.allocate(Integer.BYTES);
+            readFully(resultsFile, length, offset);
+            ByteBuffer json = ByteBuffer.allocate(length.flip().getInt());
+            readFully(resultsFile, json, offset + Integer.BYTES);
+            return new String(json.array(), StandardCharsets.UTF_8);
+        } catch (IOException | RuntimeException ex) {
+            // A result lost from the end of the file; analyse again.
+            log.warn("Could not read stored analysis result at {}", offset, ex);
+            return null;
+        }
+    }
+
+    private static ByteBuffer record(String modelId, DocumentFingerprint fingerprint, long offset) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(0);
+        out.writeUTF(modelId);
+        out.writeInt(fingerprint.getPageCount());
+        for (int page = 0; page < fingerprint.getPageCount(); page++) {
+            out.writeLong(fingerprint.getPageHash(page));
+        }
+        out.writeLong(offset);
+        out.write(fingerprint.getContentDigest());
+        ByteBuffer record = ByteBuffer.wrap(bytes.toByteArray());
+        return record.putInt(0, record.remaining() - Integer.BYTES);
+    }
+
+    private static FileChannel open(Path file) throws IOException {
+        return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.rewind();
+        long position = channel.size();
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new EOFException();
+            }
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package uk.gov.hmcts.reform.api.dedup;
+
+import java.util.Arrays;
+
+/**
+ * The {@link PerceptualHash} of each page of a document, in page order, and a SHA-256 digest of the pixels they
+ * were hashed from. The hashes find candidates that look alike; only the digest shows they are the same document.
+ */
+public final class DocumentFingerprint {
+
+    static final int DIGEST_BYTES = 32;
+
+    private final long[] pageHashes;
+    private final byte[] contentDigest;
+
+    public DocumentFingerprint(long[] pageHashes, byte[] contentDigest) {
+        if (pageHashes.length == 0) {
+            throw new IllegalArgumentException("A fingerprint needs at least one page");
+        }
+        if (contentDigest.length != DIGEST_BYTES) {
+            throw new IllegalArgumentException("A content digest is " + DIGEST_BYTES + " bytes");
+        }
+        this.pageHashes = pageHashes.clone();
+        this.contentDigest = contentDigest.clone();
+    }
+
+    public int getPageCount() {
+        return pageHashes.length;
+    }
+
+    public long getPageHash(int page) {
+        return pageHashes[page];
+    }
+
+    public byte[] getContentDigest() {
+        return contentDigest.clone();
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof DocumentFingerprint fingerprint
+            && Arrays.equals(pageHashes, fingerprint.pageHashes)
+            && Arrays.equals(contentDigest, fingerprint.contentDigest);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(pageHashes) + Arrays.hashCode(contentDigest);
+    }
+}
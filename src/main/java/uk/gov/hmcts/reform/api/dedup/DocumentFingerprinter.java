@@ -0,0 +1,131 @@
+package uk.gov.hmcts.reform.api.dedup;
+
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.io.RandomAccessRead;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.rendering.ImageType;
+import org.apache.pdfbox.rendering.PDFRenderer;
+import uk.gov.hmcts.reform.api.buffers.BufferPool;
+import uk.gov.hmcts.reform.api.imaging.ImageQualityAnalyser;
+import uk.gov.hmcts.reform.api.intake.SpooledDocument;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Iterator;
+
+/**
+ * Hashes each page of a document from a rendering with its longest edge at {@code sampleSize} pixels: PDF pages are
+ * rendered in greyscale, and image frames are decoded subsampled to about that size. The same pixels, with each
+ * page's dimensions, go into the fingerprint's content digest, so the sample size is also the finest detail the
+ * digest sees: at the default, a changed word on a page changes it.
+ */
+final class DocumentFingerprinter {
+
+    private static final byte[] PDF_SIGNATURE = "%PDF-".getBytes(StandardCharsets.US_ASCII);
+
+    private final BufferPool bufferPool;
+    private final int sampleSize;
+    private final int maxPages;
+
+    DocumentFingerprinter(BufferPool bufferPool, int sampleSize, int maxPages) {
+        this.bufferPool = bufferPool;
+        this.sampleSize = sampleSize;
+        this.maxPages = maxPages;
+    }
+
+    /**
+     * Returns the fingerprint of {@code document}, or null if it has more than the maximum pages or no readable
+     * image.
+     */
+    DocumentFingerprint fingerprint(SpooledDocument document) throws IOException {
+        if (Arrays.equals(document.readHeader(PDF_SIGNATURE.length), PDF_SIGNATURE)) {
+            return fingerprintPdf(document);
+        }
+        return fingerprintImage(document);
+    }
+
+    private DocumentFingerprint fingerprintPdf(SpooledDocument document) throws IOException {
+        try (RandomAccessRead source = document.openRandomAccess(bufferPool);
+             PDDocument pdf = Loader.loadPDF(source)) {
+            int pages = pdf.getNumberOfPages();
+            if (pages == 0 || pages > maxPages) {
+                return null;
+            }
+            PDFRenderer renderer = new PDFRenderer(pdf);
+            renderer.setSubsamplingAllowed(true);
+            long[] hashes = new long[pages];
+            MessageDigest digest = sha256();
+            for (int page = 0; page < pages; page++) {
+                PDRectangle box = pdf.getPage(page).getCropBox();
+                float scale = sampleSize / Math.max(1f, Math.max(box.getWidth(), box.getHeight()));
+                BufferedImage view = renderer.renderImage(page, scale, ImageType.GRAY);
+                hashes[page] = PerceptualHash.of(view);
+                update(digest, view);
+            }
+            return new DocumentFingerprint(hashes, digest.digest());
+        }
+    }
+
+    private DocumentFingerprint fingerprintImage(SpooledDocument document) throws IOException {
+        try (ImageInputStream input = document.openImageStream()) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, false, true);
+                int frames = reader.getNumImages(true);
+                if (frames <= 0 || frames > maxPages) {
+                    return null;
+                }
+                long[] hashes = new long[frames];
+                MessageDigest digest = sha256();
+                for (int frame = 0; frame < frames; frame++) {
+                    BufferedImage view = reader.read(frame, ImageQualityAnalyser.subsample(
+                        reader.getDefaultReadParam(),
+                        reader.getWidth(frame),
+                        reader.getHeight(frame),
+                        sampleSize
+                    ));
+                    hashes[frame] = PerceptualHash.of(view);
+                    update(digest, view);
+                }
+                return new DocumentFingerprint(hashes, digest.digest());
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static void update(MessageDigest digest, BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        digest.update(ByteBuffer.allocate(2 * Integer.BYTES).putInt(width).putInt(height).array());
+        int[] row = new int[width];
+        ByteBuffer bytes = ByteBuffer.allocate(width * Integer.BYTES);
+        for (int y = 0; y < height; y++) {
+            image.getRGB(0, y, width, 1, row, 0, width);
+            bytes.clear();
+            bytes.asIntBuffer().put(row);
+            digest.update(bytes.array());
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+}
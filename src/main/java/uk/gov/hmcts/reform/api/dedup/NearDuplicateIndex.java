@@ -0,0 +1,206 @@
+package uk.gov.hmcts.reform.api.dedup;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Finds a stored fingerprint within a hamming distance of a query by multi-index hashing, and confirms it by its
+ * content digest.
+ *
+ * <p>Each entry's first-page hash is split into chunks of about {@code log2(expectedEntries)} bits, so a chunk
+ * value is shared by about one entry, and each chunk indexes a table of buckets. Two hashes within distance
+ * {@code d} of each other differ in at most {@code d / chunks} bits of at least one chunk, so a query probes only
+ * the buckets within that radius of each of its chunk values, several hundred for the defaults, and checks the few
+ * candidates found there in full. That keeps lookups in the tens of microseconds over millions of entries.
+ *
+ * <p>The hashes only find candidates: a page of the same form filled in for someone else is as close as a rescan.
+ * A candidate is returned only if the first 128 bits of its content digest match the query's as well.
+ *
+ * <p>Buckets are chains threaded through flat per-entry arrays. The tables cost four bytes per bucket up front,
+ * 32 MB for a million expected entries, and each entry about 56 bytes more for a single-page document.
+ *
+ * <p>Not thread-safe; callers synchronise.
+ */
+final class NearDuplicateIndex {
+
+    static final long NOT_FOUND = -1;
+
+    private static final int HASH_BITS = Long.SIZE;
+    private static final int MIN_CHUNK_BITS = 8;
+    private static final int MAX_CHUNK_BITS = 22;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final int maxDistance;
+    private final int[] chunkShifts;
+    private final int[] chunkMasks;
+    private final int[][] probes;
+    private final int[][] heads;
+    private final List<String> models = new ArrayList<>();
+
+    private int size;
+    private int[][] next;
+    private long[] firstPages = new long[INITIAL_CAPACITY];
+    private short[] modelIds = new short[INITIAL_CAPACITY];
+    private int[] pageCounts = new int[INITIAL_CAPACITY];
+    private int[] laterPageOffsets = new int[INITIAL_CAPACITY];
+    private long[] payloads = new long[INITIAL_CAPACITY];
+    private long[] digests = new long[2 * INITIAL_CAPACITY];
+    private long[] laterPages = new long[INITIAL_CAPACITY];
+    private int laterPagesSize;
+
+    NearDuplicateIndex(int maxDistance, int expectedEntries) {
+        this.maxDistance = Math.max(0, maxDistance);
+        int bitsPerChunk = 32 - Integer.numberOfLeadingZeros(Math.max(1, expectedEntries - 1));
+        bitsPerChunk = Math.min(MAX_CHUNK_BITS, Math.max(MIN_CHUNK_BITS, bitsPerChunk));
+        // Never fewer chunks than keep each within MAX_CHUNK_BITS, however the remainder is spread.
+        int chunks = Math.max(HASH_BITS / bitsPerChunk, (HASH_BITS + MAX_CHUNK_BITS - 1) / MAX_CHUNK_BITS);
+        final int radius = this.maxDistance / chunks;
+
+        chunkShifts = new int[chunks];
+        chunkMasks = new int[chunks];
+        probes = new int[chunks][];
+        heads = new int[chunks][];
+        next = new int[chunks][INITIAL_CAPACITY];
+        int shift = 0;
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            // Spread the remainder so every bit of the hash is in some chunk.
+            int bits = HASH_BITS / chunks + (chunk < HASH_BITS % chunks ? 1 : 0);
+            chunkShifts[chunk] = shift;
+            chunkMasks[chunk] = (1 << bits) - 1;
+            probes[chunk] = probes(bits, radius);
+            heads[chunk] = new int[1 << bits];
+            shift += bits;
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Adds {@code fingerprint}, analysed with {@code modelId}, with a caller's {@code payload} to return on a match.
+     */
+    void add(String modelId, DocumentFingerprint fingerprint, long payload) {
+        int model = models.indexOf(modelId);
+        if (model < 0) {
+            models.add(modelId);
+            model = models.size() - 1;
+        }
+        if (size == firstPages.length) {
+            int capacity = size * 2;
+            firstPages = Arrays.copyOf(firstPages, capacity);
+            modelIds = Arrays.copyOf(modelIds, capacity);
+            pageCounts = Arrays.copyOf(pageCounts, capacity);
+            laterPageOffsets = Arrays.copyOf(laterPageOffsets, capacity);
+            payloads = Arrays.copyOf(payloads, capacity);
+            digests = Arrays.copyOf(digests, 2 * capacity);
+            for (int chunk = 0; chunk < next.length; chunk++) {
+                next[chunk] = Arrays.copyOf(next[chunk], capacity);
+            }
+        }
+        int laterPageCount = fingerprint.getPageCount() - 1;
+        if (laterPagesSize + laterPageCount > laterPages.length) {
+            laterPages = Arrays.copyOf(laterPages, Math.max(laterPages.length * 2, laterPagesSize + laterPageCount));
+        }
+
+        int entry = size++;
+        long first = fingerprint.getPageHash(0);
+        firstPages[entry] = first;
+        modelIds[entry] = (short) model;
+        pageCounts[entry] = fingerprint.getPageCount();
+        laterPageOffsets[entry] = laterPagesSize;
+        payloads[entry] = payload;
+        ByteBuffer digest = ByteBuffer.wrap(fingerprint.getContentDigest());
+        digests[2 * entry] = digest.getLong();
+        digests[2 * entry + 1] = digest.getLong();
+        for (int page = 1; page <= laterPageCount; page++) {
+            laterPages[laterPagesSize++] = fingerprint.getPageHash(page);
+        }
+
+        for (int chunk = 0; chunk < heads.length; chunk++) {
+            int bucket = chunk(first, chunk);
+            // Heads and links hold entry + 1, so the zeroed arrays start out as empty chains.
+            next[chunk][entry] = heads[chunk][bucket];
+            heads[chunk][bucket] = entry + 1;
+        }
+    }
+
+    /**
+     * Returns the payload of the entry for {@code modelId} with the same page count and content digest whose pages
+     * are each within the maximum distance of {@code fingerprint}'s, the closest overall if there are several, or
+     * {@link #NOT_FOUND}.
+     */
+    long find(String modelId, DocumentFingerprint fingerprint) {
+        int model = models.indexOf(modelId);
+        if (model < 0) {
+            return NOT_FOUND;
+        }
+        long first = fingerprint.getPageHash(0);
+        ByteBuffer digest = ByteBuffer.wrap(fingerprint.getContentDigest());
+        long digestHigh = digest.getLong();
+        long digestLow = digest.getLong();
+        int best = -1;
+        int bestDistance = Integer.MAX_VALUE;
+        for (int chunk = 0; chunk < heads.length; chunk++) {
+            int key = chunk(first, chunk);
+            int[] chunkHeads = heads[chunk];
+            int[] chunkNext = next[chunk];
+            for (int probe : probes[chunk]) {
+                for (int link = chunkHeads[key ^ probe]; link != 0; link = chunkNext[link - 1]) {
+                    int entry = link - 1;
+                    int distance = distance(entry, model, fingerprint);
+                    if (distance >= 0 && distance < bestDistance
+                        && digests[2 * entry] == digestHigh && digests[2 * entry + 1] == digestLow) {
+                        best = entry;
+                        bestDistance = distance;
+                    }
+                }
+            }
+        }
+        return best >= 0 ? payloads[best] : NOT_FOUND;
+    }
+
+    /**
+     * Total distance over all pages, or -1 if the entry is for another model or page count, or any page is too far.
+     */
+    private int distance(int entry, int model, DocumentFingerprint fingerprint) {
+        int total = PerceptualHash.distance(firstPages[entry], fingerprint.getPageHash(0));
+        if (total > maxDistance || modelIds[entry] != model || pageCounts[entry] != fingerprint.getPageCount()) {
+            return -1;
+        }
+        int offset = laterPageOffsets[entry] - 1;
+        for (int page = 1; page < fingerprint.getPageCount(); page++) {
+            int distance = PerceptualHash.distance(laterPages[offset + page], fingerprint.getPageHash(page));
+            if (distance > maxDistance) {
+                return -1;
+            }
+            total += distance;
+        }
+        return total;
+    }
+
+    private int chunk(long hash, int chunk) {
+        return (int) (hash >>> chunkShifts[chunk]) & chunkMasks[chunk];
+    }
+
+    /**
+     * Every {@code bits}-bit mask with at most {@code radius} bits set.
+     */
+    private static int[] probes(int bits, int radius) {
+        List<Integer> masks = new ArrayList<>();
+        addProbes(masks, 0, 0, bits, Math.min(radius, bits));
+        return masks.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static void addProbes(List<Integer> masks, int mask, int fromBit, int bits, int remaining) {
+        masks.add(mask);
+        if (remaining == 0) {
+            return;
+        }
+        for (int bit = fromBit; bit < bits; bit++) {
+            addProbes(masks, mask | (1 << bit), bit + 1, bits, remaining - 1);
+        }
+    }
+}
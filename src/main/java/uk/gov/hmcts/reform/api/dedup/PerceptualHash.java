@@ -0,0 +1,67 @@
+package uk.gov.hmcts.reform.api.dedup;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+
+/**
+ * 64-bit difference hashes (dHash) of page images. The page is reduced to a 9 by 8 grid of mean luminance and
+ * each bit records whether a cell is brighter than its right-hand neighbour, so the hash survives rescaling,
+ * recompression and small changes in brightness that defeat a content hash. Near-identical pages differ in a few
+ * bits.
+ */
+public final class PerceptualHash {
+
+    private static final int COLUMNS = 9;
+    private static final int ROWS = 8;
+
+    private PerceptualHash() {
+    }
+
+    public static long of(BufferedImage image) {
+        BufferedImage source = image.getWidth() < COLUMNS || image.getHeight() < ROWS ? enlarge(image) : image;
+        int width = source.getWidth();
+        int height = source.getHeight();
+        long[] sums = new long[COLUMNS * ROWS];
+        int[] counts = new int[COLUMNS * ROWS];
+        int[] row = new int[width];
+        for (int y = 0; y < height; y++) {
+            source.getRGB(0, y, width, 1, row, 0, width);
+            int cellRow = y * ROWS / height * COLUMNS;
+            for (int x = 0; x < width; x++) {
+                int rgb = row[x];
+                int luma = (299 * ((rgb >> 16) & 0xFF) + 587 * ((rgb >> 8) & 0xFF) + 114 * (rgb & 0xFF)) / 1000;
+                int cell = cellRow + x * COLUMNS / width;
+                sums[cell] += luma;
+                counts[cell]++;
+            }
+        }
+
+        long hash = 0;
+        for (int y = 0; y < ROWS; y++) {
+            for (int x = 0; x < COLUMNS - 1; x++) {
+                int cell = y * COLUMNS + x;
+                // Compare means without dividing: a / n > b / m  <=>  a * m > b * n.
+                boolean brighter = sums[cell] * counts[cell + 1] > sums[cell + 1] * counts[cell];
+                hash = (hash << 1) | (brighter ? 1 : 0);
+            }
+        }
+        return hash;
+    }
+
+    public static int distance(long first, long second) {
+        return Long.bitCount(first ^ second);
+    }
+
+    private static BufferedImage enlarge(BufferedImage image) {
+        BufferedImage enlarged = new BufferedImage(COLUMNS, ROWS, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = enlarged.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.drawImage(image, 0, 0, COLUMNS, ROWS, null);
+        } finally {
+            graphics.dispose();
+        }
+        return enlarged;
+    }
+}
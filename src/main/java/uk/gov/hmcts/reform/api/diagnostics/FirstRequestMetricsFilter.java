@@ -0,0 +1,67 @@
+package uk.gov.hmcts.reform.api.diagnostics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Records time-to-first-request (JVM start until the first document upload has been answered) and the latency
+ * of that first request, which shows whether warm-up left anything cold.
+ *
+ * <p>Complements Spring Boot's {@code application.ready.time}, which stops at context refresh and so misses
+ * the class loading and initialisation the first real request pays for.
+ */
+@Slf4j
+@Component
+public class FirstRequestMetricsFilter extends OncePerRequestFilter {
+
+    static final String METRIC = "application.first.request.time";
+    static final String LATENCY_METRIC = "application.first.request.duration";
+    private static final String DOCUMENTS_PATH = "/documents/";
+
+    private final AtomicBoolean recorded = new AtomicBoolean();
+    private final MeterRegistry meterRegistry;
+
+    public FirstRequestMetricsFilter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return recorded.get() || !request.getRequestURI().startsWith(request.getContextPath() + DOCUMENTS_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (recorded.compareAndSet(false, true)) {
+                long latencyMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                long uptimeMillis = ManagementFactory.getRuntimeMXBean().getUptime();
+                TimeGauge.builder(METRIC, () -> uptimeMillis, TimeUnit.MILLISECONDS)
+                    .description("Time from JVM start until the first document request completed")
+                    .register(meterRegistry);
+                TimeGauge.builder(LATENCY_METRIC, () -> latencyMillis, TimeUnit.MILLISECONDS)
+                    .description("Latency of the first document request")
+                    .register(meterRegistry);
+                log.info("First document request took {} ms, completed {} ms after JVM start",
+                         latencyMillis, uptimeMillis);
+            }
+        }
+    }
+}
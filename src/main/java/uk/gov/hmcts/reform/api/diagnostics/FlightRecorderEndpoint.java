@@ -0,0 +1,67 @@
+package uk.gov.hmcts.reform.api.diagnostics;
+
+import org.jspecify.annotations.Nullable;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * {@code /flightrecorder}: lists recordings, starts a bounded on-demand recording ({@code POST} with an optional
+ * {@code duration}), downloads a recording as a {@code .jfr} file ({@code GET /flightrecorder/{id}}) and discards
+ * an on-demand one ({@code DELETE /flightrecorder/{id}}). The continuous recording can be downloaded at any time.
+ */
+@Component
+@Endpoint(id = "flightrecorder")
+public class FlightRecorderEndpoint {
+
+    private final FlightRecordings recordings;
+
+    public FlightRecorderEndpoint(FlightRecordings recordings) {
+        this.recordings = recordings;
+    }
+
+    @ReadOperation
+    public List<RecordingSummary> recordings() {
+        return recordings.list();
+    }
+
+    @WriteOperation
+    public RecordingSummary start(@Nullable Duration duration) {
+        try {
+            return recordings.record(duration);
+        } catch (IllegalStateException ex) {
+            throw new InvalidEndpointRequestException(ex.getMessage(), ex.getMessage());
+        }
+    }
+
+    @ReadOperation
+    public WebEndpointResponse<Resource> download(@Selector long id) {
+        Path file = recordings.dump(id);
+        if (file == null) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        return new WebEndpointResponse<>(new FileSystemResource(file));
+    }
+
+    @DeleteOperation
+    public WebEndpointResponse<Void> discard(@Selector long id) {
+        try {
+            return new WebEndpointResponse<>(
+                recordings.discard(id) ? WebEndpointResponse.STATUS_NO_CONTENT : WebEndpointResponse.STATUS_NOT_FOUND
+            );
+        } catch (IllegalArgumentException ex) {
+            throw new InvalidEndpointRequestException(ex.getMessage(), ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package uk.gov.hmcts.reform.api.diagnostics;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.util.FileSystemUtils;
+import uk.gov.hmcts.reform.api.config.FlightRecorderProperties;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The service's flight recordings: an always-on {@code continuous} recording kept as a ring buffer of the last
+ * {@code app.flight-recorder.continuous.max-age}, and up to {@code on-demand.max-recordings} bounded recordings
+ * started through the {@code flightrecorder} endpoint with the more detailed {@code profile} settings.
+ *
+ * <p>Events that carry environment variables, system properties or JVM arguments are left out of every recording,
+ * since those hold credentials. Recordings are dumped to a private temporary directory for download; only the
+ * latest dump of each recording is kept, and it is removed with the recording.
+ */
+@Slf4j
+@Component
+public class FlightRecordings implements SmartLifecycle {
+
+    static final String CONTINUOUS = "continuous";
+    static final String ON_DEMAND = "on-demand";
+
+    private static final List<String> SENSITIVE_EVENTS = List.of(
+        "jdk.InitialEnvironmentVariable",
+        "jdk.InitialSystemProperty",
+        "jdk.JVMInformation"
+    );
+
+    private final FlightRecorderProperties properties;
+    private final Map<Long, Recording> onDemand = new LinkedHashMap<>();
+    private final Map<Long, Path> latestDumps = new HashMap<>();
+    private Recording continuous;
+    private Path dumps;
+    private volatile boolean running;
+
+    public FlightRecordings(FlightRecorderProperties properties) {
+        this.properties = properties;
+    }
+
+    public synchronized List<RecordingSummary> list() {
+        List<RecordingSummary> summaries = new ArrayList<>();
+        if (continuous != null) {
+            summaries.add(RecordingSummary.of(continuous));
+        }
+        onDemand.values().forEach(recording -> summaries.add(RecordingSummary.of(recording)));
+        return summaries;
+    }
+
+    /**
+     * Starts an on-demand recording that stops itself after {@code duration}, capped at
+     * {@code on-demand.max-duration}. Makes room by discarding the oldest finished recording.
+     *
+     * @throws IllegalStateException if the recorder is not running or every slot holds a running recording
+     */
+    public synchronized RecordingSummary record(Duration duration) {
+        if (!running) {
+            throw new IllegalStateException("Flight recorder is not available");
+        }
+        FlightRecorderProperties.OnDemand limits = properties.getOnDemand();
+        if (onDemand.size() >= Math.max(1, limits.getMaxRecordings()) && !discardOldestFinished()) {
+            throw new IllegalStateException("Too many recordings in progress");
+        }
+
+        Duration requested = duration == null || duration.isNegative() || duration.isZero()
+            ? limits.getDefaultDuration()
+            : duration;
+        Recording recording = open(limits.getSettings(), ON_DEMAND);
+        recording.setDuration(requested.compareTo(limits.getMaxDuration()) > 0 ? limits.getMaxDuration() : requested);
+        recording.setMaxSize(limits.getMaxSize().toBytes());
+        recording.start();
+        onDemand.put(recording.getId(), recording);
+        log.info("Started flight recording {} for {}", recording.getId(), recording.getDuration());
+        return RecordingSummary.of(recording);
+    }
+
+    /**
+     * Writes what recording {@code id} holds so far to a file and returns it, or null if there is no such recording.
+     */
+    public synchronized Path dump(long id) {
+        Recording recording = find(id);
+        if (recording == null || recording.getState() == RecordingState.NEW) {
+            return null;
+        }
+        Path file;
+        try {
+            // A fresh file each time, so a download still streaming the previous dump is not overwritten.
+            file = Files.createTempFile(dumps, "recording-" + id + "-", ".jfr");
+            recording.dump(file);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        deleteDump(latestDumps.put(id, file));
+        return file;
+    }
+
+    /**
+     * Stops and deletes on-demand recording {@code id}.
+     *
+     * @return false if there is no such recording
+     * @throws IllegalArgumentException for the continuous recording, which runs for the life of the service
+     */
+    public synchronized boolean discard(long id) {
+        if (continuous != null && continuous.getId() == id) {
+            throw new IllegalArgumentException("The continuous recording cannot be discarded");
+        }
+        Recording recording = onDemand.remove(id);
+        if (recording == null) {
+            return false;
+        }
+        close(recording);
+        return true;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        if (!FlightRecorder.isAvailable()) {
+            log.warn("Flight recorder is not available in this JVM; recordings are disabled");
+            return;
+        }
+        try {
+            dumps = Files.createTempDirectory("flight-recordings");
+        } catch (IOException ex) {
+            throw new IllegalStateException("Could not create flight recording directory", ex);
+        }
+        FlightRecorderProperties.Continuous settings = properties.getContinuous();
+        if (settings.isEnabled()) {
+            continuous = open(settings.getSettings(), CONTINUOUS);
+            continuous.setMaxAge(settings.getMaxAge());
+            continuous.setMaxSize(settings.getMaxSize().toBytes());
+            continuous.start();
+        }
+        running = true;
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        onDemand.values().forEach(this::close);
+        onDemand.clear();
+        latestDumps.clear();
+        if (continuous != null) {
+            close(continuous);
+            continuous = null;
+        }
+        FileSystemUtils.deleteRecursively(dumps.toFile());
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private Recording find(long id) {
+        if (continuous != null && continuous.getId() == id) {
+            return continuous;
+        }
+        return onDemand.get(id);
+    }
+
+    private boolean discardOldestFinished() {
+        Iterator<Recording> recordings = onDemand.values().iterator();
+        while (recordings.hasNext()) {
+            Recording recording = recordings.next();
+            if (recording.getState() != RecordingState.RUNNING) {
+                recordings.remove();
+                close(recording);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Recording open(String settings, String name) {
+        Recording recording;
+        try {
+            recording = new Recording(Configuration.getConfiguration(settings));
+        } catch (IOException | ParseException ex) {
+            throw new IllegalStateException("Unknown flight recorder settings: " + settings, ex);
+        }
+        recording.setName(name);
+        recording.setToDisk(true);
+        SENSITIVE_EVENTS.forEach(recording::disable);
+        recording.enable(UploadStageEvent.class);
+        return recording;
+    }
+
+    private void close(Recording recording) {
+        recording.close();
+        deleteDump(latestDumps.remove(recording.getId()));
+    }
+
+    private void deleteDump(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ex) {
+            log.warn("Could not delete flight recording dump {}", file, ex);
+        }
+    }
+}
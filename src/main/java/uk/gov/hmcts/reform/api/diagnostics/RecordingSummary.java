@@ -0,0 +1,34 @@
+package uk.gov.hmcts.reform.api.diagnostics;
+
+import jdk.jfr.Recording;
+import lombok.Value;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Locale;
+
+/**
+ * What the flight recorder endpoint reports about a recording.
+ */
+@Value
+public class RecordingSummary {
+    long id;
+    String name;
+    String state;
+    Instant startTime;
+    Duration duration;
+    long size;
+    long maxSize;
+
+    static RecordingSummary of(Recording recording) {
+        return new RecordingSummary(
+            recording.getId(),
+            recording.getName(),
+            recording.getState().name().toLowerCase(Locale.ROOT),
+            recording.getStartTime(),
+            recording.getDuration(),
+            recording.getSize(),
+            recording.getMaxSize()
+        );
+    }
+}
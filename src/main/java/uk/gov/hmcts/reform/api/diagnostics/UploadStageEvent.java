@@ -0,0 +1,61 @@
+package uk.gov.hmcts.reform.api.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A flight recorder event for one stage of an upload's way through the service, so a recording shows where a slow
+ * request spent its time: Tika in {@code validation-detection}, PDFBox and ImageIO in {@code validation-parse},
+ * case part binding in {@code case-binding} and the wait on Azure in {@code analysis}.
+ *
+ * <p>Costs nothing while no recording has the event enabled.
+ */
+@Name("uk.gov.hmcts.reform.api.UploadStage")
+@Label("Upload Stage")
+@Category({"Document Intelligence", "Uploads"})
+@Description("One stage of upload handling, with the upload it worked on")
+@StackTrace(false)
+public class UploadStageEvent extends Event {
+
+    @Label("Stage")
+    private String stage;
+
+    @Label("File Size")
+    @DataAmount
+    private long fileSize;
+
+    @Label("Media Type")
+    private String mediaType;
+
+    @Label("Page Count")
+    @Description("Pages or frames, once the parser has counted them; 0 before")
+    private int pageCount;
+
+    /**
+     * Begins timing {@code stage}; pair with {@link #finish}.
+     */
+    public static UploadStageEvent start(String stage) {
+        UploadStageEvent event = new UploadStageEvent();
+        event.stage = stage;
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Ends the stage and records it if a recording wants it.
+     */
+    public void finish(long fileSize, String mediaType, int pageCount) {
+        end();
+        if (shouldCommit()) {
+            this.fileSize = fileSize;
+            this.mediaType = mediaType;
+            this.pageCount = pageCount;
+            commit();
+        }
+    }
+}
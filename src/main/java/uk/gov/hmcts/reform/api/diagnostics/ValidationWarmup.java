@@ -0,0 +1,236 @@
+package uk.gov.hmcts.reform.api.diagnostics;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jdk.jfr.FlightRecorder;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+import uk.gov.hmcts.reform.api.buffers.BufferPool;
+import uk.gov.hmcts.reform.api.concurrency.RequestCoalescer;
+import uk.gov.hmcts.reform.api.config.UploadValidationProperties;
+import uk.gov.hmcts.reform.api.config.WarmupProperties;
+import uk.gov.hmcts.reform.api.imaging.ImageQualityGate;
+import uk.gov.hmcts.reform.api.intake.DocumentSpooler;
+import uk.gov.hmcts.reform.api.sandbox.ParseSandbox;
+import uk.gov.hmcts.reform.api.validation.rules.ValidationPipeline;
+import uk.gov.hmcts.reform.api.validation.rules.ValidationRule;
+import uk.gov.hmcts.reform.api.validation.validators.DocumentFileValidator;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.management.CompilationMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Runs the validation path on synthetic samples before the pod reports ready.
+ *
+ * <p>PDFBox parser and font classes, the ImageIO plugin registry and Tika's MIME repository all load on first
+ * use, and the hot parsing loops start out interpreted. Application runners complete before Spring Boot
+ * publishes {@code ACCEPTING_TRAFFIC}, so the readiness probe stays down until this has finished. Rounds repeat
+ * until JIT compilation time stops growing, or {@code app.warmup.max-duration} is reached. The rounds run on their
+ * own thread, which is abandoned at that deadline, so a hung parse delays readiness but cannot hold it down.
+ *
+ * <p>The samples must not show up as traffic. They go through the application's rules, spooler and sandbox, but
+ * with a pipeline, quality gate and coalescer recording to a registry that is thrown away afterwards, so
+ * {@code documents.validation.rule} and the quality metrics start from zero. Upload stage events are unregistered
+ * from the flight recorder while the rounds run.
+ */
+@Slf4j
+@Component
+public class ValidationWarmup implements ApplicationRunner {
+
+    static final String DURATION_METRIC = "application.warmup.time";
+    static final String ROUNDS_METRIC = "application.warmup.rounds";
+
+    private final WarmupProperties properties;
+    private final Function<MeterRegistry, DocumentFileValidator> validators;
+    private final DocumentSpooler spooler;
+    private final MeterRegistry meterRegistry;
+
+    @Autowired
+    public ValidationWarmup(WarmupProperties properties,
+                            ConfigurableListableBeanFactory beanFactory,
+                            DocumentSpooler spooler,
+                            MeterRegistry meterRegistry) {
+        this(properties, discarded -> validator(beanFactory, spooler, discarded), spooler, meterRegistry);
+    }
+
+    ValidationWarmup(WarmupProperties properties,
+                     Function<MeterRegistry, DocumentFileValidator> validators,
+                     DocumentSpooler spooler,
+                     MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.validators = validators;
+        this.spooler = spooler;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        long deadline = start + properties.getMaxDuration().toNanos();
+        AtomicInteger rounds = new AtomicInteger();
+        boolean flightRecorder = FlightRecorder.isAvailable();
+        if (flightRecorder) {
+            FlightRecorder.unregister(UploadStageEvent.class);
+        }
+        try {
+            Thread warmup = new Thread(() -> warmUp(deadline, rounds), "validation-warmup");
+            warmup.setDaemon(true);
+            warmup.start();
+            warmup.join(Math.max(1, properties.getMaxDuration().toMillis()));
+            if (warmup.isAlive()) {
+                log.warn("Validation warm-up still running after {}; reporting ready anyway",
+                         properties.getMaxDuration());
+                warmup.interrupt();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (flightRecorder) {
+                FlightRecorder.register(UploadStageEvent.class);
+            }
+        }
+
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        int completedRounds = rounds.get();
+        TimeGauge.builder(DURATION_METRIC, () -> elapsedMillis, TimeUnit.MILLISECONDS)
+            .description("Time spent warming up the validation path before reporting ready")
+            .register(meterRegistry);
+        Gauge.builder(ROUNDS_METRIC, () -> completedRounds).register(meterRegistry);
+        log.info("Validation warm-up finished in {} ms after {} rounds", elapsedMillis, completedRounds);
+    }
+
+    private void warmUp(long deadline, AtomicInteger rounds) {
+        try {
+            DocumentFileValidator validator = validators.apply(new SimpleMeterRegistry());
+            List<WarmupSample> samples = samples();
+            long compileMillis = compilationMillis();
+            boolean settled = false;
+            while (!settled && System.nanoTime() < deadline && !Thread.currentThread().isInterrupted()) {
+                for (int i = 0; i < properties.getIterationsPerRound(); i++) {
+                    for (WarmupSample sample : samples) {
+                        try {
+                            validator.isValid(sample, null);
+                        } finally {
+                            spooler.discard(sample);
+                        }
+                    }
+                }
+                rounds.incrementAndGet();
+                long compiled = compilationMillis();
+                settled = compiled - compileMillis < properties.getSettleThreshold().toMillis();
+                compileMillis = compiled;
+            }
+        } catch (IOException | RuntimeException ex) {
+            log.warn("Validation warm-up stopped early", ex);
+        }
+    }
+
+    /**
+     * A validator built like the application's, with the same rules, spooler and sandbox, but recording to
+     * {@code discarded}. Rules are created afresh in a child factory so the one that takes the quality gate gets the
+     * warm-up's.
+     */
+    private static DocumentFileValidator validator(ConfigurableListableBeanFactory beanFactory,
+                                                   DocumentSpooler spooler,
+                                                   MeterRegistry discarded) {
+        UploadValidationProperties uploadProperties = beanFactory.getBean(UploadValidationProperties.class);
+        ImageQualityGate qualityGate = new ImageQualityGate(
+            uploadProperties,
+            beanFactory.getBean(BufferPool.class),
+            discarded
+        );
+        DefaultListableBeanFactory warmupBeans = new DefaultListableBeanFactory(beanFactory);
+        for (String name : beanFactory.getBeanNamesForType(ImageQualityGate.class)) {
+            warmupBeans.registerSingleton(name, qualityGate);
+        }
+        List<ValidationRule> rules = beanFactory.getBeanProvider(ValidationRule.class).orderedStream()
+            .map(rule -> (ValidationRule) warmupBeans.createBean(rule.getClass()))
+            .toList();
+        return new DocumentFileValidator(
+            spooler,
+            new RequestCoalescer(discarded),
+            new ValidationPipeline(rules, uploadProperties, discarded),
+            beanFactory.getBean(ParseSandbox.class)
+        );
+    }
+
+    private static long compilationMillis() {
+        CompilationMXBean compilation = ManagementFactory.getCompilationMXBean();
+        return compilation != null && compilation.isCompilationTimeMonitoringSupported()
+            ? compilation.getTotalCompilationTime()
+            : 0;
+    }
+
+    private static List<WarmupSample> samples() throws IOException {
+        return List.of(
+            new WarmupSample("warmup.pdf", "application/pdf", pdf()),
+            new WarmupSample("warmup.png", "image/png", image("png")),
+            new WarmupSample("warmup.jpg", "image/jpeg", image("jpg")),
+            new WarmupSample("warmup.tiff", "image/tiff", image("tiff"))
+        );
+    }
+
+    private static byte[] pdf() throws IOException {
+        try (PDDocument document = new PDDocument()) {
+            PDPage page = new PDPage();
+            document.addPage(page);
+            try (PDPageContentStream content = new PDPageContentStream(document, page)) {
+                content.beginText();
+                content.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA), 12);
+                content.newLineAtOffset(72, 720);
+                content.showText("Certificate of marriage");
+                content.endText();
+            }
+            try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+                document.save(out);
+                return out.toByteArray();
+            }
+        }
+    }
+
+    private static byte[] image(String format) throws IOException {
+        BufferedImage image = new BufferedImage(400, 300, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        try {
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, 400, 300);
+            graphics.setColor(Color.BLACK);
+            graphics.drawRect(20, 20, 360, 260);
+            for (int y = 50; y < 270; y += 18) {
+                graphics.drawString("Certificate of marriage - registration district", 40, y);
+            }
+        } finally {
+            graphics.dispose();
+        }
+        try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            ImageIO.write(image, format, out);
+            return out.toByteArray();
+        }
+    }
+}
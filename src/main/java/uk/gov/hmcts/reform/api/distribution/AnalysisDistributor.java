@@ -0,0 +1,87 @@
+package uk.gov.hmcts.reform.api.distribution;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import uk.gov.hmcts.reform.api.config.DistributionProperties;
+import uk.gov.hmcts.reform.api.errorhandling.exceptions.AnalysisFailedException;
+import uk.gov.hmcts.reform.api.intake.SpooledDocument;
+import uk.gov.hmcts.reform.api.services.AnalysisResult;
+import uk.gov.hmcts.reform.api.services.DocumentAnalyser;
+
+import java.io.IOException;
+import java.util.Optional;
+
+/**
+ * Runs the analysis stage, either in the request thread or, with {@code app.distribution.enabled}, on whichever
+ * node's {@link AnalysisWorkerPool} claims it from the {@link WorkQueue}. The request thread waits for the
+ * outcome either way, so callers see the same synchronous API.
+ */
+@Slf4j
+@Component
+public class AnalysisDistributor {
+
+    private final DistributionProperties properties;
+    private final WorkQueue workQueue;
+    private final DocumentAnalyser analyser;
+
+    public AnalysisDistributor(DistributionProperties properties, WorkQueue workQueue, DocumentAnalyser analyser) {
+        this.properties = properties;
+        this.workQueue = workQueue;
+        this.analyser = analyser;
+    }
+
+    /**
+     * Analyses {@code document}, which must stay open until this returns.
+     *
+     * @throws AnalysisFailedException if the worker reports a failure or no outcome arrives within
+     *                                 {@code app.distribution.result-timeout}
+     */
+    public AnalysisResult analyse(SpooledDocument document, String modelId) {
+        return analyse(document, modelId, null);
+    }
+
+    /**
+     * Analyses only {@code pages} of {@code document}, for example {@code 5-8}; null analyses every page.
+     */
+    public AnalysisResult analyse(SpooledDocument document, String modelId, String pages) {
+        if (!properties.isEnabled()) {
+            return analyser.analyse(document, modelId, pages);
+        }
+
+        String id;
+        try {
+            id = workQueue.submit(new AnalysisTask(modelId, document.getPath(), document.getOriginalFilename(), pages));
+        } catch (IOException ex) {
+            throw new AnalysisFailedException("Document could not be queued for analysis.", ex);
+        }
+
+        Optional<TaskOutcome> outcome;
+        try {
+            outcome = workQueue.awaitOutcome(id, properties.getResultTimeout());
+        } catch (IOException ex) {
+            throw new AnalysisFailedException("Analysis result could not be read.", ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            cancel(id);
+            throw new AnalysisFailedException("Interrupted while waiting for analysis.", ex);
+        }
+
+        if (outcome.isEmpty()) {
+            cancel(id);
+            throw new AnalysisFailedException("Analysis did not complete in time.");
+        }
+        if (!outcome.get().isSucceeded()) {
+            log.error("Analysis task {} failed: {}", id, outcome.get().getError());
+            throw new AnalysisFailedException("Document analysis failed.");
+        }
+        return outcome.get().getResult();
+    }
+
+    private void cancel(String id) {
+        try {
+            workQueue.cancel(id);
+        } catch (IOException ex) {
+            log.warn("Failed to cancel analysis task {}", id, ex);
+        }
+    }
+}
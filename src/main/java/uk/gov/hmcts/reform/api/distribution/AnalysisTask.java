@@ -0,0 +1,17 @@
+package uk.gov.hmcts.reform.api.distribution;
+
+import lombok.Value;
+
+import java.nio.file.Path;
+
+/**
+ * A document waiting for analysis. {@code document} must stay readable until the task's outcome is collected;
+ * {@code pages} limits analysis to a page range such as {@code 1-4}, or is null for the whole document.
+ */
+@Value
+public class AnalysisTask {
+    String modelId;
+    Path document;
+    String originalFilename;
+    String pages;
+}
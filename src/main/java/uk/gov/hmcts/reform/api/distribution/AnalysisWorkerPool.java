@@ -0,0 +1,184 @@
+package uk.gov.hmcts.reform.api.distribution;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import uk.gov.hmcts.reform.api.config.DistributionProperties;
+import uk.gov.hmcts.reform.api.intake.SpooledDocument;
+import uk.gov.hmcts.reform.api.services.AnalysisResult;
+import uk.gov.hmcts.reform.api.services.DocumentAnalyser;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pulls analysis tasks from the {@link WorkQueue} and runs them on this node.
+ *
+ * <p>Each worker thread claims one task at a time, so a busy node simply stops claiming and idle nodes pick up
+ * the backlog. While a task runs its lease is renewed every third of {@code app.distribution.lease}; if the
+ * node dies the lease lapses and another node steals the task. Only runs with {@code app.distribution.enabled}.
+ */
+@Slf4j
+@Component
+public class AnalysisWorkerPool implements SmartLifecycle {
+
+    static final String CLAIMED_METRIC = "documents.distribution.claimed";
+    static final String FINISHED_METRIC = "documents.distribution.finished";
+
+    private final DistributionProperties properties;
+    private final WorkQueue workQueue;
+    private final DocumentAnalyser analyser;
+    private final String nodeId;
+    private final Set<ClaimedTask> inFlight = ConcurrentHashMap.newKeySet();
+    private final List<Thread> workers = new ArrayList<>();
+    private final Counter claimed;
+    private final Counter stolen;
+    private final Counter succeeded;
+    private final Counter failed;
+    private ScheduledExecutorService heartbeat;
+    private volatile boolean running;
+
+    public AnalysisWorkerPool(DistributionProperties properties,
+                              WorkQueue workQueue,
+                              DocumentAnalyser analyser,
+                              MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.workQueue = workQueue;
+        this.analyser = analyser;
+        this.nodeId = sanitise(properties.getNodeId() == null || properties.getNodeId().isBlank()
+            ? UUID.randomUUID().toString()
+            : properties.getNodeId());
+
+        Gauge.builder("documents.distribution.in-flight", inFlight, Set::size).register(meterRegistry);
+        this.claimed = Counter.builder(CLAIMED_METRIC).tag("stolen", "false").register(meterRegistry);
+        this.stolen = Counter.builder(CLAIMED_METRIC).tag("stolen", "true").register(meterRegistry);
+        this.succeeded = Counter.builder(FINISHED_METRIC).tag("outcome", "success").register(meterRegistry);
+        this.failed = Counter.builder(FINISHED_METRIC).tag("outcome", "failure").register(meterRegistry);
+    }
+
+    @Override
+    public synchronized void start() {
+        if (!properties.isEnabled() || running) {
+            return;
+        }
+        running = true;
+
+        long renewMillis = Math.max(1, properties.getLease().toMillis() / 3);
+        heartbeat = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "analysis-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        heartbeat.scheduleWithFixedDelay(this::renewLeases, renewMillis, renewMillis, TimeUnit.MILLISECONDS);
+
+        for (int i = 0; i < properties.getWorkers(); i++) {
+            String owner = nodeId + "-" + i;
+            Thread worker = new Thread(() -> work(owner), "analysis-worker-" + i);
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+        log.info("Started {} analysis workers on node {}", workers.size(), nodeId);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        workers.forEach(Thread::interrupt);
+        for (Thread worker : workers) {
+            try {
+                worker.join(properties.getLease().toMillis());
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        workers.clear();
+        heartbeat.shutdownNow();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void work(String owner) {
+        while (running) {
+            try {
+                Optional<ClaimedTask> task = workQueue.claim(owner, properties.getLease());
+                if (task.isPresent()) {
+                    run(task.get());
+                } else {
+                    Thread.sleep(properties.getPollInterval().toMillis());
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (IOException | RuntimeException ex) {
+                log.warn("Analysis worker {} failed to claim work", owner, ex);
+                sleepQuietly(properties.getPollInterval());
+            }
+        }
+    }
+
+    private void run(ClaimedTask task) throws IOException {
+        (task.isStolen() ? stolen : claimed).increment();
+        inFlight.add(task);
+        try {
+            // Not closed here: closing deletes the file, and the payload belongs to the queue.
+            SpooledDocument document = new SpooledDocument(task.getDocument(), task.getOriginalFilename(), null);
+            AnalysisResult result = analyser.analyse(document, task.getModelId(), task.getPages());
+            workQueue.complete(task, result);
+            succeeded.increment();
+        } catch (RuntimeException | IOException ex) {
+            log.warn("Analysis task {} failed on {}", task.getId(), task.getOwner(), ex);
+            workQueue.fail(task, ex.getClass().getSimpleName() + ": " + ex.getMessage());
+            failed.increment();
+        } finally {
+            inFlight.remove(task);
+        }
+    }
+
+    private void renewLeases() {
+        for (ClaimedTask task : inFlight) {
+            try {
+                if (!workQueue.renew(task, properties.getLease())) {
+                    log.warn("Lease on analysis task {} was taken over; its result will be discarded", task.getId());
+                    inFlight.remove(task);
+                }
+            } catch (IOException | RuntimeException ex) {
+                log.warn("Failed to renew lease on analysis task {}", task.getId(), ex);
+            }
+        }
+    }
+
+    private static void sleepQuietly(Duration duration) {
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Owners are embedded in file names by the filesystem backend.
+     */
+    private static String sanitise(String nodeId) {
+        return nodeId.replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+}
@@ -0,0 +1,20 @@
+package uk.gov.hmcts.reform.api.distribution;
+
+import lombok.Value;
+
+import java.nio.file.Path;
+
+/**
+ * A task leased to one worker. The lease must be renewed before it lapses, or another worker may take it over;
+ * {@code stolen} is set when this claim took over such a lapsed lease.
+ */
+@Value
+public class ClaimedTask {
+    String id;
+    String modelId;
+    Path document;
+    String originalFilename;
+    String pages;
+    String owner;
+    boolean stolen;
+}
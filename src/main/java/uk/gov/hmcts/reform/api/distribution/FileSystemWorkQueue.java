@@ -0,0 +1,276 @@
+package uk.gov.hmcts.reform.api.distribution;
+
+import lombok.extern.slf4j.Slf4j;
+import uk.gov.hmcts.reform.api.services.AnalysisResult;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A {@link WorkQueue} kept in a directory shared by every node, such as a mounted volume.
+ *
+ * <p>Each task is a small file that moves between {@code pending/}, {@code claimed/} and {@code results/}, and
+ * the document itself sits in {@code payloads/}. Every state change is an atomic rename, so when two nodes race
+ * for the same file exactly one rename succeeds and the loser sees {@link NoSuchFileException}. A claimed file's
+ * name carries its owner and lease expiry: a heartbeat renames it to a later expiry, and a node stealing a lapsed
+ * lease renames it to its own name, after which the previous owner's next heartbeat fails.
+ *
+ * <p>Pending task ids start with the submit time, so nodes take work roughly in arrival order.
+ */
+@Slf4j
+public class FileSystemWorkQueue implements WorkQueue {
+
+    private static final String TASK_SUFFIX = ".task";
+    private static final String RESULT_SUFFIX = ".result";
+    private static final char SEPARATOR = '~';
+
+    private final Path pendingDir;
+    private final Path claimedDir;
+    private final Path resultsDir;
+    private final Path payloadsDir;
+    private final Path tmpDir;
+    private final Duration pollInterval;
+    private final Map<String, Path> held = new ConcurrentHashMap<>();
+
+    public FileSystemWorkQueue(Path root, Duration pollInterval) throws IOException {
+        this.pendingDir = Files.createDirectories(root.resolve("pending"));
+        this.claimedDir = Files.createDirectories(root.resolve("claimed"));
+        this.resultsDir = Files.createDirectories(root.resolve("results"));
+        this.payloadsDir = Files.createDirectories(root.resolve("payloads"));
+        this.tmpDir = Files.createDirectories(root.resolve("tmp"));
+        this.pollInterval = pollInterval;
+    }
+
+    @Override
+    public String submit(AnalysisTask task) throws IOException {
+        String id = String.format("%013d-%s", System.currentTimeMillis(), UUID.randomUUID());
+        Path payload = payloadsDir.resolve(id);
+        try {
+            Files.createLink(payload, task.getDocument());
+        } catch (IOException | UnsupportedOperationException ex) {
+            // Spool directory on another file system, or links not supported.
+            Files.copy(task.getDocument(), payload);
+        }
+
+        Properties properties = new Properties();
+        properties.setProperty("modelId", task.getModelId());
+        if (task.getOriginalFilename() != null) {
+            properties.setProperty("originalFilename", task.getOriginalFilename());
+        }
+        if (task.getPages() != null) {
+            properties.setProperty("pages", task.getPages());
+        }
+        publish(properties, pendingDir.resolve(id + TASK_SUFFIX));
+        return id;
+    }
+
+    @Override
+    public Optional<ClaimedTask> claim(String owner, Duration lease) throws IOException {
+        long expiry = System.currentTimeMillis() + lease.toMillis();
+        for (Path candidate : list(pendingDir)) {
+            String id = stripSuffix(candidate.getFileName().toString());
+            Optional<ClaimedTask> claimed = take(candidate, id, owner, expiry, false);
+            if (claimed.isPresent()) {
+                return claimed;
+            }
+        }
+
+        long now = System.currentTimeMillis();
+        for (Path candidate : list(claimedDir)) {
+            String[] parts = stripSuffix(candidate.getFileName().toString()).split(String.valueOf(SEPARATOR));
+            if (parts.length == 3 && Long.parseLong(parts[2]) <= now) {
+                Optional<ClaimedTask> claimed = take(candidate, parts[0], owner, expiry, true);
+                if (claimed.isPresent()) {
+                    log.info("Took over task {} from {}, whose lease lapsed", parts[0], parts[1]);
+                    return claimed;
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public boolean renew(ClaimedTask task, Duration lease) throws IOException {
+        String key = heldKey(task.getId(), task.getOwner());
+        Path current = held.get(key);
+        if (current == null) {
+            return false;
+        }
+        Path renewed = claimedPath(task.getId(), task.getOwner(), System.currentTimeMillis() + lease.toMillis());
+        if (!rename(current, renewed)) {
+            held.remove(key);
+            return false;
+        }
+        held.put(key, renewed);
+        return true;
+    }
+
+    @Override
+    public void complete(ClaimedTask task, AnalysisResult result) throws IOException {
+        Properties outcome = new Properties();
+        outcome.setProperty("modelId", result.getModelId());
+        if (result.getResultJson() != null) {
+            outcome.setProperty("resultJson", result.getResultJson());
+        }
+        finish(task, outcome);
+    }
+
+    @Override
+    public void fail(ClaimedTask task, String error) throws IOException {
+        Properties outcome = new Properties();
+        outcome.setProperty("error", error);
+        finish(task, outcome);
+    }
+
+    @Override
+    public Optional<TaskOutcome> awaitOutcome(String id, Duration timeout) throws IOException, InterruptedException {
+        Path resultFile = resultsDir.resolve(id + RESULT_SUFFIX);
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (!Files.exists(resultFile)) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return Optional.empty();
+            }
+            Thread.sleep(Math.min(pollInterval.toMillis(), Math.max(1, remaining / 1_000_000)));
+        }
+
+        Properties outcome = read(resultFile);
+        Files.deleteIfExists(resultFile);
+        Files.deleteIfExists(payloadsDir.resolve(id));
+
+        String error = outcome.getProperty("error");
+        if (error != null) {
+            return Optional.of(TaskOutcome.failed(error));
+        }
+        return Optional.of(TaskOutcome.succeeded(
+            new AnalysisResult(outcome.getProperty("modelId"), outcome.getProperty("resultJson"))
+        ));
+    }
+
+    @Override
+    public void cancel(String id) throws IOException {
+        Files.deleteIfExists(pendingDir.resolve(id + TASK_SUFFIX));
+        try (DirectoryStream<Path> claimed = Files.newDirectoryStream(claimedDir, id + SEPARATOR + "*")) {
+            for (Path path : claimed) {
+                Files.deleteIfExists(path);
+            }
+        }
+        Files.deleteIfExists(resultsDir.resolve(id + RESULT_SUFFIX));
+        Files.deleteIfExists(payloadsDir.resolve(id));
+    }
+
+    private Optional<ClaimedTask> take(Path source, String id, String owner, long expiry, boolean stolen)
+        throws IOException {
+        Properties properties;
+        try {
+            properties = read(source);
+        } catch (NoSuchFileException ex) {
+            return Optional.empty();
+        }
+        Path target = claimedPath(id, owner, expiry);
+        if (!rename(source, target)) {
+            return Optional.empty();
+        }
+        held.put(heldKey(id, owner), target);
+
+        return Optional.of(new ClaimedTask(
+            id,
+            properties.getProperty("modelId"),
+            payloadsDir.resolve(id),
+            properties.getProperty("originalFilename"),
+            properties.getProperty("pages"),
+            owner,
+            stolen
+        ));
+    }
+
+    private void finish(ClaimedTask task, Properties outcome) throws IOException {
+        Path current = held.remove(heldKey(task.getId(), task.getOwner()));
+        if (current == null) {
+            return;
+        }
+        // Moving the claim out of claimed/ first means a node that has just stolen it cannot also report.
+        Path done = tmpDir.resolve(task.getId() + ".done");
+        if (!rename(current, done)) {
+            log.info("Lease on task {} was lost before it finished; discarding this result", task.getId());
+            return;
+        }
+        publish(outcome, resultsDir.resolve(task.getId() + RESULT_SUFFIX));
+        Files.deleteIfExists(done);
+    }
+
+    /**
+     * Writes {@code properties} next to {@code target} and renames it into place, so readers never see half a file.
+     */
+    private void publish(Properties properties, Path target) throws IOException {
+        Path tmp = Files.createTempFile(tmpDir, "publish", ".tmp");
+        try {
+            try (Writer writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                properties.store(writer, null);
+            }
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private Properties read(Path path) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        return properties;
+    }
+
+    /**
+     * False if another node renamed {@code source} first.
+     */
+    private static boolean rename(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        } catch (NoSuchFileException | FileAlreadyExistsException ex) {
+            return false;
+        }
+    }
+
+    private Path claimedPath(String id, String owner, long expiry) {
+        return claimedDir.resolve(id + SEPARATOR + owner + SEPARATOR + expiry + TASK_SUFFIX);
+    }
+
+    /**
+     * Two workers on this node may hold the same task in turn, when one takes over the other's lapsed lease.
+     */
+    private static String heldKey(String id, String owner) {
+        return id + SEPARATOR + owner;
+    }
+
+    private static List<Path> list(Path dir) throws IOException {
+        List<Path> paths = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, "*" + TASK_SUFFIX)) {
+            stream.forEach(paths::add);
+        }
+        paths.sort(null);
+        return paths;
+    }
+
+    private static String stripSuffix(String name) {
+        return name.substring(0, name.length() - TASK_SUFFIX.length());
+    }
+}
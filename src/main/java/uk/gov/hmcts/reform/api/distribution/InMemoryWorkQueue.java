@@ -0,0 +1,138 @@
+package uk.gov.hmcts.reform.api.distribution;
+
+import uk.gov.hmcts.reform.api.services.AnalysisResult;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * A {@link WorkQueue} inside one JVM, for a single node. Leases still apply, so a stalled worker thread loses
+ * its task to another one.
+ */
+public class InMemoryWorkQueue implements WorkQueue {
+
+    private final Deque<String> pending = new ArrayDeque<>();
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    @Override
+    public synchronized String submit(AnalysisTask task) {
+        String id = UUID.randomUUID().toString();
+        entries.put(id, new Entry(task));
+        pending.addLast(id);
+        return id;
+    }
+
+    @Override
+    public synchronized Optional<ClaimedTask> claim(String owner, Duration lease) {
+        long now = System.currentTimeMillis();
+        String id = pending.pollFirst();
+        boolean stolen = id == null;
+        if (stolen) {
+            id = entries.entrySet().stream()
+                .filter(entry -> entry.getValue().owner != null && entry.getValue().expiresAt <= now)
+                .map(Map.Entry::getKey)
+                .findFirst()
+                .orElse(null);
+        }
+        if (id == null) {
+            return Optional.empty();
+        }
+
+        Entry entry = entries.get(id);
+        entry.owner = owner;
+        entry.expiresAt = now + lease.toMillis();
+        AnalysisTask task = entry.task;
+        return Optional.of(new ClaimedTask(
+            id, task.getModelId(), task.getDocument(), task.getOriginalFilename(), task.getPages(), owner, stolen
+        ));
+    }
+
+    @Override
+    public synchronized boolean renew(ClaimedTask task, Duration lease) {
+        Entry entry = entries.get(task.getId());
+        if (entry == null || !task.getOwner().equals(entry.owner)) {
+            return false;
+        }
+        entry.expiresAt = System.currentTimeMillis() + lease.toMillis();
+        return true;
+    }
+
+    @Override
+    public void complete(ClaimedTask task, AnalysisResult result) {
+        finish(task, TaskOutcome.succeeded(result));
+    }
+
+    @Override
+    public void fail(ClaimedTask task, String error) {
+        finish(task, TaskOutcome.failed(error));
+    }
+
+    @Override
+    public Optional<TaskOutcome> awaitOutcome(String id, Duration timeout) throws InterruptedException {
+        CompletableFuture<TaskOutcome> outcome;
+        synchronized (this) {
+            Entry entry = entries.get(id);
+            if (entry == null) {
+                return Optional.empty();
+            }
+            outcome = entry.outcome;
+        }
+
+        try {
+            return Optional.of(outcome.get(timeout.toMillis(), TimeUnit.MILLISECONDS));
+        } catch (TimeoutException ex) {
+            return Optional.empty();
+        } catch (ExecutionException ex) {
+            return Optional.of(TaskOutcome.failed(String.valueOf(ex.getCause())));
+        } finally {
+            synchronized (this) {
+                if (outcome.isDone()) {
+                    entries.remove(id);
+                }
+            }
+        }
+    }
+
+    @Override
+    public synchronized void cancel(String id) {
+        pending.remove(id);
+        entries.remove(id);
+    }
+
+    /**
+     * Tasks submitted but not yet finished, including those a worker holds.
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private synchronized void finish(ClaimedTask task, TaskOutcome outcome) {
+        Entry entry = entries.get(task.getId());
+        // A worker whose lease was stolen does not get to report; the thief's outcome is the one that counts.
+        if (entry == null || !task.getOwner().equals(entry.owner)) {
+            return;
+        }
+        entry.owner = null;
+        entry.outcome.complete(outcome);
+    }
+
+    private static final class Entry {
+        private final AnalysisTask task;
+        private final CompletableFuture<TaskOutcome> outcome = new CompletableFuture<>();
+        private String owner;
+        private long expiresAt;
+
+        Entry(AnalysisTask task) {
+            this.task = task;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package uk.gov.hmcts.reform.api.distribution;
+
+import lombok.Value;
+import uk.gov.hmcts.reform.api.services.AnalysisResult;
+
+/**
+ * What a worker reported for a task: a result, or the reason it failed.
+ */
+@Value
+public class TaskOutcome {
+    AnalysisResult result;
+    String error;
+
+    public static TaskOutcome succeeded(AnalysisResult result) {
+        return new TaskOutcome(result, null);
+    }
+
+    public static TaskOutcome failed(String error) {
+        return new TaskOutcome(null, error);
+    }
+
+    public boolean isSucceeded() {
+        return error == null;
+    }
+}
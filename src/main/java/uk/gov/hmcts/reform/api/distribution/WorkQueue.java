@@ -0,0 +1,48 @@
+package uk.gov.hmcts.reform.api.distribution;
+
+import uk.gov.hmcts.reform.api.services.AnalysisResult;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Hands analysis tasks from the node that accepted an upload to whichever worker is free.
+ *
+ * <p>Workers pull tasks rather than having them pushed, so an idle node takes work from a busy one. A claim is a
+ * lease: the worker renews it while the task runs, and a task whose lease lapses, because its worker died or
+ * stalled, is stolen by the next worker that asks for work.
+ */
+public interface WorkQueue {
+
+    /**
+     * Queues {@code task} and returns its id.
+     */
+    String submit(AnalysisTask task) throws IOException;
+
+    /**
+     * The next pending task, or failing that a task whose lease has lapsed.
+     */
+    Optional<ClaimedTask> claim(String owner, Duration lease) throws IOException;
+
+    /**
+     * Extends the lease on {@code task}.
+     *
+     * @return false if the lease was lost to another worker
+     */
+    boolean renew(ClaimedTask task, Duration lease) throws IOException;
+
+    void complete(ClaimedTask task, AnalysisResult result) throws IOException;
+
+    void fail(ClaimedTask task, String error) throws IOException;
+
+    /**
+     * Waits for the outcome of task {@code id}; empty if none arrives within {@code timeout}.
+     */
+    Optional<TaskOutcome> awaitOutcome(String id, Duration timeout) throws IOException, InterruptedException;
+
+    /**
+     * Drops task {@code id} once nobody will wait for it. A worker still running it loses its lease.
+     */
+    void cancel(String id) throws IOException;
+}
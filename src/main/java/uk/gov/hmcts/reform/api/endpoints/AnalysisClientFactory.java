@@ -0,0 +1,19 @@
+package uk.gov.hmcts.reform.api.endpoints;
+
+import com.azure.ai.documentintelligence.DocumentIntelligenceClient;
+import uk.gov.hmcts.reform.api.config.AnalysisEndpointProperties;
+
+/**
+ * Builds the client for one Document Intelligence resource in the {@link AnalysisEndpointPool}.
+ */
+@FunctionalInterface
+public interface AnalysisClientFactory {
+
+    /**
+     * Creates the client for {@code endpoint}.
+     *
+     * @param retries whether the client retries throttled and failed requests itself; off when the pool has other
+     *                endpoints to fail over to
+     */
+    DocumentIntelligenceClient create(AnalysisEndpointProperties.Endpoint endpoint, boolean retries);
+}
@@ -0,0 +1,155 @@
+package uk.gov.hmcts.reform.api.endpoints;
+
+import com.azure.ai.documentintelligence.DocumentIntelligenceClient;
+import uk.gov.hmcts.reform.api.config.AnalysisEndpointProperties;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One Document Intelligence resource in the {@link AnalysisEndpointPool}, with what the pool knows of it: a peak
+ * EWMA of how long it takes to accept an analysis, requests in flight, a token bucket for its quota, and whether it
+ * is ejected.
+ *
+ * <p>The EWMA decays with time rather than per sample, so a burst of requests does not outweigh the last few
+ * seconds; a sample above the average replaces it outright, so a slowing endpoint is noticed at once.
+ */
+final class AnalysisEndpoint {
+
+    // An empty bucket still scores, just badly, so a pool with every quota spent keeps serving.
+    private static final double MIN_QUOTA_FACTOR = 0.05;
+
+    private final AnalysisEndpointProperties.Endpoint config;
+    private final boolean retries;
+    private final AnalysisClientFactory clientFactory;
+    private final long decayNanos;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile DocumentIntelligenceClient client;
+
+    private double latencyNanos;
+    private long latencyUpdatedAt;
+    private double tokens;
+    private long tokensUpdatedAt;
+    private int consecutiveFailures;
+    private int ejections;
+    private long ejectedUntil;
+
+    AnalysisEndpoint(AnalysisEndpointProperties.Endpoint config,
+                     boolean retries,
+                     AnalysisClientFactory clientFactory,
+                     long decayNanos,
+                     long now) {
+        this.config = config;
+        this.retries = retries;
+        this.clientFactory = clientFactory;
+        this.decayNanos = Math.max(1, decayNanos);
+        this.tokens = config.getRequestsPerSecond();
+        this.tokensUpdatedAt = now;
+        this.latencyUpdatedAt = now;
+    }
+
+    String getName() {
+        return config.getName();
+    }
+
+    DocumentIntelligenceClient client() {
+        DocumentIntelligenceClient current = client;
+        if (current == null) {
+            synchronized (this) {
+                current = client;
+                if (current == null) {
+                    current = clientFactory.create(config, retries);
+                    client = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Lower is better: expected latency, scaled up by the requests already waiting on it and by how little of its
+     * quota is left. Untried endpoints score zero, so each is tried early on.
+     */
+    synchronized double score(long now) {
+        double quota = 1;
+        double rate = config.getRequestsPerSecond();
+        if (rate > 0) {
+            quota = Math.max(MIN_QUOTA_FACTOR, refill(now) / rate);
+        }
+        return latencyNanos * (inFlight.get() + 1) / quota;
+    }
+
+    synchronized boolean isEjected(long now) {
+        return now < ejectedUntil;
+    }
+
+    synchronized long getEjectedUntil() {
+        return ejectedUntil;
+    }
+
+    synchronized void begin(long now) {
+        inFlight.incrementAndGet();
+        if (config.getRequestsPerSecond() > 0) {
+            tokens = Math.max(0, refill(now) - 1);
+        }
+    }
+
+    void end() {
+        inFlight.decrementAndGet();
+    }
+
+    synchronized void succeeded(long latency, long now) {
+        recordLatency(latency, now);
+        consecutiveFailures = 0;
+        ejections = 0;
+    }
+
+    /**
+     * Counts a failure, ejecting the endpoint for {@code ejectionNanos}, doubled for each ejection since it last
+     * succeeded and capped at {@code maxEjectionNanos}, once {@code threshold} failures have come in a row.
+     *
+     * @return whether the endpoint was ejected
+     */
+    synchronized boolean failed(long latency, long now, int threshold, long ejectionNanos, long maxEjectionNanos) {
+        // A quick failure, such as a refused connection, must not make the endpoint look fast.
+        latencyNanos = Math.max(latencyNanos, latency);
+        consecutiveFailures++;
+        if (consecutiveFailures < Math.max(1, threshold)) {
+            return false;
+        }
+        consecutiveFailures = 0;
+        long backoff = ejectionNanos << Math.min(ejections, 20);
+        ejections++;
+        ejectedUntil = now + Math.min(backoff, maxEjectionNanos);
+        return true;
+    }
+
+    /**
+     * Takes the endpoint out of rotation until its quota has recovered.
+     */
+    synchronized void throttled(long now, long retryAfterNanos) {
+        tokens = 0;
+        tokensUpdatedAt = now;
+        ejectedUntil = Math.max(ejectedUntil, now + retryAfterNanos);
+    }
+
+    synchronized double getLatencyMillis() {
+        return latencyNanos / 1_000_000;
+    }
+
+    private double refill(long now) {
+        double rate = config.getRequestsPerSecond();
+        tokens = Math.min(rate, tokens + rate * (now - tokensUpdatedAt) / 1e9);
+        tokensUpdatedAt = now;
+        return tokens;
+    }
+
+    private void recordLatency(long latency, long now) {
+        if (latency > latencyNanos) {
+            latencyNanos = latency;
+        } else {
+            double weight = Math.exp(-(double) (now - latencyUpdatedAt) / decayNanos);
+            latencyNanos = latencyNanos * weight + latency * (1 - weight);
+        }
+        latencyUpdatedAt = now;
+    }
+}
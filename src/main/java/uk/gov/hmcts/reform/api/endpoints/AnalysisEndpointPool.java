@@ -0,0 +1,254 @@
+package uk.gov.hmcts.reform.api.endpoints;
+
+import com.azure.ai.documentintelligence.DocumentIntelligenceClient;
+import com.azure.core.exception.HttpResponseException;
+import com.azure.core.http.HttpHeaderName;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import uk.gov.hmcts.reform.api.config.AnalysisEndpointProperties;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Spreads analyses over the Document Intelligence resources in {@code azure.document-intelligence.pool.endpoints},
+ * so throughput grows with the number of resources and their separate quotas. Without a list, the pool holds the
+ * single {@code azure.document-intelligence.endpoint}.
+ *
+ * <p>Each call goes to the endpoint with the lowest score: the peak EWMA of its latency, times the requests in
+ * flight to it, divided by the share of its {@code requests-per-second} quota left in a one-second token bucket.
+ * Fast, idle endpoints with quota to spare get the most work. Latency is how long the endpoint takes to accept an
+ * analysis, not how long the analysis then runs, so one large bundle does not make its endpoint look slow.
+ *
+ * <p>An endpoint that fails {@code consecutive-failures} times in a row, with a 5xx, a 408 or a connection error, is
+ * ejected for {@code ejection-time}, doubling on each ejection until it next succeeds, up to
+ * {@code max-ejection-time}. A 429 ejects it at once until its {@code Retry-After} has passed. A failed call is
+ * retried on another endpoint, up to {@code max-attempts} in all, so with several endpoints the clients themselves
+ * do not retry. Other errors, such as a 400 for a bad document, are the document's fault and are passed straight
+ * back. When every endpoint is ejected, the one due back first is used, so the pool never refuses outright.
+ *
+ * <p>Calls are counted in {@code documents.analysis.endpoint.calls}, tagged with the endpoint and the outcome, and
+ * ejections in {@code documents.analysis.endpoint.ejections}.
+ */
+@Slf4j
+@Component
+public class AnalysisEndpointPool {
+
+    static final String CALLS_METRIC = "documents.analysis.endpoint.calls";
+    static final String EJECTIONS_METRIC = "documents.analysis.endpoint.ejections";
+    static final String DEFAULT_NAME = "default";
+
+    private static final int TOO_MANY_REQUESTS = 429;
+    private static final int REQUEST_TIMEOUT = 408;
+    private static final int SERVER_ERROR = 500;
+    private static final long NOT_SUBMITTED = Long.MIN_VALUE;
+
+    private final AnalysisEndpointProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final LongSupplier clock;
+    private final List<AnalysisEndpoint> endpoints = new ArrayList<>();
+
+    @Autowired
+    public AnalysisEndpointPool(AnalysisEndpointProperties properties,
+                                AnalysisClientFactory clientFactory,
+                                MeterRegistry meterRegistry,
+                                @Value("${azure.document-intelligence.endpoint}") String endpoint,
+                                @Value("${azure.document-intelligence.key}") String key) {
+        this(properties, clientFactory, meterRegistry, endpoint, key, System::nanoTime);
+    }
+
+    AnalysisEndpointPool(AnalysisEndpointProperties properties,
+                         AnalysisClientFactory clientFactory,
+                         MeterRegistry meterRegistry,
+                         String endpoint,
+                         String key,
+                         LongSupplier clock) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.clock = clock;
+
+        List<AnalysisEndpointProperties.Endpoint> configured = new ArrayList<>(properties.getEndpoints());
+        if (configured.isEmpty()) {
+            AnalysisEndpointProperties.Endpoint single = new AnalysisEndpointProperties.Endpoint();
+            single.setName(DEFAULT_NAME);
+            single.setEndpoint(endpoint);
+            single.setKey(key);
+            single.setRequestsPerSecond(0);
+            configured.add(single);
+        }
+        // A lone endpoint has nowhere to fail over to, so its client keeps the SDK's own retries.
+        boolean retries = configured.size() == 1;
+        long now = clock.getAsLong();
+        for (int i = 0; i < configured.size(); i++) {
+            AnalysisEndpointProperties.Endpoint config = configured.get(i);
+            if (config.getName() == null) {
+                config.setName("endpoint-" + i);
+            }
+            AnalysisEndpoint member = new AnalysisEndpoint(
+                config, retries, clientFactory, properties.getLatencyDecay().toNanos(), now
+            );
+            endpoints.add(member);
+            Gauge.builder("documents.analysis.endpoint.latency", member, AnalysisEndpoint::getLatencyMillis)
+                .tag("endpoint", member.getName())
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Runs {@code call} against the best endpoint, and again against another if that endpoint fails. The whole call
+     * counts towards the endpoint's latency.
+     *
+     * @throws RuntimeException whatever the last attempt threw
+     */
+    public <T> T execute(Function<DocumentIntelligenceClient, T> call) {
+        return execute(call, Function.identity());
+    }
+
+    /**
+     * Runs {@code submit} against the best endpoint, then {@code await} on what it returned, and both again against
+     * another endpoint if either fails. Only {@code submit} counts towards the endpoint's latency, so a long-running
+     * operation can be started in one and polled to completion in the other.
+     *
+     * @throws RuntimeException whatever the last attempt threw
+     */
+    public <S, T> T execute(Function<DocumentIntelligenceClient, S> submit, Function<S, T> await) {
+        List<AnalysisEndpoint> tried = new ArrayList<>();
+        RuntimeException failure = null;
+        int attempts = Math.max(1, properties.getMaxAttempts());
+        while (tried.size() < attempts) {
+            AnalysisEndpoint endpoint = choose(tried);
+            if (endpoint == null) {
+                break;
+            }
+            tried.add(endpoint);
+
+            long start = clock.getAsLong();
+            long submitted = NOT_SUBMITTED;
+            endpoint.begin(start);
+            try {
+                S started = submit.apply(endpoint.client());
+                submitted = clock.getAsLong();
+                T result = await.apply(started);
+                endpoint.succeeded(submitted - start, clock.getAsLong());
+                count(endpoint, "success");
+                return result;
+            } catch (HttpResponseException ex) {
+                int status = ex.getResponse() != null ? ex.getResponse().getStatusCode() : 0;
+                if (status == TOO_MANY_REQUESTS) {
+                    endpoint.throttled(clock.getAsLong(), retryAfterNanos(ex));
+                    count(endpoint, "throttled");
+                } else if (status == REQUEST_TIMEOUT || status >= SERVER_ERROR) {
+                    failed(endpoint, latency(start, submitted));
+                } else {
+                    endpoint.succeeded(latency(start, submitted), clock.getAsLong());
+                    count(endpoint, "rejected");
+                    throw ex;
+                }
+                failure = ex;
+            } catch (RuntimeException ex) {
+                if (!isConnectionFailure(ex)) {
+                    count(endpoint, "error");
+                    throw ex;
+                }
+                failed(endpoint, latency(start, submitted));
+                failure = ex;
+            } finally {
+                endpoint.end();
+            }
+            log.warn("Analysis failed on endpoint {}", endpoint.getName(), failure);
+        }
+        throw failure;
+    }
+
+    /**
+     * The best endpoint not yet tried for this call, or null if there is none to try.
+     */
+    private AnalysisEndpoint choose(List<AnalysisEndpoint> tried) {
+        long now = clock.getAsLong();
+        AnalysisEndpoint best = null;
+        double bestScore = Double.MAX_VALUE;
+        AnalysisEndpoint soonestBack = null;
+        for (AnalysisEndpoint endpoint : endpoints) {
+            if (tried.contains(endpoint)) {
+                continue;
+            }
+            if (endpoint.isEjected(now)) {
+                if (soonestBack == null || endpoint.getEjectedUntil() < soonestBack.getEjectedUntil()) {
+                    soonestBack = endpoint;
+                }
+                continue;
+            }
+            double score = endpoint.score(now);
+            if (score < bestScore) {
+                best = endpoint;
+                bestScore = score;
+            }
+        }
+        if (best == null && tried.isEmpty()) {
+            return soonestBack;
+        }
+        return best;
+    }
+
+    /**
+     * How long the endpoint took to accept the call, or to fail it if it never did.
+     */
+    private long latency(long start, long submitted) {
+        return (submitted != NOT_SUBMITTED ? submitted : clock.getAsLong()) - start;
+    }
+
+    private void failed(AnalysisEndpoint endpoint, long latency) {
+        long now = clock.getAsLong();
+        count(endpoint, "failure");
+        boolean ejected = endpoint.failed(
+            latency,
+            now,
+            properties.getConsecutiveFailures(),
+            properties.getEjectionTime().toNanos(),
+            properties.getMaxEjectionTime().toNanos()
+        );
+        if (ejected) {
+            log.warn("Ejected analysis endpoint {} after {} failures in a row",
+                     endpoint.getName(), properties.getConsecutiveFailures());
+            Counter.builder(EJECTIONS_METRIC).tag("endpoint", endpoint.getName()).register(meterRegistry).increment();
+        }
+    }
+
+    private long retryAfterNanos(HttpResponseException ex) {
+        String retryAfter = ex.getResponse().getHeaderValue(HttpHeaderName.RETRY_AFTER);
+        if (retryAfter != null) {
+            try {
+                return Long.parseLong(retryAfter.trim()) * 1_000_000_000L;
+            } catch (NumberFormatException ignored) {
+                // An HTTP date; fall back to the ejection time.
+            }
+        }
+        return properties.getEjectionTime().toNanos();
+    }
+
+    private void count(AnalysisEndpoint endpoint, String outcome) {
+        Counter.builder(CALLS_METRIC)
+            .tag("endpoint", endpoint.getName())
+            .tag("outcome", outcome)
+            .register(meterRegistry)
+            .increment();
+    }
+
+    private static boolean isConnectionFailure(Throwable ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof IOException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,27 +1,85 @@
 package uk.gov.hmcts.reform.api.errorhandling;
 
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.validation.BindException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import uk.gov.hmcts.reform.api.errorhandling.exceptions.AnalysisFailedException;
+import uk.gov.hmcts.reform.api.errorhandling.exceptions.CapacityExceededException;
+import uk.gov.hmcts.reform.api.errorhandling.exceptions.InvalidCallbackException;
 import uk.gov.hmcts.reform.api.errorhandling.exceptions.InvalidFileException;
+import uk.gov.hmcts.reform.api.errorhandling.exceptions.JobNotFoundException;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Maps exceptions to responses. Client errors go through the {@link RejectionLog} rather than straight to the log,
+ * and responses for the fixed file rejection texts are built at most once a second per text and shared.
+ */
 @Slf4j
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
+    private static final String FILE = "file";
+    private static final String VALIDATION = "validation";
+    private static final String CALLBACK = "callback";
+    private static final int MAX_CACHED_RESPONSES = 64;
+
+    private final RejectionLog rejectionLog;
+    private final Map<String, CachedResponse> fileResponses = new ConcurrentHashMap<>();
+
+    public GlobalExceptionHandler(RejectionLog rejectionLog) {
+        this.rejectionLog = rejectionLog;
+    }
+
     @ExceptionHandler(InvalidFileException.class)
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ExceptionResponse handle(InvalidFileException ex) {
-        log.error("400, file failed validation. Details: {}", ex.getMessage());
+        rejectionLog.record(FILE, ex.getMessage());
+
+        return fileResponse(ex.getMessage());
+    }
+
+    @ExceptionHandler(CapacityExceededException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public ExceptionResponse handle(CapacityExceededException ex, HttpServletResponse response) {
+        log.warn("503, request not admitted. Details: {}", ex.getMessage());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfter().toSeconds()));
+
+        return new ExceptionResponse(ex.getMessage(), LocalDateTime.now(), null);
+    }
+
+    @ExceptionHandler(AnalysisFailedException.class)
+    @ResponseStatus(HttpStatus.BAD_GATEWAY)
+    public ExceptionResponse handle(AnalysisFailedException ex) {
+        log.error("502, document analysis failed. Details: {}", ex.getMessage());
+
+        return new ExceptionResponse(ex.getMessage(), LocalDateTime.now(), null);
+    }
+
+    @ExceptionHandler(JobNotFoundException.class)
+    @ResponseStatus(HttpStatus.NOT_FOUND)
+    public ExceptionResponse handle(JobNotFoundException ex) {
+        log.warn("404, analysis job not found. Details: {}", ex.getMessage());
+
+        return new ExceptionResponse(ex.getMessage(), LocalDateTime.now(), null);
+    }
+
+    @ExceptionHandler(InvalidCallbackException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ExceptionResponse handle(InvalidCallbackException ex) {
+        rejectionLog.record(CALLBACK, ex.getMessage());
 
         return new ExceptionResponse(ex.getMessage(), LocalDateTime.now(), null);
     }
@@ -30,13 +88,40 @@ public class GlobalExceptionHandler {
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ExceptionResponse handleValidationExceptions(Exception ex) {
         List<ValidationError> errors = extractValidationErrors(ex);
-        String message = errors.isEmpty()
-            ? "Bad request"
-            : "Validation failed: " + errors.stream()
-                .map(err -> err.getField() + " " + err.getMessage())
-                .collect(Collectors.joining("; "));
-        log.error("400, request validation failed. Details: {}", message);
-        return new ExceptionResponse(message, LocalDateTime.now(), errors.isEmpty() ? null : errors);
+        if (errors.isEmpty()) {
+            rejectionLog.record(VALIDATION, "Bad request");
+            return new ExceptionResponse("Bad request", LocalDateTime.now(), null);
+        }
+        StringBuilder message = new StringBuilder("Validation failed: ");
+        for (int i = 0; i < errors.size(); i++) {
+            if (i > 0) {
+                message.append("; ");
+            }
+            message.append(errors.get(i).getField()).append(' ').append(errors.get(i).getMessage());
+        }
+        String text = message.toString();
+        rejectionLog.record(VALIDATION, text);
+        return new ExceptionResponse(text, LocalDateTime.now(), errors);
+    }
+
+    private ExceptionResponse fileResponse(String message) {
+        if (message == null) {
+            return new ExceptionResponse(null, LocalDateTime.now(), null);
+        }
+        long second = System.currentTimeMillis() / 1000;
+        CachedResponse cached = fileResponses.get(message);
+        if (cached != null && cached.second == second) {
+            // Only ever read, by the message converter, so one instance can serve concurrent responses.
+            return cached.response;
+        }
+        if (cached == null && fileResponses.size() >= MAX_CACHED_RESPONSES) {
+            // Texts carrying per-file numbers can fill the cache; start again rather than grow.
+            fileResponses.clear();
+        }
+        LocalDateTime timestamp = LocalDateTime.ofInstant(Instant.ofEpochSecond(second), ZoneId.systemDefault());
+        CachedResponse refreshed = new CachedResponse(second, new ExceptionResponse(message, timestamp, null));
+        fileResponses.put(message, refreshed);
+        return refreshed.response;
     }
 
     private List<ValidationError> extractValidationErrors(Exception ex) {
@@ -52,4 +137,14 @@ public class GlobalExceptionHandler {
         }
         return errors;
     }
+
+    private static final class CachedResponse {
+        private final long second;
+        private final ExceptionResponse response;
+
+        private CachedResponse(long second, ExceptionResponse response) {
+            this.second = second;
+            this.response = response;
+        }
+    }
 }
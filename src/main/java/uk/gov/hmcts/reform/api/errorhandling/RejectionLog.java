@@ -0,0 +1,153 @@
+package uk.gov.hmcts.reform.api.errorhandling;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import uk.gov.hmcts.reform.api.config.RejectionLogProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Logs rejected requests off the request thread, so a flood of bad uploads costs the rejecting thread a counter
+ * increment rather than a log write.
+ *
+ * <p>Every {@code app.rejection-log.flush-interval} a background thread writes the first
+ * {@code max-details-per-interval} rejections of the interval in full, then one summary line counting all of them
+ * by reason. Reasons are the rejection messages, up to {@code max-reasons} distinct ones per interval; the rest
+ * are counted as {@code other}. Each rejection is also counted in {@code documents.rejections}, tagged with its kind.
+ * Until started, or with the log disabled, each rejection is logged as it happens.
+ */
+@Slf4j
+@Component
+public class RejectionLog implements SmartLifecycle {
+
+    static final String REJECTIONS_METRIC = "documents.rejections";
+    static final String OTHER_REASON = "other";
+
+    private final RejectionLogProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    private final AtomicReference<Map<String, LongAdder>> reasons = new AtomicReference<>(new ConcurrentHashMap<>());
+    private final AtomicInteger detailPermits;
+    private final BlockingQueue<Rejection> details;
+    private ScheduledExecutorService flusher;
+    private volatile boolean running;
+
+    public RejectionLog(RejectionLogProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        int maxDetails = Math.max(1, properties.getMaxDetailsPerInterval());
+        this.detailPermits = new AtomicInteger(maxDetails);
+        this.details = new ArrayBlockingQueue<>(maxDetails);
+    }
+
+    /**
+     * Counts a rejection of the given {@code kind}, such as {@code file} or {@code validation}, and queues its
+     * message to be logged if the interval still has room for details.
+     */
+    public void record(String kind, String message) {
+        counter(kind).increment();
+        if (!running) {
+            log.warn("400, {} rejected. Details: {}", kind, message);
+            return;
+        }
+
+        Map<String, LongAdder> current = reasons.get();
+        LongAdder tally = current.get(message);
+        if (tally == null) {
+            String reason = current.size() < properties.getMaxReasons() ? message : OTHER_REASON;
+            tally = current.computeIfAbsent(reason, key -> new LongAdder());
+        }
+        tally.increment();
+
+        if (detailPermits.decrementAndGet() >= 0) {
+            details.offer(new Rejection(kind, message));
+        }
+    }
+
+    @Override
+    public synchronized void start() {
+        if (!properties.isEnabled() || running) {
+            return;
+        }
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "rejection-log");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = Math.max(1, properties.getFlushInterval().toMillis());
+        flusher.scheduleWithFixedDelay(this::flush, interval, interval, TimeUnit.MILLISECONDS);
+        running = true;
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        flusher.shutdownNow();
+        flush();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    void flush() {
+        List<Rejection> sampled = new ArrayList<>();
+        details.drainTo(sampled);
+        Map<String, LongAdder> interval = reasons.getAndSet(new ConcurrentHashMap<>());
+        detailPermits.set(Math.max(1, properties.getMaxDetailsPerInterval()));
+
+        for (Rejection rejection : sampled) {
+            log.warn("400, {} rejected. Details: {}", rejection.kind, rejection.message);
+        }
+
+        long total = 0;
+        StringBuilder summary = new StringBuilder();
+        for (Map.Entry<String, LongAdder> entry : interval.entrySet()) {
+            long count = entry.getValue().sum();
+            total += count;
+            if (!summary.isEmpty()) {
+                summary.append("; ");
+            }
+            summary.append(count).append(" x ").append(entry.getKey());
+        }
+        if (total > sampled.size()) {
+            log.warn("{} requests rejected in the last {}, {} logged in full: {}",
+                     total, properties.getFlushInterval(), sampled.size(), summary);
+        }
+    }
+
+    private Counter counter(String kind) {
+        return counters.computeIfAbsent(
+            kind,
+            key -> Counter.builder(REJECTIONS_METRIC).tag("kind", key).register(meterRegistry)
+        );
+    }
+
+    private static final class Rejection {
+        private final String kind;
+        private final String message;
+
+        private Rejection(String kind, String message) {
+            this.kind = kind;
+            this.message = message;
+        }
+    }
+}
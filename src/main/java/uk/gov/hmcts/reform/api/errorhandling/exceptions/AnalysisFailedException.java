@@ -0,0 +1,7 @@
+package uk.gov.hmcts.reform.api.errorhandling.exceptions;
+
+import lombok.experimental.StandardException;
+
+@StandardException
+public class AnalysisFailedException extends RuntimeException {
+}
@@ -0,0 +1,16 @@
+package uk.gov.hmcts.reform.api.errorhandling.exceptions;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+@Getter
+public class CapacityExceededException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public CapacityExceededException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+}
@@ -0,0 +1,386 @@
+package uk.gov.hmcts.reform.api.imaging;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+import uk.gov.hmcts.reform.api.admission.AdmissionController;
+import uk.gov.hmcts.reform.api.buffers.BufferPool;
+import uk.gov.hmcts.reform.api.buffers.Lease;
+import uk.gov.hmcts.reform.api.config.NormalisationProperties;
+import uk.gov.hmcts.reform.api.intake.SpooledDocument;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Straightens rotated and skewed single-page scans before they are sent for analysis.
+ *
+ * <p>The correction is estimated by {@link SkewEstimator} on a subsampled view. It is then applied band by band:
+ * one reader decodes the source top to bottom in full-width bands of {@code band-height} rows, and each band is
+ * converted to greyscale and resampled into a single greyscale output buffer on a fork-join pool, every output
+ * pixel taken from the band holding its source row. The source raster is never held whole, so a 100-megapixel page
+ * costs one byte per output pixel plus one band; band rasters and scratch arrays come from the {@link BufferPool}.
+ * The JDK's PNG and JPEG readers cannot resume where the previous band ended and decode the rows above a band
+ * again to reach it, so a page costs about {@code (bands + 1) / 2} decodes: taller bands are faster and use more
+ * memory.
+ *
+ * <p>The result is spooled as a greyscale PNG next to the upload. A corrected page loses its colour, and a
+ * corrected JPEG is no longer embedded as JPEG data when several images are combined into one PDF.
+ *
+ * <p>Multi-page TIFFs and PDFs pass through unchanged.
+ */
+@Slf4j
+@Component
+public class DocumentNormaliser implements DisposableBean {
+
+    static final String CORRECTED_METRIC = "documents.normalisation.corrected";
+    private static final int DEFAULT_MAX_PARALLELISM = 4;
+    private static final byte WHITE = (byte) 0xFF;
+    private static final int MIN_ROWS_PER_TASK = 32;
+
+    private final NormalisationProperties properties;
+    private final AdmissionController admissionController;
+    private final BufferPool bufferPool;
+    private final MeterRegistry meterRegistry;
+    private final ForkJoinPool pool;
+
+    public DocumentNormaliser(NormalisationProperties properties,
+                              AdmissionController admissionController,
+                              BufferPool bufferPool,
+                              MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.admissionController = admissionController;
+        this.bufferPool = bufferPool;
+        this.meterRegistry = meterRegistry;
+        int parallelism = properties.getParallelism() > 0
+            ? properties.getParallelism()
+            : Math.min(DEFAULT_MAX_PARALLELISM, Runtime.getRuntime().availableProcessors());
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    /**
+     * Returns a corrected copy of {@code document}, or {@code document} itself when there is nothing to correct.
+     * The caller closes a returned copy.
+     */
+    public SpooledDocument normalise(SpooledDocument document) {
+        if (!properties.isEnabled()) {
+            return document;
+        }
+
+        try {
+            Rotation rotation = plan(document);
+            if (rotation == null) {
+                return document;
+            }
+            SpooledDocument corrected = correct(document, rotation);
+            meterRegistry.counter(CORRECTED_METRIC, "quarterTurns", String.valueOf(rotation.quarterTurns))
+                .increment();
+            return corrected;
+        } catch (IOException | UncheckedIOException ex) {
+            // Validation has already accepted the file; an uncorrected page is better than a failed request.
+            log.warn("Skipping normalisation of {}", document.getOriginalFilename(), ex);
+            return document;
+        }
+    }
+
+    private Rotation plan(SpooledDocument document) throws IOException {
+        try (ImageInputStream input = document.openImageStream()) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, false, true);
+                if (isTiff(reader) && reader.getNumImages(true) > 1) {
+                    return null;
+                }
+
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                ImageReadParam param = ImageQualityAnalyser.subsample(
+                    reader.getDefaultReadParam(),
+                    width,
+                    height,
+                    properties.getSampleSize()
+                );
+                int viewWidth = (width + param.getSourceXSubsampling() - 1) / param.getSourceXSubsampling();
+                int viewHeight = (height + param.getSourceYSubsampling() - 1) / param.getSourceYSubsampling();
+                OrientationEstimate estimate;
+                try (Lease<BufferedImage> view = read(reader, param, viewWidth, viewHeight)) {
+                    estimate = SkewEstimator.estimate(
+                        view.get().getSubimage(0, 0, viewWidth, viewHeight),
+                        properties.getInkThreshold(),
+                        properties.getMaxSkewDegrees()
+                    );
+                }
+                if (estimate.isNegligible(properties.getMinCorrectionDegrees())) {
+                    return null;
+                }
+                return new Rotation(width, height, estimate);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private SpooledDocument correct(SpooledDocument document, Rotation rotation) throws IOException {
+        int bandHeight = Math.max(1, properties.getBandHeight());
+        admissionController.refineForNormalisation(
+            document.getSize(),
+            (long) rotation.outputWidth * rotation.outputHeight,
+            (long) rotation.sourceWidth * Math.min(bandHeight + 1, rotation.sourceHeight)
+        );
+
+        BufferedImage output = new BufferedImage(
+            rotation.outputWidth,
+            rotation.outputHeight,
+            BufferedImage.TYPE_BYTE_GRAY
+        );
+        byte[] pixels = ((DataBufferByte) output.getRaster().getDataBuffer()).getData();
+        Arrays.fill(pixels, WHITE);
+
+        try (ImageInputStream input = document.openImageStream()) {
+            ImageReader reader = ImageIO.getImageReaders(input).next();
+            try {
+                reader.setInput(input, false, true);
+                for (int top = 0; top < rotation.sourceHeight; top += bandHeight) {
+                    correctBand(reader, rotation, pixels, top, Math.min(top + bandHeight, rotation.sourceHeight));
+                }
+            } finally {
+                reader.dispose();
+            }
+        }
+
+        Path target = Files.createTempFile(document.getPath().getParent(), "normalised-", ".png");
+        try {
+            if (!ImageIO.write(output, "png", target.toFile())) {
+                throw new IOException("No PNG writer available");
+            }
+            return new SpooledDocument(target, document.getOriginalFilename(), "image/png");
+        } catch (IOException | RuntimeException ex) {
+            Files.deleteIfExists(target);
+            throw ex;
+        }
+    }
+
+    /**
+     * Fills the output pixels whose source row is in {@code [top, bottom)}, or above or below the page for the first
+     * and last bands.
+     */
+    private void correctBand(ImageReader reader, Rotation rotation, byte[] pixels, int top, int bottom)
+        throws IOException {
+        int width = rotation.sourceWidth;
+        // One row more than the band owns: bilinear sampling reads the row below.
+        int rows = Math.min(bottom + 1, rotation.sourceHeight) - top;
+        ImageReadParam param = reader.getDefaultReadParam();
+        param.setSourceRegion(new Rectangle(0, top, width, rows));
+        try (Lease<BufferedImage> source = read(reader, param, width, rows);
+             Lease<byte[]> grey = bufferPool.leaseBytes(width * rows)) {
+            Band band = new Band(
+                grey.get(),
+                width,
+                top,
+                rows,
+                top == 0 ? Double.NEGATIVE_INFINITY : top,
+                bottom == rotation.sourceHeight ? Double.POSITIVE_INFINITY : bottom
+            );
+            pool.invoke(rowTask((from, to) -> greyscale(source.get(), band, from, to), rows));
+            pool.invoke(rowTask((from, to) -> resample(rotation, pixels, band, from, to), rotation.outputHeight));
+        }
+    }
+
+    /**
+     * Splits {@code rows} into a few tasks per worker, which keeps the pool busy without tasks too small to pay off.
+     */
+    private RowTask rowTask(RowAction action, int rows) {
+        return new RowTask(action, 0, rows, Math.max(MIN_ROWS_PER_TASK, rows / (pool.getParallelism() * 4)));
+    }
+
+    /**
+     * Resamples the pixels of output rows {@code [from, to)} that fall in {@code band}.
+     */
+    private static void resample(Rotation rotation, byte[] pixels, Band band, int from, int to) {
+        // Along an output row the source row changes linearly, so only a span of each row can fall in the band.
+        double slope = -rotation.sin;
+        for (int v = from; v < to; v++) {
+            int startU = 0;
+            int endU = rotation.outputWidth;
+            if (slope != 0) {
+                double atZero = rotation.sourceY(0.5, v + 0.5) - 0.5;
+                double first = (band.ownedFrom - atZero) / slope;
+                double last = (band.ownedTo - atZero) / slope;
+                startU = (int) Math.max(0, Math.floor(Math.min(first, last)) - 1);
+                endU = (int) Math.min(rotation.outputWidth, Math.ceil(Math.max(first, last)) + 2);
+            }
+            int offset = v * rotation.outputWidth;
+            for (int u = startU; u < endU; u++) {
+                double x = rotation.sourceX(u + 0.5, v + 0.5) - 0.5;
+                double y = rotation.sourceY(u + 0.5, v + 0.5) - 0.5;
+                if (y < band.ownedFrom || y >= band.ownedTo) {
+                    continue;
+                }
+                if (x < -0.5 || y < -0.5 || x > rotation.sourceWidth - 0.5 || y > rotation.sourceHeight - 0.5) {
+                    continue;
+                }
+                pixels[offset + u] = (byte) bilinear(band.grey, band.width, band.rows, x, y - band.top);
+            }
+        }
+    }
+
+    /**
+     * Decodes into a pooled destination; the image is in its top-left {@code width} by {@code height} corner.
+     */
+    private Lease<BufferedImage> read(ImageReader reader, ImageReadParam param, int width, int height)
+        throws IOException {
+        Lease<BufferedImage> destination = bufferPool.leaseImage(reader.getImageTypes(0).next(), width, height);
+        try {
+            param.setDestination(destination.get());
+            reader.read(0, param);
+            return destination;
+        } catch (IOException | RuntimeException ex) {
+            destination.close();
+            throw ex;
+        }
+    }
+
+    private static void greyscale(BufferedImage image, Band band, int from, int to) {
+        int width = band.width;
+        int[] row = new int[width];
+        for (int y = from; y < to; y++) {
+            image.getRGB(0, y, width, 1, row, 0, width);
+            int offset = y * width;
+            for (int x = 0; x < width; x++) {
+                band.grey[offset + x] = (byte) ImageQualityAnalyser.luminance(row[x]);
+            }
+        }
+    }
+
+    private static int bilinear(byte[] grey, int width, int height, double x, double y) {
+        int x0 = Math.min(Math.max((int) Math.floor(x), 0), width - 1);
+        int y0 = Math.min(Math.max((int) Math.floor(y), 0), height - 1);
+        int x1 = Math.min(x0 + 1, width - 1);
+        int y1 = Math.min(y0 + 1, height - 1);
+        double fx = Math.min(Math.max(x - x0, 0), 1);
+        double fy = Math.min(Math.max(y - y0, 0), 1);
+
+        double top = (grey[y0 * width + x0] & 0xFF) * (1 - fx) + (grey[y0 * width + x1] & 0xFF) * fx;
+        double bottom = (grey[y1 * width + x0] & 0xFF) * (1 - fx) + (grey[y1 * width + x1] & 0xFF) * fx;
+        return (int) Math.round(top * (1 - fy) + bottom * fy);
+    }
+
+    private static boolean isTiff(ImageReader reader) {
+        return reader.getOriginatingProvider() != null
+            && Arrays.asList(reader.getOriginatingProvider().getMIMETypes()).contains("image/tiff");
+    }
+
+    @Override
+    public void destroy() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Rotation of the page about its centre into an output canvas large enough to hold all of it.
+     */
+    private static final class Rotation {
+        private final int quarterTurns;
+        private final int sourceWidth;
+        private final int sourceHeight;
+        private final int outputWidth;
+        private final int outputHeight;
+        private final double sin;
+        private final double cos;
+
+        Rotation(int sourceWidth, int sourceHeight, OrientationEstimate estimate) {
+            this.quarterTurns = estimate.getQuarterTurns();
+            this.sourceWidth = sourceWidth;
+            this.sourceHeight = sourceHeight;
+            double radians = Math.toRadians(estimate.getCorrectionDegrees());
+            this.sin = Math.sin(radians);
+            this.cos = Math.cos(radians);
+            this.outputWidth = (int) Math.max(1, Math.round(
+                Math.abs(cos) * sourceWidth + Math.abs(sin) * sourceHeight
+            ));
+            this.outputHeight = (int) Math.max(1, Math.round(
+                Math.abs(sin) * sourceWidth + Math.abs(cos) * sourceHeight
+            ));
+        }
+
+        double sourceX(double u, double v) {
+            return cos * (u - outputWidth / 2.0) + sin * (v - outputHeight / 2.0) + sourceWidth / 2.0;
+        }
+
+        double sourceY(double u, double v) {
+            return -sin * (u - outputWidth / 2.0) + cos * (v - outputHeight / 2.0) + sourceHeight / 2.0;
+        }
+    }
+
+    /**
+     * Decoded source rows {@code [top, top + rows)} in greyscale, owning the output pixels whose source row is in
+     * {@code [ownedFrom, ownedTo)}.
+     */
+    private static final class Band {
+        private final byte[] grey;
+        private final int width;
+        private final int top;
+        private final int rows;
+        private final double ownedFrom;
+        private final double ownedTo;
+
+        Band(byte[] grey, int width, int top, int rows, double ownedFrom, double ownedTo) {
+            this.grey = grey;
+            this.width = width;
+            this.top = top;
+            this.rows = rows;
+            this.ownedFrom = ownedFrom;
+            this.ownedTo = ownedTo;
+        }
+    }
+
+    private interface RowAction {
+        void apply(int from, int to);
+    }
+
+    private static final class RowTask extends RecursiveAction {
+
+        private final RowAction action;
+        private final int from;
+        private final int to;
+        private final int rowsPerLeaf;
+
+        RowTask(RowAction action, int from, int to, int rowsPerLeaf) {
+            this.action = action;
+            this.from = from;
+            this.to = to;
+            this.rowsPerLeaf = rowsPerLeaf;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= rowsPerLeaf) {
+                action.apply(from, to);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(
+                new RowTask(action, from, middle, rowsPerLeaf),
+                new RowTask(action, middle, to, rowsPerLeaf)
+            );
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package uk.gov.hmcts.reform.api.imaging;
+
+import javax.imageio.ImageReadParam;
+import java.awt.image.BufferedImage;
+
+/**
+ * Scores scan quality in a single pass over a small greyscale view.
+ *
+ * <p>Callers decode that view directly with {@link #subsample}, so a 100-megapixel scan costs a few hundred
+ * kilobytes rather than a full raster. Scoring needs one greyscale byte per view pixel, which callers may lend from
+ * the buffer pool, and one row buffer.
+ */
+public final class ImageQualityAnalyser {
+
+    private ImageQualityAnalyser() {
+    }
+
+    /**
+     * Configures {@code param} so the decoded view's longest edge is at most {@code sampleSize} pixels.
+     */
+    public static ImageReadParam subsample(ImageReadParam param, long width, long height, int sampleSize) {
+        int step = step(width, height, sampleSize);
+        param.setSourceSubsampling(step, step, 0, 0);
+        return param;
+    }
+
+    /**
+     * Pixel count of the view {@link #subsample} would decode.
+     */
+    public static long sampledPixels(long width, long height, int sampleSize) {
+        int step = step(width, height, sampleSize);
+        return ((width + step - 1) / step) * ((height + step - 1) / step);
+    }
+
+    private static int step(long width, long height, int sampleSize) {
+        long longestEdge = Math.max(width, height);
+        return (int) Math.max(1, (longestEdge + sampleSize - 1) / sampleSize);
+    }
+
+    public static QualityScore score(BufferedImage view, int inkThreshold) {
+        return score(view, inkThreshold, new byte[view.getWidth() * view.getHeight()]);
+    }
+
+    /**
+     * As {@link #score(BufferedImage, int)}, using {@code grey} (at least one byte per view pixel) as scratch.
+     */
+    public static QualityScore score(BufferedImage view, int inkThreshold, byte[] grey) {
+        int width = view.getWidth();
+        int height = view.getHeight();
+        int[] row = new int[width];
+
+        long inkPixels = 0;
+        long sum = 0;
+        long sumOfSquares = 0;
+        for (int y = 0; y < height; y++) {
+            view.getRGB(0, y, width, 1, row, 0, width);
+            int offset = y * width;
+            for (int x = 0; x < width; x++) {
+                int luminance = luminance(row[x]);
+                grey[offset + x] = (byte) luminance;
+                sum += luminance;
+                sumOfSquares += (long) luminance * luminance;
+                if (luminance < inkThreshold) {
+                    inkPixels++;
+                }
+            }
+        }
+
+        long pixels = (long) width * height;
+        return new QualityScore(
+            laplacianVariance(grey, width, height),
+            standardDeviation(sum, sumOfSquares, pixels),
+            pixels == 0 ? 0 : (double) inkPixels / pixels
+        );
+    }
+
+    static int luminance(int rgb) {
+        return (((rgb >> 16) & 0xFF) * 77 + ((rgb >> 8) & 0xFF) * 150 + (rgb & 0xFF) * 29) >> 8;
+    }
+
+    private static double laplacianVariance(byte[] grey, int width, int height) {
+        if (width < 3 || height < 3) {
+            return 0;
+        }
+
+        long sum = 0;
+        long sumOfSquares = 0;
+        for (int y = 1; y < height - 1; y++) {
+            int offset = y * width;
+            for (int x = 1; x < width - 1; x++) {
+                int i = offset + x;
+                int laplacian = (grey[i - 1] & 0xFF) + (grey[i + 1] & 0xFF)
+                    + (grey[i - width] & 0xFF) + (grey[i + width] & 0xFF)
+                    - 4 * (grey[i] & 0xFF);
+                sum += laplacian;
+                sumOfSquares += (long) laplacian * laplacian;
+            }
+        }
+        return variance(sum, sumOfSquares, (long) (width - 2) * (height - 2));
+    }
+
+    private static double standardDeviation(long sum, long sumOfSquares, long count) {
+        return Math.sqrt(variance(sum, sumOfSquares, count));
+    }
+
+    private static double variance(long sum, long sumOfSquares, long count) {
+        if (count == 0) {
+            return 0;
+        }
+        double mean = (double) sum / count;
+        return Math.max(0, (double) sumOfSquares / count - mean * mean);
+    }
+}
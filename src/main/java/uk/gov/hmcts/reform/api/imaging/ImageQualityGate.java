@@ -0,0 +1,89 @@
+package uk.gov.hmcts.reform.api.imaging;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import uk.gov.hmcts.reform.api.buffers.BufferPool;
+import uk.gov.hmcts.reform.api.buffers.Lease;
+import uk.gov.hmcts.reform.api.config.UploadValidationProperties;
+import uk.gov.hmcts.reform.api.errorhandling.exceptions.InvalidFileException;
+
+import java.awt.image.BufferedImage;
+import java.util.List;
+
+/**
+ * Applies the {@code app.upload.quality} thresholds to the scores of an image's pages.
+ *
+ * <p>In {@code REJECT} mode a poor scan fails validation before it reaches Azure; in {@code FLAG} mode it is only
+ * counted and logged. Blank pages are normal inside scanned bundles, so a multi-page image is only treated as
+ * blank when every page is.
+ */
+@Slf4j
+@Component
+public class ImageQualityGate {
+
+    static final String REJECTED_METRIC = "documents.quality.rejected";
+    static final String FLAGGED_METRIC = "documents.quality.flagged";
+
+    private final UploadValidationProperties.Quality properties;
+    private final BufferPool bufferPool;
+    private final MeterRegistry meterRegistry;
+
+    public ImageQualityGate(UploadValidationProperties properties, BufferPool bufferPool, MeterRegistry meterRegistry) {
+        this.properties = properties.getQuality();
+        this.bufferPool = bufferPool;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public boolean isEnabled() {
+        return properties.getMode() != UploadValidationProperties.Quality.Mode.OFF;
+    }
+
+    public int getSampleSize() {
+        return properties.getSampleSize();
+    }
+
+    public QualityScore score(BufferedImage view) {
+        try (Lease<byte[]> grey = bufferPool.leaseBytes(view.getWidth() * view.getHeight())) {
+            return ImageQualityAnalyser.score(view, properties.getInkThreshold(), grey.get());
+        }
+    }
+
+    public void check(List<QualityScore> pages) {
+        if (!isEnabled() || pages.isEmpty()) {
+            return;
+        }
+
+        QualityIssue issue = evaluate(pages);
+        if (issue == null) {
+            return;
+        }
+        if (properties.getMode() == UploadValidationProperties.Quality.Mode.REJECT) {
+            meterRegistry.counter(REJECTED_METRIC, "reason", issue.name()).increment();
+            throw new InvalidFileException(issue.getMessage());
+        }
+        meterRegistry.counter(FLAGGED_METRIC, "reason", issue.name()).increment();
+        log.info("Image flagged for quality: {} {}", issue, pages);
+    }
+
+    QualityIssue evaluate(List<QualityScore> pages) {
+        if (pages.stream().allMatch(page -> page.getInkCoverage() < properties.getMinInkCoverage())) {
+            return QualityIssue.BLANK;
+        }
+        for (QualityScore page : pages) {
+            if (page.getInkCoverage() < properties.getMinInkCoverage()) {
+                continue;
+            }
+            if (page.getInkCoverage() > properties.getMaxInkCoverage()) {
+                return QualityIssue.TOO_DARK;
+            }
+            if (page.getContrast() < properties.getMinContrast()) {
+                return QualityIssue.LOW_CONTRAST;
+            }
+            if (page.getSharpness() < properties.getMinSharpness()) {
+                return QualityIssue.BLURRY;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,23 @@
+package uk.gov.hmcts.reform.api.imaging;
+
+import lombok.Value;
+
+/**
+ * Correction for a page whose text lines are not horizontal.
+ *
+ * <p>{@code quarterTurns} is 1 when the lines run vertically. Projection profiles cannot tell a page from its
+ * mirror-image rotation, so upside-down pages are left as they are; Azure reads those itself.
+ */
+@Value
+public class OrientationEstimate {
+    int quarterTurns;
+    double skewDegrees;
+
+    public double getCorrectionDegrees() {
+        return quarterTurns * 90 + skewDegrees;
+    }
+
+    public boolean isNegligible(double minCorrectionDegrees) {
+        return quarterTurns == 0 && Math.abs(skewDegrees) < minCorrectionDegrees;
+    }
+}
@@ -0,0 +1,15 @@
+package uk.gov.hmcts.reform.api.imaging;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public enum QualityIssue {
+    BLANK("Image appears to be blank."),
+    TOO_DARK("Image is too dark to analyse."),
+    LOW_CONTRAST("Image contrast is too low to analyse."),
+    BLURRY("Image is too blurry to analyse.");
+
+    private final String message;
+}
@@ -0,0 +1,19 @@
+package uk.gov.hmcts.reform.api.imaging;
+
+import lombok.Value;
+
+/**
+ * Quality measures for one image or page, taken from a downsampled greyscale view.
+ *
+ * <ul>
+ *     <li>{@code sharpness}: variance of the Laplacian; low values mean few edges, i.e. blur</li>
+ *     <li>{@code contrast}: standard deviation of luminance (0-255)</li>
+ *     <li>{@code inkCoverage}: fraction of pixels darker than the ink threshold</li>
+ * </ul>
+ */
+@Value
+public class QualityScore {
+    double sharpness;
+    double contrast;
+    double inkCoverage;
+}
@@ -0,0 +1,150 @@
+package uk.gov.hmcts.reform.api.imaging;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * Estimates page rotation and skew from projection profiles of a small greyscale view.
+ *
+ * <p>Ink pixels are projected onto the vertical axis of the page turned by each candidate angle. Text lines
+ * give a profile of sharp peaks and empty gaps when they are horizontal, so the angle with the most peaked
+ * profile (largest sum of squared bin counts) is the correction. Glyph strokes make a page turned a quarter
+ * turn peaky too, so orientation is decided on the share of empty bins instead: only the gaps between text lines
+ * run the full width of the page. Angles use the {@link java.awt.Graphics2D#rotate(double)} convention.
+ */
+public final class SkewEstimator {
+
+    private static final double COARSE_STEP_DEGREES = 1.0;
+    private static final double FINE_STEP_DEGREES = 0.1;
+    // Column gaps must clearly outnumber row gaps before a page is turned, so tables and sparse pages stay put.
+    private static final double QUARTER_TURN_MARGIN = 1.25;
+    private static final int MAX_POINTS = 200_000;
+
+    private SkewEstimator() {
+    }
+
+    public static OrientationEstimate estimate(BufferedImage view, int inkThreshold, double maxSkewDegrees) {
+        InkPoints ink = InkPoints.of(view, inkThreshold);
+        if (ink.count == 0) {
+            return new OrientationEstimate(0, 0);
+        }
+
+        double rows = search(ink, 0, maxSkewDegrees);
+        double columns = search(ink, 90, maxSkewDegrees);
+        if (gapFraction(ink, 90 + columns) > gapFraction(ink, rows) * QUARTER_TURN_MARGIN) {
+            return new OrientationEstimate(1, columns);
+        }
+        return new OrientationEstimate(0, rows);
+    }
+
+    private static double search(InkPoints ink, double baseDegrees, double maxSkewDegrees) {
+        double best = best(ink, baseDegrees, -maxSkewDegrees, maxSkewDegrees, COARSE_STEP_DEGREES);
+        return best(ink, baseDegrees, best - COARSE_STEP_DEGREES, best + COARSE_STEP_DEGREES, FINE_STEP_DEGREES);
+    }
+
+    private static double best(InkPoints ink, double baseDegrees, double from, double to, double step) {
+        double bestSkew = 0;
+        double bestScore = -1;
+        int steps = (int) Math.round((to - from) / step);
+        for (int i = 0; i <= steps; i++) {
+            double skew = from + i * step;
+            double score = profileScore(ink, baseDegrees + skew);
+            // Ties go to the smaller correction, so uniform pages are not rotated for nothing.
+            if (score > bestScore || score == bestScore && Math.abs(skew) < Math.abs(bestSkew)) {
+                bestScore = score;
+                bestSkew = skew;
+            }
+        }
+        return bestSkew;
+    }
+
+    private static double gapFraction(InkPoints ink, double degrees) {
+        int[] bins = profile(ink, degrees);
+        int first = 0;
+        while (bins[first] == 0) {
+            first++;
+        }
+        int last = bins.length - 1;
+        while (bins[last] == 0) {
+            last--;
+        }
+        int gaps = 0;
+        for (int i = first; i <= last; i++) {
+            if (bins[i] == 0) {
+                gaps++;
+            }
+        }
+        return (double) gaps / (last - first + 1);
+    }
+
+    private static int[] profile(InkPoints ink, double degrees) {
+        double radians = Math.toRadians(degrees);
+        double sin = Math.sin(radians);
+        double cos = Math.cos(radians);
+        int offset = ink.width + ink.height;
+        int[] bins = new int[2 * offset + 1];
+        for (int i = 0; i < ink.count; i++) {
+            bins[(int) Math.round(sin * ink.xs[i] + cos * ink.ys[i]) + offset]++;
+        }
+        return bins;
+    }
+
+    private static double profileScore(InkPoints ink, double degrees) {
+        int[] bins = profile(ink, degrees);
+        double score = 0;
+        for (int bin : bins) {
+            score += (double) bin * bin;
+        }
+        return score;
+    }
+
+    private static final class InkPoints {
+        private final int width;
+        private final int height;
+        private final int[] xs;
+        private final int[] ys;
+        private int count;
+
+        private InkPoints(int width, int height, int capacity) {
+            this.width = width;
+            this.height = height;
+            this.xs = new int[capacity];
+            this.ys = new int[capacity];
+        }
+
+        static InkPoints of(BufferedImage view, int inkThreshold) {
+            int width = view.getWidth();
+            int height = view.getHeight();
+            int[] row = new int[width];
+
+            int total = 0;
+            for (int y = 0; y < height; y++) {
+                view.getRGB(0, y, width, 1, row, 0, width);
+                for (int x = 0; x < width; x++) {
+                    if (isInk(row[x], inkThreshold)) {
+                        total++;
+                    }
+                }
+            }
+
+            // Dense pages are thinned evenly; the profile shape survives and the search stays linear.
+            int stride = Math.max(1, (total + MAX_POINTS - 1) / MAX_POINTS);
+            InkPoints points = new InkPoints(width, height, total / stride + 1);
+            int seen = 0;
+            for (int y = 0; y < height; y++) {
+                view.getRGB(0, y, width, 1, row, 0, width);
+                for (int x = 0; x < width; x++) {
+                    if (isInk(row[x], inkThreshold) && seen++ % stride == 0) {
+                        points.xs[points.count] = x;
+                        points.ys[points.count] = y;
+                        points.count++;
+                    }
+                }
+            }
+            return points;
+        }
+
+        private static boolean isInk(int rgb, int inkThreshold) {
+            return ImageQualityAnalyser.luminance(rgb) < inkThreshold;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package uk.gov.hmcts.reform.api.intake;
+
+import uk.gov.hmcts.reform.api.sandbox.ParseBudget;
+
+import javax.imageio.stream.FileImageInputStream;
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * A {@link FileImageInputStream} that stops a sandboxed decode once its budget has been aborted. Image readers
+ * do not check for interrupts, but every one of them reads through here.
+ */
+class CheckpointedImageInputStream extends FileImageInputStream {
+
+    CheckpointedImageInputStream(File file) throws IOException {
+        super(file);
+    }
+
+    @Override
+    public int read() throws IOException {
+        ParseBudget.checkpoint();
+        return super.read();
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        ParseBudget.checkpoint();
+        return super.read(b, off, len);
+    }
+}
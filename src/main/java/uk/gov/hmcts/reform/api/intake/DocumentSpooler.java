@@ -0,0 +1,93 @@
+package uk.gov.hmcts.reform.api.intake;
+
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.multipart.MultipartFile;
+import uk.gov.hmcts.reform.api.config.UploadValidationProperties;
+import uk.gov.hmcts.reform.api.errorhandling.exceptions.InvalidFileException;
+
+import java.io.IOException;
+import java.lang.ref.Cleaner;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Moves multipart uploads into files owned by the intake path.
+ *
+ * <p>Tomcat writes each part to a temp file; {@link MultipartFile#transferTo(java.io.File)} renames that
+ * file when the spool directory is on the same filesystem, so spooling is normally free. The validator and
+ * the service share one {@link SpooledDocument} per upload, which is deleted when the request completes.
+ */
+@Component
+public class DocumentSpooler {
+
+    private static final Cleaner CLEANER = Cleaner.create();
+    private static final String ATTRIBUTE_PREFIX = DocumentSpooler.class.getName() + ".";
+
+    private final Map<MultipartFile, SpooledDocument> spooled = Collections.synchronizedMap(new WeakHashMap<>());
+    private final Path directory;
+
+    public DocumentSpooler(UploadValidationProperties properties) {
+        this.directory = StringUtils.hasText(properties.getSpoolDirectory())
+            ? Path.of(properties.getSpoolDirectory())
+            : Path.of(System.getProperty("java.io.tmpdir"));
+    }
+
+    public SpooledDocument spool(MultipartFile file) {
+        SpooledDocument existing = spooled.get(file);
+        if (existing != null) {
+            return existing;
+        }
+
+        SpooledDocument document;
+        try {
+            Files.createDirectories(directory);
+            Path target = Files.createTempFile(directory, "upload-", ".part");
+            // transferTo(File) lets the servlet container rename its temp file; transferTo(Path) always copies.
+            file.transferTo(target.toFile());
+            document = new SpooledDocument(target, file.getOriginalFilename(), file.getContentType());
+        } catch (IOException ex) {
+            throw new InvalidFileException("Invalid or unreadable file.");
+        }
+
+        spooled.put(file, document);
+        registerCleanup(file, document);
+        return document;
+    }
+
+    /**
+     * The directory uploads are spooled to; parts written there can be spooled by rename.
+     */
+    Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Deletes the spooled copy straight away, for uploads handled outside a request.
+     */
+    public void discard(MultipartFile file) {
+        SpooledDocument document = spooled.remove(file);
+        if (document != null) {
+            document.close();
+        }
+    }
+
+    private void registerCleanup(MultipartFile file, SpooledDocument document) {
+        // Safety net for callers outside a request; the request callback normally deletes the file first.
+        CLEANER.register(file, document::close);
+
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            attributes.registerDestructionCallback(
+                ATTRIBUTE_PREFIX + document.getPath().getFileName(),
+                document::close,
+                RequestAttributes.SCOPE_REQUEST
+            );
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package uk.gov.hmcts.reform.api.intake;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads a {@code multipart/form-data} body one part at a time, in the order the client sent them. Nothing past the
+ * current part is read, so a caller that stops early leaves the rest of the body unread.
+ */
+final class MultipartStreamReader {
+
+    private static final int BUFFER_SIZE = 16 * 1024;
+    private static final int MAX_HEADER_BYTES = 16 * 1024;
+
+    private final InputStream in;
+    private final long maxRequestSize;
+    private final byte[] delimiter;
+    private final byte[] buffer;
+    private int position;
+    private int limit;
+    private long bytesRead;
+    private boolean started;
+    private boolean inPart;
+    private boolean finished;
+    private boolean eof;
+
+    /**
+     * Reads the parts of a body delimited by {@code boundary}.
+     *
+     * @param maxRequestSize the most bytes to read from {@code in}, or a negative number for no limit
+     */
+    MultipartStreamReader(InputStream in, String boundary, long maxRequestSize) {
+        this.in = in;
+        this.maxRequestSize = maxRequestSize;
+        this.delimiter = ("\r\n--" + boundary).getBytes(StandardCharsets.ISO_8859_1);
+        this.buffer = new byte[Math.max(BUFFER_SIZE, delimiter.length * 2)];
+        // The first boundary has no CRLF in front of it; seed one so every boundary looks the same.
+        buffer[0] = '\r';
+        buffer[1] = '\n';
+        limit = 2;
+    }
+
+    /**
+     * Moves to the next part, skipping whatever is left of the current one, and returns its headers.
+     *
+     * @return the part headers, or {@code null} after the closing boundary
+     */
+    HttpHeaders nextPart() throws IOException {
+        if (finished) {
+            return null;
+        }
+        if (!started || inPart) {
+            // Preamble before the first boundary, or the unread rest of the current part.
+            copyBody(OutputStream.nullOutputStream(), -1);
+            started = true;
+        }
+
+        String afterBoundary = readLine();
+        if (afterBoundary.startsWith("--")) {
+            finished = true;
+            return null;
+        }
+        if (!afterBoundary.isBlank()) {
+            throw new IOException("Malformed multipart boundary");
+        }
+
+        HttpHeaders headers = new HttpHeaders();
+        int headerBytes = 0;
+        for (String line = readLine(); !line.isEmpty(); line = readLine()) {
+            headerBytes += line.length();
+            if (headerBytes > MAX_HEADER_BYTES) {
+                throw new IOException("Multipart headers too large");
+            }
+            int colon = line.indexOf(':');
+            if (colon <= 0) {
+                throw new IOException("Malformed multipart header");
+            }
+            headers.add(line.substring(0, colon).trim(), line.substring(colon + 1).trim());
+        }
+        inPart = true;
+        return headers;
+    }
+
+    /**
+     * Copies the body of the current part to {@code out}.
+     *
+     * @param maxSize the most bytes the part may hold, or a negative number for no limit
+     * @return the number of bytes copied
+     * @throws MaxUploadSizeExceededException if the part is larger than {@code maxSize}
+     */
+    long copyBody(OutputStream out, long maxSize) throws IOException {
+        long copied = 0;
+        while (true) {
+            fill(delimiter.length);
+            int match = indexOfDelimiter();
+            int end = match >= 0 ? match : Math.max(position, limit - delimiter.length + 1);
+            if (eof && match < 0 && limit - position < delimiter.length) {
+                throw new IOException("Unexpected end of multipart body");
+            }
+            copied += end - position;
+            if (maxSize >= 0 && copied > maxSize) {
+                throw new MaxUploadSizeExceededException(maxSize);
+            }
+            out.write(buffer, position, end - position);
+            if (match >= 0) {
+                position = match + delimiter.length;
+                inPart = false;
+                return copied;
+            }
+            position = end;
+        }
+    }
+
+    private int indexOfDelimiter() {
+        int last = limit - delimiter.length;
+        for (int i = position; i <= last; i++) {
+            if (buffer[i] != delimiter[0]) {
+                continue;
+            }
+            int j = 1;
+            while (j < delimiter.length && buffer[i + j] == delimiter[j]) {
+                j++;
+            }
+            if (j == delimiter.length) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private String readLine() throws IOException {
+        int start = position;
+        int scanned = position;
+        while (true) {
+            for (; scanned < limit; scanned++) {
+                if (buffer[scanned] == '\n') {
+                    int end = scanned > start && buffer[scanned - 1] == '\r' ? scanned - 1 : scanned;
+                    String line = new String(buffer, start, end - start, StandardCharsets.UTF_8);
+                    position = scanned + 1;
+                    return line;
+                }
+            }
+            if (scanned - start >= MAX_HEADER_BYTES) {
+                throw new IOException("Multipart header line too long");
+            }
+            int shifted = compact();
+            start -= shifted;
+            scanned -= shifted;
+            if (!readMore()) {
+                throw new IOException("Unexpected end of multipart body");
+            }
+        }
+    }
+
+    /**
+     * Reads until at least {@code wanted} bytes are buffered or the stream ends.
+     */
+    private void fill(int wanted) throws IOException {
+        if (limit - position >= wanted) {
+            return;
+        }
+        compact();
+        while (limit - position < wanted) {
+            if (!readMore()) {
+                return;
+            }
+        }
+    }
+
+    private int compact() {
+        int shifted = position;
+        if (shifted > 0) {
+            System.arraycopy(buffer, position, buffer, 0, limit - position);
+            limit -= shifted;
+            position = 0;
+        }
+        return shifted;
+    }
+
+    private boolean readMore() throws IOException {
+        if (eof || limit == buffer.length) {
+            return false;
+        }
+        int read = in.read(buffer, limit, buffer.length - limit);
+        if (read < 0) {
+            eof = true;
+            return false;
+        }
+        limit += read;
+        bytesRead += read;
+        if (maxRequestSize >= 0 && bytesRead > maxRequestSize) {
+            throw new MaxUploadSizeExceededException(maxRequestSize);
+        }
+        return true;
+    }
+}
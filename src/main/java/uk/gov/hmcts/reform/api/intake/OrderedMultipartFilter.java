@@ -0,0 +1,294 @@
+package uk.gov.hmcts.reform.api.intake;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.MultipartConfigElement;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.stereotype.Component;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.BindException;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
+import org.springframework.web.multipart.MultipartException;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.multipart.support.DefaultMultipartHttpServletRequest;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+import org.springframework.web.servlet.ModelAndView;
+import uk.gov.hmcts.reform.api.casedetails.CaseDetailsMessageConverter;
+import uk.gov.hmcts.reform.api.casedetails.CaseDetailsValidator;
+import uk.gov.hmcts.reform.api.config.IntakeProperties;
+import uk.gov.hmcts.reform.api.errorhandling.exceptions.InvalidFileException;
+import uk.gov.hmcts.reform.api.models.CaseDetails;
+import uk.gov.hmcts.reform.api.models.DivorceCaseDetails;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads document uploads part by part in the order they arrive when {@code app.intake.ordered-parts} is set, in
+ * place of the container's multipart parsing, which reads the whole body before the controller sees any of it.
+ *
+ * <p>The {@code case} part is read and validated as soon as it arrives. A client that sends it ahead of the file
+ * gets its 400 before a byte of the file is read; the rest of the body is left to the container to discard. File
+ * parts are streamed into the spool directory, so the spooler picks them up by rename. The controller then binds
+ * and validates everything as usual from the parts read here.
+ */
+@Slf4j
+@Component
+public class OrderedMultipartFilter extends OncePerRequestFilter {
+
+    static final String CASE_PART = "case";
+
+    private static final int MAX_FIELD_SIZE = 64 * 1024;
+    private static final Map<String, Class<?>> CASE_TYPES = Map.of(
+        "/documents/divorce", DivorceCaseDetails.class,
+        "/documents/divorce/bundle", DivorceCaseDetails.class,
+        "/documents/probate", CaseDetails.class,
+        "/documents/probate/bundle", CaseDetails.class
+    );
+
+    private final IntakeProperties properties;
+    private final DocumentSpooler spooler;
+    private final CaseDetailsMessageConverter converter;
+    private final CaseDetailsValidator validator;
+    private final ObjectProvider<MultipartConfigElement> multipartConfig;
+    private final HandlerExceptionResolver exceptionResolver;
+
+    public OrderedMultipartFilter(IntakeProperties properties,
+                                  DocumentSpooler spooler,
+                                  CaseDetailsMessageConverter converter,
+                                  CaseDetailsValidator validator,
+                                  ObjectProvider<MultipartConfigElement> multipartConfig,
+                                  @Qualifier("handlerExceptionResolver") HandlerExceptionResolver exceptionResolver) {
+        this.properties = properties;
+        this.spooler = spooler;
+        this.converter = converter;
+        this.validator = validator;
+        this.multipartConfig = multipartConfig;
+        this.exceptionResolver = exceptionResolver;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isOrderedParts()
+            || !HttpMethod.POST.matches(request.getMethod())
+            || caseType(request) == null
+            || boundary(request) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        Parts parts = new Parts();
+        try {
+            try {
+                read(request, parts);
+            } catch (BindException | HttpMessageNotReadableException | MultipartException | InvalidFileException ex) {
+                reject(request, response, ex);
+                return;
+            } catch (IOException | IllegalArgumentException ex) {
+                // IllegalArgumentException: an unparseable Content-Type or Content-Disposition on a part.
+                reject(request, response, new MultipartException("Failed to parse multipart servlet request", ex));
+                return;
+            }
+            filterChain.doFilter(
+                new DefaultMultipartHttpServletRequest(request, parts.files, parts.parameters, parts.contentTypes),
+                response
+            );
+        } finally {
+            parts.delete();
+        }
+    }
+
+    private void read(HttpServletRequest request, Parts parts) throws IOException, BindException {
+        MultipartConfigElement config = multipartConfig.getIfAvailable();
+        long maxFileSize = config != null ? config.getMaxFileSize() : -1;
+        long maxRequestSize = config != null ? config.getMaxRequestSize() : -1;
+        MultipartStreamReader reader = new MultipartStreamReader(
+            request.getInputStream(), boundary(request), maxRequestSize
+        );
+
+        int count = 0;
+        for (HttpHeaders headers = reader.nextPart(); headers != null; headers = reader.nextPart()) {
+            count++;
+            if (count > properties.getMaxParts()) {
+                throw new InvalidFileException("Too many parts in request.");
+            }
+            String header = headers.getFirst(HttpHeaders.CONTENT_DISPOSITION);
+            if (header == null) {
+                throw new MultipartException("Multipart part has no Content-Disposition");
+            }
+            ContentDisposition disposition = ContentDisposition.parse(header);
+            String name = disposition.getName();
+            if (name == null) {
+                throw new MultipartException("Multipart part has no name");
+            }
+            String contentType = headers.getContentType() != null
+                ? headers.getContentType().toString()
+                : MediaType.APPLICATION_OCTET_STREAM_VALUE;
+
+            boolean casePart = CASE_PART.equals(name);
+            if (disposition.getFilename() != null && !casePart) {
+                parts.files.add(name, spool(reader, name, disposition.getFilename(), contentType, maxFileSize));
+                continue;
+            }
+
+            ByteArrayOutputStream value = new ByteArrayOutputStream();
+            reader.copyBody(value, MAX_FIELD_SIZE);
+            byte[] body = value.toByteArray();
+            if (casePart) {
+                // Checked however it was sent, including as a file (curl -F case=@case.json).
+                checkCase(caseType(request), headers, body);
+                if (disposition.getFilename() != null) {
+                    parts.files.add(name, store(name, disposition.getFilename(), contentType, body));
+                    continue;
+                }
+            }
+            Charset charset = headers.getContentType() != null && headers.getContentType().getCharset() != null
+                ? headers.getContentType().getCharset()
+                : StandardCharsets.UTF_8;
+            parts.parameters.merge(name, new String[] {new String(body, charset)}, OrderedMultipartFilter::concat);
+            parts.contentTypes.put(name, contentType);
+        }
+    }
+
+    private StreamedMultipartFile spool(MultipartStreamReader reader,
+                                        String name,
+                                        String filename,
+                                        String contentType,
+                                        long maxFileSize) throws IOException {
+        Files.createDirectories(spooler.getDirectory());
+        Path target = Files.createTempFile(spooler.getDirectory(), "part-", ".part");
+        long size;
+        try (OutputStream out = Files.newOutputStream(target)) {
+            size = reader.copyBody(out, maxFileSize);
+        } catch (IOException | MaxUploadSizeExceededException ex) {
+            Files.deleteIfExists(target);
+            throw ex;
+        }
+        return new StreamedMultipartFile(name, filename, contentType, target, size);
+    }
+
+    private StreamedMultipartFile store(String name, String filename, String contentType, byte[] body)
+        throws IOException {
+        Files.createDirectories(spooler.getDirectory());
+        Path target = Files.createTempFile(spooler.getDirectory(), "part-", ".part");
+        try {
+            Files.write(target, body);
+        } catch (IOException ex) {
+            Files.deleteIfExists(target);
+            throw ex;
+        }
+        return new StreamedMultipartFile(name, filename, contentType, target, body.length);
+    }
+
+    /**
+     * Reads and validates the case part the way the controller will, so a bad one fails before the file is read.
+     */
+    private void checkCase(Class<?> type, HttpHeaders headers, byte[] body) throws IOException, BindException {
+        MediaType mediaType = headers.getContentType() != null
+            ? headers.getContentType()
+            : MediaType.APPLICATION_OCTET_STREAM;
+        if (!converter.canRead(type, mediaType) || !validator.supports(type)) {
+            // Without the fast binding the controller's own converter and validator decide.
+            return;
+        }
+        Object details = converter.read(type, new HttpInputMessage() {
+            @Override
+            public InputStream getBody() {
+                return new ByteArrayInputStream(body);
+            }
+
+            @Override
+            public HttpHeaders getHeaders() {
+                return headers;
+            }
+        });
+        BeanPropertyBindingResult errors = new BeanPropertyBindingResult(details, CASE_PART);
+        validator.validate(details, errors);
+        if (errors.hasErrors()) {
+            throw new BindException(errors);
+        }
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response, Exception ex)
+        throws ServletException {
+        // GlobalExceptionHandler and the default resolvers give the same responses as container parsing.
+        ModelAndView handled = exceptionResolver.resolveException(request, response, null, ex);
+        if (handled == null) {
+            throw new ServletException(ex);
+        }
+    }
+
+    private static Class<?> caseType(HttpServletRequest request) {
+        return CASE_TYPES.get(request.getRequestURI().substring(request.getContextPath().length()));
+    }
+
+    private static String boundary(HttpServletRequest request) {
+        if (request.getContentType() == null) {
+            return null;
+        }
+        MediaType mediaType;
+        try {
+            mediaType = MediaType.parseMediaType(request.getContentType());
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+        String boundary = mediaType.getParameter("boundary");
+        if (!MediaType.MULTIPART_FORM_DATA.includes(mediaType) || boundary == null || boundary.isEmpty()) {
+            return null;
+        }
+        boolean quoted = boundary.length() > 1 && boundary.startsWith("\"") && boundary.endsWith("\"");
+        return quoted ? boundary.substring(1, boundary.length() - 1) : boundary;
+    }
+
+    private static String[] concat(String[] existing, String[] added) {
+        String[] merged = new String[existing.length + added.length];
+        System.arraycopy(existing, 0, merged, 0, existing.length);
+        System.arraycopy(added, 0, merged, existing.length, added.length);
+        return merged;
+    }
+
+    private static final class Parts {
+        private final MultiValueMap<String, MultipartFile> files = new LinkedMultiValueMap<>();
+        private final Map<String, String[]> parameters = new LinkedHashMap<>();
+        private final Map<String, String> contentTypes = new HashMap<>();
+
+        private void delete() {
+            List<MultipartFile> all = new ArrayList<>();
+            files.values().forEach(all::addAll);
+            for (MultipartFile file : all) {
+                try {
+                    ((StreamedMultipartFile) file).delete();
+                } catch (IOException ex) {
+                    log.warn("Could not delete streamed upload part", ex);
+                }
+            }
+        }
+    }
+}
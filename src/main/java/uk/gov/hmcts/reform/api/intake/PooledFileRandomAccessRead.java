@@ -0,0 +1,154 @@
+package uk.gov.hmcts.reform.api.intake;
+
+import org.apache.pdfbox.io.RandomAccessRead;
+import org.apache.pdfbox.io.RandomAccessReadView;
+import uk.gov.hmcts.reform.api.buffers.BufferPool;
+import uk.gov.hmcts.reform.api.buffers.Lease;
+import uk.gov.hmcts.reform.api.sandbox.ParseBudget;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A PDFBox {@link RandomAccessRead} over a file, reading through one window borrowed from the {@link BufferPool}.
+ *
+ * <p>{@link org.apache.pdfbox.io.RandomAccessReadBufferedFile} allocates a fresh page cache for every document.
+ * Here the only buffer is the pooled window, refilled with positional reads; jumps between xref and objects
+ * are served from the OS page cache.
+ */
+class PooledFileRandomAccessRead implements RandomAccessRead {
+
+    static final int WINDOW_SIZE = 32 * 1024;
+
+    private final FileChannel channel;
+    private final long length;
+    private final Lease<byte[]> lease;
+    private final byte[] window;
+    private long windowStart;
+    private int windowLength;
+    private long position;
+    private boolean closed;
+
+    PooledFileRandomAccessRead(Path path, BufferPool bufferPool) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.length = channel.size();
+        this.lease = bufferPool.leaseBytes(WINDOW_SIZE);
+        this.window = lease.get();
+    }
+
+    @Override
+    public int read() throws IOException {
+        checkClosed();
+        if (position >= length || !fill()) {
+            return -1;
+        }
+        return window[(int) (position++ - windowStart)] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int offset, int len) throws IOException {
+        checkClosed();
+        if (len == 0) {
+            return 0;
+        }
+        if (position >= length) {
+            return -1;
+        }
+
+        int total = 0;
+        while (total < len && position < length) {
+            if (!fill()) {
+                break;
+            }
+            int available = (int) (windowStart + windowLength - position);
+            int count = Math.min(available, len - total);
+            System.arraycopy(window, (int) (position - windowStart), b, offset + total, count);
+            position += count;
+            total += count;
+        }
+        return total == 0 ? -1 : total;
+    }
+
+    @Override
+    public long getPosition() throws IOException {
+        checkClosed();
+        return position;
+    }
+
+    @Override
+    public void seek(long newPosition) throws IOException {
+        checkClosed();
+        if (newPosition < 0) {
+            throw new IOException("Invalid position " + newPosition);
+        }
+        position = Math.min(newPosition, length);
+    }
+
+    @Override
+    public long length() throws IOException {
+        checkClosed();
+        return length;
+    }
+
+    @Override
+    public boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public boolean isEOF() throws IOException {
+        checkClosed();
+        return position >= length;
+    }
+
+    @Override
+    public RandomAccessReadView createView(long startPosition, long streamLength) throws IOException {
+        checkClosed();
+        return new RandomAccessReadView(this, startPosition, streamLength);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            channel.close();
+        } finally {
+            lease.close();
+        }
+    }
+
+    /**
+     * Makes sure the window covers {@code position}; false at end of file.
+     */
+    private boolean fill() throws IOException {
+        if (position >= windowStart && position < windowStart + windowLength) {
+            return true;
+        }
+        // Once per window, so a sandboxed parse that has been aborted stops at its next read.
+        ParseBudget.checkpoint();
+
+        // Aligned windows, so the parser stepping backwards over a boundary refills once rather than per byte.
+        long start = position - position % WINDOW_SIZE;
+        ByteBuffer buffer = ByteBuffer.wrap(window, 0, (int) Math.min(WINDOW_SIZE, length - start));
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, start + buffer.position()) < 0) {
+                break;
+            }
+        }
+        windowStart = start;
+        windowLength = buffer.position();
+        return position < windowStart + windowLength;
+    }
+
+    private void checkClosed() throws IOException {
+        if (closed) {
+            throw new IOException("RandomAccessRead already closed");
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package uk.gov.hmcts.reform.api.intake;
+
+import com.azure.core.util.BinaryData;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.pdfbox.io.RandomAccessRead;
+import uk.gov.hmcts.reform.api.buffers.BufferPool;
+
+import javax.imageio.stream.ImageInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/**
+ * An upload that has been spooled to a file owned by the intake path.
+ *
+ * <p>All access goes through the file: signature sniffing reads a small header over a {@link FileChannel},
+ * hashing walks memory-mapped windows, parsers open their own file-backed readers and the Azure request
+ * body streams from disk. The content is never copied onto the heap as a whole.
+ */
+@Slf4j
+@Getter
+public class SpooledDocument implements AutoCloseable {
+
+    private static final long MAP_WINDOW = 64L * 1024 * 1024;
+
+    private final Path path;
+    private final long size;
+    private final String originalFilename;
+    private final String contentType;
+    private volatile String sha256;
+
+    public SpooledDocument(Path path, String originalFilename, String contentType) throws IOException {
+        this.path = path;
+        this.size = Files.size(path);
+        this.originalFilename = originalFilename;
+        this.contentType = contentType;
+    }
+
+    /**
+     * Reads up to {@code maxBytes} from the start of the file, for signature and magic detection.
+     */
+    public byte[] readHeader(int maxBytes) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(maxBytes, size));
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            int read = 0;
+            while (buffer.hasRemaining() && read != -1) {
+                read = channel.read(buffer);
+            }
+        }
+        byte[] header = new byte[buffer.position()];
+        buffer.flip().get(header);
+        return header;
+    }
+
+    /**
+     * Reads up to {@code maxBytes} from the end of the file, where a PDF keeps its trailer.
+     */
+    public byte[] readTail(int maxBytes) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(maxBytes, size));
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long position = size - buffer.capacity();
+            int read = 0;
+            while (buffer.hasRemaining() && read != -1) {
+                read = channel.read(buffer, position + buffer.position());
+            }
+        }
+        byte[] tail = new byte[buffer.position()];
+        buffer.flip().get(tail);
+        return tail;
+    }
+
+    public String sha256() {
+        String hash = sha256;
+        if (hash == null) {
+            hash = computeSha256();
+            sha256 = hash;
+        }
+        return hash;
+    }
+
+    /**
+     * A PDF source that reads through a window borrowed from {@code bufferPool}, returned when it is closed.
+     */
+    public RandomAccessRead openRandomAccess(BufferPool bufferPool) throws IOException {
+        return new PooledFileRandomAccessRead(path, bufferPool);
+    }
+
+    public ImageInputStream openImageStream() throws IOException {
+        return new CheckpointedImageInputStream(path.toFile());
+    }
+
+    public InputStream openStream() throws IOException {
+        return Files.newInputStream(path);
+    }
+
+    /**
+     * A request body that streams from the spooled file rather than from a heap copy.
+     */
+    public BinaryData asBinaryData() {
+        return BinaryData.fromFile(path);
+    }
+
+    /**
+     * A second handle on the same content that outlives this one, for work that continues after the request has
+     * returned and its upload has been deleted. A hard link where the file system allows it, otherwise a copy.
+     */
+    public SpooledDocument retain() throws IOException {
+        Path retained = path.resolveSibling("retained-" + UUID.randomUUID() + ".part");
+        try {
+            Files.createLink(retained, path);
+        } catch (IOException | UnsupportedOperationException ex) {
+            Files.copy(path, retained);
+        }
+        return new SpooledDocument(retained, originalFilename, contentType);
+    }
+
+    @Override
+    public void close() {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ex) {
+            log.warn("Failed to delete spooled upload {}", path, ex);
+        }
+    }
+
+    private String computeSha256() {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long position = 0;
+            while (position < size) {
+                long length = Math.min(MAP_WINDOW, size - position);
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                digest.update(window);
+                position += length;
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+}
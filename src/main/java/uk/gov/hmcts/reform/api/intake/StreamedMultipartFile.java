@@ -0,0 +1,92 @@
+package uk.gov.hmcts.reform.api.intake;
+
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * A file part that {@link OrderedMultipartFilter} streamed to disk itself. Like a container part,
+ * {@link #transferTo(File)} renames the file rather than copying it.
+ */
+final class StreamedMultipartFile implements MultipartFile {
+
+    private final String name;
+    private final String originalFilename;
+    private final String contentType;
+    private final long size;
+    private volatile Path location;
+    private volatile boolean transferred;
+
+    StreamedMultipartFile(String name, String originalFilename, String contentType, Path location, long size) {
+        this.name = name;
+        this.originalFilename = originalFilename;
+        this.contentType = contentType;
+        this.location = location;
+        this.size = size;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String getOriginalFilename() {
+        return originalFilename;
+    }
+
+    @Override
+    public String getContentType() {
+        return contentType;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public long getSize() {
+        return size;
+    }
+
+    @Override
+    public byte[] getBytes() throws IOException {
+        return Files.readAllBytes(location);
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        return Files.newInputStream(location);
+    }
+
+    @Override
+    public void transferTo(File dest) throws IOException {
+        if (transferred) {
+            throw new IllegalStateException("File has already been moved");
+        }
+        Path target = dest.toPath();
+        try {
+            Files.move(location, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            // Another filesystem, or no atomic rename there.
+            Files.move(location, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        location = target;
+        transferred = true;
+    }
+
+    /**
+     * Deletes the file unless it has been moved to its owner.
+     */
+    void delete() throws IOException {
+        if (!transferred) {
+            Files.deleteIfExists(location);
+        }
+    }
+}
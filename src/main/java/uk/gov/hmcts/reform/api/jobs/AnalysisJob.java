@@ -0,0 +1,221 @@
+package uk.gov.hmcts.reform.api.jobs;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * An analysis running after its request has returned, with the page ranges finished so far.
+ *
+ * <p>Subscribers receive a {@code partial} event for every finished range, starting with those already done, then
+ * a final {@code completed} or {@code failed} event, after which the stream is closed. Ranges arrive in the order
+ * they finish, which is not necessarily page order.
+ *
+ * <p>Events are written to subscribers on the registry's event threads, one job's events at a time and in order,
+ * so a slow subscriber holds up neither the chunk threads that publish results nor other jobs' subscribers.
+ */
+@Slf4j
+public class AnalysisJob {
+
+    static final String PARTIAL_EVENT = "partial";
+    static final String COMPLETED_EVENT = "completed";
+    static final String FAILED_EVENT = "failed";
+
+    private final String id;
+    private final String filename;
+    private final Instant createdAt;
+    private final List<PartialResult> results = new ArrayList<>();
+    private final List<SseEmitter> subscribers = new ArrayList<>();
+    private final Executor events;
+    private final Queue<Runnable> deliveries = new ArrayDeque<>();
+    private boolean delivering;
+    private JobStatus status = JobStatus.RUNNING;
+    private int pageCount;
+    private String error;
+    private Instant finishedAt;
+
+    AnalysisJob(String id, String filename, Instant createdAt, Executor events) {
+        this.id = id;
+        this.filename = filename;
+        this.createdAt = createdAt;
+        this.events = events;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getFilename() {
+        return filename;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public synchronized JobStatus getStatus() {
+        return status;
+    }
+
+    /**
+     * Zero until the document's pages have been counted.
+     */
+    public synchronized int getPageCount() {
+        return pageCount;
+    }
+
+    public synchronized List<PartialResult> getResults() {
+        return List.copyOf(results);
+    }
+
+    public synchronized String getError() {
+        return error;
+    }
+
+    public synchronized Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    synchronized void setPageCount(int pageCount) {
+        this.pageCount = pageCount;
+    }
+
+    synchronized void publish(PartialResult result) {
+        results.add(result);
+        for (SseEmitter emitter : subscribers) {
+            deliver(() -> {
+                if (!send(emitter, PARTIAL_EVENT, result)) {
+                    unsubscribe(emitter);
+                }
+            });
+        }
+    }
+
+    synchronized void complete() {
+        finish(JobStatus.COMPLETED, null);
+    }
+
+    synchronized void fail(String reason) {
+        finish(JobStatus.FAILED, reason);
+    }
+
+    /**
+     * Replays the ranges finished so far to {@code emitter}, then keeps it for those still to come.
+     */
+    synchronized void subscribe(SseEmitter emitter) {
+        List<PartialResult> done = List.copyOf(results);
+        boolean running = status == JobStatus.RUNNING;
+        if (running) {
+            subscribers.add(emitter);
+            emitter.onCompletion(() -> unsubscribe(emitter));
+            emitter.onTimeout(() -> unsubscribe(emitter));
+            emitter.onError(ex -> unsubscribe(emitter));
+        }
+        // Queued ahead of any later result, so the replay is neither overtaken nor repeated.
+        JobStatus finalStatus = status;
+        String reason = error;
+        deliver(() -> {
+            for (PartialResult result : done) {
+                if (!send(emitter, PARTIAL_EVENT, result)) {
+                    unsubscribe(emitter);
+                    return;
+                }
+            }
+            if (!running) {
+                sendFinal(emitter, finalStatus, reason);
+            }
+        });
+    }
+
+    synchronized boolean isExpired(Instant cutoff) {
+        return finishedAt != null && finishedAt.isBefore(cutoff);
+    }
+
+    private synchronized void unsubscribe(SseEmitter emitter) {
+        subscribers.remove(emitter);
+    }
+
+    private void finish(JobStatus finalStatus, String reason) {
+        if (status != JobStatus.RUNNING) {
+            return;
+        }
+        status = finalStatus;
+        error = reason;
+        finishedAt = Instant.now();
+        for (SseEmitter emitter : subscribers) {
+            deliver(() -> sendFinal(emitter, finalStatus, reason));
+        }
+        subscribers.clear();
+    }
+
+    private void sendFinal(SseEmitter emitter, JobStatus finalStatus, String reason) {
+        if (finalStatus == JobStatus.COMPLETED) {
+            send(emitter, COMPLETED_EVENT, id);
+        } else {
+            send(emitter, FAILED_EVENT, reason);
+        }
+        emitter.complete();
+    }
+
+    /**
+     * Queues {@code delivery} behind this job's earlier ones, starting an event thread if none is running them.
+     */
+    private void deliver(Runnable delivery) {
+        synchronized (deliveries) {
+            deliveries.add(delivery);
+            if (delivering) {
+                return;
+            }
+            delivering = true;
+        }
+        try {
+            events.execute(this::drainDeliveries);
+        } catch (RejectedExecutionException ex) {
+            // Shutting down; subscribers are disconnected with the server.
+            synchronized (deliveries) {
+                deliveries.clear();
+                delivering = false;
+            }
+        }
+    }
+
+    private void drainDeliveries() {
+        while (true) {
+            Runnable delivery;
+            synchronized (deliveries) {
+                delivery = deliveries.poll();
+                if (delivery == null) {
+                    delivering = false;
+                    return;
+                }
+            }
+            try {
+                delivery.run();
+            } catch (RuntimeException ex) {
+                log.warn("Could not deliver event for job {}", id, ex);
+            }
+        }
+    }
+
+    /**
+     * False if the subscriber has gone away.
+     */
+    private static boolean send(SseEmitter emitter, String event, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(event).data(data));
+            return true;
+        } catch (IOException | IllegalStateException ex) {
+            log.debug("Dropping job event subscriber", ex);
+            emitter.completeWithError(ex);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package uk.gov.hmcts.reform.api.jobs;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import uk.gov.hmcts.reform.api.config.JobProperties;
+import uk.gov.hmcts.reform.api.errorhandling.exceptions.CapacityExceededException;
+import uk.gov.hmcts.reform.api.errorhandling.exceptions.JobNotFoundException;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps analysis jobs so clients can poll or subscribe to them. Finished jobs are dropped after
+ * {@code app.jobs.retention}; jobs are held in memory, so a job is only visible on the instance that accepted it.
+ *
+ * <p>Subscribers are written to on {@code job-events} threads, at most one per job with events to deliver.
+ */
+@Component
+public class AnalysisJobRegistry implements DisposableBean {
+
+    private static final String BUSY_MESSAGE = "Too many analysis jobs, please retry later.";
+
+    private final JobProperties properties;
+    private final Map<String, AnalysisJob> jobs = new ConcurrentHashMap<>();
+    private final ExecutorService events;
+
+    public AnalysisJobRegistry(JobProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        Gauge.builder("documents.jobs.tracked", jobs, Map::size).register(meterRegistry);
+        AtomicInteger count = new AtomicInteger();
+        this.events = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "job-events-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts tracking a new job for {@code filename}.
+     *
+     * @throws CapacityExceededException if {@code app.jobs.max-jobs} jobs are already tracked
+     */
+    public AnalysisJob create(String filename) {
+        evictExpired();
+        if (jobs.size() >= properties.getMaxJobs()) {
+            throw new CapacityExceededException(BUSY_MESSAGE, properties.getRetryAfter());
+        }
+        AnalysisJob job = new AnalysisJob(UUID.randomUUID().toString(), filename, Instant.now(), events);
+        jobs.put(job.getId(), job);
+        return job;
+    }
+
+    /**
+     * Looks up a job by its id.
+     *
+     * @throws JobNotFoundException if there is no such job, or it finished too long ago
+     */
+    public AnalysisJob get(String id) {
+        AnalysisJob job = jobs.get(id);
+        if (job == null) {
+            throw new JobNotFoundException("Analysis job not found.");
+        }
+        return job;
+    }
+
+    public SseEmitter subscribe(String id) {
+        AnalysisJob job = get(id);
+        SseEmitter emitter = new SseEmitter(properties.getEventTimeout().toMillis());
+        job.subscribe(emitter);
+        return emitter;
+    }
+
+    @Override
+    public void destroy() {
+        events.shutdownNow();
+    }
+
+    private void evictExpired() {
+        Instant cutoff = Instant.now().minus(properties.getRetention());
+        jobs.values().removeIf(job -> job.isExpired(cutoff));
+    }
+}
@@ -0,0 +1,197 @@
+package uk.gov.hmcts.reform.api.jobs;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.io.RandomAccessRead;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+import uk.gov.hmcts.reform.api.admission.AdmissionController;
+import uk.gov.hmcts.reform.api.buffers.BufferPool;
+import uk.gov.hmcts.reform.api.config.JobProperties;
+import uk.gov.hmcts.reform.api.distribution.AnalysisDistributor;
+import uk.gov.hmcts.reform.api.imaging.DocumentNormaliser;
+import uk.gov.hmcts.reform.api.intake.SpooledDocument;
+import uk.gov.hmcts.reform.api.notifications.JobNotification;
+import uk.gov.hmcts.reform.api.notifications.WebhookDispatcher;
+import uk.gov.hmcts.reform.api.services.AnalysisResult;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs an {@link AnalysisJob} in the background, splitting multi-page documents into page ranges of
+ * {@code app.jobs.chunk-pages} that are analysed concurrently and published as each finishes. The first pages of a
+ * long bundle are therefore available after one short analysis rather than after the whole document.
+ *
+ * <p>Up to {@code app.jobs.workers} jobs run at once, and their ranges share {@code app.jobs.chunk-parallelism}
+ * analysis threads. Ranges are queued in page order, so earlier pages tend to finish first. A job started with a
+ * callback URL is reported to it through the {@link WebhookDispatcher} when it finishes. Documents of jobs waiting
+ * for a worker are kept by the {@link QueuedPayloadStore}. Normalisation draws on the same memory budget as
+ * uploads through {@link AdmissionController#runAdmitted}, so job workers deskewing at once cannot exceed it.
+ */
+@Slf4j
+@Component
+public class ChunkedAnalysisRunner implements DisposableBean {
+
+    private static final byte[] PDF_SIGNATURE = "%PDF-".getBytes(StandardCharsets.US_ASCII);
+    private static final String TIFF = "tif";
+
+    private final JobProperties properties;
+    private final AnalysisJobRegistry registry;
+    private final AnalysisDistributor distributor;
+    private final DocumentNormaliser normaliser;
+    private final BufferPool bufferPool;
+    private final WebhookDispatcher webhooks;
+    private final QueuedPayloadStore payloads;
+    private final AdmissionController admissionController;
+    private final ExecutorService jobExecutor;
+    private final ExecutorService chunkExecutor;
+
+    public ChunkedAnalysisRunner(JobProperties properties,
+                                 AnalysisJobRegistry registry,
+                                 AnalysisDistributor distributor,
+                                 DocumentNormaliser normaliser,
+                                 BufferPool bufferPool,
+                                 WebhookDispatcher webhooks,
+                                 QueuedPayloadStore payloads,
+                                 AdmissionController admissionController) {
+        this.properties = properties;
+        this.registry = registry;
+        this.distributor = distributor;
+        this.normaliser = normaliser;
+        this.bufferPool = bufferPool;
+        this.webhooks = webhooks;
+        this.payloads = payloads;
+        this.admissionController = admissionController;
+        this.jobExecutor = Executors.newFixedThreadPool(Math.max(1, properties.getWorkers()), threads("analysis-job"));
+        this.chunkExecutor = Executors.newFixedThreadPool(
+            Math.max(1, properties.getChunkParallelism()),
+            threads("analysis-chunk")
+        );
+    }
+
+    /**
+     * Starts analysing {@code document} and returns its job straight away. The runner takes ownership of
+     * {@code document} and closes it when the job finishes.
+     *
+     * @param callbackUrl where to send a webhook when the job finishes, already checked by the dispatcher; or null
+     */
+    public AnalysisJob start(SpooledDocument document, String modelId, String callbackUrl) {
+        QueuedPayloadStore.QueuedPayload payload = payloads.hold(document);
+        AnalysisJob job;
+        try {
+            job = registry.create(document.getOriginalFilename());
+        } catch (RuntimeException ex) {
+            payloads.discard(payload);
+            throw ex;
+        }
+        jobExecutor.execute(() -> run(job, payload, modelId, callbackUrl));
+        return job;
+    }
+
+    @Override
+    public void destroy() {
+        jobExecutor.shutdownNow();
+        chunkExecutor.shutdownNow();
+    }
+
+    private void run(AnalysisJob job, QueuedPayloadStore.QueuedPayload payload, String modelId, String callbackUrl) {
+        SpooledDocument document = null;
+        SpooledDocument normalised = null;
+        Throwable failure = null;
+        try {
+            document = payloads.release(payload);
+            SpooledDocument released = document;
+            normalised = admissionController.runAdmitted(released.getSize(), () -> normaliser.normalise(released));
+            int pages = countPages(normalised);
+            job.setPageCount(pages);
+
+            List<PageRange> ranges = PageRange.split(pages, properties.getChunkPages());
+            SpooledDocument source = normalised;
+            CompletableFuture<?>[] chunks = ranges.stream()
+                .map(range -> CompletableFuture.runAsync(() -> {
+                    // A single range covers the whole document, so there is no need to restrict it.
+                    String selection = ranges.size() == 1 ? null : range.toString();
+                    AnalysisResult result = distributor.analyse(source, modelId, selection);
+                    job.publish(new PartialResult(range.getFirst(), range.getLast(), result.getResultJson()));
+                }, chunkExecutor))
+                .toArray(CompletableFuture[]::new);
+            CompletableFuture.allOf(chunks).join();
+        } catch (CompletionException ex) {
+            failure = ex.getCause();
+        } catch (RuntimeException ex) {
+            failure = ex;
+        } finally {
+            if (normalised != null && normalised != document) {
+                normalised.close();
+            }
+            if (document != null) {
+                document.close();
+            }
+        }
+
+        if (failure == null) {
+            job.complete();
+        } else {
+            log.error("Analysis job {} failed", job.getId(), failure);
+            job.fail("Document analysis failed.");
+        }
+        if (callbackUrl != null) {
+            webhooks.notify(callbackUrl, JobNotification.of(job));
+        }
+    }
+
+    /**
+     * Pages as Document Intelligence counts them: PDF pages or TIFF frames; other images are one page.
+     */
+    private int countPages(SpooledDocument document) {
+        try {
+            byte[] header = document.readHeader(PDF_SIGNATURE.length);
+            if (Arrays.equals(header, PDF_SIGNATURE)) {
+                try (RandomAccessRead source = document.openRandomAccess(bufferPool);
+                     PDDocument pdf = Loader.loadPDF(source)) {
+                    return pdf.getNumberOfPages();
+                }
+            }
+            try (ImageInputStream input = document.openImageStream()) {
+                Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+                if (!readers.hasNext()) {
+                    return 1;
+                }
+                ImageReader reader = readers.next();
+                try {
+                    reader.setInput(input, false, true);
+                    return TIFF.equalsIgnoreCase(reader.getFormatName()) ? reader.getNumImages(true) : 1;
+                } finally {
+                    reader.dispose();
+                }
+            }
+        } catch (IOException ex) {
+            // Validation already read the document; if counting fails now, analyse it in one piece.
+            log.warn("Could not count pages of {}", document.getOriginalFilename(), ex);
+            return 1;
+        }
+    }
+
+    private static ThreadFactory threads(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,7 @@
+package uk.gov.hmcts.reform.api.jobs;
+
+public enum JobStatus {
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,32 @@
+package uk.gov.hmcts.reform.api.jobs;
+
+import lombok.Value;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An inclusive, 1-based range of pages, written the way Document Intelligence's {@code pages} parameter takes it.
+ */
+@Value
+public class PageRange {
+    int first;
+    int last;
+
+    /**
+     * Splits {@code pages} pages into consecutive ranges of at most {@code chunkPages}.
+     */
+    public static List<PageRange> split(int pages, int chunkPages) {
+        int size = Math.max(1, chunkPages);
+        List<PageRange> ranges = new ArrayList<>();
+        for (int first = 1; first <= Math.max(pages, 1); first += size) {
+            ranges.add(new PageRange(first, Math.min(first + size - 1, Math.max(pages, 1))));
+        }
+        return ranges;
+    }
+
+    @Override
+    public String toString() {
+        return first == last ? String.valueOf(first) : first + "-" + last;
+    }
+}
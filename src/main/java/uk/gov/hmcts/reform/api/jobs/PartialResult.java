@@ -0,0 +1,13 @@
+package uk.gov.hmcts.reform.api.jobs;
+
+import lombok.Value;
+
+/**
+ * The analysis of one page range of a job's document. {@code resultJson} is null when analysis is disabled.
+ */
+@Value
+public class PartialResult {
+    int firstPage;
+    int lastPage;
+    String resultJson;
+}
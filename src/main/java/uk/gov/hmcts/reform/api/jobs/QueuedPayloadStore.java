@@ -0,0 +1,268 @@
+package uk.gov.hmcts.reform.api.jobs;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import uk.gov.hmcts.reform.api.config.JobProperties;
+import uk.gov.hmcts.reform.api.errorhandling.exceptions.CapacityExceededException;
+import uk.gov.hmcts.reform.api.intake.SpooledDocument;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Holds the documents of jobs waiting for a worker. They stay in the files they were spooled to, so a queue of
+ * thousands of documents costs disk rather than heap; {@code app.jobs.queued-payloads.max-bytes} bounds that disk,
+ * and past it new jobs are turned away with a 503.
+ *
+ * <p>With {@code compress} set, TIFF documents queued while more than {@code compress-above} is already waiting
+ * are deflated at the fastest level, then inflated again when their job starts. Uncompressed TIFF scans shrink
+ * several times; a document that saves less than {@code min-saving} is kept as it was. PNG is deflated already and
+ * is left alone. Compression runs on a background thread after the job has been accepted, so it never delays the
+ * upload's response; a job that starts first simply takes its document as it was spooled. Bytes waiting on disk
+ * are reported in {@code documents.jobs.queued.bytes}, and compressed documents are counted in
+ * {@code documents.jobs.queued.compressed}.
+ */
+@Slf4j
+@Component
+public class QueuedPayloadStore implements DisposableBean {
+
+    static final String COMPRESSED_METRIC = "documents.jobs.queued.compressed";
+
+    private static final String BUSY_MESSAGE = "Too many documents waiting for analysis, please retry later.";
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final byte[] TIFF_LITTLE_ENDIAN_MAGIC = {'I', 'I', 42, 0};
+    private static final byte[] TIFF_BIG_ENDIAN_MAGIC = {'M', 'M', 0, 42};
+
+    private final JobProperties properties;
+    private final Executor compressor;
+    private final AtomicLong queuedBytes = new AtomicLong();
+    private final Counter compressed;
+
+    @Autowired
+    public QueuedPayloadStore(JobProperties properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "queued-payload-compression");
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+
+    QueuedPayloadStore(JobProperties properties, MeterRegistry meterRegistry, Executor compressor) {
+        this.properties = properties;
+        this.compressor = compressor;
+        Gauge.builder("documents.jobs.queued.bytes", queuedBytes, AtomicLong::get).register(meterRegistry);
+        this.compressed = Counter.builder(COMPRESSED_METRIC).register(meterRegistry);
+    }
+
+    /**
+     * Takes ownership of {@code document} until its job starts.
+     *
+     * @throws CapacityExceededException if the documents already waiting leave no room for this one;
+     *                                   {@code document} is closed
+     */
+    QueuedPayload hold(SpooledDocument document) {
+        JobProperties.QueuedPayloads limits = properties.getQueuedPayloads();
+        long size = document.getSize();
+        long waiting = queuedBytes.getAndAdd(size);
+        // A document larger than the whole budget is still accepted into an empty queue.
+        if (waiting > 0 && waiting + size > limits.getMaxBytes().toBytes()) {
+            queuedBytes.addAndGet(-size);
+            document.close();
+            throw new CapacityExceededException(BUSY_MESSAGE, properties.getRetryAfter());
+        }
+
+        QueuedPayload payload = new QueuedPayload(document, size);
+        if (limits.isCompress() && waiting > limits.getCompressAbove().toBytes()) {
+            try {
+                compressor.execute(() -> compress(payload, limits.getMinSaving()));
+            } catch (RejectedExecutionException ex) {
+                // Shutting down; the document stays as it was spooled.
+                log.debug("Not compressing queued document {}", document.getOriginalFilename(), ex);
+            }
+        }
+        return payload;
+    }
+
+    /**
+     * Hands back the document of a job that is starting; the caller closes it.
+     */
+    SpooledDocument release(QueuedPayload payload) {
+        synchronized (payload) {
+            payload.taken = true;
+            queuedBytes.addAndGet(-payload.storedBytes);
+            if (payload.deflated == null) {
+                return payload.document;
+            }
+            try {
+                return inflate(payload);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            } finally {
+                delete(payload.deflated);
+            }
+        }
+    }
+
+    /**
+     * Deletes the document of a job that will not run.
+     */
+    void discard(QueuedPayload payload) {
+        synchronized (payload) {
+            payload.taken = true;
+            queuedBytes.addAndGet(-payload.storedBytes);
+            if (payload.deflated == null) {
+                payload.document.close();
+            } else {
+                delete(payload.deflated);
+            }
+        }
+    }
+
+    long getQueuedBytes() {
+        return queuedBytes.get();
+    }
+
+    @Override
+    public void destroy() {
+        if (compressor instanceof ExecutorService executor) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Swaps the spooled document of {@code payload} for a deflated copy, unless its job has started meanwhile or
+     * deflating does not save enough.
+     */
+    private void compress(QueuedPayload payload, double minSaving) {
+        SpooledDocument document;
+        synchronized (payload) {
+            if (payload.taken) {
+                return;
+            }
+            document = payload.document;
+        }
+        Path deflated;
+        try {
+            deflated = compress(document, minSaving);
+        } catch (IOException ex) {
+            synchronized (payload) {
+                if (!payload.taken) {
+                    log.warn("Could not compress queued document {}", document.getOriginalFilename(), ex);
+                }
+            }
+            return;
+        }
+        if (deflated == null) {
+            return;
+        }
+
+        synchronized (payload) {
+            if (payload.taken) {
+                delete(deflated);
+                return;
+            }
+            try {
+                long stored = Files.size(deflated);
+                queuedBytes.addAndGet(stored - payload.storedBytes);
+                payload.storedBytes = stored;
+                payload.deflated = deflated;
+                payload.document = null;
+            } catch (IOException ex) {
+                log.warn("Could not compress queued document {}", document.getOriginalFilename(), ex);
+                delete(deflated);
+                return;
+            }
+        }
+        compressed.increment();
+        document.close();
+    }
+
+    /**
+     * Deflates {@code document} next to itself, or returns null if that would not save enough.
+     */
+    private static Path compress(SpooledDocument document, double minSaving) throws IOException {
+        byte[] header = document.readHeader(TIFF_LITTLE_ENDIAN_MAGIC.length);
+        if (!Arrays.equals(header, TIFF_LITTLE_ENDIAN_MAGIC) && !Arrays.equals(header, TIFF_BIG_ENDIAN_MAGIC)) {
+            return null;
+        }
+
+        Path target = Files.createTempFile(document.getPath().getParent(), "queued-", ".deflate");
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try (InputStream in = document.openStream();
+             OutputStream out = new DeflaterOutputStream(Files.newOutputStream(target), deflater, BUFFER_SIZE)) {
+            in.transferTo(out);
+        } catch (IOException | RuntimeException ex) {
+            delete(target);
+            throw ex;
+        } finally {
+            deflater.end();
+        }
+
+        if (Files.size(target) > document.getSize() * (1 - minSaving)) {
+            delete(target);
+            return null;
+        }
+        return target;
+    }
+
+    private static SpooledDocument inflate(QueuedPayload payload) throws IOException {
+        Path target = Files.createTempFile(payload.deflated.getParent(), "inflated-", ".part");
+        try (InputStream in = new InflaterInputStream(Files.newInputStream(payload.deflated));
+             OutputStream out = Files.newOutputStream(target)) {
+            in.transferTo(out);
+            return new SpooledDocument(target, payload.originalFilename, payload.contentType);
+        } catch (IOException | RuntimeException ex) {
+            delete(target);
+            throw ex;
+        }
+    }
+
+    private static void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ex) {
+            log.warn("Could not delete queued document {}", file, ex);
+        }
+    }
+
+    /**
+     * A queued document, as spooled until the compressor swaps in a deflated copy. Guarded by its own lock.
+     */
+    static final class QueuedPayload {
+        private final String originalFilename;
+        private final String contentType;
+        private SpooledDocument document;
+        private Path deflated;
+        private long storedBytes;
+        private boolean taken;
+
+        private QueuedPayload(SpooledDocument document, long storedBytes) {
+            this.document = document;
+            this.originalFilename = document.getOriginalFilename();
+            this.contentType = document.getContentType();
+            this.storedBytes = storedBytes;
+        }
+
+        synchronized boolean isCompressed() {
+            return deflated != null;
+        }
+    }
+}
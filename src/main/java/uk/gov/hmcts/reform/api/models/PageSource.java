@@ -0,0 +1,18 @@
+package uk.gov.hmcts.reform.api.models;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Value;
+
+@Value
+@Schema(description = "Where a page of a combined document came from")
+public class PageSource {
+
+    @Schema(description = "Page number in the combined document and its analysis result", example = "2")
+    int pageNumber;
+
+    @Schema(description = "Name of the uploaded file", example = "certificate-back.jpg")
+    String filename;
+
+    @Schema(description = "Frame within the uploaded file; only multi-page TIFFs have more than one", example = "0")
+    int frame;
+}
@@ -0,0 +1,33 @@
+package uk.gov.hmcts.reform.api.notifications;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Value;
+import uk.gov.hmcts.reform.api.jobs.AnalysisJob;
+
+import java.time.Instant;
+
+/**
+ * What a webhook reports about a finished job. Results are not included; the receiver fetches them from
+ * {@code /jobs/{id}}.
+ */
+@Value
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class JobNotification {
+    String jobId;
+    String status;
+    String filename;
+    int pageCount;
+    String error;
+    Instant finishedAt;
+
+    public static JobNotification of(AnalysisJob job) {
+        return new JobNotification(
+            job.getId(),
+            job.getStatus().name(),
+            job.getFilename(),
+            job.getPageCount(),
+            job.getError(),
+            job.getFinishedAt()
+        );
+    }
+}
@@ -0,0 +1,30 @@
+package uk.gov.hmcts.reform.api.notifications;
+
+import lombok.Getter;
+
+/**
+ * Notifications for one destination, sent in a single request. The body is fixed when the batch is formed, so
+ * every retry carries the same bytes and the same {@code X-Webhook-Id}, and receivers can drop duplicates.
+ */
+@Getter
+class WebhookBatch {
+    private final String id;
+    private final String destination;
+    private final String body;
+    private final int size;
+    private final long firstQueuedAt;
+    private int attempts;
+
+    WebhookBatch(String id, String destination, String body, int size, long firstQueuedAt, int attempts) {
+        this.id = id;
+        this.destination = destination;
+        this.body = body;
+        this.size = size;
+        this.firstQueuedAt = firstQueuedAt;
+        this.attempts = attempts;
+    }
+
+    void recordAttempt() {
+        attempts++;
+    }
+}
@@ -0,0 +1,13 @@
+package uk.gov.hmcts.reform.api.notifications;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * The body of a webhook request: {@code {"notifications":[...]}}.
+ */
+@Value
+class WebhookBody {
+    List<JobNotification> notifications;
+}
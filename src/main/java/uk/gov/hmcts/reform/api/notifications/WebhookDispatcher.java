@@ -0,0 +1,351 @@
+package uk.gov.hmcts.reform.api.notifications;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import tools.jackson.databind.json.JsonMapper;
+import uk.gov.hmcts.reform.api.config.WebhookProperties;
+import uk.gov.hmcts.reform.api.errorhandling.exceptions.InvalidCallbackException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tells callers that their jobs have finished, so they need not poll {@code /jobs/{id}}.
+ *
+ * <p>Notifications for the same destination are collected for up to {@code app.webhooks.batch-window}, or until
+ * {@code app.webhooks.max-batch-size} are waiting, and sent as one signed POST. At most
+ * {@code app.webhooks.max-concurrent-deliveries} requests are in flight. A failed batch is retried with
+ * exponential backoff and jitter; after {@code app.webhooks.max-attempts} it is dead-lettered. Batches are
+ * persisted under {@code app.webhooks.queue-directory} from the moment they are formed until they are delivered
+ * or dead-lettered, and reloaded on start-up. Notifications still inside their batch window when the dispatcher
+ * stops, and any that arrive while it is stopped, are persisted as batches straight away so they are sent after
+ * the restart.
+ *
+ * <p>Each request carries {@code X-Webhook-Id}, stable across retries, {@code X-Webhook-Timestamp} and
+ * {@code X-Webhook-Signature}, the HMAC-SHA256 of the timestamp and body.
+ */
+@Slf4j
+@Component
+public class WebhookDispatcher implements SmartLifecycle {
+
+    static final String ID_HEADER = "X-Webhook-Id";
+    static final String TIMESTAMP_HEADER = "X-Webhook-Timestamp";
+    static final String SIGNATURE_HEADER = "X-Webhook-Signature";
+    static final String LATENCY_METRIC = "documents.webhooks.latency";
+    static final String DEAD_LETTERED_METRIC = "documents.webhooks.dead-lettered";
+    static final String ATTEMPTS_METRIC = "documents.webhooks.attempts";
+
+    private final WebhookProperties properties;
+    private final WebhookRetryStore store;
+    private final WebhookSigner signer;
+    private final HttpClient client;
+    private final JsonMapper jsonMapper;
+    private final Map<String, List<Pending>> pending = new HashMap<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final Timer latency;
+    private final Counter delivered;
+    private final Counter failed;
+    private final Counter deadLettered;
+    private ScheduledExecutorService timer;
+    private ExecutorService senders;
+    private volatile boolean running;
+
+    public WebhookDispatcher(WebhookProperties properties, MeterRegistry meterRegistry, JsonMapper jsonMapper) {
+        this.properties = properties;
+        this.jsonMapper = jsonMapper;
+        if (properties.isEnabled() && !StringUtils.hasText(properties.getSigningSecret())) {
+            throw new IllegalStateException("app.webhooks.signing-secret is required when webhooks are enabled");
+        }
+        try {
+            this.store = new WebhookRetryStore(
+                StringUtils.hasText(properties.getQueueDirectory()) ? Path.of(properties.getQueueDirectory()) : null
+            );
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        this.signer = properties.isEnabled() ? new WebhookSigner(properties.getSigningSecret()) : null;
+        this.client = HttpClient.newBuilder()
+            .connectTimeout(properties.getConnectTimeout())
+            .followRedirects(HttpClient.Redirect.NEVER)
+            .build();
+
+        Gauge.builder("documents.webhooks.queued", queued, AtomicInteger::get).register(meterRegistry);
+        this.latency = Timer.builder(LATENCY_METRIC).publishPercentileHistogram().register(meterRegistry);
+        this.delivered = Counter.builder(ATTEMPTS_METRIC).tag("outcome", "success").register(meterRegistry);
+        this.failed = Counter.builder(ATTEMPTS_METRIC).tag("outcome", "failure").register(meterRegistry);
+        this.deadLettered = Counter.builder(DEAD_LETTERED_METRIC).register(meterRegistry);
+    }
+
+    /**
+     * Checks a caller-supplied destination before any work is accepted for it.
+     *
+     * @throws InvalidCallbackException if webhooks are disabled or the URL is not under an allowed prefix
+     */
+    public void checkDestination(String destination) {
+        if (!properties.isEnabled()) {
+            throw new InvalidCallbackException("Callbacks are not enabled.");
+        }
+        URI uri;
+        try {
+            uri = URI.create(destination);
+        } catch (IllegalArgumentException ex) {
+            throw new InvalidCallbackException("Callback URL is not valid.");
+        }
+        boolean httpScheme = "https".equalsIgnoreCase(uri.getScheme()) || "http".equalsIgnoreCase(uri.getScheme());
+        if (!httpScheme || uri.getHost() == null || uri.getRawUserInfo() != null
+            || properties.getAllowedDestinations().stream().noneMatch(allowed -> isUnder(uri, allowed))) {
+            throw new InvalidCallbackException("Callback URL is not allowed.");
+        }
+    }
+
+    /**
+     * Whether {@code destination} has the scheme, host and port of {@code allowed} and a path at or below its path.
+     * A plain string prefix would let {@code https://hooks.example.gov.uk.attacker.net} through.
+     */
+    private static boolean isUnder(URI destination, String allowed) {
+        URI prefix;
+        try {
+            prefix = URI.create(allowed.trim()).normalize();
+        } catch (IllegalArgumentException ex) {
+            return false;
+        }
+        if (prefix.getHost() == null
+            || !prefix.getScheme().equalsIgnoreCase(destination.getScheme())
+            || !prefix.getHost().equalsIgnoreCase(destination.getHost())
+            || port(prefix) != port(destination)) {
+            return false;
+        }
+        String allowedPath = prefix.getRawPath() == null ? "" : prefix.getRawPath();
+        if (allowedPath.endsWith("/")) {
+            allowedPath = allowedPath.substring(0, allowedPath.length() - 1);
+        }
+        String path = destination.normalize().getRawPath();
+        path = path == null ? "" : path;
+        return path.equals(allowedPath) || path.startsWith(allowedPath + "/");
+    }
+
+    private static int port(URI uri) {
+        if (uri.getPort() >= 0) {
+            return uri.getPort();
+        }
+        return "https".equalsIgnoreCase(uri.getScheme()) ? 443 : 80;
+    }
+
+    /**
+     * Queues {@code notification} for {@code destination}, which must have passed {@link #checkDestination}.
+     */
+    public void notify(String destination, JobNotification notification) {
+        List<Pending> ready = null;
+        synchronized (pending) {
+            if (!running) {
+                keepForRestart(destination, List.of(new Pending(notification, System.currentTimeMillis())));
+                return;
+            }
+            queued.incrementAndGet();
+            List<Pending> waiting = pending.computeIfAbsent(destination, key -> new ArrayList<>());
+            waiting.add(new Pending(notification, System.currentTimeMillis()));
+            if (waiting.size() >= properties.getMaxBatchSize()) {
+                ready = pending.remove(destination);
+            } else if (waiting.size() == 1) {
+                timer.schedule(() -> flush(destination), properties.getBatchWindow().toMillis(), TimeUnit.MILLISECONDS);
+            }
+        }
+        if (ready != null) {
+            dispatch(destination, ready);
+        }
+    }
+
+    @Override
+    public synchronized void start() {
+        if (!properties.isEnabled() || running) {
+            return;
+        }
+        timer = Executors.newSingleThreadScheduledExecutor(runnable -> daemon(runnable, "webhook-timer"));
+        AtomicInteger count = new AtomicInteger();
+        senders = Executors.newFixedThreadPool(
+            Math.max(1, properties.getMaxConcurrentDeliveries()),
+            runnable -> daemon(runnable, "webhook-sender-" + count.incrementAndGet())
+        );
+        running = true;
+
+        try {
+            List<WebhookBatch> recovered = store.loadPending();
+            for (WebhookBatch batch : recovered) {
+                queued.addAndGet(batch.getSize());
+                senders.execute(() -> deliver(batch));
+            }
+            if (!recovered.isEmpty()) {
+                log.info("Resuming delivery of {} webhook batches", recovered.size());
+            }
+        } catch (IOException ex) {
+            log.error("Failed to reload persisted webhook batches", ex);
+        }
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        synchronized (pending) {
+            running = false;
+            pending.forEach((destination, waiting) -> {
+                queued.addAndGet(-waiting.size());
+                keepForRestart(destination, waiting);
+            });
+            pending.clear();
+        }
+        timer.shutdownNow();
+        senders.shutdownNow();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void flush(String destination) {
+        List<Pending> ready;
+        synchronized (pending) {
+            ready = pending.remove(destination);
+        }
+        if (ready != null) {
+            dispatch(destination, ready);
+        }
+    }
+
+    private void dispatch(String destination, List<Pending> notifications) {
+        WebhookBatch batch = batch(destination, notifications);
+        store.save(batch);
+        senders.execute(() -> deliver(batch));
+    }
+
+    /**
+     * Persists notifications that cannot be sent before the dispatcher stops, for the next start to deliver.
+     */
+    private void keepForRestart(String destination, List<Pending> notifications) {
+        if (!store.isPersistent()) {
+            log.warn("Webhook dispatcher not running and no queue directory; dropping {} notifications for {}",
+                     notifications.size(), destination);
+            return;
+        }
+        store.save(batch(destination, notifications));
+    }
+
+    private WebhookBatch batch(String destination, List<Pending> notifications) {
+        WebhookBody body = new WebhookBody(notifications.stream().map(entry -> entry.notification).toList());
+        return new WebhookBatch(
+            UUID.randomUUID().toString(),
+            destination,
+            jsonMapper.writeValueAsString(body),
+            notifications.size(),
+            notifications.getFirst().queuedAt,
+            0
+        );
+    }
+
+    private void deliver(WebhookBatch batch) {
+        batch.recordAttempt();
+        long timestamp = System.currentTimeMillis() / 1000;
+        HttpRequest request = HttpRequest.newBuilder(URI.create(batch.getDestination()))
+            .timeout(properties.getRequestTimeout())
+            .header("Content-Type", "application/json")
+            .header(ID_HEADER, batch.getId())
+            .header(TIMESTAMP_HEADER, String.valueOf(timestamp))
+            .header(SIGNATURE_HEADER, signer.sign(timestamp, batch.getBody()))
+            .POST(HttpRequest.BodyPublishers.ofString(batch.getBody(), StandardCharsets.UTF_8))
+            .build();
+
+        String failure;
+        try {
+            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() / 100 == 2) {
+                succeeded(batch);
+                return;
+            }
+            failure = "HTTP " + response.statusCode();
+        } catch (IOException ex) {
+            failure = ex.toString();
+        } catch (InterruptedException ex) {
+            // Shutting down: the batch is still persisted and resumes on the next start.
+            Thread.currentThread().interrupt();
+            return;
+        }
+        failed(batch, failure);
+    }
+
+    private void succeeded(WebhookBatch batch) {
+        delivered.increment();
+        latency.record(System.currentTimeMillis() - batch.getFirstQueuedAt(), TimeUnit.MILLISECONDS);
+        store.delete(batch);
+        queued.addAndGet(-batch.getSize());
+    }
+
+    private void failed(WebhookBatch batch, String failure) {
+        failed.increment();
+        if (batch.getAttempts() >= properties.getMaxAttempts()) {
+            log.error("Dead-lettering webhook batch {} for {} after {} attempts: {}",
+                      batch.getId(), batch.getDestination(), batch.getAttempts(), failure);
+            deadLettered.increment();
+            store.deadLetter(batch);
+            queued.addAndGet(-batch.getSize());
+            return;
+        }
+
+        long delay = backoff(batch.getAttempts());
+        log.warn("Webhook batch {} to {} failed ({}), retrying in {} ms",
+                 batch.getId(), batch.getDestination(), failure, delay);
+        store.save(batch);
+        if (running) {
+            timer.schedule(() -> senders.execute(() -> deliver(batch)), delay, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Full jitter over an exponentially growing ceiling, so retries from many batches do not arrive together.
+     */
+    private long backoff(int attempts) {
+        long initial = Math.max(1, properties.getInitialBackoff().toMillis());
+        long ceiling = Math.min(properties.getMaxBackoff().toMillis(), initial << Math.min(attempts - 1, 30));
+        return initial + ThreadLocalRandom.current().nextLong(Math.max(1, ceiling - initial + 1));
+    }
+
+    private static Thread daemon(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    private static final class Pending {
+        private final JobNotification notification;
+        private final long queuedAt;
+
+        Pending(JobNotification notification, long queuedAt) {
+            this.notification = notification;
+            this.queuedAt = queuedAt;
+        }
+    }
+}
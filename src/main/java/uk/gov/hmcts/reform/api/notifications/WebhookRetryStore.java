@@ -0,0 +1,138 @@
+package uk.gov.hmcts.reform.api.notifications;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Keeps undelivered webhook batches on disk, so they survive a restart, and keeps dead-lettered batches for
+ * inspection. Without a directory, batches live only in memory and this does nothing.
+ *
+ * <p>Files are written to a temp name and renamed into place, as in the filesystem work queue.
+ */
+@Slf4j
+class WebhookRetryStore {
+
+    private static final String SUFFIX = ".batch";
+
+    private final Path pendingDir;
+    private final Path deadLetterDir;
+    private final Path tmpDir;
+
+    WebhookRetryStore(Path directory) throws IOException {
+        if (directory == null) {
+            this.pendingDir = null;
+            this.deadLetterDir = null;
+            this.tmpDir = null;
+            return;
+        }
+        this.pendingDir = Files.createDirectories(directory.resolve("pending"));
+        this.deadLetterDir = Files.createDirectories(directory.resolve("dead-letter"));
+        this.tmpDir = Files.createDirectories(directory.resolve("tmp"));
+    }
+
+    boolean isPersistent() {
+        return pendingDir != null;
+    }
+
+    void save(WebhookBatch batch) {
+        if (pendingDir != null) {
+            write(batch, pendingDir);
+        }
+    }
+
+    void delete(WebhookBatch batch) {
+        if (pendingDir == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(pendingDir.resolve(batch.getId() + SUFFIX));
+        } catch (IOException ex) {
+            log.warn("Failed to delete delivered webhook batch {}", batch.getId(), ex);
+        }
+    }
+
+    void deadLetter(WebhookBatch batch) {
+        if (pendingDir == null) {
+            return;
+        }
+        write(batch, deadLetterDir);
+        delete(batch);
+    }
+
+    List<WebhookBatch> loadPending() throws IOException {
+        List<WebhookBatch> batches = new ArrayList<>();
+        if (pendingDir == null) {
+            return batches;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(pendingDir, "*" + SUFFIX)) {
+            for (Path file : files) {
+                batches.add(read(file));
+            }
+        }
+        return batches;
+    }
+
+    List<WebhookBatch> loadDeadLettered() throws IOException {
+        List<WebhookBatch> batches = new ArrayList<>();
+        if (deadLetterDir == null) {
+            return batches;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(deadLetterDir, "*" + SUFFIX)) {
+            for (Path file : files) {
+                batches.add(read(file));
+            }
+        }
+        return batches;
+    }
+
+    private void write(WebhookBatch batch, Path dir) {
+        Properties properties = new Properties();
+        properties.setProperty("destination", batch.getDestination());
+        properties.setProperty("body", batch.getBody());
+        properties.setProperty("size", String.valueOf(batch.getSize()));
+        properties.setProperty("firstQueuedAt", String.valueOf(batch.getFirstQueuedAt()));
+        properties.setProperty("attempts", String.valueOf(batch.getAttempts()));
+
+        try {
+            Path tmp = Files.createTempFile(tmpDir, batch.getId(), ".tmp");
+            try {
+                try (Writer writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                    properties.store(writer, null);
+                }
+                Files.move(tmp, dir.resolve(batch.getId() + SUFFIX), StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+        } catch (IOException ex) {
+            // Delivery carries on from memory; only a restart before it succeeds would lose the batch.
+            log.warn("Failed to persist webhook batch {}", batch.getId(), ex);
+        }
+    }
+
+    private static WebhookBatch read(Path file) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        String name = file.getFileName().toString();
+        return new WebhookBatch(
+            name.substring(0, name.length() - SUFFIX.length()),
+            properties.getProperty("destination"),
+            properties.getProperty("body"),
+            Integer.parseInt(properties.getProperty("size")),
+            Long.parseLong(properties.getProperty("firstQueuedAt")),
+            Integer.parseInt(properties.getProperty("attempts"))
+        );
+    }
+}
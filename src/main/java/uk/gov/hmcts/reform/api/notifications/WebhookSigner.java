@@ -0,0 +1,33 @@
+package uk.gov.hmcts.reform.api.notifications;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.HexFormat;
+
+/**
+ * Signs webhook bodies with HMAC-SHA256 over {@code timestamp + "." + body}. Including the timestamp lets
+ * receivers reject replayed requests.
+ */
+class WebhookSigner {
+
+    static final String ALGORITHM = "HmacSHA256";
+
+    private final SecretKeySpec key;
+
+    WebhookSigner(String secret) {
+        this.key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+    }
+
+    String sign(long timestamp, String body) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            mac.update((timestamp + ".").getBytes(StandardCharsets.UTF_8));
+            return "sha256=" + HexFormat.of().formatHex(mac.doFinal(body.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("HMAC-SHA256 is not available", ex);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package uk.gov.hmcts.reform.api.sandbox;
+
+import java.io.InterruptedIOException;
+
+/**
+ * Thrown from a {@link ParseBudget#checkpoint()} once the parse has been aborted. An {@link java.io.IOException},
+ * so it can surface from the read paths that parsers call into.
+ */
+public class ParseAbortedException extends InterruptedIOException {
+
+    public ParseAbortedException(String reason) {
+        super("Parse aborted: " + reason);
+    }
+}
@@ -0,0 +1,129 @@
+package uk.gov.hmcts.reform.api.sandbox;
+
+import com.sun.management.ThreadMXBean;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The CPU time, allocation and deadline one sandboxed parse may use, summed over every thread working on it.
+ *
+ * <p>Threads join with {@link #propagate} and leave when their task ends. Once the {@link ParseSandbox} watchdog
+ * aborts the budget, every thread on it is interrupted and its next {@link #checkpoint()} throws. Parsers are not
+ * interruptible themselves, so checkpoints sit in the read paths they call for input.
+ */
+public final class ParseBudget {
+
+    private static final ThreadLocal<ParseBudget> CURRENT = new ThreadLocal<>();
+
+    private final ThreadMXBean threads;
+    private final long deadlineNanos;
+    private final Map<Thread, long[]> participants = new ConcurrentHashMap<>();
+    private final AtomicLong finishedCpuNanos = new AtomicLong();
+    private final AtomicLong finishedAllocatedBytes = new AtomicLong();
+    private volatile boolean started;
+    private volatile String abortReason;
+
+    ParseBudget(ThreadMXBean threads, long deadlineNanos) {
+        this.threads = threads;
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    /**
+     * Throws if the parse running on this thread has been aborted; does nothing outside a sandbox.
+     */
+    public static void checkpoint() throws ParseAbortedException {
+        ParseBudget budget = CURRENT.get();
+        if (budget != null && budget.abortReason != null) {
+            throw new ParseAbortedException(budget.abortReason);
+        }
+    }
+
+    /**
+     * Wraps {@code task} so that, wherever it runs, it counts against the current thread's budget and can be
+     * aborted with it. Returns {@code task} unchanged outside a sandbox.
+     */
+    public static <T> Callable<T> propagate(Callable<T> task) {
+        ParseBudget budget = CURRENT.get();
+        if (budget == null) {
+            return task;
+        }
+        return () -> budget.call(task);
+    }
+
+    <T> T call(Callable<T> task) throws Exception {
+        Thread thread = Thread.currentThread();
+        ParseBudget previous = CURRENT.get();
+        CURRENT.set(this);
+        participants.put(thread, new long[] {threadCpuNanos(thread), threadAllocatedBytes(thread)});
+        started = true;
+        try {
+            checkpoint();
+            return task.call();
+        } finally {
+            long[] baseline = participants.remove(thread);
+            finishedCpuNanos.addAndGet(threadCpuNanos(thread) - baseline[0]);
+            finishedAllocatedBytes.addAndGet(threadAllocatedBytes(thread) - baseline[1]);
+            CURRENT.set(previous);
+            // Clear an abort interrupt so it does not leak into the pool thread's next task.
+            Thread.interrupted();
+        }
+    }
+
+    boolean isStarted() {
+        return started;
+    }
+
+    boolean isPastDeadline(long nowNanos) {
+        return nowNanos - deadlineNanos > 0;
+    }
+
+    long getDeadlineNanos() {
+        return deadlineNanos;
+    }
+
+    long usedCpuNanos() {
+        long used = finishedCpuNanos.get();
+        for (Map.Entry<Thread, long[]> participant : participants.entrySet()) {
+            used += Math.max(0, threadCpuNanos(participant.getKey()) - participant.getValue()[0]);
+        }
+        return used;
+    }
+
+    long allocatedBytes() {
+        long allocated = finishedAllocatedBytes.get();
+        for (Map.Entry<Thread, long[]> participant : participants.entrySet()) {
+            allocated += Math.max(0, threadAllocatedBytes(participant.getKey()) - participant.getValue()[1]);
+        }
+        return allocated;
+    }
+
+    String getAbortReason() {
+        return abortReason;
+    }
+
+    /**
+     * Marks the budget exhausted and interrupts its threads. True only for the first call.
+     */
+    synchronized boolean abort(String reason) {
+        if (abortReason != null) {
+            return false;
+        }
+        abortReason = reason;
+        participants.keySet().forEach(Thread::interrupt);
+        return true;
+    }
+
+    /**
+     * Zero where the JVM cannot measure it, which leaves that limit unenforced.
+     */
+    private long threadCpuNanos(Thread thread) {
+        return Math.max(0, threads.getThreadCpuTime(thread.threadId()));
+    }
+
+    private long threadAllocatedBytes(Thread thread) {
+        return Math.max(0, threads.getThreadAllocatedBytes(thread.threadId()));
+    }
+}
@@ -0,0 +1,108 @@
+package uk.gov.hmcts.reform.api.sandbox;
+
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import uk.gov.hmcts.reform.api.imaging.ImageQualityAnalyser;
+import uk.gov.hmcts.reform.api.imaging.QualityScore;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.FileImageInputStream;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * The parsing a worker does: loads a PDF for its page count, or reads an image's frame headers and decodes each
+ * frame into a subsampled view for its quality score.
+ */
+final class ParseInspector {
+
+    private static final String PDF = "application/pdf";
+    private static final String TIFF = "image/tiff";
+
+    private ParseInspector() {
+    }
+
+    static ParseReport inspect(ParseRequest request) {
+        if (PDF.equals(request.getMediaType())) {
+            return inspectPdf(request);
+        }
+        if (request.getMediaType().startsWith("image/")) {
+            return inspectImage(request);
+        }
+        return ParseReport.rejected("Invalid or unreadable file.");
+    }
+
+    private static ParseReport inspectPdf(ParseRequest request) {
+        try (PDDocument document = Loader.loadPDF(request.getPath().toFile())) {
+            if (document.isEncrypted()) {
+                return ParseReport.rejected("PDF encryption is not supported.");
+            }
+            return ParseReport.pdf(document.getNumberOfPages());
+        } catch (IOException ex) {
+            return ParseReport.rejected("Invalid or unreadable PDF.");
+        }
+    }
+
+    private static ParseReport inspectImage(ParseRequest request) {
+        try (ImageInputStream input = new FileImageInputStream(request.getPath().toFile())) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return ParseReport.rejected("Invalid image file.");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, false, true);
+                return inspectFrames(request, reader);
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException ex) {
+            return ParseReport.rejected("Invalid or unreadable image.");
+        }
+    }
+
+    private static ParseReport inspectFrames(ParseRequest request, ImageReader reader) throws IOException {
+        int frameCount = TIFF.equals(request.getMediaType()) ? reader.getNumImages(true) : 1;
+        if (frameCount < 1) {
+            return ParseReport.rejected("Invalid image file.");
+        }
+        if (frameCount > request.getMaxFrames()) {
+            return ParseReport.image(frameCount, List.of());
+        }
+
+        List<ParseReport.Frame> headers = new ArrayList<>(frameCount);
+        boolean decodable = true;
+        for (int i = 0; i < frameCount; i++) {
+            long width = reader.getWidth(i);
+            long height = reader.getHeight(i);
+            decodable &= width <= request.getMaxDimension()
+                && height <= request.getMaxDimension()
+                && width * height <= request.getMaxPixels();
+            headers.add(new ParseReport.Frame(width, height, null));
+        }
+        if (!decodable) {
+            return ParseReport.image(frameCount, headers);
+        }
+
+        List<ParseReport.Frame> frames = new ArrayList<>(frameCount);
+        for (int i = 0; i < frameCount; i++) {
+            ParseReport.Frame header = headers.get(i);
+            ImageReadParam param = ImageQualityAnalyser.subsample(
+                reader.getDefaultReadParam(),
+                header.getWidth(),
+                header.getHeight(),
+                request.getSampleSize()
+            );
+            BufferedImage view = reader.read(i, param);
+            QualityScore score = ImageQualityAnalyser.score(view, request.getInkThreshold());
+            frames.add(new ParseReport.Frame(header.getWidth(), header.getHeight(), score));
+        }
+        return ParseReport.image(frameCount, frames);
+    }
+}
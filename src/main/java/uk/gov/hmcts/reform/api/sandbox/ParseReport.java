@@ -0,0 +1,89 @@
+package uk.gov.hmcts.reform.api.sandbox;
+
+import lombok.Value;
+import uk.gov.hmcts.reform.api.errorhandling.exceptions.InvalidFileException;
+import uk.gov.hmcts.reform.api.imaging.QualityScore;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * What a parse worker found in an upload. Limits are applied by the caller, so a report only carries a
+ * {@code rejection} when the file could not be read at all.
+ *
+ * <p>{@code frames} is empty when {@code frameCount} exceeds the request's limit, and a frame has no score when
+ * any frame's header exceeds the request's dimension limits, as neither is decoded then.
+ */
+@Value
+public class ParseReport {
+    String rejection;
+    int pageCount;
+    int frameCount;
+    List<Frame> frames;
+
+    @Value
+    public static class Frame {
+        long width;
+        long height;
+        QualityScore score;
+    }
+
+    static ParseReport rejected(String rejection) {
+        return new ParseReport(rejection, 0, 0, List.of());
+    }
+
+    static ParseReport pdf(int pageCount) {
+        return new ParseReport(null, pageCount, 0, List.of());
+    }
+
+    static ParseReport image(int frameCount, List<Frame> frames) {
+        return new ParseReport(null, 0, frameCount, frames);
+    }
+
+    public void throwIfRejected() {
+        if (rejection != null) {
+            throw new InvalidFileException(rejection);
+        }
+    }
+
+    void writeTo(DataOutput out) throws IOException {
+        out.writeBoolean(rejection != null);
+        if (rejection != null) {
+            out.writeUTF(rejection);
+        }
+        out.writeInt(pageCount);
+        out.writeInt(frameCount);
+        out.writeInt(frames.size());
+        for (Frame frame : frames) {
+            out.writeLong(frame.getWidth());
+            out.writeLong(frame.getHeight());
+            QualityScore score = frame.getScore();
+            out.writeBoolean(score != null);
+            if (score != null) {
+                out.writeDouble(score.getSharpness());
+                out.writeDouble(score.getContrast());
+                out.writeDouble(score.getInkCoverage());
+            }
+        }
+    }
+
+    static ParseReport readFrom(DataInput in) throws IOException {
+        String rejection = in.readBoolean() ? in.readUTF() : null;
+        int pageCount = in.readInt();
+        int frameCount = in.readInt();
+        int size = in.readInt();
+        List<Frame> frames = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            long width = in.readLong();
+            long height = in.readLong();
+            QualityScore score = in.readBoolean()
+                ? new QualityScore(in.readDouble(), in.readDouble(), in.readDouble())
+                : null;
+            frames.add(new Frame(width, height, score));
+        }
+        return new ParseReport(rejection, pageCount, frameCount, frames);
+    }
+}
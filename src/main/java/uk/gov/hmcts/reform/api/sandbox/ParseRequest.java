@@ -0,0 +1,45 @@
+package uk.gov.hmcts.reform.api.sandbox;
+
+import lombok.Value;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * A spooled upload for a parse worker to inspect. The worker opens the file itself, so only its path crosses the
+ * socket, with the limits beyond which it should report frame headers without decoding them.
+ */
+@Value
+public class ParseRequest {
+    Path path;
+    String mediaType;
+    int maxFrames;
+    long maxDimension;
+    long maxPixels;
+    int sampleSize;
+    int inkThreshold;
+
+    void writeTo(DataOutput out) throws IOException {
+        out.writeUTF(path.toString());
+        out.writeUTF(mediaType);
+        out.writeInt(maxFrames);
+        out.writeLong(maxDimension);
+        out.writeLong(maxPixels);
+        out.writeInt(sampleSize);
+        out.writeInt(inkThreshold);
+    }
+
+    static ParseRequest readFrom(DataInput in) throws IOException {
+        return new ParseRequest(
+            Path.of(in.readUTF()),
+            in.readUTF(),
+            in.readInt(),
+            in.readLong(),
+            in.readLong(),
+            in.readInt(),
+            in.readInt()
+        );
+    }
+}
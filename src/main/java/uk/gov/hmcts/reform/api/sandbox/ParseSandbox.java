@@ -0,0 +1,224 @@
+package uk.gov.hmcts.reform.api.sandbox;
+
+import com.sun.management.ThreadMXBean;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import uk.gov.hmcts.reform.api.config.ParseSandboxProperties;
+import uk.gov.hmcts.reform.api.errorhandling.exceptions.CapacityExceededException;
+import uk.gov.hmcts.reform.api.errorhandling.exceptions.InvalidFileException;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs document parses on a bounded pool of dedicated threads, each under a wall-clock deadline, a CPU-time budget
+ * and an allocation budget ({@code app.parsing.*}), so a hostile upload costs at most those and never holds a
+ * request thread beyond the deadline.
+ *
+ * <p>A watchdog checks running parses every {@code app.parsing.check-interval} and aborts any over a limit; the
+ * caller gets a 400 and the parse threads are interrupted and stopped at their next {@link ParseBudget#checkpoint()}.
+ * A parse that fails with a {@link StackOverflowError}, as deeply nested PDF objects can cause, is rejected the
+ * same way. The deadline runs from submission, so time spent queued counts against it. Aborts are counted in
+ * {@code documents.parsing.aborted}, tagged with the limit that was hit. When every thread is busy and the queue is
+ * full, the request is turned away with a 503.
+ */
+@Slf4j
+@Component
+public class ParseSandbox implements DisposableBean {
+
+    static final String ABORTED_METRIC = "documents.parsing.aborted";
+    static final String DEADLINE = "deadline";
+    static final String CPU = "cpu";
+    static final String ALLOCATION = "allocation";
+    static final String STACK = "stack";
+
+    private static final String BUSY_MESSAGE = "Service is busy, please retry later.";
+    private static final String LIMIT_MESSAGE = "File could not be processed within resource limits.";
+
+    private final ParseSandboxProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final ThreadMXBean threads;
+    private final ThreadPoolExecutor executor;
+    private final ScheduledExecutorService watchdog;
+    private final Set<ParseBudget> running = ConcurrentHashMap.newKeySet();
+    private final Map<String, Counter> aborted = new ConcurrentHashMap<>();
+    private final Counter rejected;
+
+    public ParseSandbox(ParseSandboxProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if (threads.isThreadCpuTimeSupported() && !threads.isThreadCpuTimeEnabled()) {
+            threads.setThreadCpuTimeEnabled(true);
+        }
+        if (threads.isThreadAllocatedMemorySupported() && !threads.isThreadAllocatedMemoryEnabled()) {
+            threads.setThreadAllocatedMemoryEnabled(true);
+        }
+
+        int size = properties.getThreads() > 0 ? properties.getThreads() : Runtime.getRuntime().availableProcessors();
+        BlockingQueue<Runnable> queue = properties.getQueueCapacity() > 0
+            ? new ArrayBlockingQueue<>(properties.getQueueCapacity())
+            : new SynchronousQueue<>();
+        AtomicInteger count = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(size, size, 0, TimeUnit.MILLISECONDS, queue, runnable -> {
+            Thread thread = new Thread(runnable, "parse-sandbox-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.watchdog = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "parse-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = Math.max(1, properties.getCheckInterval().toMillis());
+        watchdog.scheduleWithFixedDelay(this::enforce, interval, interval, TimeUnit.MILLISECONDS);
+
+        Gauge.builder("documents.parsing.active", running, Set::size).register(meterRegistry);
+        this.rejected = Counter.builder("documents.parsing.rejected").register(meterRegistry);
+        for (String reason : new String[] {DEADLINE, CPU, ALLOCATION, STACK}) {
+            counter(reason);
+        }
+    }
+
+    /**
+     * Runs {@code parse} in the sandbox and returns its result.
+     *
+     * @throws InvalidFileException if the parse exceeds a limit, or whatever {@code parse} throws
+     * @throws CapacityExceededException if no parse thread becomes free in time
+     */
+    public <T> T run(Callable<T> parse) {
+        if (!properties.isEnabled()) {
+            return callDirectly(parse);
+        }
+
+        ParseBudget budget = new ParseBudget(threads, System.nanoTime() + properties.getDeadline().toNanos());
+        // Admission refinements made while parsing belong to the calling request.
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                RequestContextHolder.setRequestAttributes(attributes);
+                try {
+                    return budget.call(parse);
+                } finally {
+                    RequestContextHolder.resetRequestAttributes();
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            rejected.increment();
+            throw new CapacityExceededException(BUSY_MESSAGE, properties.getRetryAfter());
+        }
+
+        running.add(budget);
+        try {
+            return future.get(Math.max(0, budget.getDeadlineNanos() - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException ex) {
+            if (!budget.isStarted()) {
+                // Never got a thread: the pod is busy, not the file hostile.
+                rejected.increment();
+                throw new CapacityExceededException(BUSY_MESSAGE, properties.getRetryAfter());
+            }
+            abort(budget, DEADLINE);
+            throw new InvalidFileException(LIMIT_MESSAGE);
+        } catch (ExecutionException ex) {
+            throw failure(budget, ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            abort(budget, DEADLINE);
+            throw new InvalidFileException(LIMIT_MESSAGE, ex);
+        } finally {
+            running.remove(budget);
+            future.cancel(true);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        watchdog.shutdownNow();
+        executor.shutdownNow();
+    }
+
+    private RuntimeException failure(ParseBudget budget, Throwable cause) {
+        if (budget.getAbortReason() != null) {
+            // Whatever the parser made of the interrupt, the real reason is the limit.
+            return new InvalidFileException(LIMIT_MESSAGE, cause);
+        }
+        if (cause instanceof StackOverflowError) {
+            counter(STACK).increment();
+            log.warn("Parse aborted: stack overflow");
+            return new InvalidFileException(LIMIT_MESSAGE);
+        }
+        if (cause instanceof RuntimeException runtime) {
+            return runtime;
+        }
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        return new InvalidFileException("Invalid or unreadable file.", cause);
+    }
+
+    private void enforce() {
+        long now = System.nanoTime();
+        for (ParseBudget budget : running) {
+            if (!budget.isStarted()) {
+                continue;
+            }
+            try {
+                if (budget.isPastDeadline(now)) {
+                    abort(budget, DEADLINE);
+                } else if (budget.usedCpuNanos() > properties.getCpuBudget().toNanos()) {
+                    abort(budget, CPU);
+                } else if (budget.allocatedBytes() > properties.getAllocationBudget().toBytes()) {
+                    abort(budget, ALLOCATION);
+                }
+            } catch (RuntimeException ex) {
+                log.warn("Parse watchdog failed to check a budget", ex);
+            }
+        }
+    }
+
+    private void abort(ParseBudget budget, String reason) {
+        if (budget.abort(reason)) {
+            counter(reason).increment();
+            log.warn("Parse aborted: {} limit exceeded", reason);
+        }
+    }
+
+    private Counter counter(String reason) {
+        return aborted.computeIfAbsent(
+            reason,
+            key -> Counter.builder(ABORTED_METRIC).tag("reason", key).register(meterRegistry)
+        );
+    }
+
+    private static <T> T callDirectly(Callable<T> parse) {
+        try {
+            return parse.call();
+        } catch (RuntimeException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            throw new InvalidFileException("Invalid or unreadable file.", ex);
+        }
+    }
+}
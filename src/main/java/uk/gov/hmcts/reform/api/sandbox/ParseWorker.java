@@ -0,0 +1,115 @@
+package uk.gov.hmcts.reform.api.sandbox;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * One helper JVM and the socket it was started with. Not thread safe: the pool lends it to one parse at a time.
+ *
+ * <p>The socket is an interruptible channel, so a sandboxed parse that is aborted while waiting for the worker
+ * has its socket closed under it; the worker is then destroyed rather than reused.
+ */
+final class ParseWorker {
+
+    private static final long ACCEPT_POLL_MILLIS = 10;
+
+    private final Process process;
+    private final SocketChannel channel;
+    private final DataInputStream in;
+    private final DataOutputStream out;
+    private int jobs;
+
+    private ParseWorker(Process process, SocketChannel channel) {
+        this.process = process;
+        this.channel = channel;
+        this.in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+        this.out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+    }
+
+    /**
+     * Starts {@code command}, which is given {@code socket} as its last argument, and waits for it to connect.
+     */
+    static ParseWorker start(List<String> command, Path socket, Duration timeout) throws IOException {
+        try (ServerSocketChannel server = ServerSocketChannel.open(StandardProtocolFamily.UNIX)) {
+            server.bind(UnixDomainSocketAddress.of(socket));
+            server.configureBlocking(false);
+            Process process = new ProcessBuilder(command)
+                .redirectOutput(ProcessBuilder.Redirect.INHERIT)
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+            try {
+                return new ParseWorker(process, accept(server, process, timeout));
+            } catch (IOException | RuntimeException ex) {
+                process.destroyForcibly();
+                throw ex;
+            }
+        } finally {
+            // The connection outlives the socket file.
+            Files.deleteIfExists(socket);
+        }
+    }
+
+    ParseReport exchange(ParseRequest request) throws IOException {
+        jobs++;
+        request.writeTo(out);
+        out.flush();
+        return ParseReport.readFrom(in);
+    }
+
+    int getJobs() {
+        return jobs;
+    }
+
+    long pid() {
+        return process.pid();
+    }
+
+    boolean isAlive() {
+        return process.isAlive() && channel.isOpen();
+    }
+
+    void destroy() {
+        try {
+            channel.close();
+        } catch (IOException ex) {
+            // The process is killed regardless.
+        }
+        process.destroyForcibly();
+    }
+
+    private static SocketChannel accept(ServerSocketChannel server, Process process, Duration timeout)
+        throws IOException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (true) {
+            SocketChannel channel = server.accept();
+            if (channel != null) {
+                return channel;
+            }
+            if (!process.isAlive()) {
+                throw new IOException("Parse worker exited with status " + process.exitValue());
+            }
+            if (System.nanoTime() - deadline > 0) {
+                throw new IOException("Parse worker did not connect within " + timeout);
+            }
+            try {
+                Thread.sleep(ACCEPT_POLL_MILLIS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted waiting for parse worker");
+            }
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package uk.gov.hmcts.reform.api.sandbox;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+
+/**
+ * Entry point of a parse worker JVM started by {@link ParseWorkerPool}. Connects back over the Unix domain socket
+ * named in its only argument and answers one {@link ParseRequest} at a time until the pool closes the socket.
+ *
+ * <p>No Spring context is started: the worker only needs PDFBox, ImageIO and the quality analyser.
+ */
+public final class ParseWorkerMain {
+
+    private static final String UNREADABLE = "Invalid or unreadable file.";
+    private static final String LIMIT_MESSAGE = "File could not be processed within resource limits.";
+
+    private ParseWorkerMain() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        try (SocketChannel channel = SocketChannel.open(UnixDomainSocketAddress.of(args[0]))) {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+            while (true) {
+                ParseRequest request;
+                try {
+                    request = ParseRequest.readFrom(in);
+                } catch (EOFException ex) {
+                    return;
+                }
+                answer(request).writeTo(out);
+                out.flush();
+            }
+        }
+    }
+
+    private static ParseReport answer(ParseRequest request) {
+        try {
+            return ParseInspector.inspect(request);
+        } catch (StackOverflowError ex) {
+            return ParseReport.rejected(LIMIT_MESSAGE);
+        } catch (RuntimeException ex) {
+            // Decoders throw all sorts on malformed input; running out of heap exits the worker instead.
+            return ParseReport.rejected(UNREADABLE);
+        }
+    }
+}
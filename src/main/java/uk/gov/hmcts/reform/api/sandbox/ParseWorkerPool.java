@@ -0,0 +1,250 @@
+package uk.gov.hmcts.reform.api.sandbox;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.util.FileSystemUtils;
+import uk.gov.hmcts.reform.api.config.ParseSandboxProperties;
+import uk.gov.hmcts.reform.api.errorhandling.exceptions.CapacityExceededException;
+import uk.gov.hmcts.reform.api.errorhandling.exceptions.InvalidFileException;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.jar.JarFile;
+
+/**
+ * Pre-forked helper JVMs that parse uploads out of process when {@code app.parsing.workers.enabled} is set, so a
+ * document that exhausts a parser's heap or crashes it takes down one worker rather than the API.
+ *
+ * <p>Each worker has its own small heap ({@code max-heap}) and exits on running out of it. It is handed the path
+ * of the spooled upload over a Unix domain socket and opens the file itself, so no document bytes cross the
+ * socket. A worker is replaced after {@code max-jobs} parses, so slow leaks in the parsers never build up, and
+ * after any parse that killed it or was aborted by the {@link ParseSandbox}. Replacements start in the
+ * background; a parse that finds no idle worker within {@code start-timeout} gets a 503.
+ */
+@Slf4j
+@Component
+public class ParseWorkerPool implements SmartLifecycle {
+
+    static final String CRASHED_METRIC = "documents.parsing.workers.crashed";
+    static final String RECYCLED_METRIC = "documents.parsing.workers.recycled";
+
+    private static final String BOOT_LAUNCHER = "org.springframework.boot.loader.launch.PropertiesLauncher";
+    private static final String BUSY_MESSAGE = "Service is busy, please retry later.";
+    private static final String LIMIT_MESSAGE = "File could not be processed within resource limits.";
+    private static final Duration RESTART_DELAY = Duration.ofSeconds(5);
+
+    private final ParseSandboxProperties.Workers properties;
+    private final Duration retryAfter;
+    private final BlockingQueue<ParseWorker> idle = new LinkedBlockingQueue<>();
+    private final AtomicInteger sequence = new AtomicInteger();
+    private final Counter started;
+    private final Counter recycled;
+    private final Counter crashed;
+    private ScheduledExecutorService launcher;
+    private Path directory;
+    private volatile boolean running;
+
+    public ParseWorkerPool(ParseSandboxProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties.getWorkers();
+        this.retryAfter = properties.getRetryAfter();
+        Gauge.builder("documents.parsing.workers.idle", idle, BlockingQueue::size).register(meterRegistry);
+        this.started = Counter.builder("documents.parsing.workers.started").register(meterRegistry);
+        this.recycled = Counter.builder(RECYCLED_METRIC).register(meterRegistry);
+        this.crashed = Counter.builder(CRASHED_METRIC).register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * Has a worker parse {@code request} and returns what it found.
+     *
+     * @throws InvalidFileException if the worker died on the file
+     * @throws CapacityExceededException if no worker becomes free in time
+     */
+    public ParseReport inspect(ParseRequest request) {
+        ParseWorker worker = acquire();
+        boolean reusable = false;
+        try {
+            ParseReport report = worker.exchange(request);
+            reusable = true;
+            return report;
+        } catch (ClosedByInterruptException ex) {
+            // Aborted by the sandbox; the worker may still be busy on the file.
+            throw new InvalidFileException(LIMIT_MESSAGE, ex);
+        } catch (IOException ex) {
+            crashed.increment();
+            log.warn("Parse worker {} died parsing a {} upload", worker.pid(), request.getMediaType());
+            throw new InvalidFileException(LIMIT_MESSAGE, ex);
+        } finally {
+            release(worker, reusable);
+        }
+    }
+
+    @Override
+    public synchronized void start() {
+        if (!properties.isEnabled() || running) {
+            return;
+        }
+        try {
+            directory = Files.createTempDirectory("parse-workers");
+        } catch (IOException ex) {
+            throw new IllegalStateException("Could not create parse worker socket directory", ex);
+        }
+        launcher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "parse-worker-launcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        running = true;
+        for (int i = 0; i < Math.max(1, properties.getCount()); i++) {
+            launch(Duration.ZERO);
+        }
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        launcher.shutdownNow();
+        List<ParseWorker> workers = new ArrayList<>();
+        idle.drainTo(workers);
+        workers.forEach(ParseWorker::destroy);
+        FileSystemUtils.deleteRecursively(directory.toFile());
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Process ids of the workers waiting for a parse.
+     */
+    List<Long> idlePids() {
+        return idle.stream().map(ParseWorker::pid).toList();
+    }
+
+    private ParseWorker acquire() {
+        long deadline = System.nanoTime() + properties.getStartTimeout().toNanos();
+        while (true) {
+            ParseWorker worker;
+            try {
+                worker = idle.poll(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new InvalidFileException(LIMIT_MESSAGE, ex);
+            }
+            if (worker == null) {
+                throw new CapacityExceededException(BUSY_MESSAGE, retryAfter);
+            }
+            if (worker.isAlive()) {
+                return worker;
+            }
+            // Died while idle, so not this file's doing.
+            log.warn("Parse worker {} exited while idle", worker.pid());
+            replace(worker);
+        }
+    }
+
+    private void release(ParseWorker worker, boolean reusable) {
+        if (reusable && running && worker.getJobs() < properties.getMaxJobs()) {
+            idle.add(worker);
+            return;
+        }
+        if (reusable) {
+            recycled.increment();
+        }
+        replace(worker);
+    }
+
+    private void replace(ParseWorker worker) {
+        worker.destroy();
+        launch(Duration.ZERO);
+    }
+
+    private void launch(Duration delay) {
+        if (!running) {
+            return;
+        }
+        try {
+            launcher.schedule(this::spawn, delay.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException ex) {
+            // Stopping.
+        }
+    }
+
+    private void spawn() {
+        if (!running) {
+            return;
+        }
+        Path socket = directory.resolve("worker-" + sequence.incrementAndGet() + ".sock");
+        ParseWorker worker;
+        try {
+            worker = ParseWorker.start(command(socket), socket, properties.getStartTimeout());
+        } catch (IOException ex) {
+            log.error("Could not start parse worker, retrying in {}", RESTART_DELAY, ex);
+            launch(RESTART_DELAY);
+            return;
+        }
+        started.increment();
+        if (running) {
+            idle.add(worker);
+        } else {
+            worker.destroy();
+        }
+    }
+
+    private List<String> command(Path socket) {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.add("-Xmx" + properties.getMaxHeap().toMegabytes() + "m");
+        command.add("-XX:+ExitOnOutOfMemoryError");
+        command.add("-Djava.awt.headless=true");
+        command.addAll(properties.getJvmOptions());
+
+        // Same classes as this JVM; a packaged boot jar needs its launcher to reach the nested jars.
+        String classPath = System.getProperty("java.class.path");
+        command.add("-cp");
+        command.add(classPath);
+        if (isBootJar(classPath)) {
+            command.add("-Dloader.main=" + ParseWorkerMain.class.getName());
+            command.add(BOOT_LAUNCHER);
+        } else {
+            command.add(ParseWorkerMain.class.getName());
+        }
+        command.add(socket.toString());
+        return command;
+    }
+
+    private static boolean isBootJar(String classPath) {
+        if (classPath.contains(File.pathSeparator) || !classPath.endsWith(".jar")) {
+            return false;
+        }
+        try (JarFile jar = new JarFile(classPath)) {
+            return jar.getManifest() != null && jar.getManifest().getMainAttributes().getValue("Start-Class") != null;
+        } catch (IOException ex) {
+            return false;
+        }
+    }
+}
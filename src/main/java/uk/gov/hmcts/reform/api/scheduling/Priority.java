@@ -0,0 +1,30 @@
+package uk.gov.hmcts.reform.api.scheduling;
+
+import java.util.Locale;
+
+/**
+ * Request priority, taken from the {@code X-Priority} header. Lower ordinals are served first.
+ */
+public enum Priority {
+    URGENT,
+    INTERACTIVE,
+    BULK;
+
+    /**
+     * Missing or unrecognised values are treated as {@link #INTERACTIVE}.
+     */
+    public static Priority fromHeader(String value) {
+        if (value == null || value.isBlank()) {
+            return INTERACTIVE;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            return INTERACTIVE;
+        }
+    }
+
+    String tagValue() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
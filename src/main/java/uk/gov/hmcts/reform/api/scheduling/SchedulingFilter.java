@@ -0,0 +1,146 @@
+package uk.gov.hmcts.reform.api.scheduling;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+import uk.gov.hmcts.reform.api.config.SchedulingProperties;
+import uk.gov.hmcts.reform.api.errorhandling.exceptions.CapacityExceededException;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.List;
+
+/**
+ * Queues document uploads in the {@link WorkScheduler} before any validation or analysis work starts.
+ *
+ * <p>The tenant is the {@code X-Tenant} header, or the case type, the first path segment after {@code /documents/},
+ * when it is absent. The {@code X-Tenant} and {@code X-Priority} headers are only honoured from trusted callers: a
+ * request with an authenticated principal, or one from an address in {@code app.scheduling.trusted-callers}. Anyone
+ * else gets the case type and {@link Priority#INTERACTIVE}. Runs ahead of the admission filter so queued requests do
+ * not hold memory reservations.
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 2)
+public class SchedulingFilter extends OncePerRequestFilter {
+
+    public static final String TENANT_HEADER = "X-Tenant";
+    public static final String PRIORITY_HEADER = "X-Priority";
+    private static final String DOCUMENTS_PATH = "/documents/";
+
+    private final WorkScheduler scheduler;
+    private final HandlerExceptionResolver exceptionResolver;
+    private final List<AddressRange> trustedCallers;
+
+    public SchedulingFilter(WorkScheduler scheduler,
+                            SchedulingProperties properties,
+                            @Qualifier("handlerExceptionResolver") HandlerExceptionResolver exceptionResolver) {
+        this.scheduler = scheduler;
+        this.exceptionResolver = exceptionResolver;
+        this.trustedCallers = properties.getTrustedCallers().stream()
+            .filter(StringUtils::hasText)
+            .map(AddressRange::parse)
+            .toList();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !scheduler.isEnabled()
+            || !HttpMethod.POST.matches(request.getMethod())
+            || !request.getRequestURI().startsWith(request.getContextPath() + DOCUMENTS_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        boolean trusted = isTrusted(request);
+        Priority priority = trusted ? Priority.fromHeader(request.getHeader(PRIORITY_HEADER)) : Priority.INTERACTIVE;
+        WorkPermit permit;
+        try {
+            permit = scheduler.acquire(tenant(request, trusted), priority);
+        } catch (CapacityExceededException ex) {
+            exceptionResolver.resolveException(request, response, null, ex);
+            return;
+        }
+
+        try (permit) {
+            filterChain.doFilter(request, response);
+        }
+    }
+
+    private boolean isTrusted(HttpServletRequest request) {
+        if (request.getUserPrincipal() != null) {
+            return true;
+        }
+        if (trustedCallers.isEmpty()) {
+            return false;
+        }
+        InetAddress caller;
+        try {
+            // The servlet container gives an address literal, so this never looks anything up.
+            caller = InetAddress.getByName(request.getRemoteAddr());
+        } catch (UnknownHostException ex) {
+            return false;
+        }
+        return trustedCallers.stream().anyMatch(range -> range.contains(caller));
+    }
+
+    private String tenant(HttpServletRequest request, boolean trusted) {
+        String tenant = trusted ? request.getHeader(TENANT_HEADER) : null;
+        if (StringUtils.hasText(tenant)) {
+            return tenant.trim();
+        }
+        // Only the case type, so /documents/divorce/bundle shares the divorce weighting.
+        String path = request.getRequestURI().substring(request.getContextPath().length() + DOCUMENTS_PATH.length());
+        int slash = path.indexOf('/');
+        return slash < 0 ? path : path.substring(0, slash);
+    }
+
+    /**
+     * An address, or a CIDR range such as {@code 10.0.0.0/8}.
+     */
+    private static final class AddressRange {
+
+        private final BigInteger network;
+        private final int length;
+        private final int prefix;
+
+        private AddressRange(byte[] network, int prefix) {
+            this.length = network.length;
+            this.prefix = prefix;
+            this.network = new BigInteger(1, network).shiftRight(length * 8 - prefix);
+        }
+
+        static AddressRange parse(String range) {
+            String[] parts = range.trim().split("/", 2);
+            byte[] address;
+            try {
+                address = InetAddress.getByName(parts[0]).getAddress();
+            } catch (UnknownHostException ex) {
+                throw new IllegalArgumentException("Not a trusted caller address: " + range, ex);
+            }
+            int prefix = parts.length == 2 ? Integer.parseInt(parts[1]) : address.length * 8;
+            if (prefix < 0 || prefix > address.length * 8) {
+                throw new IllegalArgumentException("Not a trusted caller address: " + range);
+            }
+            return new AddressRange(address, prefix);
+        }
+
+        boolean contains(InetAddress caller) {
+            byte[] address = caller.getAddress();
+            return address.length == length
+                && new BigInteger(1, address).shiftRight(length * 8 - prefix).equals(network);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package uk.gov.hmcts.reform.api.scheduling;
+
+/**
+ * A request's slot in the {@link WorkScheduler}; closing it hands the slot to the next queued request.
+ */
+public class WorkPermit implements AutoCloseable {
+
+    private final WorkScheduler scheduler;
+    private boolean closed;
+
+    WorkPermit(WorkScheduler scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (!closed) {
+            closed = true;
+            scheduler.release();
+        }
+    }
+}
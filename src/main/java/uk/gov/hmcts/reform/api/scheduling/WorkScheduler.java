@@ -0,0 +1,235 @@
+package uk.gov.hmcts.reform.api.scheduling;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import uk.gov.hmcts.reform.api.config.SchedulingProperties;
+import uk.gov.hmcts.reform.api.errorhandling.exceptions.CapacityExceededException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Limits how many document requests run at once and decides which queued request runs next.
+ *
+ * <p>Requests are ordered first by {@link Priority} and then by weighted fair queuing between tenants: each
+ * request gets a virtual finish tag of {@code max(virtual time, tenant's last tag) + 1 / weight}, so a tenant
+ * with weight 4 is served four times as often as a tenant with weight 1 while both have work queued. A bulk
+ * backfill therefore cannot crowd out the divorce and probate callers, and an urgent request overtakes both.
+ *
+ * <p>To stop a steady stream of urgent work starving everything else, a waiting request is promoted one
+ * priority level for every {@code app.scheduling.aging-interval} it has waited.
+ */
+@Slf4j
+@Component
+public class WorkScheduler {
+
+    static final String WAIT_METRIC = "documents.scheduling.wait";
+    static final String OTHER_TENANT = "other";
+    private static final String BUSY_MESSAGE = "Service is busy, please retry later.";
+
+    private final SchedulingProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final int maxConcurrent;
+    private final long agingNanos;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final List<Ticket> waiting = new ArrayList<>();
+    private final Map<String, Double> lastFinish = new HashMap<>();
+    private final Counter rejected;
+    private double virtualTime;
+    private long sequence;
+    private int running;
+
+    public WorkScheduler(SchedulingProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.maxConcurrent = properties.getMaxConcurrent() > 0
+            ? properties.getMaxConcurrent()
+            : 2 * Runtime.getRuntime().availableProcessors();
+        this.agingNanos = Math.max(1, properties.getAgingInterval().toNanos());
+
+        Gauge.builder("documents.scheduling.running", this, WorkScheduler::getRunning)
+            .register(meterRegistry);
+        for (Priority priority : Priority.values()) {
+            Gauge.builder("documents.scheduling.queued", this, scheduler -> scheduler.getQueued(priority))
+                .tag("priority", priority.tagValue())
+                .register(meterRegistry);
+        }
+        this.rejected = Counter.builder("documents.scheduling.rejected").register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * Callers not listed in {@code app.scheduling.tenant-weights} share one queue.
+     */
+    public String resolveTenant(String tenant) {
+        return tenant != null && properties.getTenantWeights().containsKey(tenant) ? tenant : OTHER_TENANT;
+    }
+
+    /**
+     * Blocks until the request may run.
+     *
+     * @throws CapacityExceededException if the queue is full or the request waits longer than
+     *                                   {@code app.scheduling.max-queue-wait}
+     */
+    public WorkPermit acquire(String tenant, Priority priority) {
+        String resolvedTenant = resolveTenant(tenant);
+        long start = System.nanoTime();
+
+        lock.lock();
+        try {
+            if (running < maxConcurrent && waiting.isEmpty()) {
+                running++;
+            } else {
+                await(enqueue(resolvedTenant, priority, start));
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        waitTimer(resolvedTenant, priority).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return new WorkPermit(this);
+    }
+
+    public int getRunning() {
+        lock.lock();
+        try {
+            return running;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getQueued(Priority priority) {
+        lock.lock();
+        try {
+            return (int) waiting.stream().filter(ticket -> ticket.priority == priority).count();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void release() {
+        lock.lock();
+        try {
+            running--;
+            dispatch();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Ticket enqueue(String tenant, Priority priority, long now) {
+        if (waiting.size() >= properties.getMaxQueued()) {
+            throw reject(tenant, priority);
+        }
+
+        int weight = Math.max(1, properties.getTenantWeights().getOrDefault(tenant, properties.getDefaultWeight()));
+        double finish = Math.max(virtualTime, lastFinish.getOrDefault(tenant, 0.0)) + 1.0 / weight;
+        lastFinish.put(tenant, finish);
+
+        Ticket ticket = new Ticket(tenant, priority, finish, sequence++, now, lock.newCondition());
+        waiting.add(ticket);
+        return ticket;
+    }
+
+    private void await(Ticket ticket) {
+        long remaining = properties.getMaxQueueWait().toNanos();
+        try {
+            while (!ticket.granted) {
+                if (remaining <= 0) {
+                    waiting.remove(ticket);
+                    throw reject(ticket.tenant, ticket.priority);
+                }
+                remaining = ticket.ready.awaitNanos(remaining);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            if (ticket.granted) {
+                running--;
+                dispatch();
+            } else {
+                waiting.remove(ticket);
+            }
+            throw reject(ticket.tenant, ticket.priority);
+        }
+    }
+
+    private void dispatch() {
+        long now = System.nanoTime();
+        while (running < maxConcurrent && !waiting.isEmpty()) {
+            Ticket next = waiting.getFirst();
+            for (Ticket candidate : waiting) {
+                if (candidate.isAheadOf(next, now, agingNanos)) {
+                    next = candidate;
+                }
+            }
+            waiting.remove(next);
+            virtualTime = Math.max(virtualTime, next.finish);
+            next.granted = true;
+            running++;
+            next.ready.signal();
+        }
+    }
+
+    private Timer waitTimer(String tenant, Priority priority) {
+        return Timer.builder(WAIT_METRIC)
+            .tag("tenant", tenant)
+            .tag("priority", priority.tagValue())
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+    }
+
+    private CapacityExceededException reject(String tenant, Priority priority) {
+        rejected.increment();
+        log.warn("Work queue full or wait exceeded, rejecting {} request from {} ({} running, {} queued)",
+                 priority, tenant, running, waiting.size());
+        return new CapacityExceededException(BUSY_MESSAGE, properties.getRetryAfter());
+    }
+
+    private static final class Ticket {
+        private final String tenant;
+        private final Priority priority;
+        private final double finish;
+        private final long sequence;
+        private final long enqueuedAt;
+        private final Condition ready;
+        private boolean granted;
+
+        Ticket(String tenant, Priority priority, double finish, long sequence, long enqueuedAt, Condition ready) {
+            this.tenant = tenant;
+            this.priority = priority;
+            this.finish = finish;
+            this.sequence = sequence;
+            this.enqueuedAt = enqueuedAt;
+            this.ready = ready;
+        }
+
+        int effectiveRank(long now, long agingNanos) {
+            return (int) Math.max(0, priority.ordinal() - (now - enqueuedAt) / agingNanos);
+        }
+
+        boolean isAheadOf(Ticket other, long now, long agingNanos) {
+            int rank = effectiveRank(now, agingNanos);
+            int otherRank = other.effectiveRank(now, agingNanos);
+            if (rank != otherRank) {
+                return rank < otherRank;
+            }
+            if (finish != other.finish) {
+                return finish < other.finish;
+            }
+            return sequence < other.sequence;
+        }
+    }
+}
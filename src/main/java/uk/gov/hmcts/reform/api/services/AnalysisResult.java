@@ -0,0 +1,17 @@
+package uk.gov.hmcts.reform.api.services;
+
+import lombok.Value;
+
+/**
+ * Outcome of a Document Intelligence analysis. {@code resultJson} is the raw operation result, or null when
+ * analysis is disabled.
+ */
+@Value
+public class AnalysisResult {
+    String modelId;
+    String resultJson;
+
+    public static AnalysisResult skipped(String modelId) {
+        return new AnalysisResult(modelId, null);
+    }
+}
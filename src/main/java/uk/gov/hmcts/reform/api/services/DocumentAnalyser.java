@@ -0,0 +1,63 @@
+package uk.gov.hmcts.reform.api.services;
+
+import com.azure.core.http.HttpHeaderName;
+import com.azure.core.http.rest.RequestOptions;
+import com.azure.core.util.BinaryData;
+import com.azure.core.util.polling.SyncPoller;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import uk.gov.hmcts.reform.api.diagnostics.UploadStageEvent;
+import uk.gov.hmcts.reform.api.endpoints.AnalysisEndpointPool;
+import uk.gov.hmcts.reform.api.intake.SpooledDocument;
+
+/**
+ * Sends spooled documents to Azure Document Intelligence.
+ *
+ * <p>The document is sent as a raw {@code application/octet-stream} body read from the spooled file, rather
+ * than as a base64 JSON payload, so the upload is streamed from disk and never held on the heap. Each analysis
+ * runs on whichever endpoint of the {@link AnalysisEndpointPool} is quickest to accept it; only the initial request
+ * is timed, not the polling that waits for the result.
+ */
+@Component
+public class DocumentAnalyser {
+
+    private static final String OCTET_STREAM = "application/octet-stream";
+
+    private final AnalysisEndpointPool endpoints;
+    private final boolean enabled;
+
+    public DocumentAnalyser(AnalysisEndpointPool endpoints,
+                            @Value("${azure.document-intelligence.analysis-enabled:false}") boolean enabled) {
+        this.endpoints = endpoints;
+        this.enabled = enabled;
+    }
+
+    public AnalysisResult analyse(SpooledDocument document, String modelId) {
+        return analyse(document, modelId, null);
+    }
+
+    /**
+     * Analyses {@code pages} only, in Document Intelligence's page range syntax ({@code 1-3,5}); null for all.
+     */
+    public AnalysisResult analyse(SpooledDocument document, String modelId, String pages) {
+        if (!enabled) {
+            return AnalysisResult.skipped(modelId);
+        }
+
+        RequestOptions options = new RequestOptions().setHeader(HttpHeaderName.CONTENT_TYPE, OCTET_STREAM);
+        if (pages != null) {
+            options.addQueryParam("pages", pages);
+        }
+        UploadStageEvent event = UploadStageEvent.start("analysis");
+        try {
+            // The poller sends the analyze request as it is created; getFinalResult() then polls the operation.
+            return endpoints.execute(
+                client -> client.beginAnalyzeDocument(modelId, document.asBinaryData(), options),
+                (SyncPoller<BinaryData, BinaryData> poller) ->
+                    new AnalysisResult(modelId, poller.getFinalResult().toString())
+            );
+        } finally {
+            event.finish(document.getSize(), document.getContentType(), 0);
+        }
+    }
+}
@@ -1,18 +1,164 @@
 package uk.gov.hmcts.reform.api.services;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
+import uk.gov.hmcts.reform.api.assembly.CompositeDocument;
+import uk.gov.hmcts.reform.api.assembly.CompositeDocumentAssembler;
+import uk.gov.hmcts.reform.api.concurrency.CoalescingKey;
+import uk.gov.hmcts.reform.api.concurrency.RequestCoalescer;
+import uk.gov.hmcts.reform.api.dedup.DocumentDeduplicator;
+import uk.gov.hmcts.reform.api.dedup.DocumentFingerprint;
+import uk.gov.hmcts.reform.api.distribution.AnalysisDistributor;
+import uk.gov.hmcts.reform.api.imaging.DocumentNormaliser;
+import uk.gov.hmcts.reform.api.intake.DocumentSpooler;
+import uk.gov.hmcts.reform.api.jobs.ChunkedAnalysisRunner;
+import uk.gov.hmcts.reform.api.intake.SpooledDocument;
 import uk.gov.hmcts.reform.api.models.CaseDetails;
 import uk.gov.hmcts.reform.api.models.DivorceCaseDetails;
+import uk.gov.hmcts.reform.api.models.PageSource;
+import uk.gov.hmcts.reform.api.notifications.WebhookDispatcher;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
 
 @Service
 public class DocumentService {
 
+    private static final String ANALYSIS_STAGE = "analysis";
+    private static final String COMPOSITE_ANALYSIS_STAGE = "composite-analysis";
+
+    private final DocumentSpooler spooler;
+    private final AnalysisDistributor distributor;
+    private final RequestCoalescer coalescer;
+    private final DocumentNormaliser normaliser;
+    private final CompositeDocumentAssembler assembler;
+    private final ChunkedAnalysisRunner jobRunner;
+    private final WebhookDispatcher webhooks;
+    private final DocumentDeduplicator deduplicator;
+    private final String divorceModelId;
+    private final String probateModelId;
+
+    public DocumentService(DocumentSpooler spooler,
+                           AnalysisDistributor distributor,
+                           RequestCoalescer coalescer,
+                           DocumentNormaliser normaliser,
+                           CompositeDocumentAssembler assembler,
+                           ChunkedAnalysisRunner jobRunner,
+                           WebhookDispatcher webhooks,
+                           DocumentDeduplicator deduplicator,
+                           @Value("${azure.document-intelligence.models.divorce}") String divorceModelId,
+                           @Value("${azure.document-intelligence.models.probate}") String probateModelId) {
+        this.spooler = spooler;
+        this.distributor = distributor;
+        this.coalescer = coalescer;
+        this.normaliser = normaliser;
+        this.assembler = assembler;
+        this.jobRunner = jobRunner;
+        this.webhooks = webhooks;
+        this.deduplicator = deduplicator;
+        this.divorceModelId = divorceModelId;
+        this.probateModelId = probateModelId;
+    }
+
     public String processDivorceDocument(MultipartFile file, DivorceCaseDetails caseDetails) {
-        return "ok";
+        return analyse(file, divorceModelId);
     }
 
     public String processProbateDocument(MultipartFile file, CaseDetails caseDetails) {
+        return analyse(file, probateModelId);
+    }
+
+    /**
+     * Starts analysing {@code file} in the background and returns the id of the job reporting its progress.
+     *
+     * @param callbackUrl where to post a webhook when the job finishes; may be null
+     */
+    public String submitDivorceDocument(MultipartFile file, DivorceCaseDetails caseDetails, String callbackUrl) {
+        return submit(file, divorceModelId, callbackUrl);
+    }
+
+    public String submitProbateDocument(MultipartFile file, CaseDetails caseDetails, String callbackUrl) {
+        return submit(file, probateModelId, callbackUrl);
+    }
+
+    public List<PageSource> processDivorceDocuments(List<MultipartFile> files, DivorceCaseDetails caseDetails) {
+        return analyseTogether(files, divorceModelId);
+    }
+
+    public List<PageSource> processProbateDocuments(List<MultipartFile> files, CaseDetails caseDetails) {
+        return analyseTogether(files, probateModelId);
+    }
+
+    private String analyse(MultipartFile file, String modelId) {
+        SpooledDocument document = spooler.spool(file);
+        CoalescingKey key = new CoalescingKey(ANALYSIS_STAGE, document.sha256(), modelId);
+        coalescer.coalesce(key, () -> normaliseAndAnalyse(document, modelId));
         return "ok";
     }
+
+    private String submit(MultipartFile file, String modelId, String callbackUrl) {
+        if (callbackUrl != null) {
+            webhooks.checkDestination(callbackUrl);
+        }
+        SpooledDocument document = spooler.spool(file);
+        try {
+            // The upload is deleted when the request completes; the job works on its own handle.
+            return jobRunner.start(document.retain(), modelId, callbackUrl).getId();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private AnalysisResult normaliseAndAnalyse(SpooledDocument document, String modelId) {
+        SpooledDocument normalised = normaliser.normalise(document);
+        try {
+            DocumentFingerprint fingerprint = deduplicator.fingerprint(normalised);
+            AnalysisResult prior = deduplicator.findPrior(fingerprint, modelId);
+            if (prior != null) {
+                return prior;
+            }
+            AnalysisResult result = distributor.analyse(normalised, modelId);
+            deduplicator.remember(fingerprint, result);
+            return result;
+        } finally {
+            if (normalised != document) {
+                normalised.close();
+            }
+        }
+    }
+
+    /**
+     * Sends {@code files} as one combined PDF, so a certificate photographed page by page costs one analysis.
+     */
+    private List<PageSource> analyseTogether(List<MultipartFile> files, String modelId) {
+        List<SpooledDocument> documents = files.stream().map(spooler::spool).toList();
+        // Filenames are part of the key because they are echoed back in the page map.
+        String contentHash = String.join("+", documents.stream()
+            .map(document -> document.sha256() + ":" + document.getOriginalFilename())
+            .toList());
+        CoalescingKey key = new CoalescingKey(COMPOSITE_ANALYSIS_STAGE, contentHash, modelId);
+        return coalescer.coalesce(key, () -> normaliseAssembleAndAnalyse(documents, modelId));
+    }
+
+    private List<PageSource> normaliseAssembleAndAnalyse(List<SpooledDocument> documents, String modelId) {
+        List<SpooledDocument> normalised = new ArrayList<>(documents.size());
+        try {
+            for (SpooledDocument document : documents) {
+                normalised.add(normaliser.normalise(document));
+            }
+            try (CompositeDocument composite = assembler.assemble(normalised)) {
+                distributor.analyse(composite.getDocument(), modelId);
+                return composite.getPages();
+            }
+        } finally {
+            for (int i = 0; i < normalised.size(); i++) {
+                if (normalised.get(i) != documents.get(i)) {
+                    normalised.get(i).close();
+                }
+            }
+        }
+    }
 }
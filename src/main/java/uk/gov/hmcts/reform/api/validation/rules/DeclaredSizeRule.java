@@ -0,0 +1,40 @@
+package uk.gov.hmcts.reform.api.validation.rules;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+import uk.gov.hmcts.reform.api.config.UploadValidationProperties;
+import uk.gov.hmcts.reform.api.errorhandling.exceptions.InvalidFileException;
+
+@Component
+public class DeclaredSizeRule implements ValidationRule {
+
+    private final UploadValidationProperties properties;
+
+    public DeclaredSizeRule(UploadValidationProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public String getName() {
+        return "declared-size";
+    }
+
+    @Override
+    public RuleCost getCost() {
+        return RuleCost.DECLARED;
+    }
+
+    @Override
+    public void check(UploadCandidate candidate) {
+        MultipartFile file = candidate.getFile();
+        if (file == null || file.isEmpty()) {
+            throw new InvalidFileException("File is required.");
+        }
+        if (file.getSize() > properties.getMaxFileSize().toBytes()) {
+            throw new InvalidFileException(String.format(
+                "File exceeds allowed size (%s).",
+                properties.getMaxFileSize()
+            ));
+        }
+    }
+}
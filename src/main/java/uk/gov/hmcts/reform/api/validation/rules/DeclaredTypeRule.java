@@ -0,0 +1,34 @@
+package uk.gov.hmcts.reform.api.validation.rules;
+
+import org.springframework.stereotype.Component;
+import uk.gov.hmcts.reform.api.errorhandling.exceptions.InvalidFileException;
+
+/**
+ * Rejects uploads whose filename extension and declared content type name two different known document types,
+ * such as {@code scan.pdf} sent as {@code image/png}. Generic or missing content types are left to later rules.
+ */
+@Component
+public class DeclaredTypeRule implements ValidationRule {
+
+    @Override
+    public String getName() {
+        return "declared-type";
+    }
+
+    @Override
+    public RuleCost getCost() {
+        return RuleCost.DECLARED;
+    }
+
+    @Override
+    public void check(UploadCandidate candidate) {
+        String fromExtension = FileSignatures.forExtension(candidate.getExtension());
+        String declared = FileSignatures.normaliseContentType(candidate.getFile().getContentType());
+        if (fromExtension == null || declared == null || !FileSignatures.KNOWN_TYPES.contains(declared)) {
+            return;
+        }
+        if (!fromExtension.equals(declared)) {
+            throw new InvalidFileException("File extension does not match its content type.");
+        }
+    }
+}
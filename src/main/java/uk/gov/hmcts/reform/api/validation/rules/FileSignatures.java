@@ -0,0 +1,96 @@
+package uk.gov.hmcts.reform.api.validation.rules;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Magic numbers, extensions and content-type aliases for the document types the service knows how to check
+ * cheaply. Types outside this table are left to Tika.
+ */
+final class FileSignatures {
+
+    static final String PDF = "application/pdf";
+    static final String PNG = "image/png";
+    static final String JPEG = "image/jpeg";
+    static final String TIFF = "image/tiff";
+
+    static final Set<String> KNOWN_TYPES = Set.of(PDF, PNG, JPEG, TIFF);
+
+    private static final byte[] PDF_MAGIC = "%PDF-".getBytes(StandardCharsets.US_ASCII);
+    // Some producers prefix the header with a UTF-8 byte order mark; Tika accepts it too.
+    private static final byte[] PDF_BOM_MAGIC = "\uFEFF%PDF-".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] PNG_MAGIC = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+    private static final byte[] JPEG_MAGIC = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF};
+    private static final byte[] TIFF_LITTLE_ENDIAN_MAGIC = {'I', 'I', 42, 0};
+    private static final byte[] TIFF_BIG_ENDIAN_MAGIC = {'M', 'M', 0, 42};
+
+    private static final Map<String, String> EXTENSIONS = Map.of(
+        "pdf", PDF,
+        "png", PNG,
+        "jpg", JPEG,
+        "jpeg", JPEG,
+        "tif", TIFF,
+        "tiff", TIFF
+    );
+
+    private static final Map<String, String> CONTENT_TYPE_ALIASES = Map.of(
+        "image/jpg", JPEG,
+        "image/pjpeg", JPEG,
+        "image/x-png", PNG,
+        "image/x-tiff", TIFF
+    );
+
+    private FileSignatures() {
+    }
+
+    /**
+     * The known type whose magic number {@code header} starts with, or null.
+     */
+    static String match(byte[] header) {
+        if (startsWith(header, PDF_MAGIC) || startsWith(header, PDF_BOM_MAGIC)) {
+            return PDF;
+        }
+        if (startsWith(header, PNG_MAGIC)) {
+            return PNG;
+        }
+        if (startsWith(header, JPEG_MAGIC)) {
+            return JPEG;
+        }
+        if (startsWith(header, TIFF_LITTLE_ENDIAN_MAGIC) || startsWith(header, TIFF_BIG_ENDIAN_MAGIC)) {
+            return TIFF;
+        }
+        return null;
+    }
+
+    static String forExtension(String extension) {
+        return extension == null ? null : EXTENSIONS.get(extension);
+    }
+
+    /**
+     * The declared content type without parameters, with common aliases resolved; null if not declared.
+     */
+    static String normaliseContentType(String contentType) {
+        if (contentType == null || contentType.isBlank()) {
+            return null;
+        }
+        int parameters = contentType.indexOf(';');
+        String type = (parameters < 0 ? contentType : contentType.substring(0, parameters))
+            .trim()
+            .toLowerCase(Locale.ROOT);
+        return CONTENT_TYPE_ALIASES.getOrDefault(type, type);
+    }
+
+    private static boolean startsWith(byte[] header, byte[] magic) {
+        if (header.length < magic.length) {
+            return false;
+        }
+        for (int i = 0; i < magic.length; i++) {
+            if (header[i] != magic[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
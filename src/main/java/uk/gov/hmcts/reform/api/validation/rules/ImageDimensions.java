@@ -0,0 +1,41 @@
+package uk.gov.hmcts.reform.api.validation.rules;
+
+import uk.gov.hmcts.reform.api.config.UploadValidationProperties;
+import uk.gov.hmcts.reform.api.errorhandling.exceptions.InvalidFileException;
+
+/**
+ * The dimension limits shared by the PNG header check and the full image check.
+ */
+final class ImageDimensions {
+
+    private ImageDimensions() {
+    }
+
+    static void check(UploadValidationProperties properties, long width, long height) {
+        if (width <= 0 || height <= 0) {
+            throw new InvalidFileException("Invalid image dimensions.");
+        }
+        if (width < properties.getMinImageDimension() || height < properties.getMinImageDimension()) {
+            throw new InvalidFileException(String.format(
+                "Image dimensions below minimum (%d x %d).",
+                properties.getMinImageDimension(),
+                properties.getMinImageDimension()
+            ));
+        }
+        if (width > properties.getMaxImageDimension() || height > properties.getMaxImageDimension()) {
+            throw new InvalidFileException(String.format(
+                "Image dimensions exceed maximum (%d x %d).",
+                properties.getMaxImageDimension(),
+                properties.getMaxImageDimension()
+            ));
+        }
+
+        long pixels = width * height;
+        if (pixels > properties.getMaxImagePixels()) {
+            throw new InvalidFileException(String.format(
+                "Image exceeds allowed pixel count (%d).",
+                properties.getMaxImagePixels()
+            ));
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package uk.gov.hmcts.reform.api.validation.rules;
+
+import org.springframework.stereotype.Component;
+import uk.gov.hmcts.reform.api.admission.AdmissionController;
+import uk.gov.hmcts.reform.api.config.UploadValidationProperties;
+import uk.gov.hmcts.reform.api.errorhandling.exceptions.InvalidFileException;
+import uk.gov.hmcts.reform.api.imaging.ImageQualityAnalyser;
+import uk.gov.hmcts.reform.api.imaging.ImageQualityGate;
+import uk.gov.hmcts.reform.api.imaging.QualityScore;
+import uk.gov.hmcts.reform.api.intake.SpooledDocument;
+import uk.gov.hmcts.reform.api.sandbox.ParseReport;
+import uk.gov.hmcts.reform.api.sandbox.ParseRequest;
+import uk.gov.hmcts.reform.api.sandbox.ParseWorkerPool;
+import uk.gov.hmcts.reform.api.validation.validators.ParallelFrameDecoder;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Reads every frame's dimensions from its header, then decodes the frames for the quality gate. With parse workers
+ * enabled both happen in a worker and only the limits and the gate are applied here.
+ */
+@Component
+public class ImageStructureRule implements ValidationRule {
+
+    private final UploadValidationProperties properties;
+    private final AdmissionController admissionController;
+    private final ParallelFrameDecoder frameDecoder;
+    private final ImageQualityGate qualityGate;
+    private final ParseWorkerPool workerPool;
+
+    public ImageStructureRule(UploadValidationProperties properties,
+                              AdmissionController admissionController,
+                              ParallelFrameDecoder frameDecoder,
+                              ImageQualityGate qualityGate,
+                              ParseWorkerPool workerPool) {
+        this.properties = properties;
+        this.admissionController = admissionController;
+        this.frameDecoder = frameDecoder;
+        this.qualityGate = qualityGate;
+        this.workerPool = workerPool;
+    }
+
+    @Override
+    public String getName() {
+        return "image-structure";
+    }
+
+    @Override
+    public RuleCost getCost() {
+        return RuleCost.PARSE;
+    }
+
+    @Override
+    public void check(UploadCandidate candidate) {
+        String mediaType = candidate.getMediaType();
+        if (mediaType == null || !mediaType.startsWith("image/")) {
+            return;
+        }
+        SpooledDocument document = candidate.getDocument();
+        if (workerPool.isEnabled()) {
+            checkInWorker(candidate, mediaType);
+            return;
+        }
+
+        int frames;
+        try (ImageInputStream input = document.openImageStream()) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                throw new InvalidFileException("Invalid image file.");
+            }
+
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, false, true);
+                // Only TIFF carries multiple pages; other readers would scan the whole stream to count frames.
+                frames = FileSignatures.TIFF.equals(mediaType) ? checkTiffPages(reader.getNumImages(true)) : 1;
+                candidate.setPageCount(frames);
+
+                // Header dimensions first, so oversized frames are rejected before any raster is allocated.
+                long largestViewPixels = 0;
+                for (int i = 0; i < frames; i++) {
+                    long width = reader.getWidth(i);
+                    long height = reader.getHeight(i);
+                    ImageDimensions.check(properties, width, height);
+                    largestViewPixels = Math.max(
+                        largestViewPixels,
+                        ImageQualityAnalyser.sampledPixels(width, height, qualityGate.getSampleSize())
+                    );
+                }
+
+                if (frames == 1) {
+                    admissionController.refineForFrames(document.getSize(), largestViewPixels, 1);
+                    qualityGate.check(List.of(frameDecoder.decode(reader, 0)));
+                    return;
+                }
+                admissionController.refineForFrames(
+                    document.getSize(),
+                    largestViewPixels,
+                    Math.min(frames, frameDecoder.getParallelism())
+                );
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException ex) {
+            throw new InvalidFileException("Invalid or unreadable image.");
+        }
+
+        qualityGate.check(frameDecoder.decodeAll(document, frames));
+    }
+
+    private void checkInWorker(UploadCandidate candidate, String mediaType) {
+        boolean tiff = FileSignatures.TIFF.equals(mediaType);
+        ParseReport report = workerPool.inspect(new ParseRequest(
+            candidate.getDocument().getPath(),
+            mediaType,
+            tiff ? properties.getMaxTiffPages() : 1,
+            properties.getMaxImageDimension(),
+            properties.getMaxImagePixels(),
+            qualityGate.getSampleSize(),
+            properties.getQuality().getInkThreshold()
+        ));
+        report.throwIfRejected();
+        candidate.setPageCount(report.getFrameCount());
+        if (tiff) {
+            checkTiffPages(report.getFrameCount());
+        }
+
+        List<QualityScore> scores = new ArrayList<>(report.getFrames().size());
+        for (ParseReport.Frame frame : report.getFrames()) {
+            ImageDimensions.check(properties, frame.getWidth(), frame.getHeight());
+            scores.add(frame.getScore());
+        }
+        // Within the limits every frame has been decoded; anything else is a malformed report.
+        if (scores.size() != report.getFrameCount() || scores.contains(null)) {
+            throw new InvalidFileException("Invalid or unreadable image.");
+        }
+        qualityGate.check(scores);
+    }
+
+    private int checkTiffPages(int pages) {
+        // Counted from the IFD chain only; no frame is decoded.
+        if (pages < 1) {
+            throw new InvalidFileException("Invalid image file.");
+        }
+        if (pages > properties.getMaxTiffPages()) {
+            throw new InvalidFileException(String.format(
+                "TIFF exceeds allowed page limit (%d).",
+                properties.getMaxTiffPages()
+            ));
+        }
+        return pages;
+    }
+}
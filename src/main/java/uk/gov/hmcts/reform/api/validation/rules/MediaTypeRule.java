@@ -0,0 +1,46 @@
+package uk.gov.hmcts.reform.api.validation.rules;
+
+import org.apache.tika.Tika;
+import org.springframework.stereotype.Component;
+import uk.gov.hmcts.reform.api.admission.AdmissionController;
+import uk.gov.hmcts.reform.api.config.UploadValidationProperties;
+import uk.gov.hmcts.reform.api.errorhandling.exceptions.InvalidFileException;
+
+/**
+ * Detects the media type with Tika and records it on the candidate for the parser rules. Cannot be disabled.
+ */
+@Component
+public class MediaTypeRule implements ValidationRule {
+
+    static final String NAME = "media-type";
+
+    private static final Tika TIKA = new Tika();
+
+    private final UploadValidationProperties properties;
+    private final AdmissionController admissionController;
+
+    public MediaTypeRule(UploadValidationProperties properties, AdmissionController admissionController) {
+        this.properties = properties;
+        this.admissionController = admissionController;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public RuleCost getCost() {
+        return RuleCost.DETECTION;
+    }
+
+    @Override
+    public void check(UploadCandidate candidate) {
+        String type = TIKA.detect(candidate.getHeader(), candidate.getDocument().getOriginalFilename());
+        if (!properties.getAllowedTypes().contains(type)) {
+            throw new InvalidFileException("Unsupported file type.");
+        }
+        candidate.setMediaType(type);
+        admissionController.refineForMediaType(candidate.getDocument().getSize(), type);
+    }
+}
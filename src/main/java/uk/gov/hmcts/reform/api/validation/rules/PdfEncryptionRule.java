@@ -0,0 +1,80 @@
+package uk.gov.hmcts.reform.api.validation.rules;
+
+import org.springframework.stereotype.Component;
+import uk.gov.hmcts.reform.api.config.UploadValidationProperties;
+import uk.gov.hmcts.reform.api.errorhandling.exceptions.InvalidFileException;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Rejects a PDF whose trailer names an {@code /Encrypt} dictionary, reading only the last
+ * {@code app.upload.rules.pdf-trailer-bytes} of the file. A trailer further back, for example ahead of a large
+ * cross-reference stream, is not seen here; the parser still catches encryption in that case.
+ */
+@Component
+public class PdfEncryptionRule implements ValidationRule {
+
+    private static final byte[] ENCRYPT_KEY = "/Encrypt".getBytes(StandardCharsets.US_ASCII);
+
+    private final UploadValidationProperties properties;
+
+    public PdfEncryptionRule(UploadValidationProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public String getName() {
+        return "pdf-encryption";
+    }
+
+    @Override
+    public RuleCost getCost() {
+        return RuleCost.HEADER;
+    }
+
+    @Override
+    public void check(UploadCandidate candidate) {
+        if (!FileSignatures.PDF.equals(FileSignatures.match(candidate.getHeader()))) {
+            return;
+        }
+        byte[] tail;
+        try {
+            tail = candidate.getDocument().readTail(properties.getRules().getPdfTrailerBytes());
+        } catch (IOException ex) {
+            throw new InvalidFileException("Invalid or unreadable PDF.");
+        }
+        if (containsEncryptKey(tail)) {
+            throw new InvalidFileException("PDF encryption is not supported.");
+        }
+    }
+
+    /**
+     * Matches the whole name only, so {@code /EncryptMetadata} and the like do not count.
+     */
+    static boolean containsEncryptKey(byte[] data) {
+        for (int i = 0; i + ENCRYPT_KEY.length <= data.length; i++) {
+            int next = i + ENCRYPT_KEY.length;
+            if (matchesAt(data, i) && (next == data.length || isDelimiter(data[next]))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean matchesAt(byte[] data, int offset) {
+        for (int j = 0; j < ENCRYPT_KEY.length; j++) {
+            if (data[offset + j] != ENCRYPT_KEY[j]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isDelimiter(byte b) {
+        return switch (b) {
+            case ' ', '\t', '\r', '\n', '\f', 0, '(', ')', '<', '>', '[', ']', '{', '}', '/', '%' -> true;
+            default -> false;
+        };
+    }
+}
@@ -0,0 +1,88 @@
+package uk.gov.hmcts.reform.api.validation.rules;
+
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.io.RandomAccessRead;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.springframework.stereotype.Component;
+import uk.gov.hmcts.reform.api.admission.AdmissionController;
+import uk.gov.hmcts.reform.api.buffers.BufferPool;
+import uk.gov.hmcts.reform.api.config.UploadValidationProperties;
+import uk.gov.hmcts.reform.api.errorhandling.exceptions.InvalidFileException;
+import uk.gov.hmcts.reform.api.intake.SpooledDocument;
+import uk.gov.hmcts.reform.api.sandbox.ParseReport;
+import uk.gov.hmcts.reform.api.sandbox.ParseRequest;
+import uk.gov.hmcts.reform.api.sandbox.ParseWorkerPool;
+
+import java.io.IOException;
+
+/**
+ * Loads a PDF to check that it parses, is not encrypted and is within the page limit, in a parse worker when
+ * they are enabled.
+ */
+@Component
+public class PdfStructureRule implements ValidationRule {
+
+    private final UploadValidationProperties properties;
+    private final AdmissionController admissionController;
+    private final BufferPool bufferPool;
+    private final ParseWorkerPool workerPool;
+
+    public PdfStructureRule(UploadValidationProperties properties,
+                            AdmissionController admissionController,
+                            BufferPool bufferPool,
+                            ParseWorkerPool workerPool) {
+        this.properties = properties;
+        this.admissionController = admissionController;
+        this.bufferPool = bufferPool;
+        this.workerPool = workerPool;
+    }
+
+    @Override
+    public String getName() {
+        return "pdf-structure";
+    }
+
+    @Override
+    public RuleCost getCost() {
+        return RuleCost.PARSE;
+    }
+
+    @Override
+    public void check(UploadCandidate candidate) {
+        if (!FileSignatures.PDF.equals(candidate.getMediaType())) {
+            return;
+        }
+        SpooledDocument document = candidate.getDocument();
+        if (workerPool.isEnabled()) {
+            // The document is loaded in the worker's heap, not ours, so there is nothing to reserve for it.
+            ParseReport report = workerPool.inspect(
+                new ParseRequest(document.getPath(), FileSignatures.PDF, 0, 0, 0, 0, 0)
+            );
+            report.throwIfRejected();
+            candidate.setPageCount(report.getPageCount());
+            checkPages(report.getPageCount());
+            return;
+        }
+
+        try (RandomAccessRead source = document.openRandomAccess(bufferPool);
+             PDDocument doc = Loader.loadPDF(source)) {
+            if (doc.isEncrypted()) {
+                throw new InvalidFileException("PDF encryption is not supported.");
+            }
+            candidate.setPageCount(doc.getNumberOfPages());
+            checkPages(doc.getNumberOfPages());
+            admissionController.refineForPdf(document.getSize(), doc.getNumberOfPages());
+        } catch (IOException ex) {
+            throw new InvalidFileException("Invalid or unreadable PDF.");
+        }
+    }
+
+    private void checkPages(int pages) {
+        if (pages > properties.getMaxPdfPages()) {
+            throw new InvalidFileException(String.format(
+                "PDF exceeds allowed page limit (%d).",
+                properties.getMaxPdfPages()
+            ));
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package uk.gov.hmcts.reform.api.validation.rules;
+
+import org.springframework.stereotype.Component;
+import uk.gov.hmcts.reform.api.config.UploadValidationProperties;
+import uk.gov.hmcts.reform.api.errorhandling.exceptions.InvalidFileException;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Applies the image dimension limits to a PNG from its IHDR chunk, which the format requires to come first, so an
+ * oversized PNG is turned away without an image reader.
+ */
+@Component
+public class PngHeaderRule implements ValidationRule {
+
+    // 8-byte signature, then the IHDR chunk: 4-byte length, "IHDR", 4-byte width, 4-byte height.
+    private static final int IHDR_TYPE_OFFSET = 12;
+    private static final int WIDTH_OFFSET = 16;
+    private static final int HEIGHT_OFFSET = 20;
+    private static final byte[] IHDR = "IHDR".getBytes(StandardCharsets.US_ASCII);
+
+    private final UploadValidationProperties properties;
+
+    public PngHeaderRule(UploadValidationProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public String getName() {
+        return "png-header";
+    }
+
+    @Override
+    public RuleCost getCost() {
+        return RuleCost.HEADER;
+    }
+
+    @Override
+    public void check(UploadCandidate candidate) {
+        byte[] header = candidate.getHeader();
+        if (!FileSignatures.PNG.equals(FileSignatures.match(header))) {
+            return;
+        }
+        if (header.length < HEIGHT_OFFSET + Integer.BYTES
+            || !ByteBuffer.wrap(header, IHDR_TYPE_OFFSET, IHDR.length).equals(ByteBuffer.wrap(IHDR))) {
+            throw new InvalidFileException("Invalid image file.");
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(header);
+        // PNG dimensions are unsigned 32-bit big-endian.
+        long width = Integer.toUnsignedLong(buffer.getInt(WIDTH_OFFSET));
+        long height = Integer.toUnsignedLong(buffer.getInt(HEIGHT_OFFSET));
+        ImageDimensions.check(properties, width, height);
+    }
+}
@@ -0,0 +1,24 @@
+package uk.gov.hmcts.reform.api.validation.rules;
+
+/**
+ * How much of the upload a {@link ValidationRule} has to touch, from cheapest to dearest. Rules run in this order,
+ * so an upload that a cheap rule rejects is never read in full or handed to a parser.
+ */
+public enum RuleCost {
+    /**
+     * Only what the client declared: size, filename and content type. Runs before the upload is spooled.
+     */
+    DECLARED,
+    /**
+     * A few bytes at the start or end of the spooled file.
+     */
+    HEADER,
+    /**
+     * Content sniffing over the first {@value UploadCandidate#HEADER_BYTES} bytes.
+     */
+    DETECTION,
+    /**
+     * Opens the document with a parser or decodes image frames. Concurrent identical uploads share one run.
+     */
+    PARSE
+}
@@ -0,0 +1,40 @@
+package uk.gov.hmcts.reform.api.validation.rules;
+
+import org.springframework.stereotype.Component;
+import uk.gov.hmcts.reform.api.config.UploadValidationProperties;
+import uk.gov.hmcts.reform.api.errorhandling.exceptions.InvalidFileException;
+
+/**
+ * Rejects uploads that do not start with the magic number of an allowed type, before Tika looks at them. Only
+ * applies while every allowed type has a signature in {@link FileSignatures}; otherwise detection decides alone.
+ */
+@Component
+public class SignatureRule implements ValidationRule {
+
+    private final UploadValidationProperties properties;
+
+    public SignatureRule(UploadValidationProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public String getName() {
+        return "signature";
+    }
+
+    @Override
+    public RuleCost getCost() {
+        return RuleCost.HEADER;
+    }
+
+    @Override
+    public void check(UploadCandidate candidate) {
+        if (!FileSignatures.KNOWN_TYPES.containsAll(properties.getAllowedTypes())) {
+            return;
+        }
+        String type = FileSignatures.match(candidate.getHeader());
+        if (type == null || !properties.getAllowedTypes().contains(type)) {
+            throw new InvalidFileException("Unsupported file type.");
+        }
+    }
+}
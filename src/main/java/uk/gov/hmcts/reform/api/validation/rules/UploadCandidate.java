@@ -0,0 +1,90 @@
+package uk.gov.hmcts.reform.api.validation.rules;
+
+import org.springframework.web.multipart.MultipartFile;
+import uk.gov.hmcts.reform.api.errorhandling.exceptions.InvalidFileException;
+import uk.gov.hmcts.reform.api.intake.SpooledDocument;
+
+import java.io.IOException;
+import java.util.Locale;
+
+/**
+ * An upload on its way through the {@link ValidationPipeline}, with what earlier rules have learnt about it.
+ *
+ * <p>The spooled document is only available from {@link RuleCost#HEADER} onwards, and the detected media type
+ * once the {@link RuleCost#DETECTION} rules have run.
+ */
+public class UploadCandidate {
+
+    // Large enough for every magic pattern Tika registers for the allowed types.
+    public static final int HEADER_BYTES = 64 * 1024;
+
+    private final MultipartFile file;
+    private SpooledDocument document;
+    private byte[] header;
+    private String mediaType;
+    private int pageCount;
+
+    public UploadCandidate(MultipartFile file) {
+        this.file = file;
+    }
+
+    public MultipartFile getFile() {
+        return file;
+    }
+
+    public SpooledDocument getDocument() {
+        if (document == null) {
+            throw new IllegalStateException("Upload has not been spooled yet");
+        }
+        return document;
+    }
+
+    public void setDocument(SpooledDocument document) {
+        this.document = document;
+    }
+
+    /**
+     * The first {@value #HEADER_BYTES} bytes, read once and shared by every rule that sniffs content.
+     */
+    public byte[] getHeader() {
+        if (header == null) {
+            try {
+                header = getDocument().readHeader(HEADER_BYTES);
+            } catch (IOException ex) {
+                throw new InvalidFileException("Invalid or unreadable file.");
+            }
+        }
+        return header;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    void setMediaType(String mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    /**
+     * Pages of a PDF or frames of an image, once a parser rule has counted them; 0 until then.
+     */
+    public int getPageCount() {
+        return pageCount;
+    }
+
+    void setPageCount(int pageCount) {
+        this.pageCount = pageCount;
+    }
+
+    /**
+     * Lower-case extension of the declared filename, or null if it has none.
+     */
+    public String getExtension() {
+        String filename = file.getOriginalFilename();
+        if (filename == null) {
+            return null;
+        }
+        int dot = filename.lastIndexOf('.');
+        return dot < 0 || dot == filename.length() - 1 ? null : filename.substring(dot + 1).toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,130 @@
+package uk.gov.hmcts.reform.api.validation.rules;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import uk.gov.hmcts.reform.api.config.UploadValidationProperties;
+import uk.gov.hmcts.reform.api.diagnostics.UploadStageEvent;
+import uk.gov.hmcts.reform.api.errorhandling.exceptions.InvalidFileException;
+
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * The upload validation rules, grouped by {@link RuleCost} so the caller can run the cheap ones before it spools,
+ * hashes or parses anything.
+ *
+ * <p>Every rule run is timed in {@code documents.validation.rule}, tagged with the rule, its cost and whether it
+ * passed, rejected or failed on the upload, which gives each rule's time and reject rate. Rules named in
+ * {@code app.upload.rules.disabled} are skipped; detection and parser rules cannot be disabled. Each stage run is
+ * also recorded as an {@link UploadStageEvent} named {@code validation-<cost>}.
+ */
+@Component
+public class ValidationPipeline {
+
+    static final String RULE_METRIC = "documents.validation.rule";
+
+    private final Map<RuleCost, List<MeteredRule>> stages = new EnumMap<>(RuleCost.class);
+    private final Map<RuleCost, String> stageNames = new EnumMap<>(RuleCost.class);
+
+    public ValidationPipeline(List<ValidationRule> rules,
+                              UploadValidationProperties properties,
+                              MeterRegistry meterRegistry) {
+        Set<String> disabled = Set.copyOf(properties.getRules().getDisabled());
+        Set<String> names = rules.stream().map(ValidationRule::getName).collect(Collectors.toSet());
+        for (String name : disabled) {
+            if (!names.contains(name)) {
+                throw new IllegalStateException("Unknown validation rule in app.upload.rules.disabled: " + name);
+            }
+        }
+        for (ValidationRule rule : rules) {
+            if (disabled.contains(rule.getName()) && mandatory(rule)) {
+                throw new IllegalStateException("Validation rule " + rule.getName() + " cannot be disabled");
+            }
+        }
+
+        for (RuleCost cost : RuleCost.values()) {
+            stages.put(cost, List.of());
+            stageNames.put(cost, "validation-" + cost.name().toLowerCase(Locale.ROOT));
+        }
+        // Stable sort: rules of equal cost keep the order they were registered in.
+        rules.stream()
+            .filter(rule -> !disabled.contains(rule.getName()))
+            .sorted(Comparator.comparing(ValidationRule::getCost))
+            .map(rule -> new MeteredRule(rule, meterRegistry))
+            .collect(Collectors.groupingBy(metered -> metered.rule.getCost(), Collectors.toList()))
+            .forEach((cost, stage) -> stages.put(cost, List.copyOf(stage)));
+    }
+
+    /**
+     * Runs the rules of one cost, in order.
+     *
+     * @throws InvalidFileException from the first rule that rejects the upload
+     */
+    public void run(UploadCandidate candidate, RuleCost cost) {
+        UploadStageEvent event = UploadStageEvent.start(stageNames.get(cost));
+        try {
+            for (MeteredRule metered : stages.get(cost)) {
+                metered.check(candidate);
+            }
+        } finally {
+            String mediaType = candidate.getMediaType() != null
+                ? candidate.getMediaType()
+                : candidate.getFile().getContentType();
+            event.finish(candidate.getFile().getSize(), mediaType, candidate.getPageCount());
+        }
+    }
+
+    List<String> ruleNames(RuleCost cost) {
+        return stages.get(cost).stream().map(metered -> metered.rule.getName()).toList();
+    }
+
+    /**
+     * Later rules rely on the media type and on the parse, so they always run.
+     */
+    private static boolean mandatory(ValidationRule rule) {
+        return rule.getCost().compareTo(RuleCost.DETECTION) >= 0;
+    }
+
+    private static final class MeteredRule {
+        private final ValidationRule rule;
+        private final Timer passed;
+        private final Timer rejected;
+        private final Timer failed;
+
+        MeteredRule(ValidationRule rule, MeterRegistry meterRegistry) {
+            this.rule = rule;
+            this.passed = timer(rule, "passed", meterRegistry);
+            this.rejected = timer(rule, "rejected", meterRegistry);
+            this.failed = timer(rule, "error", meterRegistry);
+        }
+
+        void check(UploadCandidate candidate) {
+            long start = System.nanoTime();
+            Timer outcome = failed;
+            try {
+                rule.check(candidate);
+                outcome = passed;
+            } catch (InvalidFileException ex) {
+                outcome = rejected;
+                throw ex;
+            } finally {
+                outcome.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        private static Timer timer(ValidationRule rule, String outcome, MeterRegistry meterRegistry) {
+            return Timer.builder(RULE_METRIC)
+                .tag("rule", rule.getName())
+                .tag("cost", rule.getCost().name().toLowerCase(Locale.ROOT))
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package uk.gov.hmcts.reform.api.validation.rules;
+
+import uk.gov.hmcts.reform.api.errorhandling.exceptions.InvalidFileException;
+
+/**
+ * One check in the upload {@link ValidationPipeline}.
+ */
+public interface ValidationRule {
+
+    /**
+     * Used in metrics and in {@code app.upload.rules.disabled}.
+     */
+    String getName();
+
+    RuleCost getCost();
+
+    /**
+     * Passes quietly if {@code candidate} keeps the rule.
+     *
+     * @throws InvalidFileException if the upload breaks the rule
+     */
+    void check(UploadCandidate candidate);
+}
@@ -0,0 +1,135 @@
+package uk.gov.hmcts.reform.api.validation.validators;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+import uk.gov.hmcts.reform.api.buffers.BufferPool;
+import uk.gov.hmcts.reform.api.buffers.Lease;
+import uk.gov.hmcts.reform.api.config.UploadValidationProperties;
+import uk.gov.hmcts.reform.api.errorhandling.exceptions.InvalidFileException;
+import uk.gov.hmcts.reform.api.imaging.ImageQualityAnalyser;
+import uk.gov.hmcts.reform.api.imaging.ImageQualityGate;
+import uk.gov.hmcts.reform.api.imaging.QualityScore;
+import uk.gov.hmcts.reform.api.intake.SpooledDocument;
+import uk.gov.hmcts.reform.api.sandbox.ParseBudget;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Decodes image frames into small quality-scoring views, in parallel on a bounded fork-join pool for multi-page
+ * images.
+ *
+ * <p>Each frame is decoded with source subsampling: the decoder still reads the whole stream, so corrupt or
+ * truncated data is rejected, but only a view of at most {@code app.upload.quality.sample-size} pixels per edge
+ * is allocated. {@link ImageReader}s are not thread safe, so each parallel frame gets its own reader over its own
+ * stream on the spooled file. The pool size also bounds how many views one upload holds at once.
+ */
+@Component
+public class ParallelFrameDecoder implements DisposableBean {
+
+    private static final int DEFAULT_MAX_PARALLELISM = 4;
+
+    private final ForkJoinPool pool;
+    private final ImageQualityGate qualityGate;
+    private final BufferPool bufferPool;
+
+    public ParallelFrameDecoder(UploadValidationProperties properties,
+                                ImageQualityGate qualityGate,
+                                BufferPool bufferPool) {
+        this.qualityGate = qualityGate;
+        this.bufferPool = bufferPool;
+        int parallelism = properties.getFrameValidationParallelism() > 0
+            ? properties.getFrameValidationParallelism()
+            : Math.min(DEFAULT_MAX_PARALLELISM, Runtime.getRuntime().availableProcessors());
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    /**
+     * Decodes one frame from a reader the caller owns.
+     */
+    public QualityScore decode(ImageReader reader, int frame) throws IOException {
+        int width = reader.getWidth(frame);
+        int height = reader.getHeight(frame);
+        ImageReadParam param = ImageQualityAnalyser.subsample(
+            reader.getDefaultReadParam(),
+            width,
+            height,
+            qualityGate.getSampleSize()
+        );
+        int viewWidth = (width + param.getSourceXSubsampling() - 1) / param.getSourceXSubsampling();
+        int viewHeight = (height + param.getSourceYSubsampling() - 1) / param.getSourceYSubsampling();
+
+        // The pooled destination may be larger than the view; the reader fills its top-left corner.
+        ImageTypeSpecifier type = reader.getImageTypes(frame).next();
+        try (Lease<BufferedImage> destination = bufferPool.leaseImage(type, viewWidth, viewHeight)) {
+            param.setDestination(destination.get());
+            BufferedImage view = reader.read(frame, param);
+            return qualityGate.score(view.getSubimage(0, 0, viewWidth, viewHeight));
+        }
+    }
+
+    public List<QualityScore> decodeAll(SpooledDocument document, int frames) {
+        List<Future<QualityScore>> decodes = new ArrayList<>(frames);
+        for (int i = 0; i < frames; i++) {
+            int frame = i;
+            // Frames count against the caller's parse budget and are aborted with it.
+            decodes.add(pool.submit(ParseBudget.propagate(() -> decodeFrame(document, frame))));
+        }
+
+        try {
+            List<QualityScore> scores = new ArrayList<>(frames);
+            for (Future<QualityScore> decode : decodes) {
+                scores.add(decode.get());
+            }
+            return scores;
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof InvalidFileException invalid) {
+                throw invalid;
+            }
+            throw new InvalidFileException("Invalid or unreadable image.", ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InvalidFileException("Invalid or unreadable image.", ex);
+        } finally {
+            decodes.forEach(decode -> decode.cancel(true));
+        }
+    }
+
+    private QualityScore decodeFrame(SpooledDocument document, int frame) {
+        try (ImageInputStream input = document.openImageStream()) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                throw new InvalidFileException("Invalid image file.");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                return decode(reader, frame);
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException ex) {
+            throw new InvalidFileException("Invalid or unreadable image.");
+        }
+    }
+
+    @Override
+    public void destroy() {
+        pool.shutdownNow();
+    }
+}
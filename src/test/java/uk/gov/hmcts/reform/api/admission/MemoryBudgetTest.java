@@ -0,0 +1,71 @@
+package uk.gov.hmcts.reform.api.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MemoryBudgetTest {
+
+    private final MemoryBudget budget = new MemoryBudget(100);
+
+    @Test
+    void reservesWithinCapacity() throws InterruptedException {
+        assertThat(budget.tryReserve(60, Duration.ZERO)).isEqualTo(60);
+        assertThat(budget.getReserved()).isEqualTo(60);
+        assertThat(budget.utilisation()).isEqualTo(0.6);
+    }
+
+    @Test
+    void refusesWhenExhausted() throws InterruptedException {
+        budget.tryReserve(80, Duration.ZERO);
+
+        assertThat(budget.tryReserve(30, Duration.ofMillis(20))).isEqualTo(-1);
+        assertThat(budget.getReserved()).isEqualTo(80);
+    }
+
+    @Test
+    void clampsOversizedRequestToCapacity() throws InterruptedException {
+        assertThat(budget.tryReserve(500, Duration.ZERO)).isEqualTo(100);
+    }
+
+    @Test
+    void reservationResizesAndReleasesOnClose() throws InterruptedException {
+        Reservation reservation = new Reservation(budget, budget.tryReserve(40, Duration.ZERO));
+
+        assertThat(reservation.resize(70, Duration.ZERO)).isTrue();
+        assertThat(budget.getReserved()).isEqualTo(70);
+        assertThat(reservation.resize(20, Duration.ZERO)).isTrue();
+        assertThat(budget.getReserved()).isEqualTo(20);
+
+        reservation.close();
+        assertThat(budget.getReserved()).isZero();
+    }
+
+    @Test
+    void reservationRefinedAboveCapacityRunsAlone() throws InterruptedException {
+        Reservation reservation = new Reservation(budget, budget.tryReserve(30, Duration.ZERO));
+
+        assertThat(reservation.resize(120, Duration.ZERO)).isTrue();
+        assertThat(reservation.getBytes()).isEqualTo(100);
+        assertThat(budget.getReserved()).isEqualTo(100);
+    }
+
+    @Test
+    void waitingRequestProceedsWhenBudgetIsReleased() throws InterruptedException {
+        budget.tryReserve(100, Duration.ZERO);
+        Thread releaser = new Thread(() -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            budget.release(50);
+        });
+        releaser.start();
+
+        assertThat(budget.tryReserve(50, Duration.ofSeconds(5))).isEqualTo(50);
+        releaser.join();
+    }
+}
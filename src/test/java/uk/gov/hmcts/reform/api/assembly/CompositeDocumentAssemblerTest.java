@@ -0,0 +1,183 @@
+package uk.gov.hmcts.reform.api.assembly;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.graphics.PDXObject;
+import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import uk.gov.hmcts.reform.api.admission.AdmissionController;
+import uk.gov.hmcts.reform.api.config.AdmissionProperties;
+import uk.gov.hmcts.reform.api.config.AssemblyProperties;
+import uk.gov.hmcts.reform.api.errorhandling.exceptions.InvalidFileException;
+import uk.gov.hmcts.reform.api.intake.SpooledDocument;
+import uk.gov.hmcts.reform.api.models.PageSource;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CompositeDocumentAssemblerTest {
+
+    @TempDir
+    Path directory;
+
+    private AssemblyProperties properties;
+    private CompositeDocumentAssembler assembler;
+
+    @BeforeEach
+    void setup() {
+        properties = new AssemblyProperties();
+        assembler = new CompositeDocumentAssembler(
+            properties,
+            new AdmissionController(new AdmissionProperties(), new SimpleMeterRegistry())
+        );
+    }
+
+    @Test
+    void combinesImagesInUploadOrder() throws IOException {
+        SpooledDocument front = spool("front.jpg", encode(photo(400, 300), "jpg"));
+        SpooledDocument back = spool("back.png", encode(photo(300, 400), "png"));
+        SpooledDocument translation = spool("translation.tiff", tiff(2));
+
+        try (CompositeDocument composite = assembler.assemble(List.of(front, back, translation));
+             PDDocument pdf = Loader.loadPDF(composite.getDocument().getPath().toFile())) {
+            assertThat(pdf.getNumberOfPages()).isEqualTo(4);
+            assertThat(composite.getPages()).containsExactly(
+                new PageSource(1, "front.jpg", 0),
+                new PageSource(2, "back.png", 0),
+                new PageSource(3, "translation.tiff", 0),
+                new PageSource(4, "translation.tiff", 1)
+            );
+            assertThat(image(pdf.getPage(1)).getWidth()).isEqualTo(300);
+        }
+    }
+
+    @Test
+    void embedsJpegWithoutReencoding() throws IOException {
+        byte[] jpeg = encode(photo(400, 300), "jpg");
+        SpooledDocument photo = spool("front.jpg", jpeg);
+
+        try (CompositeDocument composite = assembler.assemble(List.of(photo));
+             PDDocument pdf = Loader.loadPDF(composite.getDocument().getPath().toFile())) {
+            PDImageXObject image = image(pdf.getPage(0));
+            assertThat(image.getStream().getFilters()).containsExactly(COSName.DCT_DECODE);
+            try (InputStream raw = image.getCOSObject().createRawInputStream()) {
+                assertThat(raw.readAllBytes()).isEqualTo(jpeg);
+            }
+        }
+    }
+
+    @Test
+    void sizesPagesFromAssumedResolution() throws IOException {
+        properties.setAssumedDpi(100);
+        SpooledDocument page = spool("page.png", encode(photo(200, 100), "png"));
+
+        try (CompositeDocument composite = assembler.assemble(List.of(page));
+             PDDocument pdf = Loader.loadPDF(composite.getDocument().getPath().toFile())) {
+            assertThat(pdf.getPage(0).getMediaBox().getWidth()).isEqualTo(144f);
+            assertThat(pdf.getPage(0).getMediaBox().getHeight()).isEqualTo(72f);
+        }
+    }
+
+    @Test
+    void rejectsTooManyFiles() throws IOException {
+        properties.setMaxFiles(1);
+        SpooledDocument first = spool("first.png", encode(photo(100, 100), "png"));
+        SpooledDocument second = spool("second.png", encode(photo(100, 100), "png"));
+
+        InvalidFileException ex = assertThrows(
+            InvalidFileException.class,
+            () -> assembler.assemble(List.of(first, second))
+        );
+        assertThat(ex.getMessage()).isEqualTo("Too many files to combine (maximum 1).");
+    }
+
+    @Test
+    void rejectsPdf() throws IOException {
+        byte[] pdf;
+        try (PDDocument document = new PDDocument(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            document.addPage(new PDPage());
+            document.save(out);
+            pdf = out.toByteArray();
+        }
+        SpooledDocument document = spool("form.pdf", pdf);
+
+        InvalidFileException ex = assertThrows(
+            InvalidFileException.class,
+            () -> assembler.assemble(List.of(document))
+        );
+        assertThat(ex.getMessage()).isEqualTo("Only images can be combined.");
+        try (Stream<Path> files = Files.list(directory)) {
+            assertThat(files).noneMatch(path -> path.getFileName().toString().startsWith("composite-"));
+        }
+    }
+
+    private SpooledDocument spool(String name, byte[] content) throws IOException {
+        Path path = Files.write(directory.resolve(name), content);
+        return new SpooledDocument(path, name, null);
+    }
+
+    private static PDImageXObject image(PDPage page) throws IOException {
+        for (COSName name : page.getResources().getXObjectNames()) {
+            PDXObject resource = page.getResources().getXObject(name);
+            if (resource instanceof PDImageXObject image) {
+                return image;
+            }
+        }
+        throw new AssertionError("Page has no image");
+    }
+
+    private static BufferedImage photo(int width, int height) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(Color.WHITE);
+        graphics.fillRect(0, 0, width, height);
+        graphics.setColor(Color.BLUE);
+        graphics.fillOval(width / 4, height / 4, width / 2, height / 2);
+        graphics.dispose();
+        return image;
+    }
+
+    private static byte[] encode(BufferedImage image, String format) throws IOException {
+        try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            ImageIO.write(image, format, out);
+            return out.toByteArray();
+        }
+    }
+
+    private static byte[] tiff(int pages) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("tiff").next();
+        try (ByteArrayOutputStream out = new ByteArrayOutputStream();
+             ImageOutputStream stream = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(stream);
+            writer.prepareWriteSequence(null);
+            for (int i = 0; i < pages; i++) {
+                writer.writeToSequence(new IIOImage(photo(200, 280), null, null), null);
+            }
+            writer.endWriteSequence();
+            stream.flush();
+            return out.toByteArray();
+        } finally {
+            writer.dispose();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package uk.gov.hmcts.reform.api.buffers;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+import uk.gov.hmcts.reform.api.config.BufferPoolProperties;
+
+import javax.imageio.ImageTypeSpecifier;
+import java.awt.image.BufferedImage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BufferPoolTest {
+
+    private BufferPoolProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private BufferPool pool;
+
+    @BeforeEach
+    void setup() {
+        properties = new BufferPoolProperties();
+        properties.setMaxRetained(DataSize.ofKilobytes(64));
+        properties.setMaxBuffer(DataSize.ofKilobytes(32));
+        meterRegistry = new SimpleMeterRegistry();
+        pool = new BufferPool(properties, meterRegistry);
+    }
+
+    @Test
+    void reusesReturnedBufferOfSameSizeClass() {
+        byte[] first;
+        try (Lease<byte[]> lease = pool.leaseBytes(5_000)) {
+            first = lease.get();
+            assertThat(first).hasSize(8 * 1024);
+        }
+
+        try (Lease<byte[]> lease = pool.leaseBytes(7_000)) {
+            assertThat(lease.get()).isSameAs(first);
+        }
+        assertThat(meterRegistry.counter(BufferPool.LEASES_METRIC, "result", "hit").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter(BufferPool.ALLOCATED_METRIC).count()).isEqualTo(8 * 1024);
+    }
+
+    @Test
+    void reusesImagesOfSameTypeAndSizeClass() {
+        ImageTypeSpecifier type = ImageTypeSpecifier.createFromBufferedImageType(BufferedImage.TYPE_BYTE_GRAY);
+        BufferedImage first;
+        try (Lease<BufferedImage> lease = pool.leaseImage(type, 100, 60)) {
+            first = lease.get();
+            assertThat(first.getWidth()).isEqualTo(128);
+            assertThat(first.getHeight()).isEqualTo(64);
+        }
+
+        try (Lease<BufferedImage> lease = pool.leaseImage(type, 120, 50)) {
+            assertThat(lease.get()).isSameAs(first);
+        }
+    }
+
+    @Test
+    void doesNotRetainBeyondLimit() {
+        Lease<byte[]> first = pool.leaseBytes(32 * 1024);
+        Lease<byte[]> second = pool.leaseBytes(32 * 1024);
+        Lease<byte[]> third = pool.leaseBytes(32 * 1024);
+        first.close();
+        second.close();
+        third.close();
+
+        assertThat(pool.getRetained()).isEqualTo(64 * 1024);
+    }
+
+    @Test
+    void doesNotPoolOversizedBuffers() {
+        try (Lease<byte[]> lease = pool.leaseBytes(40 * 1024)) {
+            assertThat(lease.get()).hasSize(40 * 1024);
+        }
+
+        assertThat(pool.getRetained()).isZero();
+    }
+
+    @Test
+    void closingTwiceReturnsOnce() {
+        Lease<byte[]> lease = pool.leaseBytes(1_000);
+        lease.close();
+        lease.close();
+
+        assertThat(pool.getRetained()).isEqualTo(4 * 1024);
+    }
+
+    @Test
+    void allocatesEveryTimeWhenDisabled() {
+        properties.setEnabled(false);
+        pool = new BufferPool(properties, new SimpleMeterRegistry());
+
+        byte[] first;
+        try (Lease<byte[]> lease = pool.leaseBytes(1_000)) {
+            first = lease.get();
+        }
+        try (Lease<byte[]> lease = pool.leaseBytes(1_000)) {
+            assertThat(lease.get()).isNotSameAs(first);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package uk.gov.hmcts.reform.api.casedetails;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.mock.http.MockHttpInputMessage;
+import uk.gov.hmcts.reform.api.config.IntakeProperties;
+import uk.gov.hmcts.reform.api.models.CaseDetails;
+import uk.gov.hmcts.reform.api.models.DivorceCaseDetails;
+import uk.gov.hmcts.reform.api.models.PageSource;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CaseDetailsMessageConverterTest {
+
+    private final IntakeProperties properties = new IntakeProperties();
+    private final CaseDetailsMessageConverter converter = new CaseDetailsMessageConverter(properties);
+
+    @Test
+    void readsDivorceDetails() throws Exception {
+        DivorceCaseDetails details = (DivorceCaseDetails) converter.read(DivorceCaseDetails.class, json("""
+            {"applicantName": "Jane Doe", "respondentName": "John Doe", "marriageDate": "2012-05-04",
+             "ukMarriage": false, "countryOfMarriage": "France", "translationProvided": "true",
+             "placeOfMarriage": "Paris", "certificateNumber": 12345,
+             "countryProvidedForNonUkMarriage": true, "extra": {"nested": [1, 2]}}
+            """));
+
+        assertThat(details.getApplicantName()).isEqualTo("Jane Doe");
+        assertThat(details.getMarriageDate()).isEqualTo(LocalDate.of(2012, 5, 4));
+        assertThat(details.isUkMarriage()).isFalse();
+        assertThat(details.getCountryOfMarriage()).isEqualTo("France");
+        assertThat(details.isTranslationProvided()).isTrue();
+        assertThat(details.getCertificateNumber()).isEqualTo("12345");
+    }
+
+    @Test
+    void readsProbateDetails() throws Exception {
+        CaseDetails details = (CaseDetails) converter.read(CaseDetails.class, json("{\"caseNumber\": \"ABC123\"}"));
+
+        assertThat(details.getCaseNumber()).isEqualTo("ABC123");
+    }
+
+    @Test
+    void rejectsMalformedCaseDetails() {
+        assertThatThrownBy(() -> converter.read(CaseDetails.class, json("{\"caseNumber\": ")))
+            .isInstanceOf(HttpMessageNotReadableException.class);
+        assertThatThrownBy(() -> converter.read(DivorceCaseDetails.class, json("{\"marriageDate\": \"04/05/2012\"}")))
+            .isInstanceOf(HttpMessageNotReadableException.class);
+        assertThatThrownBy(() -> converter.read(DivorceCaseDetails.class, json("{\"applicantName\": {}}")))
+            .isInstanceOf(HttpMessageNotReadableException.class);
+        assertThatThrownBy(() -> converter.read(CaseDetails.class, json("null")))
+            .isInstanceOf(HttpMessageNotReadableException.class);
+    }
+
+    @Test
+    void onlyReadsCaseTypesAndNeverWrites() {
+        assertThat(converter.canRead(DivorceCaseDetails.class, MediaType.APPLICATION_JSON)).isTrue();
+        assertThat(converter.canRead(PageSource.class, MediaType.APPLICATION_JSON)).isFalse();
+        assertThat(converter.canWrite(DivorceCaseDetails.class, MediaType.APPLICATION_JSON)).isFalse();
+    }
+
+    @Test
+    void stepsAsideWhenDisabled() {
+        properties.setFastCaseBinding(false);
+
+        assertThat(converter.canRead(DivorceCaseDetails.class, MediaType.APPLICATION_JSON)).isFalse();
+    }
+
+    private static MockHttpInputMessage json(String body) {
+        MockHttpInputMessage message = new MockHttpInputMessage(body.getBytes(StandardCharsets.UTF_8));
+        message.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        return message;
+    }
+}
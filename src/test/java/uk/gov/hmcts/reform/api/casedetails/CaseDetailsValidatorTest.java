@@ -0,0 +1,100 @@
+package uk.gov.hmcts.reform.api.casedetails;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.validation.BeanPropertyBindingResult;
+import uk.gov.hmcts.reform.api.models.CaseDetails;
+import uk.gov.hmcts.reform.api.models.DivorceCaseDetails;
+import uk.gov.hmcts.reform.api.models.PageSource;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CaseDetailsValidatorTest {
+
+    private final CaseDetailsValidator validator = new CaseDetailsValidator();
+
+    @Test
+    void supportsOnlyTheCaseTypes() {
+        assertThat(validator.supports(DivorceCaseDetails.class)).isTrue();
+        assertThat(validator.supports(CaseDetails.class)).isTrue();
+        assertThat(validator.supports(PageSource.class)).isFalse();
+    }
+
+    @Test
+    void acceptsValidDivorceDetails() {
+        assertThat(errors(validDivorceDetails())).isEmpty();
+    }
+
+    @Test
+    void reportsFieldConstraintsWithBeanValidatorMessages() {
+        DivorceCaseDetails details = validDivorceDetails();
+        details.setApplicantName(" ");
+        details.setRespondentName(null);
+        details.setMarriageDate(null);
+        details.setCertificateNumber("C".repeat(101));
+
+        assertThat(errors(details)).containsExactlyInAnyOrder(
+            "applicantName NotBlank must not be blank",
+            "applicantName Size size must be between 2 and 200",
+            "respondentName NotBlank must not be blank",
+            "marriageDate NotNull must not be null",
+            "certificateNumber Size size must be between 1 and 100"
+        );
+    }
+
+    @Test
+    void reportsCrossFieldRuleUnderItsGetterProperty() {
+        DivorceCaseDetails details = validDivorceDetails();
+        details.setUkMarriage(false);
+        details.setCountryOfMarriage(null);
+
+        assertThat(errors(details)).containsExactly(
+            "countryProvidedForNonUkMarriage AssertTrue countryOfMarriage must be provided when ukMarriage is false"
+        );
+    }
+
+    @Test
+    void validatesProbateCaseNumber() {
+        assertThat(errors(new CaseDetails("ABC123"))).isEmpty();
+        assertThat(errors(new CaseDetails(""))).containsExactlyInAnyOrder(
+            "caseNumber NotBlank must not be blank",
+            "caseNumber Size size must be between 1 and 200"
+        );
+    }
+
+    @Test
+    void leavesTypesWithUnsupportedConstraintsToTheBeanValidator() {
+        assertThat(ValidationPlan.compile(Contact.class)).isNull();
+    }
+
+    private List<String> errors(Object target) {
+        BeanPropertyBindingResult errors = new BeanPropertyBindingResult(target, "case");
+        validator.validate(target, errors);
+        return errors.getFieldErrors().stream()
+            .map(error -> error.getField() + " " + error.getCode() + " " + error.getDefaultMessage())
+            .toList();
+    }
+
+    private static DivorceCaseDetails validDivorceDetails() {
+        DivorceCaseDetails details = new DivorceCaseDetails();
+        details.setApplicantName("Jane Doe");
+        details.setRespondentName("John Doe");
+        details.setMarriageDate(LocalDate.parse("2012-05-04"));
+        details.setUkMarriage(true);
+        details.setTranslationProvided(false);
+        details.setPlaceOfMarriage("London");
+        details.setCertificateNumber("CERT-123");
+        return details;
+    }
+
+    public static class Contact {
+        @jakarta.validation.constraints.Email
+        private String email;
+
+        public String getEmail() {
+            return email;
+        }
+    }
+}
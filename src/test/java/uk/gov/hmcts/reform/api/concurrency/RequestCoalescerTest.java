@@ -0,0 +1,93 @@
+package uk.gov.hmcts.reform.api.concurrency;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import uk.gov.hmcts.reform.api.errorhandling.exceptions.InvalidFileException;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RequestCoalescerTest {
+
+    private static final CoalescingKey KEY = new CoalescingKey("analysis", "abc123", "prebuilt-layout");
+
+    private SimpleMeterRegistry meterRegistry;
+    private RequestCoalescer coalescer;
+
+    @BeforeEach
+    void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        coalescer = new RequestCoalescer(meterRegistry);
+    }
+
+    @Test
+    void sharesInFlightResultWithConcurrentCallers() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger executions = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try {
+            final Future<String> leader = executor.submit(() -> coalescer.coalesce(KEY, () -> {
+                executions.incrementAndGet();
+                started.countDown();
+                await(release);
+                return "result";
+            }));
+            started.await(5, TimeUnit.SECONDS);
+
+            final Future<String> follower = executor.submit(() -> coalescer.coalesce(KEY, () -> {
+                executions.incrementAndGet();
+                return "duplicate";
+            }));
+            while (suppressedCount() == 0) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+
+            assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("result");
+            assertThat(follower.get(5, TimeUnit.SECONDS)).isEqualTo("result");
+            assertThat(executions).hasValue(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void runsWorkAgainOnceFirstCallCompletes() {
+        assertThat(coalescer.coalesce(KEY, () -> "first")).isEqualTo("first");
+        assertThat(coalescer.coalesce(KEY, () -> "second")).isEqualTo("second");
+        assertThat(suppressedCount()).isZero();
+    }
+
+    @Test
+    void propagatesFailureToCaller() {
+        InvalidFileException ex = assertThrows(
+            InvalidFileException.class,
+            () -> coalescer.coalesce(KEY, () -> {
+                throw new InvalidFileException("Unsupported file type.");
+            })
+        );
+        assertThat(ex.getMessage()).isEqualTo("Unsupported file type.");
+    }
+
+    private double suppressedCount() {
+        return meterRegistry.counter(RequestCoalescer.SUPPRESSED_METRIC, "stage", "analysis").count();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
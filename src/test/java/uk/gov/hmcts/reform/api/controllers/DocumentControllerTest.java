@@ -2,6 +2,7 @@ package uk.gov.hmcts.reform.api.controllers;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.PDPage;
 import org.junit.jupiter.api.BeforeEach;
@@ -12,15 +13,19 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import uk.gov.hmcts.reform.api.config.RejectionLogProperties;
 import uk.gov.hmcts.reform.api.errorhandling.GlobalExceptionHandler;
+import uk.gov.hmcts.reform.api.errorhandling.RejectionLog;
 import uk.gov.hmcts.reform.api.errorhandling.exceptions.InvalidFileException;
 import uk.gov.hmcts.reform.api.models.CaseDetails;
 import uk.gov.hmcts.reform.api.models.DivorceCaseDetails;
+import uk.gov.hmcts.reform.api.models.PageSource;
 import uk.gov.hmcts.reform.api.services.DocumentService;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.time.LocalDate;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
@@ -42,7 +47,9 @@ class DocumentControllerTest {
         documentService = mock(DocumentService.class);
         reset(documentService);
         mockMvc = MockMvcBuilders.standaloneSetup(new DocumentController(documentService))
-            .setControllerAdvice(new GlobalExceptionHandler())
+            .setControllerAdvice(new GlobalExceptionHandler(
+                new RejectionLog(new RejectionLogProperties(), new SimpleMeterRegistry())
+            ))
             .build();
     }
 
@@ -72,6 +79,37 @@ class DocumentControllerTest {
         assertThat(result.getResponse().getContentAsString()).isEqualTo("ok");
     }
 
+    @Test
+    void startsJobWhenAsyncPreferred() throws Exception {
+        when(documentService.submitDivorceDocument(any(), any(), any())).thenReturn("job-1");
+
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.multipart("/documents/divorce")
+                .file(validPdf())
+                .file(casePart(validCaseDetails()))
+                .header("Prefer", "respond-async"))
+            .andExpect(status().isAccepted())
+            .andReturn();
+
+        assertThat(result.getResponse().getHeader("Location")).isEqualTo("/jobs/job-1");
+        assertThat(result.getResponse().getContentAsString()).isEqualTo("job-1");
+    }
+
+    @Test
+    void acceptsDivorceBundle() throws Exception {
+        when(documentService.processDivorceDocuments(any(), any())).thenReturn(List.of(
+            new PageSource(1, "front.jpg", 0),
+            new PageSource(2, "back.jpg", 0)
+        ));
+
+        mockMvc.perform(MockMvcRequestBuilders.multipart("/documents/divorce/bundle")
+                .file(image("front.jpg"))
+                .file(image("back.jpg"))
+                .file(casePart(validCaseDetails())))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[1].pageNumber").value(2))
+            .andExpect(jsonPath("$[1].filename").value("back.jpg"));
+    }
+
     @Test
     void mapsInvalidFileExceptionToBadRequest() throws Exception {
         doThrow(new InvalidFileException("File exceeds allowed size (5MB)."))
@@ -93,6 +131,10 @@ class DocumentControllerTest {
         );
     }
 
+    private MockMultipartFile image(String filename) {
+        return new MockMultipartFile("files", filename, "image/jpeg", new byte[] {(byte) 0xFF, (byte) 0xD8});
+    }
+
     private MockMultipartFile casePart(Object caseDetails) throws IOException {
         return new MockMultipartFile(
             "case",
@@ -0,0 +1,64 @@
+package uk.gov.hmcts.reform.api.controllers;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import uk.gov.hmcts.reform.api.config.RejectionLogProperties;
+import uk.gov.hmcts.reform.api.errorhandling.GlobalExceptionHandler;
+import uk.gov.hmcts.reform.api.errorhandling.RejectionLog;
+import uk.gov.hmcts.reform.api.errorhandling.exceptions.JobNotFoundException;
+import uk.gov.hmcts.reform.api.jobs.AnalysisJob;
+import uk.gov.hmcts.reform.api.jobs.AnalysisJobRegistry;
+import uk.gov.hmcts.reform.api.jobs.JobStatus;
+import uk.gov.hmcts.reform.api.jobs.PartialResult;
+
+import java.util.List;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class JobControllerTest {
+
+    private AnalysisJobRegistry registry;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setup() {
+        registry = mock(AnalysisJobRegistry.class);
+        mockMvc = MockMvcBuilders.standaloneSetup(new JobController(registry))
+            .setControllerAdvice(new GlobalExceptionHandler(
+                new RejectionLog(new RejectionLogProperties(), new SimpleMeterRegistry())
+            ))
+            .build();
+    }
+
+    @Test
+    void returnsResultsSoFar() throws Exception {
+        AnalysisJob job = mock(AnalysisJob.class);
+        when(job.getId()).thenReturn("job-1");
+        when(job.getStatus()).thenReturn(JobStatus.RUNNING);
+        when(job.getPageCount()).thenReturn(10);
+        when(job.getResults()).thenReturn(List.of(new PartialResult(1, 4, "{}")));
+        when(registry.get("job-1")).thenReturn(job);
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/jobs/job-1"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.status").value("RUNNING"))
+            .andExpect(jsonPath("$.pageCount").value(10))
+            .andExpect(jsonPath("$.results[0].lastPage").value(4));
+    }
+
+    @Test
+    void mapsUnknownJobToNotFound() throws Exception {
+        when(registry.get("missing")).thenThrow(new JobNotFoundException("Analysis job not found."));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/jobs/missing"))
+            .andExpect(status().isNotFound())
+            .andExpect(jsonPath("$.message").value("Analysis job not found."));
+    }
+}
@@ -0,0 +1,257 @@
+package uk.gov.hmcts.reform.api.dedup;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.graphics.image.LosslessFactory;
+import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import uk.gov.hmcts.reform.api.buffers.BufferPool;
+import uk.gov.hmcts.reform.api.config.BufferPoolProperties;
+import uk.gov.hmcts.reform.api.config.DeduplicationProperties;
+import uk.gov.hmcts.reform.api.config.ParseSandboxProperties;
+import uk.gov.hmcts.reform.api.intake.SpooledDocument;
+import uk.gov.hmcts.reform.api.sandbox.ParseSandbox;
+import uk.gov.hmcts.reform.api.services.AnalysisResult;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DocumentDeduplicatorTest {
+
+    private static final AnalysisResult RESULT = new AnalysisResult("divorce", "{\"fields\":{\"name\":\"A\"}}");
+
+    @TempDir
+    Path uploads;
+
+    @TempDir
+    Path store;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final DeduplicationProperties properties = new DeduplicationProperties();
+    private final List<DocumentDeduplicator> deduplicators = new ArrayList<>();
+    private ParseSandbox sandbox;
+
+    @BeforeEach
+    void setup() {
+        properties.setEnabled(true);
+        properties.setDirectory(store.toString());
+        sandbox = new ParseSandbox(new ParseSandboxProperties(), meterRegistry);
+    }
+
+    @AfterEach
+    void teardown() throws IOException {
+        for (DocumentDeduplicator deduplicator : deduplicators) {
+            deduplicator.destroy();
+        }
+        sandbox.destroy();
+    }
+
+    @Test
+    void reusesTheResultOfTheSameDocumentUploadedAgain() throws IOException {
+        DocumentDeduplicator deduplicator = deduplicator();
+        BufferedImage certificate = certificate(1);
+        DocumentFingerprint original = deduplicator.fingerprint(spool("original.png", certificate, "png"));
+        deduplicator.remember(original, RESULT);
+
+        // The same pixels in another container.
+        DocumentFingerprint again = deduplicator.fingerprint(spool("again.tiff", certificate, "tiff"));
+        DocumentFingerprint other = deduplicator.fingerprint(spool("other.png", certificate(2), "png"));
+
+        assertThat(deduplicator.findPrior(again, "divorce")).isEqualTo(RESULT);
+        assertThat(deduplicator.findPrior(again, "probate")).isNull();
+        assertThat(deduplicator.findPrior(other, "divorce")).isNull();
+        assertThat(meterRegistry.get(DocumentDeduplicator.LOOKUPS_METRIC).tag("outcome", "hit").counter().count())
+            .isEqualTo(1);
+    }
+
+    @Test
+    void doesNotReuseTheResultOfTheSameFormFilledInForSomeoneElse() throws IOException {
+        DocumentDeduplicator deduplicator = deduplicator();
+        BufferedImage certificate = form("JOHN ADAM SMITH", "MARY JANE BROWN");
+        DocumentFingerprint original = deduplicator.fingerprint(spool("original.png", certificate, "png"));
+        deduplicator.remember(original, RESULT);
+
+        DocumentFingerprint someoneElse = deduplicator.fingerprint(
+            spool("someone-else.png", form("PETER PAUL JONES", "SUSAN ANN GREEN"), "png")
+        );
+        DocumentFingerprint rescanned = deduplicator.fingerprint(spool("rescan.jpg", resize(certificate, 700), "jpg"));
+
+        // The perceptual hashes cannot tell them apart; the digest can.
+        assertThat(PerceptualHash.distance(original.getPageHash(0), someoneElse.getPageHash(0)))
+            .isLessThanOrEqualTo(properties.getMaxDistance());
+        assertThat(deduplicator.findPrior(someoneElse, "divorce")).isNull();
+        assertThat(deduplicator.findPrior(rescanned, "divorce")).isNull();
+
+        deduplicator.remember(someoneElse, RESULT);
+        assertThat(deduplicator.size()).isEqualTo(2);
+    }
+
+    @Test
+    void fingerprintsEachPdfPage() throws IOException {
+        DocumentDeduplicator deduplicator = deduplicator();
+
+        DocumentFingerprint fingerprint = deduplicator.fingerprint(pdf(certificate(1), certificate(2)));
+
+        assertThat(fingerprint.getPageCount()).isEqualTo(2);
+        assertThat(PerceptualHash.distance(fingerprint.getPageHash(0), fingerprint.getPageHash(1))).isGreaterThan(8);
+    }
+
+    @Test
+    void keepsEntriesAcrossRestarts() throws IOException {
+        DocumentDeduplicator first = deduplicator();
+        DocumentFingerprint fingerprint = first.fingerprint(spool("original.png", certificate(1), "png"));
+        first.remember(fingerprint, RESULT);
+        first.remember(fingerprint, RESULT);
+        first.destroy();
+
+        DocumentDeduplicator second = deduplicator();
+
+        assertThat(second.size()).isEqualTo(1);
+        assertThat(second.findPrior(fingerprint, "divorce")).isEqualTo(RESULT);
+    }
+
+    @Test
+    void dropsARecordCutShortByACrash() throws IOException {
+        DocumentDeduplicator first = deduplicator();
+        DocumentFingerprint kept = fingerprint(0x1234L);
+        DocumentFingerprint lost = fingerprint(~0x1234L);
+        first.remember(kept, RESULT);
+        first.remember(lost, RESULT);
+        first.destroy();
+        Path index = store.resolve(DocumentDeduplicator.INDEX_FILE);
+        try (FileChannel channel = FileChannel.open(index, StandardOpenOption.WRITE)) {
+            channel.truncate(Files.size(index) - 3);
+        }
+
+        DocumentDeduplicator second = deduplicator();
+        DocumentFingerprint added = fingerprint(0x00FF_00FF_00FF_00FFL);
+        second.remember(added, RESULT);
+        second.destroy();
+
+        DocumentDeduplicator third = deduplicator();
+        assertThat(third.size()).isEqualTo(2);
+        assertThat(third.findPrior(kept, "divorce")).isEqualTo(RESULT);
+        assertThat(third.findPrior(lost, "divorce")).isNull();
+        assertThat(third.findPrior(added, "divorce")).isEqualTo(RESULT);
+    }
+
+    @Test
+    void doesNothingWhenDisabled() throws IOException {
+        properties.setEnabled(false);
+        DocumentDeduplicator deduplicator = deduplicator();
+
+        assertThat(deduplicator.fingerprint(spool("original.png", certificate(1), "png"))).isNull();
+        assertThat(deduplicator.findPrior(null, "divorce")).isNull();
+    }
+
+    private DocumentDeduplicator deduplicator() {
+        DocumentDeduplicator deduplicator = new DocumentDeduplicator(
+            properties,
+            sandbox,
+            new BufferPool(new BufferPoolProperties(), new SimpleMeterRegistry()),
+            meterRegistry
+        );
+        deduplicators.add(deduplicator);
+        return deduplicator;
+    }
+
+    private static DocumentFingerprint fingerprint(long pageHash) {
+        byte[] digest = ByteBuffer.allocate(DocumentFingerprint.DIGEST_BYTES).putLong(pageHash).array();
+        return new DocumentFingerprint(new long[] {pageHash}, digest);
+    }
+
+    /**
+     * A page of dark blocks in a layout chosen by {@code seed}, standing in for a scanned form.
+     */
+    private static BufferedImage certificate(int seed) {
+        Random random = new Random(seed);
+        BufferedImage image = new BufferedImage(1000, 1400, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        try {
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, image.getWidth(), image.getHeight());
+            for (int block = 0; block < 40; block++) {
+                graphics.setColor(new Color(random.nextInt(120), random.nextInt(120), random.nextInt(120)));
+                graphics.fillRect(random.nextInt(900), random.nextInt(1300), 40 + random.nextInt(200),
+                                  20 + random.nextInt(120));
+            }
+        } finally {
+            graphics.dispose();
+        }
+        return image;
+    }
+
+    /**
+     * The same form with {@code names} written on its first lines.
+     */
+    private static BufferedImage form(String... names) {
+        BufferedImage image = certificate(1);
+        Graphics2D graphics = image.createGraphics();
+        try {
+            graphics.setColor(Color.BLACK);
+            graphics.setFont(new Font(Font.SERIF, Font.PLAIN, 20));
+            for (int line = 0; line < names.length; line++) {
+                graphics.drawString(names[line], 120, 60 + 40 * line);
+            }
+        } finally {
+            graphics.dispose();
+        }
+        return image;
+    }
+
+    private static BufferedImage resize(BufferedImage image, int width) {
+        int height = image.getHeight() * width / image.getWidth();
+        BufferedImage resized = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = resized.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.drawImage(image, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return resized;
+    }
+
+    private SpooledDocument spool(String name, BufferedImage image, String format) throws IOException {
+        Path path = uploads.resolve(name);
+        ImageIO.write(image, format, path.toFile());
+        return new SpooledDocument(path, name, "image/" + format);
+    }
+
+    private SpooledDocument pdf(BufferedImage... pages) throws IOException {
+        Path path = uploads.resolve("bundle.pdf");
+        try (PDDocument document = new PDDocument()) {
+            for (BufferedImage page : pages) {
+                PDPage pdfPage = new PDPage();
+                document.addPage(pdfPage);
+                PDImageXObject image = LosslessFactory.createFromImage(document, page);
+                try (PDPageContentStream content = new PDPageContentStream(document, pdfPage)) {
+                    content.drawImage(image, 0, 0, pdfPage.getMediaBox().getWidth(),
+                                      pdfPage.getMediaBox().getHeight());
+                }
+            }
+            document.save(path.toFile());
+        }
+        return new SpooledDocument(path, "bundle.pdf", "application/pdf");
+    }
+}
@@ -0,0 +1,105 @@
+package uk.gov.hmcts.reform.api.dedup;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NearDuplicateIndexTest {
+
+    private final Random random = new Random(42);
+    private final NearDuplicateIndex index = new NearDuplicateIndex(8, 1 << 16);
+
+    @Test
+    void sizesChunksForTheExpectedEntries() {
+        NearDuplicateIndex large = new NearDuplicateIndex(8, 1_000_000);
+        long hash = random.nextLong();
+        large.add("model", fingerprint(hash), 7);
+
+        // Three chunks of 22, 21 and 21 bits: eight flipped bits, three, three and two, are found through the last.
+        long flipped = hash ^ 0x0000_1800_01C0_0007L;
+
+        assertThat(large.find("model", fingerprint(flipped))).isEqualTo(7);
+    }
+
+    @Test
+    void keepsChunksNarrowForTheLargestTables() {
+        NearDuplicateIndex largest = new NearDuplicateIndex(8, 4_000_000);
+        long hash = random.nextLong();
+        largest.add("model", fingerprint(hash), 7);
+
+        // Still three chunks of 22, 21 and 21 bits rather than two of 32.
+        assertThat(largest.find("model", fingerprint(hash ^ 0x0000_1800_01C0_0007L))).isEqualTo(7);
+        assertThat(largest.find("model", fingerprint(~hash))).isEqualTo(NearDuplicateIndex.NOT_FOUND);
+    }
+
+    @Test
+    void findsEntriesWithinTheDistanceInEveryChunk() {
+        long hash = random.nextLong();
+        index.add("model", fingerprint(hash), 7);
+        addNoise(10_000);
+
+        // Eight flipped bits, two in each 16-bit chunk, is the worst case the probes must still reach.
+        long flipped = hash ^ 0x0003_0003_0003_0003L;
+
+        assertThat(index.find("model", fingerprint(flipped))).isEqualTo(7);
+        assertThat(index.find("model", fingerprint(hash ^ 0xFFL))).isEqualTo(7);
+    }
+
+    @Test
+    void ignoresEntriesBeyondTheDistance() {
+        long hash = random.nextLong();
+        index.add("model", fingerprint(hash), 7);
+
+        assertThat(index.find("model", fingerprint(hash ^ 0x1FFL))).isEqualTo(NearDuplicateIndex.NOT_FOUND);
+    }
+
+    @Test
+    void matchesOnlyTheSameModelAndPageCount() {
+        long first = random.nextLong();
+        long second = random.nextLong();
+        index.add("divorce", fingerprint(first, second), 1);
+
+        assertThat(index.find("probate", fingerprint(first, second))).isEqualTo(NearDuplicateIndex.NOT_FOUND);
+        assertThat(index.find("divorce", fingerprint(first))).isEqualTo(NearDuplicateIndex.NOT_FOUND);
+        assertThat(index.find("divorce", fingerprint(first, ~second))).isEqualTo(NearDuplicateIndex.NOT_FOUND);
+        assertThat(index.find("divorce", fingerprint(first, second ^ 1))).isEqualTo(1);
+    }
+
+    @Test
+    void confirmsCandidatesByTheirContentDigest() {
+        long hash = random.nextLong();
+        index.add("model", fingerprint(hash), 7);
+
+        // The same hash, as a page of the same form filled in differently would have, but other pixels.
+        byte[] otherPixels = new byte[DocumentFingerprint.DIGEST_BYTES];
+        otherPixels[0] = 1;
+        DocumentFingerprint lookalike = new DocumentFingerprint(new long[] {hash}, otherPixels);
+
+        assertThat(index.find("model", lookalike)).isEqualTo(NearDuplicateIndex.NOT_FOUND);
+    }
+
+    @Test
+    void prefersTheClosestEntry() {
+        long hash = random.nextLong();
+        index.add("model", fingerprint(hash ^ 0x0FL), 1);
+        index.add("model", fingerprint(hash ^ 0x01L), 2);
+        index.add("model", fingerprint(hash ^ 0x3FL), 3);
+
+        assertThat(index.find("model", fingerprint(hash))).isEqualTo(2);
+    }
+
+    private void addNoise(int entries) {
+        for (int i = 0; i < entries; i++) {
+            index.add("model", fingerprint(random.nextLong()), 1000 + i);
+        }
+    }
+
+    /**
+     * A fingerprint with the same digest as every other, so only the hashes decide.
+     */
+    private static DocumentFingerprint fingerprint(long... pageHashes) {
+        return new DocumentFingerprint(pageHashes, new byte[DocumentFingerprint.DIGEST_BYTES]);
+    }
+}
@@ -0,0 +1,63 @@
+package uk.gov.hmcts.reform.api.diagnostics;
+
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FirstRequestMetricsFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final FirstRequestMetricsFilter filter = new FirstRequestMetricsFilter(meterRegistry);
+
+    @Test
+    void ignoresRequestsOutsideTheDocumentEndpoints() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/health"), new MockHttpServletResponse(), chain);
+
+        assertThat(chain.getRequest()).isNotNull();
+        assertThat(meterRegistry.find(FirstRequestMetricsFilter.METRIC).timeGauge()).isNull();
+        assertThat(meterRegistry.find(FirstRequestMetricsFilter.LATENCY_METRIC).timeGauge()).isNull();
+    }
+
+    @Test
+    void recordsOnlyTheFirstDocumentRequest() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        FilterChain slow = (request, response) -> {
+            calls.incrementAndGet();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        };
+
+        filter.doFilter(post("/documents/divorce"), new MockHttpServletResponse(), slow);
+        TimeGauge latency = meterRegistry.get(FirstRequestMetricsFilter.LATENCY_METRIC).timeGauge();
+        double firstLatency = latency.value(TimeUnit.MILLISECONDS);
+        filter.doFilter(post("/documents/probate"), new MockHttpServletResponse(), (request, response) ->
+            calls.incrementAndGet()
+        );
+
+        assertThat(calls).hasValue(2);
+        assertThat(firstLatency).isGreaterThanOrEqualTo(50);
+        assertThat(latency.value(TimeUnit.MILLISECONDS)).isEqualTo(firstLatency);
+        assertThat(meterRegistry.get(FirstRequestMetricsFilter.METRIC).timeGauges()).hasSize(1);
+        assertThat(meterRegistry.get(FirstRequestMetricsFilter.LATENCY_METRIC).timeGauges()).hasSize(1);
+        assertThat(meterRegistry.get(FirstRequestMetricsFilter.METRIC).timeGauge().value(TimeUnit.MILLISECONDS))
+            .isPositive();
+    }
+
+    private static MockHttpServletRequest post(String uri) {
+        return new MockHttpServletRequest("POST", uri);
+    }
+}
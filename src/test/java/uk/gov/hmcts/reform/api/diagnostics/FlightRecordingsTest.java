@@ -0,0 +1,90 @@
+package uk.gov.hmcts.reform.api.diagnostics;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import uk.gov.hmcts.reform.api.config.FlightRecorderProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FlightRecordingsTest {
+
+    private FlightRecorderProperties properties;
+    private FlightRecordings recordings;
+
+    @BeforeEach
+    void setup() {
+        properties = new FlightRecorderProperties();
+        properties.getOnDemand().setMaxRecordings(1);
+        recordings = new FlightRecordings(properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        recordings.stop();
+    }
+
+    @Test
+    void recordsUploadStagesInTheContinuousRecording() throws Exception {
+        recordings.start();
+
+        UploadStageEvent.start("validation-parse").finish(2048, "application/pdf", 3);
+        long id = recordings.list().get(0).getId();
+        Path dump = recordings.dump(id);
+
+        List<RecordedEvent> stages = RecordingFile.readAllEvents(dump).stream()
+            .filter(event -> event.getEventType().getName().equals("uk.gov.hmcts.reform.api.UploadStage"))
+            .toList();
+        assertThat(stages).anySatisfy(event -> {
+            assertThat(event.getString("stage")).isEqualTo("validation-parse");
+            assertThat(event.getLong("fileSize")).isEqualTo(2048);
+            assertThat(event.getString("mediaType")).isEqualTo("application/pdf");
+            assertThat(event.getInt("pageCount")).isEqualTo(3);
+        });
+    }
+
+    @Test
+    void leavesEnvironmentAndSystemPropertiesOut() throws Exception {
+        recordings.start();
+
+        Path dump = recordings.dump(recordings.list().get(0).getId());
+
+        assertThat(RecordingFile.readAllEvents(dump)).noneSatisfy(event ->
+            assertThat(event.getEventType().getName())
+                .isIn("jdk.InitialEnvironmentVariable", "jdk.InitialSystemProperty", "jdk.JVMInformation")
+        );
+    }
+
+    @Test
+    void boundsOnDemandRecordings() {
+        properties.getOnDemand().setMaxDuration(Duration.ofSeconds(30));
+        properties.getOnDemand().setDefaultDuration(Duration.ofSeconds(10));
+        recordings.start();
+
+        RecordingSummary started = recordings.record(Duration.ofHours(1));
+
+        assertThat(started.getName()).isEqualTo(FlightRecordings.ON_DEMAND);
+        assertThat(started.getDuration()).isEqualTo(Duration.ofSeconds(30));
+        assertThatThrownBy(() -> recordings.record(null)).isInstanceOf(IllegalStateException.class);
+
+        assertThat(recordings.discard(started.getId())).isTrue();
+        assertThat(recordings.record(null).getDuration()).isEqualTo(Duration.ofSeconds(10));
+    }
+
+    @Test
+    void keepsTheContinuousRecording() {
+        recordings.start();
+        RecordingSummary continuous = recordings.list().get(0);
+
+        assertThat(continuous.getName()).isEqualTo(FlightRecordings.CONTINUOUS);
+        assertThatThrownBy(() -> recordings.discard(continuous.getId())).isInstanceOf(IllegalArgumentException.class);
+        assertThat(recordings.dump(Long.MAX_VALUE)).isNull();
+    }
+}
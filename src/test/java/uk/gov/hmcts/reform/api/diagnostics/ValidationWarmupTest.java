@@ -0,0 +1,103 @@
+package uk.gov.hmcts.reform.api.diagnostics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import uk.gov.hmcts.reform.api.config.WarmupProperties;
+import uk.gov.hmcts.reform.api.intake.DocumentSpooler;
+import uk.gov.hmcts.reform.api.validation.validators.DocumentFileValidator;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ValidationWarmupTest {
+
+    private final WarmupProperties properties = new WarmupProperties();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final DocumentSpooler spooler = mock(DocumentSpooler.class);
+    private final DocumentFileValidator validator = mock(DocumentFileValidator.class);
+    private final List<MeterRegistry> validatorRegistries = new ArrayList<>();
+
+    @BeforeEach
+    void setup() {
+        properties.setIterationsPerRound(1);
+        properties.setMaxDuration(Duration.ofSeconds(10));
+    }
+
+    @Test
+    void holdsReadinessUntilTheWarmupFinishes() throws InterruptedException {
+        CountDownLatch parsed = new CountDownLatch(1);
+        when(validator.isValid(any(), any())).thenAnswer(call -> {
+            parsed.await();
+            return true;
+        });
+        Thread runner = new Thread(() -> warmup().run(null));
+        runner.start();
+
+        // Spring Boot reports ready once application runners have returned.
+        runner.join(300);
+        assertThat(runner.isAlive()).isTrue();
+
+        parsed.countDown();
+        runner.join(10_000);
+        assertThat(runner.isAlive()).isFalse();
+        assertThat(meterRegistry.get(ValidationWarmup.ROUNDS_METRIC).gauge().value()).isPositive();
+        verify(spooler, atLeastOnce()).discard(any());
+    }
+
+    @Test
+    void releasesReadinessWhenTheWarmupOverruns() {
+        properties.setMaxDuration(Duration.ofMillis(200));
+        when(validator.isValid(any(), any())).thenAnswer(call -> {
+            try {
+                new CountDownLatch(1).await();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            return false;
+        });
+
+        long start = System.nanoTime();
+        warmup().run(null);
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(5));
+        assertThat(meterRegistry.get(ValidationWarmup.ROUNDS_METRIC).gauge().value()).isZero();
+    }
+
+    @Test
+    void recordsTheSamplesAwayFromTheApplicationsMetrics() {
+        when(validator.isValid(any(), any())).thenReturn(true);
+
+        warmup().run(null);
+
+        assertThat(validatorRegistries).hasSize(1);
+        assertThat(validatorRegistries.get(0)).isNotSameAs(meterRegistry);
+    }
+
+    @Test
+    void doesNothingWhenDisabled() {
+        properties.setEnabled(false);
+
+        warmup().run(null);
+
+        assertThat(validatorRegistries).isEmpty();
+        assertThat(meterRegistry.find(ValidationWarmup.ROUNDS_METRIC).gauge()).isNull();
+    }
+
+    private ValidationWarmup warmup() {
+        return new ValidationWarmup(properties, registry -> {
+            validatorRegistries.add(registry);
+            return validator;
+        }, spooler, meterRegistry);
+    }
+}
@@ -0,0 +1,112 @@
+package uk.gov.hmcts.reform.api.distribution;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import uk.gov.hmcts.reform.api.services.AnalysisResult;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two queue instances over one directory stand in for two nodes sharing a volume.
+ */
+class FileSystemWorkQueueTest {
+
+    private static final Duration LEASE = Duration.ofMinutes(1);
+    private static final Duration POLL = Duration.ofMillis(10);
+
+    @TempDir
+    Path shared;
+
+    @TempDir
+    Path spool;
+
+    private FileSystemWorkQueue nodeA;
+    private FileSystemWorkQueue nodeB;
+    private Path document;
+
+    @BeforeEach
+    void setup() throws IOException {
+        nodeA = new FileSystemWorkQueue(shared, POLL);
+        nodeB = new FileSystemWorkQueue(shared, POLL);
+        document = Files.writeString(spool.resolve("upload.pdf"), "%PDF-1.7");
+    }
+
+    @Test
+    void runsTaskOnAnotherNode() throws IOException, InterruptedException {
+        String id = nodeA.submit(new AnalysisTask("model", document, "scan.pdf", null));
+
+        ClaimedTask claimed = nodeB.claim("node-b-0", LEASE).orElseThrow();
+        assertThat(claimed.getId()).isEqualTo(id);
+        assertThat(claimed.getOriginalFilename()).isEqualTo("scan.pdf");
+        assertThat(claimed.isStolen()).isFalse();
+        assertThat(Files.readString(claimed.getDocument())).isEqualTo("%PDF-1.7");
+        assertThat(nodeA.claim("node-a-0", LEASE)).isEmpty();
+
+        nodeB.complete(claimed, new AnalysisResult("model", "{\"pages\":1}"));
+
+        Optional<TaskOutcome> outcome = nodeA.awaitOutcome(id, Duration.ofSeconds(5));
+        assertThat(outcome).hasValueSatisfying(value ->
+            assertThat(value.getResult().getResultJson()).isEqualTo("{\"pages\":1}")
+        );
+        assertThat(Files.exists(claimed.getDocument())).isFalse();
+    }
+
+    @Test
+    void reportsFailure() throws IOException, InterruptedException {
+        String id = nodeA.submit(new AnalysisTask("model", document, "scan.pdf", null));
+        ClaimedTask claimed = nodeB.claim("node-b-0", LEASE).orElseThrow();
+
+        nodeB.fail(claimed, "HttpResponseException: 500");
+
+        assertThat(nodeA.awaitOutcome(id, Duration.ofSeconds(5))).hasValueSatisfying(value -> {
+            assertThat(value.isSucceeded()).isFalse();
+            assertThat(value.getError()).isEqualTo("HttpResponseException: 500");
+        });
+    }
+
+    @Test
+    void stealsLeaseFromStalledNode() throws IOException, InterruptedException {
+        String id = nodeA.submit(new AnalysisTask("model", document, "scan.pdf", null));
+        ClaimedTask stalled = nodeA.claim("node-a-0", Duration.ZERO).orElseThrow();
+
+        ClaimedTask thief = nodeB.claim("node-b-0", LEASE).orElseThrow();
+        assertThat(thief.getId()).isEqualTo(id);
+        assertThat(thief.isStolen()).isTrue();
+
+        assertThat(nodeA.renew(stalled, LEASE)).isFalse();
+        nodeA.complete(stalled, new AnalysisResult("model", "stale"));
+        assertThat(nodeA.awaitOutcome(id, Duration.ofMillis(50))).isEmpty();
+
+        nodeB.complete(thief, new AnalysisResult("model", "fresh"));
+        assertThat(nodeA.awaitOutcome(id, Duration.ofSeconds(5)))
+            .map(outcome -> outcome.getResult().getResultJson())
+            .contains("fresh");
+    }
+
+    @Test
+    void renewedLeaseIsNotStolen() throws IOException {
+        nodeA.submit(new AnalysisTask("model", document, "scan.pdf", null));
+        ClaimedTask claimed = nodeA.claim("node-a-0", Duration.ZERO).orElseThrow();
+
+        assertThat(nodeA.renew(claimed, LEASE)).isTrue();
+
+        assertThat(nodeB.claim("node-b-0", LEASE)).isEmpty();
+    }
+
+    @Test
+    void cancelledTaskIsNotClaimed() throws IOException {
+        String id = nodeA.submit(new AnalysisTask("model", document, "scan.pdf", null));
+
+        nodeA.cancel(id);
+
+        assertThat(nodeB.claim("node-b-0", LEASE)).isEmpty();
+        assertThat(Files.exists(document)).isTrue();
+    }
+}
@@ -0,0 +1,74 @@
+package uk.gov.hmcts.reform.api.distribution;
+
+import org.junit.jupiter.api.Test;
+import uk.gov.hmcts.reform.api.services.AnalysisResult;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InMemoryWorkQueueTest {
+
+    private static final Duration LEASE = Duration.ofMinutes(1);
+
+    private final InMemoryWorkQueue queue = new InMemoryWorkQueue();
+
+    @Test
+    void handsTasksOutInSubmitOrder() {
+        String first = queue.submit(task("first.png"));
+        String second = queue.submit(task("second.png"));
+
+        assertThat(queue.claim("worker-a", LEASE)).map(ClaimedTask::getId).contains(first);
+        assertThat(queue.claim("worker-b", LEASE)).map(ClaimedTask::getId).contains(second);
+        assertThat(queue.claim("worker-c", LEASE)).isEmpty();
+    }
+
+    @Test
+    void deliversResultToWaiter() throws InterruptedException {
+        String id = queue.submit(task("scan.png"));
+        ClaimedTask claimed = queue.claim("worker-a", LEASE).orElseThrow();
+        queue.complete(claimed, new AnalysisResult("model", "{}"));
+
+        Optional<TaskOutcome> outcome = queue.awaitOutcome(id, Duration.ofSeconds(1));
+
+        assertThat(outcome).hasValueSatisfying(value -> {
+            assertThat(value.isSucceeded()).isTrue();
+            assertThat(value.getResult().getResultJson()).isEqualTo("{}");
+        });
+        assertThat(queue.size()).isZero();
+    }
+
+    @Test
+    void stealsLapsedLease() throws InterruptedException {
+        String id = queue.submit(task("scan.png"));
+        ClaimedTask stalled = queue.claim("worker-a", Duration.ZERO).orElseThrow();
+
+        ClaimedTask thief = queue.claim("worker-b", LEASE).orElseThrow();
+
+        assertThat(thief.getId()).isEqualTo(id);
+        assertThat(thief.isStolen()).isTrue();
+        assertThat(queue.renew(stalled, LEASE)).isFalse();
+
+        queue.complete(stalled, new AnalysisResult("model", "stale"));
+        queue.complete(thief, new AnalysisResult("model", "fresh"));
+        assertThat(queue.awaitOutcome(id, Duration.ofSeconds(1)))
+            .map(outcome -> outcome.getResult().getResultJson())
+            .contains("fresh");
+    }
+
+    @Test
+    void timesOutWithoutWorker() throws InterruptedException {
+        String id = queue.submit(task("scan.png"));
+
+        assertThat(queue.awaitOutcome(id, Duration.ofMillis(20))).isEmpty();
+
+        queue.cancel(id);
+        assertThat(queue.claim("worker-a", LEASE)).isEmpty();
+    }
+
+    private static AnalysisTask task(String name) {
+        return new AnalysisTask("model", Path.of(name), name, null);
+    }
+}
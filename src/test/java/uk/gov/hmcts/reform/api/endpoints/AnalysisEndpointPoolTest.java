@@ -0,0 +1,205 @@
+package uk.gov.hmcts.reform.api.endpoints;
+
+import com.azure.ai.documentintelligence.DocumentIntelligenceClient;
+import com.azure.core.exception.HttpResponseException;
+import com.azure.core.http.HttpHeaderName;
+import com.azure.core.http.HttpResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import uk.gov.hmcts.reform.api.config.AnalysisEndpointProperties;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AnalysisEndpointPoolTest {
+
+    private final AnalysisEndpointProperties properties = new AnalysisEndpointProperties();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicLong clock = new AtomicLong();
+    private final Map<DocumentIntelligenceClient, String> names = new IdentityHashMap<>();
+    private final Map<String, Boolean> retries = new HashMap<>();
+    private final Map<String, Supplier<String>> behaviours = new HashMap<>();
+    private final List<String> calls = new ArrayList<>();
+
+    @Test
+    void sendsMostCallsToTheFasterEndpoint() {
+        AnalysisEndpointPool pool = pool("slow", "fast");
+        respond("slow", 100);
+        respond("fast", 10);
+
+        for (int i = 0; i < 10; i++) {
+            pool.execute(this::call);
+        }
+
+        // Each endpoint is tried once, then the faster one takes the rest.
+        assertThat(calls).startsWith("slow", "fast").containsOnlyOnce("slow").hasSize(10);
+        assertThat(retries).containsEntry("slow", false).containsEntry("fast", false);
+    }
+
+    @Test
+    void timesOnlyTheSubmissionOfALongRunningOperation() {
+        AnalysisEndpointPool pool = pool("busy", "idle");
+        respond("busy", 10);
+        respond("idle", 20);
+        pool.execute(this::call);
+        pool.execute(this::call);
+
+        // A large bundle takes minutes to analyse on "busy", but was accepted as quickly as ever.
+        pool.execute(this::call, name -> {
+            clock.addAndGet(Duration.ofMinutes(5).toNanos());
+            return name;
+        });
+        calls.clear();
+        pool.execute(this::call);
+
+        assertThat(calls).containsExactly("busy");
+        assertThat(meterRegistry.get("documents.analysis.endpoint.latency").tag("endpoint", "busy").gauge().value())
+            .isCloseTo(10, within(0.001));
+    }
+
+    @Test
+    void ejectsAnEndpointAfterFailuresInARowAndRetriesElsewhere() {
+        properties.setConsecutiveFailures(2);
+        AnalysisEndpointPool pool = pool("broken", "healthy");
+        fail("broken", 503, null);
+        respond("healthy", 10);
+
+        assertThat(pool.execute(this::call)).isEqualTo("healthy");
+        assertThat(pool.execute(this::call)).isEqualTo("healthy");
+        assertThat(pool.execute(this::call)).isEqualTo("healthy");
+        assertThat(calls).containsExactly("broken", "healthy", "broken", "healthy", "healthy");
+        assertThat(meterRegistry.get(AnalysisEndpointPool.EJECTIONS_METRIC).tag("endpoint", "broken").counter().count())
+            .isEqualTo(1);
+
+        clock.addAndGet(Duration.ofSeconds(31).toNanos());
+        respond("broken", 1);
+        calls.clear();
+
+        assertThat(pool.execute(this::call)).isEqualTo("broken");
+        assertThat(calls).containsExactly("broken");
+    }
+
+    @Test
+    void restsAThrottledEndpointUntilRetryAfter() {
+        AnalysisEndpointPool pool = pool("throttled", "spare");
+        fail("throttled", 429, "5");
+        respond("spare", 10);
+
+        assertThat(pool.execute(this::call)).isEqualTo("spare");
+        respond("throttled", 1);
+        pool.execute(this::call);
+        clock.addAndGet(Duration.ofSeconds(5).toNanos());
+        pool.execute(this::call);
+
+        assertThat(calls).containsExactly("throttled", "spare", "spare", "throttled");
+        assertThat(meterRegistry.get(AnalysisEndpointPool.CALLS_METRIC)
+                       .tag("endpoint", "throttled").tag("outcome", "throttled").counter().count())
+            .isEqualTo(1);
+    }
+
+    @Test
+    void retriesConnectionFailuresOnAnotherEndpoint() {
+        AnalysisEndpointPool pool = pool("unreachable", "reachable");
+        behaviours.put("unreachable", () -> {
+            throw new UncheckedIOException(new IOException("Connection refused"));
+        });
+        respond("reachable", 10);
+
+        assertThat(pool.execute(this::call)).isEqualTo("reachable");
+        assertThat(calls).containsExactly("unreachable", "reachable");
+    }
+
+    @Test
+    void passesBackErrorsCausedByTheDocument() {
+        AnalysisEndpointPool pool = pool("first", "second");
+        fail("first", 400, null);
+        respond("second", 10);
+
+        assertThatThrownBy(() -> pool.execute(this::call)).isInstanceOf(HttpResponseException.class);
+        assertThat(calls).containsExactly("first");
+    }
+
+    @Test
+    void givesUpAfterMaxAttempts() {
+        final AnalysisEndpointPool pool = pool("first", "second", "third");
+        fail("first", 500, null);
+        fail("second", 500, null);
+        respond("third", 10);
+
+        assertThatThrownBy(() -> pool.execute(this::call)).isInstanceOf(HttpResponseException.class);
+        assertThat(calls).containsExactly("first", "second");
+    }
+
+    @Test
+    void fallsBackToTheSingleConfiguredEndpoint() {
+        properties.setConsecutiveFailures(1);
+        AnalysisEndpointPool pool = new AnalysisEndpointPool(
+            properties, this::client, meterRegistry, "https://example.test", "key", clock::get
+        );
+        fail(AnalysisEndpointPool.DEFAULT_NAME, 503, null);
+
+        // Ejected after the first failure, but with nowhere else to go it is still used.
+        assertThatThrownBy(() -> pool.execute(this::call)).isInstanceOf(HttpResponseException.class);
+        assertThatThrownBy(() -> pool.execute(this::call)).isInstanceOf(HttpResponseException.class);
+
+        respond(AnalysisEndpointPool.DEFAULT_NAME, 10);
+        assertThat(pool.execute(this::call)).isEqualTo(AnalysisEndpointPool.DEFAULT_NAME);
+        assertThat(calls).hasSize(3);
+        assertThat(retries).containsEntry(AnalysisEndpointPool.DEFAULT_NAME, true);
+    }
+
+    private AnalysisEndpointPool pool(String... endpointNames) {
+        for (String name : endpointNames) {
+            AnalysisEndpointProperties.Endpoint endpoint = new AnalysisEndpointProperties.Endpoint();
+            endpoint.setName(name);
+            endpoint.setEndpoint("https://" + name + ".example.test");
+            endpoint.setKey("key");
+            properties.getEndpoints().add(endpoint);
+        }
+        return new AnalysisEndpointPool(properties, this::client, meterRegistry, null, null, clock::get);
+    }
+
+    private DocumentIntelligenceClient client(AnalysisEndpointProperties.Endpoint endpoint, boolean retry) {
+        DocumentIntelligenceClient client = mock(DocumentIntelligenceClient.class);
+        names.put(client, endpoint.getName());
+        retries.put(endpoint.getName(), retry);
+        return client;
+    }
+
+    private String call(DocumentIntelligenceClient client) {
+        String name = names.get(client);
+        calls.add(name);
+        return behaviours.get(name).get();
+    }
+
+    private void respond(String name, long millis) {
+        behaviours.put(name, () -> {
+            clock.addAndGet(Duration.ofMillis(millis).toNanos());
+            return name;
+        });
+    }
+
+    private void fail(String name, int status, String retryAfter) {
+        behaviours.put(name, () -> {
+            clock.addAndGet(Duration.ofMillis(1).toNanos());
+            HttpResponse response = mock(HttpResponse.class);
+            when(response.getStatusCode()).thenReturn(status);
+            when(response.getHeaderValue(HttpHeaderName.RETRY_AFTER)).thenReturn(retryAfter);
+            throw new HttpResponseException("Status " + status, response, null);
+        });
+    }
+}
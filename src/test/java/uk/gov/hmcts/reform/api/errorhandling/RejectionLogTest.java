@@ -0,0 +1,96 @@
+package uk.gov.hmcts.reform.api.errorhandling;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import uk.gov.hmcts.reform.api.config.RejectionLogProperties;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(OutputCaptureExtension.class)
+class RejectionLogTest {
+
+    private RejectionLogProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private RejectionLog rejectionLog;
+
+    @BeforeEach
+    void setup() {
+        properties = new RejectionLogProperties();
+        // Flushed by hand in these tests.
+        properties.setFlushInterval(Duration.ofHours(1));
+        properties.setMaxDetailsPerInterval(2);
+        meterRegistry = new SimpleMeterRegistry();
+        rejectionLog = new RejectionLog(properties, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        rejectionLog.stop();
+    }
+
+    @Test
+    void logsSampleInFullAndSummarisesTheRest(CapturedOutput output) {
+        rejectionLog.start();
+        for (int i = 0; i < 5; i++) {
+            rejectionLog.record("file", "Invalid or unreadable PDF.");
+        }
+        rejectionLog.record("validation", "Validation failed: caseNumber must not be blank");
+
+        rejectionLog.flush();
+
+        assertThat(output).contains("6 requests rejected in the last PT1H, 2 logged in full");
+        assertThat(output).contains("5 x Invalid or unreadable PDF.");
+        assertThat(output).contains("1 x Validation failed: caseNumber must not be blank");
+        assertThat(rejections("file")).isEqualTo(5);
+        assertThat(rejections("validation")).isEqualTo(1);
+    }
+
+    @Test
+    void startsEachIntervalWithFreshDetailsAndReasons(CapturedOutput output) {
+        rejectionLog.start();
+        rejectionLog.record("file", "Unsupported file type.");
+        rejectionLog.record("file", "Unsupported file type.");
+        rejectionLog.flush();
+
+        rejectionLog.record("file", "Invalid image file.");
+        rejectionLog.flush();
+
+        assertThat(output).doesNotContain("requests rejected");
+        assertThat(output).contains("400, file rejected. Details: Invalid image file.");
+    }
+
+    @Test
+    void countsReasonsPastTheLimitAsOther(CapturedOutput output) {
+        properties.setMaxReasons(1);
+        properties.setMaxDetailsPerInterval(1);
+        rejectionLog = new RejectionLog(properties, meterRegistry);
+        rejectionLog.start();
+
+        rejectionLog.record("file", "Unsupported file type.");
+        rejectionLog.record("file", "PDF has 3000 pages; at most 2000 are allowed.");
+        rejectionLog.record("file", "PDF has 2500 pages; at most 2000 are allowed.");
+        rejectionLog.flush();
+
+        assertThat(output).contains("1 x Unsupported file type.");
+        assertThat(output).contains("2 x " + RejectionLog.OTHER_REASON);
+    }
+
+    @Test
+    void logsEachRejectionAsItHappensWhenNotStarted(CapturedOutput output) {
+        rejectionLog.record("callback", "Callback URL is not allowed.");
+
+        assertThat(output).contains("400, callback rejected. Details: Callback URL is not allowed.");
+        assertThat(rejections("callback")).isEqualTo(1);
+    }
+
+    private double rejections(String kind) {
+        return meterRegistry.get(RejectionLog.REJECTIONS_METRIC).tag("kind", kind).counter().count();
+    }
+}
@@ -0,0 +1,137 @@
+package uk.gov.hmcts.reform.api.imaging;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import uk.gov.hmcts.reform.api.admission.AdmissionController;
+import uk.gov.hmcts.reform.api.buffers.BufferPool;
+import uk.gov.hmcts.reform.api.config.AdmissionProperties;
+import uk.gov.hmcts.reform.api.config.BufferPoolProperties;
+import uk.gov.hmcts.reform.api.config.NormalisationProperties;
+import uk.gov.hmcts.reform.api.intake.SpooledDocument;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DocumentNormaliserTest {
+
+    @TempDir
+    Path directory;
+
+    private NormalisationProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private DocumentNormaliser normaliser;
+
+    @BeforeEach
+    void setup() {
+        properties = new NormalisationProperties();
+        properties.setEnabled(true);
+        properties.setBandHeight(256);
+        meterRegistry = new SimpleMeterRegistry();
+        normaliser = new DocumentNormaliser(
+            properties,
+            new AdmissionController(new AdmissionProperties(), meterRegistry),
+            new BufferPool(new BufferPoolProperties(), meterRegistry),
+            meterRegistry
+        );
+    }
+
+    @AfterEach
+    void teardown() {
+        normaliser.destroy();
+    }
+
+    @Test
+    void straightensSkewedPage() throws IOException {
+        SpooledDocument document = spool(page(8));
+
+        try (SpooledDocument corrected = normaliser.normalise(document)) {
+            assertThat(corrected).isNotSameAs(document);
+            assertThat(corrected.getContentType()).isEqualTo("image/png");
+
+            BufferedImage image = ImageIO.read(corrected.getPath().toFile());
+            OrientationEstimate residual = SkewEstimator.estimate(image, 128, 15);
+            assertThat(residual.isNegligible(0.5)).isTrue();
+        }
+        assertThat(meterRegistry.counter(DocumentNormaliser.CORRECTED_METRIC, "quarterTurns", "0").count())
+            .isEqualTo(1);
+    }
+
+    @Test
+    void turnsPageWithVerticalLines() throws IOException {
+        SpooledDocument document = spool(page(90));
+
+        try (SpooledDocument corrected = normaliser.normalise(document)) {
+            BufferedImage image = ImageIO.read(corrected.getPath().toFile());
+            assertThat(image.getWidth()).isEqualTo(600);
+            assertThat(image.getHeight()).isEqualTo(900);
+            assertThat(SkewEstimator.estimate(image, 128, 15).getQuarterTurns()).isZero();
+        }
+    }
+
+    @Test
+    void producesTheSamePageWhateverTheBandHeight() throws IOException {
+        SpooledDocument document = spool(page(8));
+        BufferedImage banded;
+        try (SpooledDocument corrected = normaliser.normalise(document)) {
+            banded = ImageIO.read(corrected.getPath().toFile());
+        }
+
+        properties.setBandHeight(10_000);
+        try (SpooledDocument corrected = normaliser.normalise(document)) {
+            BufferedImage whole = ImageIO.read(corrected.getPath().toFile());
+            for (int y = 0; y < whole.getHeight(); y++) {
+                for (int x = 0; x < whole.getWidth(); x++) {
+                    assertThat(banded.getRGB(x, y)).as("pixel %d,%d", x, y).isEqualTo(whole.getRGB(x, y));
+                }
+            }
+        }
+    }
+
+    @Test
+    void leavesStraightPageAlone() throws IOException {
+        SpooledDocument document = spool(page(0));
+
+        assertThat(normaliser.normalise(document)).isSameAs(document);
+    }
+
+    @Test
+    void leavesDocumentAloneWhenDisabled() throws IOException {
+        properties.setEnabled(false);
+        SpooledDocument document = spool(page(8));
+
+        assertThat(normaliser.normalise(document)).isSameAs(document);
+    }
+
+    private SpooledDocument spool(BufferedImage image) throws IOException {
+        Path path = Files.createTempFile(directory, "upload-", ".part");
+        ImageIO.write(image, "png", path.toFile());
+        return new SpooledDocument(path, "certificate.png", "image/png");
+    }
+
+    private BufferedImage page(double rotationDegrees) {
+        BufferedImage image = new BufferedImage(900, 600, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(Color.WHITE);
+        graphics.fillRect(0, 0, image.getWidth(), image.getHeight());
+        graphics.rotate(Math.toRadians(rotationDegrees), image.getWidth() / 2.0, image.getHeight() / 2.0);
+        graphics.setColor(Color.BLACK);
+        graphics.setFont(new Font(Font.SERIF, Font.PLAIN, 16));
+        for (int line = 0; line < 14; line++) {
+            String text = "Certificate of marriage, entry number " + line * 37 + " of register";
+            graphics.drawString(text, 180, 140 + line * 24);
+        }
+        graphics.dispose();
+        return image;
+    }
+}
@@ -0,0 +1,102 @@
+package uk.gov.hmcts.reform.api.imaging;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import uk.gov.hmcts.reform.api.buffers.BufferPool;
+import uk.gov.hmcts.reform.api.config.BufferPoolProperties;
+import uk.gov.hmcts.reform.api.config.UploadValidationProperties;
+import uk.gov.hmcts.reform.api.errorhandling.exceptions.InvalidFileException;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.ConvolveOp;
+import java.awt.image.Kernel;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ImageQualityGateTest {
+
+    private UploadValidationProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private ImageQualityGate gate;
+
+    @BeforeEach
+    void setup() {
+        properties = new UploadValidationProperties();
+        properties.getQuality().setMode(UploadValidationProperties.Quality.Mode.REJECT);
+        meterRegistry = new SimpleMeterRegistry();
+        BufferPool bufferPool = new BufferPool(new BufferPoolProperties(), meterRegistry);
+        gate = new ImageQualityGate(properties, bufferPool, meterRegistry);
+    }
+
+    @Test
+    void acceptsSharpText() {
+        assertDoesNotThrow(() -> gate.check(List.of(gate.score(textPage()))));
+    }
+
+    @Test
+    void rejectsBlankPage() {
+        BufferedImage blank = page();
+
+        InvalidFileException ex = assertThrows(
+            InvalidFileException.class,
+            () -> gate.check(List.of(gate.score(blank)))
+        );
+        assertThat(ex.getMessage()).isEqualTo(QualityIssue.BLANK.getMessage());
+        assertThat(meterRegistry.counter(ImageQualityGate.REJECTED_METRIC, "reason", "BLANK").count()).isEqualTo(1);
+    }
+
+    @Test
+    void toleratesBlankPagesInsideBundle() {
+        assertDoesNotThrow(() -> gate.check(List.of(gate.score(textPage()), gate.score(page()))));
+    }
+
+    @Test
+    void rejectsBlurredText() {
+        BufferedImage blurred = blur(textPage(), 9);
+
+        assertThat(gate.evaluate(List.of(gate.score(blurred)))).isEqualTo(QualityIssue.BLURRY);
+    }
+
+    @Test
+    void flagsWithoutRejecting() {
+        properties.getQuality().setMode(UploadValidationProperties.Quality.Mode.FLAG);
+
+        assertDoesNotThrow(() -> gate.check(List.of(gate.score(page()))));
+        assertThat(meterRegistry.counter(ImageQualityGate.FLAGGED_METRIC, "reason", "BLANK").count()).isEqualTo(1);
+    }
+
+    private BufferedImage page() {
+        BufferedImage image = new BufferedImage(400, 300, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(Color.WHITE);
+        graphics.fillRect(0, 0, image.getWidth(), image.getHeight());
+        graphics.dispose();
+        return image;
+    }
+
+    private BufferedImage textPage() {
+        BufferedImage image = page();
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(Color.BLACK);
+        graphics.setFont(new Font(Font.SANS_SERIF, Font.BOLD, 18));
+        for (int line = 0; line < 10; line++) {
+            graphics.drawString("Statement of case " + line, 20, 30 + line * 26);
+        }
+        graphics.dispose();
+        return image;
+    }
+
+    private BufferedImage blur(BufferedImage image, int radius) {
+        float[] weights = new float[radius * radius];
+        Arrays.fill(weights, 1f / weights.length);
+        return new ConvolveOp(new Kernel(radius, radius, weights), ConvolveOp.EDGE_NO_OP, null).filter(image, null);
+    }
+}
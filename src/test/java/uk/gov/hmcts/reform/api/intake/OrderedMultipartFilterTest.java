@@ -0,0 +1,272 @@
+package uk.gov.hmcts.reform.api.intake;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.MultipartConfigElement;
+import jakarta.servlet.ServletInputStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.mock.web.DelegatingServletInputStream;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.validation.BindException;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.multipart.MultipartHttpServletRequest;
+import org.springframework.web.servlet.ModelAndView;
+import uk.gov.hmcts.reform.api.casedetails.CaseDetailsMessageConverter;
+import uk.gov.hmcts.reform.api.casedetails.CaseDetailsValidator;
+import uk.gov.hmcts.reform.api.config.IntakeProperties;
+import uk.gov.hmcts.reform.api.config.UploadValidationProperties;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OrderedMultipartFilterTest {
+
+    private static final String BOUNDARY = "----form-boundary-7MA4YWxk";
+    private static final String VALID_CASE = "{\"caseNumber\": \"ABC123\"}";
+    private static final String BLANK_CASE = "{\"caseNumber\": \" \"}";
+
+    @TempDir
+    private Path spoolDirectory;
+
+    private final IntakeProperties properties = new IntakeProperties();
+    private final Map<String, Object> multipartConfig = new HashMap<>();
+    private Exception resolved;
+    private OrderedMultipartFilter filter;
+
+    @BeforeEach
+    void setup() {
+        properties.setOrderedParts(true);
+        UploadValidationProperties uploadProperties = new UploadValidationProperties();
+        uploadProperties.setSpoolDirectory(spoolDirectory.toString());
+        filter = new OrderedMultipartFilter(
+            properties,
+            new DocumentSpooler(uploadProperties),
+            new CaseDetailsMessageConverter(properties),
+            new CaseDetailsValidator(),
+            new StaticListableBeanFactory(multipartConfig).getBeanProvider(MultipartConfigElement.class),
+            (request, response, handler, ex) -> {
+                resolved = ex;
+                return new ModelAndView();
+            }
+        );
+    }
+
+    @Test
+    void rejectsInvalidCaseDetailsWithoutReadingTheFile() throws Exception {
+        byte[] file = new byte[4 * 1024 * 1024];
+        CountingRequest request = request(body(casePart(BLANK_CASE), filePart(file)), 8192);
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        assertThat(chain.getRequest()).isNull();
+        assertThat(resolved).isInstanceOfSatisfying(BindException.class, ex ->
+            assertThat(ex.getFieldError("caseNumber")).isNotNull()
+        );
+        assertThat(request.bytesRead).isLessThan(64 * 1024);
+        assertThat(spooledFiles()).isEmpty();
+    }
+
+    @Test
+    void hasTheControllerBindThePartsItRead() throws Exception {
+        byte[] file = "%PDF-1.7 pretend".getBytes(StandardCharsets.ISO_8859_1);
+        AtomicReference<MultipartHttpServletRequest> bound = new AtomicReference<>();
+        AtomicReference<byte[]> content = new AtomicReference<>();
+        FilterChain chain = (request, response) -> {
+            bound.set((MultipartHttpServletRequest) request);
+            content.set(bound.get().getFile("file").getBytes());
+        };
+
+        filter.doFilter(request(body(casePart(VALID_CASE), filePart(file)), 7), new MockHttpServletResponse(), chain);
+
+        assertThat(resolved).isNull();
+        assertThat(bound.get().getParameter("case")).isEqualTo(VALID_CASE);
+        assertThat(bound.get().getMultipartContentType("case")).isEqualTo("application/json");
+        MultipartFile part = bound.get().getFile("file");
+        assertThat(part.getOriginalFilename()).isEqualTo("document.pdf");
+        assertThat(part.getContentType()).isEqualTo("application/pdf");
+        assertThat(part.getSize()).isEqualTo(file.length);
+        assertThat(content.get()).isEqualTo(file);
+        // Parts nobody took over are removed once the request completes.
+        assertThat(spooledFiles()).isEmpty();
+    }
+
+    @Test
+    void spoolsFilePartsByRename() throws Exception {
+        Path target = spoolDirectory.resolve("owned.part");
+        FilterChain chain = (request, response) ->
+            ((MultipartHttpServletRequest) request).getFile("file").transferTo(target.toFile());
+
+        filter.doFilter(
+            request(body(casePart(VALID_CASE), filePart(new byte[1000])), 4096),
+            new MockHttpServletResponse(),
+            chain
+        );
+
+        assertThat(Files.size(target)).isEqualTo(1000);
+        assertThat(spooledFiles()).containsExactly(target);
+    }
+
+    @Test
+    void rejectsInvalidCaseDetailsSentAsAFile() throws Exception {
+        byte[] file = new byte[4 * 1024 * 1024];
+        CountingRequest request = request(body(caseFilePart(BLANK_CASE), filePart(file)), 8192);
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        assertThat(chain.getRequest()).isNull();
+        assertThat(resolved).isInstanceOf(BindException.class);
+        assertThat(request.bytesRead).isLessThan(64 * 1024);
+        assertThat(spooledFiles()).isEmpty();
+    }
+
+    @Test
+    void keepsValidCaseDetailsSentAsAFileAsAFile() throws Exception {
+        AtomicReference<byte[]> content = new AtomicReference<>();
+        FilterChain chain = (request, response) ->
+            content.set(((MultipartHttpServletRequest) request).getFile("case").getBytes());
+
+        filter.doFilter(
+            request(body(caseFilePart(VALID_CASE), filePart(new byte[10])), 4096),
+            new MockHttpServletResponse(),
+            chain
+        );
+
+        assertThat(resolved).isNull();
+        assertThat(new String(content.get(), StandardCharsets.UTF_8)).isEqualTo(VALID_CASE);
+    }
+
+    @Test
+    void stillRejectsCaseDetailsSentAfterTheFile() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(
+            request(body(filePart(new byte[10_000]), casePart(BLANK_CASE)), 4096),
+            new MockHttpServletResponse(),
+            chain
+        );
+
+        assertThat(chain.getRequest()).isNull();
+        assertThat(resolved).isInstanceOf(BindException.class);
+        assertThat(spooledFiles()).isEmpty();
+    }
+
+    @Test
+    void appliesTheMultipartFileSizeLimit() throws Exception {
+        multipartConfig.put("multipartConfigElement", new MultipartConfigElement(null, 1024, -1, 0));
+
+        filter.doFilter(
+            request(body(casePart(VALID_CASE), filePart(new byte[4096])), 4096),
+            new MockHttpServletResponse(),
+            new MockFilterChain()
+        );
+
+        assertThat(resolved).isInstanceOf(MaxUploadSizeExceededException.class);
+        assertThat(spooledFiles()).isEmpty();
+    }
+
+    @Test
+    void leavesRequestsAloneWhenDisabled() throws Exception {
+        properties.setOrderedParts(false);
+        CountingRequest request = request(body(casePart(BLANK_CASE), filePart(new byte[10])), 4096);
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        assertThat(chain.getRequest()).isSameAs(request);
+        assertThat(request.bytesRead).isZero();
+    }
+
+    private CountingRequest request(byte[] body, int chunkSize) {
+        CountingRequest request = new CountingRequest(body, chunkSize);
+        request.setMethod("POST");
+        request.setRequestURI("/documents/probate");
+        request.setContentType("multipart/form-data; boundary=\"" + BOUNDARY + "\"");
+        return request;
+    }
+
+    private static byte[] casePart(String json) {
+        return ("Content-Disposition: form-data; name=\"case\"\r\n"
+            + "Content-Type: application/json\r\n\r\n" + json).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] caseFilePart(String json) {
+        return ("Content-Disposition: form-data; name=\"case\"; filename=\"case.json\"\r\n"
+            + "Content-Type: application/json\r\n\r\n" + json).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] filePart(byte[] content) {
+        byte[] headers = ("Content-Disposition: form-data; name=\"file\"; filename=\"document.pdf\"\r\n"
+            + "Content-Type: application/pdf\r\n\r\n").getBytes(StandardCharsets.UTF_8);
+        byte[] part = Arrays.copyOf(headers, headers.length + content.length);
+        System.arraycopy(content, 0, part, headers.length, content.length);
+        return part;
+    }
+
+    private static byte[] body(byte[]... parts) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        body.write("preamble to ignore\r\n".getBytes(StandardCharsets.UTF_8));
+        for (byte[] part : parts) {
+            body.write(("--" + BOUNDARY + "\r\n").getBytes(StandardCharsets.UTF_8));
+            body.write(part);
+            body.write("\r\n".getBytes(StandardCharsets.UTF_8));
+        }
+        body.write(("--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.UTF_8));
+        return body.toByteArray();
+    }
+
+    private List<Path> spooledFiles() throws IOException {
+        try (Stream<Path> files = Files.list(spoolDirectory)) {
+            return files.toList();
+        }
+    }
+
+    /**
+     * Hands the body over in small reads and counts how much of it was consumed.
+     */
+    private static final class CountingRequest extends MockHttpServletRequest {
+        private final byte[] body;
+        private final int chunkSize;
+        private long bytesRead;
+
+        private CountingRequest(byte[] body, int chunkSize) {
+            this.body = body;
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            InputStream chunked = new FilterInputStream(new ByteArrayInputStream(body)) {
+                @Override
+                public int read(byte[] buffer, int offset, int length) throws IOException {
+                    int read = super.read(buffer, offset, Math.min(length, chunkSize));
+                    if (read > 0) {
+                        bytesRead += read;
+                    }
+                    return read;
+                }
+            };
+            return new DelegatingServletInputStream(chunked);
+        }
+    }
+}
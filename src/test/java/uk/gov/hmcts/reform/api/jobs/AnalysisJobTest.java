@@ -0,0 +1,91 @@
+package uk.gov.hmcts.reform.api.jobs;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AnalysisJobTest {
+
+    private final ExecutorService events = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void teardown() {
+        events.shutdownNow();
+    }
+
+    @Test
+    void publishesWithoutWaitingForSlowSubscribers() throws InterruptedException {
+        AnalysisJob job = new AnalysisJob("job", "bundle.pdf", Instant.now(), events);
+        job.publish(new PartialResult(1, 10, "{}"));
+        RecordingEmitter slow = new RecordingEmitter(new CountDownLatch(1));
+        job.subscribe(slow);
+
+        job.publish(new PartialResult(11, 20, "{}"));
+        job.complete();
+        assertThat(job.getStatus()).isEqualTo(JobStatus.COMPLETED);
+        assertThat(slow.events).isEmpty();
+
+        slow.release.countDown();
+        assertThat(slow.completed.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(slow.events).containsExactly(
+            AnalysisJob.PARTIAL_EVENT, AnalysisJob.PARTIAL_EVENT, AnalysisJob.COMPLETED_EVENT
+        );
+    }
+
+    @Test
+    void replaysFinishedJobsToLateSubscribers() throws InterruptedException {
+        AnalysisJob job = new AnalysisJob("job", "bundle.pdf", Instant.now(), events);
+        job.publish(new PartialResult(1, 10, "{}"));
+        job.fail("Document analysis failed.");
+        RecordingEmitter late = new RecordingEmitter(new CountDownLatch(0));
+
+        job.subscribe(late);
+
+        assertThat(late.completed.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(late.events).containsExactly(AnalysisJob.PARTIAL_EVENT, AnalysisJob.FAILED_EVENT);
+    }
+
+    /**
+     * Records event names, holding every send until {@code release} opens, as a client on a slow link would.
+     */
+    private static final class RecordingEmitter extends SseEmitter {
+        private final CountDownLatch release;
+        private final CountDownLatch completed = new CountDownLatch(1);
+        private final List<String> events = new CopyOnWriteArrayList<>();
+
+        RecordingEmitter(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            try {
+                release.await();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IOException(ex);
+            }
+            String event = builder.build().stream()
+                .map(part -> String.valueOf(part.getData()))
+                .collect(Collectors.joining());
+            events.add(event.substring("event:".length(), event.indexOf('\n')));
+        }
+
+        @Override
+        public void complete() {
+            completed.countDown();
+        }
+    }
+}
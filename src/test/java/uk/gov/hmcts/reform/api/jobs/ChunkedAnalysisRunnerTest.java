@@ -0,0 +1,191 @@
+package uk.gov.hmcts.reform.api.jobs;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import uk.gov.hmcts.reform.api.admission.AdmissionController;
+import uk.gov.hmcts.reform.api.admission.Reservation;
+import uk.gov.hmcts.reform.api.buffers.BufferPool;
+import uk.gov.hmcts.reform.api.config.AdmissionProperties;
+import uk.gov.hmcts.reform.api.config.BufferPoolProperties;
+import uk.gov.hmcts.reform.api.config.JobProperties;
+import uk.gov.hmcts.reform.api.config.NormalisationProperties;
+import uk.gov.hmcts.reform.api.distribution.AnalysisDistributor;
+import uk.gov.hmcts.reform.api.errorhandling.exceptions.AnalysisFailedException;
+import uk.gov.hmcts.reform.api.imaging.DocumentNormaliser;
+import uk.gov.hmcts.reform.api.intake.SpooledDocument;
+import uk.gov.hmcts.reform.api.notifications.JobNotification;
+import uk.gov.hmcts.reform.api.notifications.WebhookDispatcher;
+import uk.gov.hmcts.reform.api.services.AnalysisResult;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ChunkedAnalysisRunnerTest {
+
+    @TempDir
+    Path directory;
+
+    private AnalysisDistributor distributor;
+    private DocumentNormaliser normaliser;
+    private WebhookDispatcher webhooks;
+    private AnalysisJobRegistry registry;
+    private AdmissionController admissionController;
+    private SimpleMeterRegistry meterRegistry;
+    private ChunkedAnalysisRunner runner;
+
+    @BeforeEach
+    void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        final JobProperties properties = new JobProperties();
+        final BufferPool bufferPool = new BufferPool(new BufferPoolProperties(), meterRegistry);
+        distributor = mock(AnalysisDistributor.class);
+        when(distributor.analyse(any(), anyString(), any()))
+            .thenAnswer(invocation -> new AnalysisResult("model", "{\"pages\":\"" + invocation.getArgument(2) + "\"}"));
+        AdmissionProperties admissionProperties = new AdmissionProperties();
+        admissionProperties.setMaxQueueWait(Duration.ofMillis(100));
+        admissionController = new AdmissionController(admissionProperties, meterRegistry);
+        normaliser = new DocumentNormaliser(
+            new NormalisationProperties(),
+            admissionController,
+            bufferPool,
+            meterRegistry
+        );
+        webhooks = mock(WebhookDispatcher.class);
+        registry = new AnalysisJobRegistry(properties, meterRegistry);
+        runner = new ChunkedAnalysisRunner(
+            properties,
+            registry,
+            distributor,
+            normaliser,
+            bufferPool,
+            webhooks,
+            new QueuedPayloadStore(properties, meterRegistry),
+            admissionController
+        );
+    }
+
+    @AfterEach
+    void teardown() {
+        runner.destroy();
+        registry.destroy();
+        normaliser.destroy();
+    }
+
+    @Test
+    void publishesEachPageRange() throws IOException, InterruptedException {
+        SpooledDocument document = spool("bundle.pdf", pdf(10));
+
+        AnalysisJob job = awaitFinished(runner.start(document, "model", null));
+
+        assertThat(job.getStatus()).isEqualTo(JobStatus.COMPLETED);
+        assertThat(job.getPageCount()).isEqualTo(10);
+        assertThat(job.getResults())
+            .extracting(PartialResult::getResultJson)
+            .containsExactlyInAnyOrder("{\"pages\":\"1-4\"}", "{\"pages\":\"5-8\"}", "{\"pages\":\"9-10\"}");
+        assertThat(Files.exists(document.getPath())).isFalse();
+        verify(webhooks, never()).notify(any(), any());
+    }
+
+    @Test
+    void analysesSinglePageImageWhole() throws IOException, InterruptedException {
+        BufferedImage image = new BufferedImage(100, 100, BufferedImage.TYPE_INT_RGB);
+        Path path = directory.resolve("scan.png");
+        ImageIO.write(image, "png", path.toFile());
+        SpooledDocument document = new SpooledDocument(path, "scan.png", "image/png");
+
+        AnalysisJob job = awaitFinished(runner.start(document, "model", null));
+
+        assertThat(job.getStatus()).isEqualTo(JobStatus.COMPLETED);
+        assertThat(job.getResults()).containsExactly(new PartialResult(1, 1, "{\"pages\":\"null\"}"));
+        verify(distributor).analyse(any(), eq("model"), isNull());
+    }
+
+    @Test
+    void failsJobWhenRangeFails() throws IOException, InterruptedException {
+        when(distributor.analyse(any(), anyString(), eq("5-8")))
+            .thenThrow(new AnalysisFailedException("Document analysis failed."));
+
+        AnalysisJob job = awaitFinished(runner.start(spool("bundle.pdf", pdf(10)), "model", null));
+
+        assertThat(job.getStatus()).isEqualTo(JobStatus.FAILED);
+        assertThat(job.getError()).isEqualTo("Document analysis failed.");
+        assertThat(job.getResults()).extracting(PartialResult::getFirstPage).doesNotContain(5);
+    }
+
+    @Test
+    void notifiesCallbackWhenFinished() throws IOException, InterruptedException {
+        AnalysisJob job = awaitFinished(runner.start(spool("bundle.pdf", pdf(2)), "model", "https://callback/jobs"));
+
+        // The webhook is queued just after the job finishes, so allow for the runner thread to get there.
+        verify(webhooks, timeout(1000)).notify(eq("https://callback/jobs"), argThat((JobNotification notification) ->
+            notification.getJobId().equals(job.getId()) && "COMPLETED".equals(notification.getStatus())
+        ));
+    }
+
+    @Test
+    void normalisesWithinTheMemoryBudget() throws IOException, InterruptedException {
+        try (Reservation everything = admissionController.admit(Long.MAX_VALUE / 64)) {
+            AnalysisJob job = awaitFinished(runner.start(spool("busy.pdf", pdf(2)), "model", null));
+
+            assertThat(job.getStatus()).isEqualTo(JobStatus.FAILED);
+        }
+
+        AnalysisJob job = awaitFinished(runner.start(spool("bundle.pdf", pdf(2)), "model", null));
+
+        assertThat(job.getStatus()).isEqualTo(JobStatus.COMPLETED);
+        assertThat(meterRegistry.get("documents.admission.budget.reserved").gauge().value()).isZero();
+    }
+
+    @Test
+    void splitsPagesIntoRanges() {
+        assertThat(PageRange.split(10, 4)).extracting(PageRange::toString).containsExactly("1-4", "5-8", "9-10");
+        assertThat(PageRange.split(9, 4)).extracting(PageRange::toString).containsExactly("1-4", "5-8", "9");
+        assertThat(PageRange.split(1, 4)).extracting(PageRange::toString).containsExactly("1");
+    }
+
+    private SpooledDocument spool(String name, byte[] content) throws IOException {
+        Path path = Files.write(directory.resolve(name), content);
+        return new SpooledDocument(path, name, null);
+    }
+
+    private static byte[] pdf(int pages) throws IOException {
+        try (PDDocument document = new PDDocument();
+             ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            for (int i = 0; i < pages; i++) {
+                document.addPage(new PDPage());
+            }
+            document.save(out);
+            return out.toByteArray();
+        }
+    }
+
+    private static AnalysisJob awaitFinished(AnalysisJob job) throws InterruptedException {
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (job.getStatus() == JobStatus.RUNNING && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        return job;
+    }
+}
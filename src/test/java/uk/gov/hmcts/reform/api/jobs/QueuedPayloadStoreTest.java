@@ -0,0 +1,162 @@
+package uk.gov.hmcts.reform.api.jobs;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+import uk.gov.hmcts.reform.api.config.JobProperties;
+import uk.gov.hmcts.reform.api.errorhandling.exceptions.CapacityExceededException;
+import uk.gov.hmcts.reform.api.intake.SpooledDocument;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class QueuedPayloadStoreTest {
+
+    private static final byte[] TIFF_HEADER = {'I', 'I', 42, 0};
+    private static final byte[] PNG_HEADER = {(byte) 0x89, 'P', 'N', 'G'};
+    private static final byte[] JPEG_HEADER = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xE0};
+
+    @TempDir
+    Path directory;
+
+    private final JobProperties properties = new JobProperties();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<Runnable> compressions = new ArrayList<>();
+    private QueuedPayloadStore store;
+
+    @BeforeEach
+    void setup() {
+        properties.getQueuedPayloads().setCompress(true);
+        properties.getQueuedPayloads().setCompressAbove(DataSize.ofBytes(0));
+        store = new QueuedPayloadStore(properties, meterRegistry, compressions::add);
+    }
+
+    @Test
+    void compressesScansQueuedBehindOthers() throws IOException {
+        final QueuedPayloadStore.QueuedPayload first = store.hold(spool("first.tif", scan(TIFF_HEADER)));
+        byte[] content = scan(TIFF_HEADER);
+        QueuedPayloadStore.QueuedPayload second = store.hold(spool("second.tif", content));
+
+        // Accepted as spooled; the compression waits for the background thread.
+        assertThat(second.isCompressed()).isFalse();
+        assertThat(store.getQueuedBytes()).isEqualTo(2L * content.length);
+        runCompressions();
+
+        assertThat(first.isCompressed()).isFalse();
+        assertThat(second.isCompressed()).isTrue();
+        assertThat(store.getQueuedBytes()).isLessThan(2L * content.length);
+        assertThat(meterRegistry.get(QueuedPayloadStore.COMPRESSED_METRIC).counter().count()).isEqualTo(1);
+
+        try (SpooledDocument released = store.release(second)) {
+            assertThat(Files.readAllBytes(released.getPath())).isEqualTo(content);
+            assertThat(released.getOriginalFilename()).isEqualTo("second.tif");
+            assertThat(released.getContentType()).isEqualTo("image/tiff");
+        }
+        store.discard(first);
+        assertThat(store.getQueuedBytes()).isZero();
+        assertThat(files()).isEmpty();
+    }
+
+    @Test
+    void leavesAJobThatStartedBeforeItsCompressionAlone() throws IOException {
+        store.hold(spool("first.tif", scan(TIFF_HEADER)));
+        SpooledDocument second = spool("second.tif", scan(TIFF_HEADER));
+        QueuedPayloadStore.QueuedPayload queued = store.hold(second);
+
+        assertThat(store.release(queued)).isSameAs(second);
+        runCompressions();
+
+        assertThat(queued.isCompressed()).isFalse();
+        assertThat(Files.exists(second.getPath())).isTrue();
+        assertThat(meterRegistry.get(QueuedPayloadStore.COMPRESSED_METRIC).counter().count()).isZero();
+        assertThat(files()).hasSize(2);
+    }
+
+    @Test
+    void keepsDocumentsThatDoNotShrink() throws IOException {
+        store.hold(spool("first.tif", scan(TIFF_HEADER)));
+        SpooledDocument noise = spool("noise.tif", noise(TIFF_HEADER));
+        SpooledDocument photo = spool("photo.jpg", scan(JPEG_HEADER));
+        SpooledDocument png = spool("page.png", scan(PNG_HEADER));
+
+        QueuedPayloadStore.QueuedPayload queuedNoise = store.hold(noise);
+        QueuedPayloadStore.QueuedPayload queuedPhoto = store.hold(photo);
+        // Deflated already, so not worth a second pass however well this one would shrink.
+        final QueuedPayloadStore.QueuedPayload queuedPng = store.hold(png);
+        runCompressions();
+
+        assertThat(queuedNoise.isCompressed()).isFalse();
+        assertThat(queuedPhoto.isCompressed()).isFalse();
+        assertThat(queuedPng.isCompressed()).isFalse();
+        assertThat(store.release(queuedPhoto)).isSameAs(photo);
+    }
+
+    @Test
+    void leavesDocumentsAloneBelowTheWatermark() throws IOException {
+        properties.getQueuedPayloads().setCompressAbove(DataSize.ofMegabytes(1));
+
+        store.hold(spool("first.tif", scan(TIFF_HEADER)));
+        QueuedPayloadStore.QueuedPayload second = store.hold(spool("second.tif", scan(TIFF_HEADER)));
+
+        assertThat(compressions).isEmpty();
+        assertThat(second.isCompressed()).isFalse();
+    }
+
+    @Test
+    void turnsDocumentsAwayPastTheLimit() throws IOException {
+        properties.getQueuedPayloads().setCompress(false);
+        properties.getQueuedPayloads().setMaxBytes(DataSize.ofBytes(300_000));
+        store.hold(spool("first.tif", scan(TIFF_HEADER)));
+        SpooledDocument second = spool("second.tif", scan(TIFF_HEADER));
+
+        assertThatThrownBy(() -> store.hold(second)).isInstanceOf(CapacityExceededException.class);
+        assertThat(Files.exists(second.getPath())).isFalse();
+        assertThat(store.getQueuedBytes()).isEqualTo(200_000);
+    }
+
+    private void runCompressions() {
+        compressions.forEach(Runnable::run);
+        compressions.clear();
+    }
+
+    private SpooledDocument spool(String name, byte[] content) throws IOException {
+        Path path = Files.write(directory.resolve(name), content);
+        String contentType = name.endsWith(".tif") ? "image/tiff" : name.endsWith(".png") ? "image/png" : "image/jpeg";
+        return new SpooledDocument(path, name, contentType);
+    }
+
+    /**
+     * Mostly white rows with some ink, as an uncompressed scan stores them.
+     */
+    private static byte[] scan(byte[] header) {
+        byte[] content = new byte[200_000];
+        System.arraycopy(header, 0, content, 0, header.length);
+        for (int i = header.length; i < content.length; i++) {
+            content[i] = (byte) (i % 997 < 40 ? 0 : 0xFF);
+        }
+        return content;
+    }
+
+    private static byte[] noise(byte[] header) {
+        byte[] content = new byte[200_000];
+        new Random(1).nextBytes(content);
+        System.arraycopy(header, 0, content, 0, header.length);
+        return content;
+    }
+
+    private List<Path> files() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.toList();
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package uk.gov.hmcts.reform.api.notifications;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import tools.jackson.databind.json.JsonMapper;
+import uk.gov.hmcts.reform.api.config.WebhookProperties;
+import uk.gov.hmcts.reform.api.errorhandling.exceptions.InvalidCallbackException;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class WebhookDispatcherTest {
+
+    private static final String SECRET = "test-secret";
+    private static final Instant FINISHED_AT = Instant.parse("2025-01-01T00:00:00Z");
+
+    @TempDir
+    Path directory;
+
+    private HttpServer sink;
+    private final List<Received> received = new CopyOnWriteArrayList<>();
+    private final AtomicInteger failuresToSend = new AtomicInteger();
+    private SimpleMeterRegistry meterRegistry;
+    private WebhookProperties properties;
+    private WebhookDispatcher dispatcher;
+
+    @BeforeEach
+    void setup() throws IOException {
+        sink = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        sink.createContext("/hooks", this::receive);
+        sink.start();
+
+        meterRegistry = new SimpleMeterRegistry();
+        properties = new WebhookProperties();
+        properties.setEnabled(true);
+        properties.setSigningSecret(SECRET);
+        properties.setAllowedDestinations(List.of(url()));
+        properties.setQueueDirectory(directory.toString());
+        properties.setBatchWindow(Duration.ofMillis(100));
+        properties.setInitialBackoff(Duration.ofMillis(10));
+        properties.setMaxBackoff(Duration.ofMillis(20));
+    }
+
+    @AfterEach
+    void teardown() {
+        if (dispatcher != null) {
+            dispatcher.stop();
+        }
+        sink.stop(0);
+    }
+
+    @Test
+    void sendsNotificationsForOneDestinationTogether() throws Exception {
+        start();
+
+        dispatcher.notify(url(), notification("job-1"));
+        dispatcher.notify(url(), notification("job-2"));
+
+        awaitRequests(1);
+        assertThat(received).hasSize(1);
+        Received request = received.getFirst();
+        assertThat(request.body).contains("\"jobId\":\"job-1\"", "\"jobId\":\"job-2\"");
+        assertThat(request.signature)
+            .isEqualTo(new WebhookSigner(SECRET).sign(Long.parseLong(request.timestamp), request.body));
+        awaitQuiet();
+        assertThat(meterRegistry.get(WebhookDispatcher.LATENCY_METRIC).timer().count()).isEqualTo(1);
+        assertThat(new WebhookRetryStore(directory).loadPending()).isEmpty();
+    }
+
+    @Test
+    void sendsFullBatchWithoutWaiting() throws Exception {
+        properties.setMaxBatchSize(2);
+        properties.setBatchWindow(Duration.ofMinutes(1));
+        start();
+
+        dispatcher.notify(url(), notification("job-1"));
+        dispatcher.notify(url(), notification("job-2"));
+
+        awaitRequests(1);
+        assertThat(received).hasSize(1);
+    }
+
+    @Test
+    void retriesWithSameIdUntilDelivered() throws Exception {
+        failuresToSend.set(2);
+        start();
+
+        dispatcher.notify(url(), notification("job-1"));
+
+        awaitRequests(3);
+        assertThat(received).extracting(request -> request.id).containsOnly(received.getFirst().id);
+        assertThat(received.getLast().status).isEqualTo(204);
+    }
+
+    @Test
+    void deadLettersAfterMaxAttempts() throws Exception {
+        failuresToSend.set(Integer.MAX_VALUE);
+        properties.setMaxAttempts(2);
+        start();
+
+        dispatcher.notify(url(), notification("job-1"));
+
+        awaitRequests(2);
+        WebhookRetryStore store = new WebhookRetryStore(directory);
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (store.loadDeadLettered().isEmpty() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(store.loadDeadLettered()).singleElement()
+            .satisfies(batch -> assertThat(batch.getBody()).contains("job-1"));
+        assertThat(store.loadPending()).isEmpty();
+        assertThat(meterRegistry.get(WebhookDispatcher.DEAD_LETTERED_METRIC).counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void resumesPersistedBatchesOnStart() throws Exception {
+        new WebhookRetryStore(directory).save(new WebhookBatch("left-over", url(), "{}", 1, 0, 3));
+
+        start();
+
+        awaitRequests(1);
+        assertThat(received.getFirst().id).isEqualTo("left-over");
+    }
+
+    @Test
+    void keepsNotificationsStillInTheirWindowForTheNextStart() throws Exception {
+        properties.setBatchWindow(Duration.ofMinutes(1));
+        start();
+        dispatcher.notify(url(), notification("job-1"));
+
+        dispatcher.stop();
+        dispatcher.notify(url(), notification("job-2"));
+
+        assertThat(received).isEmpty();
+        assertThat(new WebhookRetryStore(directory).loadPending())
+            .extracting(WebhookBatch::getBody)
+            .containsExactlyInAnyOrder(
+                "{\"notifications\":[" + json(notification("job-1")) + "]}",
+                "{\"notifications\":[" + json(notification("job-2")) + "]}"
+            );
+
+        start();
+
+        awaitRequests(2);
+        assertThat(received).extracting(request -> request.body).allSatisfy(body -> assertThat(body)
+            .contains("\"status\":\"COMPLETED\"", "\"finishedAt\":\"2025-01-01T00:00:00Z\"")
+            .doesNotContain("error"));
+    }
+
+    @Test
+    void rejectsDestinationsOutsideAllowList() {
+        start();
+
+        assertThatThrownBy(() -> dispatcher.checkDestination("https://elsewhere.example/hooks"))
+            .isInstanceOf(InvalidCallbackException.class);
+        assertThatThrownBy(() -> dispatcher.checkDestination("file:///etc/passwd"))
+            .isInstanceOf(InvalidCallbackException.class);
+        dispatcher.checkDestination(url() + "/tenant-a");
+    }
+
+    @Test
+    void rejectsDestinationsThatOnlyShareAStringPrefix() {
+        properties.setAllowedDestinations(List.of("https://hooks.example.gov.uk/jobs"));
+        start();
+
+        for (String destination : List.of(
+            "https://hooks.example.gov.uk.attacker.net/jobs",
+            "https://hooks.example.gov.uk@attacker.net/jobs",
+            "https://hooks.example.gov.uk:8443/jobs",
+            "http://hooks.example.gov.uk/jobs",
+            "https://hooks.example.gov.uk/jobs-admin",
+            "https://hooks.example.gov.uk/jobs/../admin"
+        )) {
+            assertThatThrownBy(() -> dispatcher.checkDestination(destination))
+                .as(destination)
+                .isInstanceOf(InvalidCallbackException.class);
+        }
+        dispatcher.checkDestination("https://hooks.example.gov.uk/jobs");
+        dispatcher.checkDestination("https://HOOKS.example.gov.uk:443/jobs/tenant-a?case=1");
+    }
+
+    private void start() {
+        dispatcher = new WebhookDispatcher(properties, meterRegistry, JsonMapper.builder().build());
+        dispatcher.start();
+    }
+
+    private void receive(HttpExchange exchange) throws IOException {
+        String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+        int status = failuresToSend.getAndDecrement() > 0 ? 500 : 204;
+        received.add(new Received(
+            exchange.getRequestHeaders().getFirst(WebhookDispatcher.ID_HEADER),
+            exchange.getRequestHeaders().getFirst(WebhookDispatcher.TIMESTAMP_HEADER),
+            exchange.getRequestHeaders().getFirst(WebhookDispatcher.SIGNATURE_HEADER),
+            body,
+            status
+        ));
+        exchange.sendResponseHeaders(status, -1);
+        exchange.close();
+    }
+
+    private String url() {
+        return "http://127.0.0.1:" + sink.getAddress().getPort() + "/hooks";
+    }
+
+    private void awaitRequests(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (received.size() < count && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(received).hasSizeGreaterThanOrEqualTo(count);
+    }
+
+    /**
+     * The sink records a request before answering it, so give the dispatcher time to see the answer.
+     */
+    private void awaitQuiet() throws InterruptedException {
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (meterRegistry.get("documents.webhooks.queued").gauge().value() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private static JobNotification notification(String jobId) {
+        return new JobNotification(jobId, "COMPLETED", "bundle.pdf", 4, null, FINISHED_AT);
+    }
+
+    private static String json(JobNotification notification) {
+        return JsonMapper.builder().build().writeValueAsString(notification);
+    }
+
+    private static final class Received {
+        private final String id;
+        private final String timestamp;
+        private final String signature;
+        private final String body;
+        private final int status;
+
+        Received(String id, String timestamp, String signature, String body, int status) {
+            this.id = id;
+            this.timestamp = timestamp;
+            this.signature = signature;
+            this.body = body;
+            this.status = status;
+        }
+    }
+}
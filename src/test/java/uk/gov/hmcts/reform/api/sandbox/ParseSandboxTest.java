@@ -0,0 +1,156 @@
+package uk.gov.hmcts.reform.api.sandbox;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+import uk.gov.hmcts.reform.api.config.ParseSandboxProperties;
+import uk.gov.hmcts.reform.api.errorhandling.exceptions.CapacityExceededException;
+import uk.gov.hmcts.reform.api.errorhandling.exceptions.InvalidFileException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ParseSandboxTest {
+
+    private ParseSandboxProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private ParseSandbox sandbox;
+
+    @BeforeEach
+    void setup() {
+        properties = new ParseSandboxProperties();
+        properties.setThreads(2);
+        properties.setCheckInterval(Duration.ofMillis(10));
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (sandbox != null) {
+            sandbox.destroy();
+        }
+    }
+
+    @Test
+    void returnsTheParseResultOnASandboxThread() {
+        sandbox = new ParseSandbox(properties, meterRegistry);
+
+        String thread = sandbox.run(() -> Thread.currentThread().getName());
+
+        assertThat(thread).startsWith("parse-sandbox-");
+    }
+
+    @Test
+    void passesParserRejectionsThrough() {
+        sandbox = new ParseSandbox(properties, meterRegistry);
+
+        assertThatThrownBy(() -> sandbox.run(() -> {
+            throw new InvalidFileException("Invalid PDF file.");
+        })).isInstanceOf(InvalidFileException.class).hasMessage("Invalid PDF file.");
+        assertThat(abortedCount(ParseSandbox.DEADLINE)).isZero();
+    }
+
+    @Test
+    void abortsParsePastItsDeadline() {
+        properties.setDeadline(Duration.ofMillis(100));
+        sandbox = new ParseSandbox(properties, meterRegistry);
+
+        assertThatThrownBy(() -> sandbox.run(() -> {
+            Thread.sleep(10_000);
+            return true;
+        })).isInstanceOf(InvalidFileException.class).hasMessageContaining("resource limits");
+        assertThat(abortedCount(ParseSandbox.DEADLINE)).isEqualTo(1);
+    }
+
+    @Test
+    void abortsParseOverItsCpuBudgetAtNextCheckpoint() {
+        properties.setCpuBudget(Duration.ofMillis(50));
+        sandbox = new ParseSandbox(properties, meterRegistry);
+
+        assertThatThrownBy(() -> sandbox.run(() -> {
+            long spins = 0;
+            while (true) {
+                ParseBudget.checkpoint();
+                spins++;
+                if (spins < 0) {
+                    return spins;
+                }
+            }
+        })).isInstanceOf(InvalidFileException.class).hasMessageContaining("resource limits");
+        assertThat(abortedCount(ParseSandbox.CPU)).isEqualTo(1);
+    }
+
+    @Test
+    void abortsParseOverItsAllocationBudget() {
+        properties.setAllocationBudget(DataSize.ofMegabytes(32));
+        sandbox = new ParseSandbox(properties, meterRegistry);
+
+        assertThatThrownBy(() -> sandbox.run(() -> {
+            List<byte[]> retained = new ArrayList<>();
+            while (true) {
+                ParseBudget.checkpoint();
+                retained.add(new byte[1024 * 1024]);
+                if (retained.size() > 64) {
+                    retained.clear();
+                }
+            }
+        })).isInstanceOf(InvalidFileException.class).hasMessageContaining("resource limits");
+        assertThat(abortedCount(ParseSandbox.ALLOCATION)).isEqualTo(1);
+    }
+
+    @Test
+    void rejectsDeeplyNestedInputThatOverflowsTheStack() {
+        sandbox = new ParseSandbox(properties, meterRegistry);
+
+        assertThatThrownBy(() -> sandbox.run(() -> recurse(0)))
+            .isInstanceOf(InvalidFileException.class)
+            .hasMessageContaining("resource limits");
+        assertThat(abortedCount(ParseSandbox.STACK)).isEqualTo(1);
+    }
+
+    @Test
+    void turnsAwayParsesWhenEveryThreadIsBusy() throws Exception {
+        properties.setThreads(1);
+        properties.setQueueCapacity(0);
+        sandbox = new ParseSandbox(properties, meterRegistry);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        final CompletableFuture<Boolean> busy = CompletableFuture.supplyAsync(() -> sandbox.run(() -> {
+            started.countDown();
+            return release.await(5, TimeUnit.SECONDS);
+        }));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThatThrownBy(() -> sandbox.run(() -> true)).isInstanceOf(CapacityExceededException.class);
+        assertThat(meterRegistry.get("documents.parsing.rejected").counter().count()).isEqualTo(1);
+
+        release.countDown();
+        assertThat(busy.get(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void runsOnCallingThreadWhenDisabled() {
+        properties.setEnabled(false);
+        sandbox = new ParseSandbox(properties, meterRegistry);
+
+        assertThat(sandbox.run(() -> Thread.currentThread().getName())).isEqualTo(Thread.currentThread().getName());
+    }
+
+    private double abortedCount(String reason) {
+        return meterRegistry.get(ParseSandbox.ABORTED_METRIC).tag("reason", reason).counter().count();
+    }
+
+    private static int recurse(int depth) {
+        return recurse(depth + 1) + 1;
+    }
+}
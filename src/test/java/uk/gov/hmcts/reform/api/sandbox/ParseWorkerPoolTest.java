@@ -0,0 +1,211 @@
+package uk.gov.hmcts.reform.api.sandbox;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+import uk.gov.hmcts.reform.api.config.ParseSandboxProperties;
+import uk.gov.hmcts.reform.api.errorhandling.exceptions.InvalidFileException;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ParseWorkerPoolTest {
+
+    @TempDir
+    private Path directory;
+
+    private ParseSandboxProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private ParseWorkerPool pool;
+
+    @BeforeEach
+    void setup() {
+        properties = new ParseSandboxProperties();
+        properties.getWorkers().setEnabled(true);
+        properties.getWorkers().setCount(1);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (pool != null) {
+            pool.stop();
+        }
+    }
+
+    @Test
+    void countsPdfPagesInAWorker() throws Exception {
+        startPool();
+
+        ParseReport report = pool.inspect(pdfRequest(pdf(3)));
+
+        assertThat(report.getRejection()).isNull();
+        assertThat(report.getPageCount()).isEqualTo(3);
+    }
+
+    @Test
+    void reportsUnreadablePdf() throws Exception {
+        startPool();
+        Path file = Files.write(directory.resolve("broken.pdf"), "%PDF-1.7 not really".getBytes());
+
+        ParseReport report = pool.inspect(pdfRequest(file));
+
+        assertThat(report.getRejection()).isEqualTo("Invalid or unreadable PDF.");
+    }
+
+    @Test
+    void scoresImageFramesInAWorker() throws Exception {
+        startPool();
+
+        ParseReport report = pool.inspect(imageRequest(png(800, 600), 10_000));
+
+        assertThat(report.getFrameCount()).isEqualTo(1);
+        assertThat(report.getFrames()).singleElement().satisfies(frame -> {
+            assertThat(frame.getWidth()).isEqualTo(800);
+            assertThat(frame.getHeight()).isEqualTo(600);
+            assertThat(frame.getScore()).isNotNull();
+        });
+    }
+
+    @Test
+    void skipsDecodingFramesOverTheDimensionLimit() throws Exception {
+        startPool();
+
+        ParseReport report = pool.inspect(imageRequest(png(800, 600), 500));
+
+        assertThat(report.getFrames()).singleElement().satisfies(frame -> assertThat(frame.getScore()).isNull());
+    }
+
+    @Test
+    void recyclesWorkerAfterMaxJobs() throws Exception {
+        properties.getWorkers().setMaxJobs(1);
+        startPool();
+        Path file = pdf(1);
+
+        pool.inspect(pdfRequest(file));
+        pool.inspect(pdfRequest(file));
+
+        assertThat(meterRegistry.get(ParseWorkerPool.RECYCLED_METRIC).counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("documents.parsing.workers.started").counter().count()).isGreaterThanOrEqualTo(2);
+    }
+
+    @Test
+    void replacesWorkerThatDiedWhileIdle() throws Exception {
+        startPool();
+        Path file = pdf(1);
+        pool.inspect(pdfRequest(file));
+
+        List<Long> workers = pool.idlePids();
+        assertThat(workers).hasSize(1);
+        ProcessHandle.of(workers.getFirst()).ifPresent(worker -> {
+            worker.destroyForcibly();
+            worker.onExit().join();
+        });
+
+        assertThat(pool.inspect(pdfRequest(file)).getPageCount()).isEqualTo(1);
+        assertThat(meterRegistry.get(ParseWorkerPool.CRASHED_METRIC).counter().count()).isZero();
+    }
+
+    @Test
+    void replacesWorkerThatDiedParsing() throws Exception {
+        properties.getWorkers().setMaxHeap(DataSize.ofMegabytes(32));
+        startPool();
+        // One 64 MB strip: the TIFF reader buffers the whole strip, which no 32 MB heap can hold.
+        Path file = uncompressedTiff(8000);
+
+        assertThatThrownBy(() -> pool.inspect(imageRequest(file, "image/tiff", 10_000)))
+            .isInstanceOf(InvalidFileException.class);
+
+        assertThat(meterRegistry.get(ParseWorkerPool.CRASHED_METRIC).counter().count()).isEqualTo(1);
+        assertThat(pool.inspect(pdfRequest(pdf(1))).getPageCount()).isEqualTo(1);
+        assertThat(meterRegistry.get("documents.parsing.workers.started").counter().count()).isEqualTo(2);
+    }
+
+    private void startPool() {
+        pool = new ParseWorkerPool(properties, meterRegistry);
+        pool.start();
+    }
+
+    private static ParseRequest pdfRequest(Path file) {
+        return new ParseRequest(file, "application/pdf", 0, 0, 0, 0, 0);
+    }
+
+    private static ParseRequest imageRequest(Path file, long maxDimension) {
+        return imageRequest(file, "image/png", maxDimension);
+    }
+
+    private static ParseRequest imageRequest(Path file, String mediaType, long maxDimension) {
+        return new ParseRequest(file, mediaType, 1, maxDimension, maxDimension * maxDimension, 256, 128);
+    }
+
+    private Path pdf(int pages) throws Exception {
+        Path file = directory.resolve("document-" + pages + ".pdf");
+        try (PDDocument document = new PDDocument()) {
+            for (int i = 0; i < pages; i++) {
+                document.addPage(new PDPage());
+            }
+            document.save(file.toFile());
+        }
+        return file;
+    }
+
+    /**
+     * A blank 8-bit greyscale TIFF of {@code side} by {@code side} pixels in a single uncompressed strip, written
+     * sparsely so it takes no space on disk.
+     */
+    private Path uncompressedTiff(int side) throws Exception {
+        int[][] tags = {
+            {256, 4, side}, {257, 4, side}, {258, 3, 8}, {259, 3, 1}, {262, 3, 1},
+            {273, 4, 0}, {277, 3, 1}, {278, 4, side}, {279, 4, side * side}
+        };
+        ByteBuffer header = ByteBuffer.allocate(8 + 2 + tags.length * 12 + 4).order(ByteOrder.LITTLE_ENDIAN);
+        tags[5][2] = header.capacity();
+        header.put((byte) 'I').put((byte) 'I').putShort((short) 42).putInt(8).putShort((short) tags.length);
+        for (int[] tag : tags) {
+            header.putShort((short) tag[0]).putShort((short) tag[1]).putInt(1);
+            if (tag[1] == 3) {
+                header.putShort((short) tag[2]).putShort((short) 0);
+            } else {
+                header.putInt(tag[2]);
+            }
+        }
+        header.putInt(0).flip();
+
+        Path file = directory.resolve("scan.tif");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            channel.write(header);
+            channel.write(ByteBuffer.wrap(new byte[1]), header.capacity() + (long) side * side - 1);
+        }
+        return file;
+    }
+
+    private Path png(int width, int height) throws Exception {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(Color.WHITE);
+        graphics.fillRect(0, 0, width, height);
+        graphics.setColor(Color.BLACK);
+        graphics.drawString("Certificate", 50, 50);
+        graphics.dispose();
+        Path file = directory.resolve("image.png");
+        ImageIO.write(image, "png", file.toFile());
+        return file;
+    }
+}
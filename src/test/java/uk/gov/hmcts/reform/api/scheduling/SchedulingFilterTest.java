@@ -0,0 +1,97 @@
+package uk.gov.hmcts.reform.api.scheduling;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.ModelAndView;
+import uk.gov.hmcts.reform.api.config.SchedulingProperties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SchedulingFilterTest {
+
+    private final WorkScheduler scheduler = mock(WorkScheduler.class);
+    private final WorkPermit permit = mock(WorkPermit.class);
+    private final SchedulingProperties properties = new SchedulingProperties();
+
+    @BeforeEach
+    void setup() {
+        when(scheduler.isEnabled()).thenReturn(true);
+        when(scheduler.acquire(anyString(), any())).thenReturn(permit);
+    }
+
+    @Test
+    void takesTheTenantFromTheCaseType() throws Exception {
+        MockFilterChain chain = run(post("/documents/divorce"));
+
+        verify(scheduler).acquire("divorce", Priority.INTERACTIVE);
+        verify(permit).close();
+        assertThat(chain.getRequest()).isNotNull();
+    }
+
+    @Test
+    void takesTheCaseTypeOfBundleUploads() throws Exception {
+        run(post("/documents/probate/bundle"));
+
+        verify(scheduler).acquire("probate", Priority.INTERACTIVE);
+    }
+
+    @Test
+    void ignoresTheHeadersOfUntrustedCallers() throws Exception {
+        properties.getTrustedCallers().add("10.0.0.0/8");
+        MockHttpServletRequest request = headed(post("/documents/divorce/bundle"));
+        request.setRemoteAddr("192.168.1.20");
+
+        run(request);
+
+        verify(scheduler).acquire("divorce", Priority.INTERACTIVE);
+    }
+
+    @Test
+    void prefersTheHeadersOfAuthenticatedCallers() throws Exception {
+        MockHttpServletRequest request = headed(post("/documents/divorce/bundle"));
+        request.setUserPrincipal(() -> "ccd_data");
+
+        run(request);
+
+        verify(scheduler).acquire("bulk", Priority.URGENT);
+    }
+
+    @Test
+    void prefersTheHeadersOfCallersInATrustedRange() throws Exception {
+        properties.getTrustedCallers().add("10.0.0.0/8");
+        properties.getTrustedCallers().add("::1");
+        MockHttpServletRequest request = headed(post("/documents/divorce/bundle"));
+        request.setRemoteAddr("10.24.1.7");
+
+        run(request);
+
+        verify(scheduler).acquire("bulk", Priority.URGENT);
+    }
+
+    private MockFilterChain run(MockHttpServletRequest request) throws Exception {
+        SchedulingFilter filter = new SchedulingFilter(
+            scheduler, properties, (req, response, handler, ex) -> new ModelAndView()
+        );
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+        return chain;
+    }
+
+    private static MockHttpServletRequest post(String uri) {
+        return new MockHttpServletRequest("POST", uri);
+    }
+
+    private static MockHttpServletRequest headed(MockHttpServletRequest request) {
+        request.addHeader(SchedulingFilter.TENANT_HEADER, " bulk ");
+        request.addHeader(SchedulingFilter.PRIORITY_HEADER, "urgent");
+        return request;
+    }
+}
@@ -0,0 +1,133 @@
+package uk.gov.hmcts.reform.api.scheduling;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import uk.gov.hmcts.reform.api.config.SchedulingProperties;
+import uk.gov.hmcts.reform.api.errorhandling.exceptions.CapacityExceededException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class WorkSchedulerTest {
+
+    private SchedulingProperties properties;
+    private WorkScheduler scheduler;
+    private final List<String> order = Collections.synchronizedList(new ArrayList<>());
+    private final List<Thread> threads = new ArrayList<>();
+
+    @BeforeEach
+    void setup() {
+        properties = new SchedulingProperties();
+        properties.setMaxConcurrent(1);
+        properties.setMaxQueueWait(Duration.ofSeconds(5));
+        properties.setAgingInterval(Duration.ofMinutes(1));
+        properties.setTenantWeights(Map.of("divorce", 4, "probate", 4, "bulk", 1));
+        scheduler = new WorkScheduler(properties, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void servesHigherPriorityFirst() throws InterruptedException {
+        final WorkPermit busy = scheduler.acquire("divorce", Priority.INTERACTIVE);
+        queue("bulk", Priority.BULK);
+        queue("divorce", Priority.INTERACTIVE);
+        queue("probate", Priority.URGENT);
+
+        busy.close();
+        joinAll();
+
+        assertThat(order).containsExactly("probate", "divorce", "bulk");
+    }
+
+    @Test
+    void sharesCapacityByTenantWeight() throws InterruptedException {
+        final WorkPermit busy = scheduler.acquire("divorce", Priority.INTERACTIVE);
+        queue("bulk", Priority.INTERACTIVE);
+        queue("bulk", Priority.INTERACTIVE);
+        for (int i = 0; i < 4; i++) {
+            queue("divorce", Priority.INTERACTIVE);
+        }
+
+        busy.close();
+        joinAll();
+
+        assertThat(order).containsExactly("divorce", "divorce", "divorce", "bulk", "divorce", "bulk");
+    }
+
+    @Test
+    void promotesRequestsThatHaveWaited() throws InterruptedException {
+        properties.setAgingInterval(Duration.ofMillis(100));
+        scheduler = new WorkScheduler(properties, new SimpleMeterRegistry());
+
+        final WorkPermit busy = scheduler.acquire("divorce", Priority.INTERACTIVE);
+        queue("bulk", Priority.BULK);
+        Thread.sleep(250);
+        queue("unlisted", Priority.URGENT);
+
+        busy.close();
+        joinAll();
+
+        assertThat(order).containsExactly("bulk", WorkScheduler.OTHER_TENANT);
+    }
+
+    @Test
+    void rejectsWhenQueueWaitExceeded() {
+        properties.setMaxQueueWait(Duration.ofMillis(50));
+        scheduler = new WorkScheduler(properties, new SimpleMeterRegistry());
+
+        try (WorkPermit busy = scheduler.acquire("divorce", Priority.INTERACTIVE)) {
+            assertThrows(CapacityExceededException.class, () -> scheduler.acquire("probate", Priority.URGENT));
+            assertThat(scheduler.getQueued(Priority.URGENT)).isZero();
+        }
+    }
+
+    @Test
+    void rejectsWhenQueueFull() {
+        properties.setMaxQueued(0);
+        scheduler = new WorkScheduler(properties, new SimpleMeterRegistry());
+
+        try (WorkPermit busy = scheduler.acquire("divorce", Priority.INTERACTIVE)) {
+            assertThrows(CapacityExceededException.class, () -> scheduler.acquire("probate", Priority.URGENT));
+        }
+    }
+
+    @Test
+    void foldsUnknownTenantsTogether() {
+        assertThat(scheduler.resolveTenant("divorce")).isEqualTo("divorce");
+        assertThat(scheduler.resolveTenant("someone-else")).isEqualTo(WorkScheduler.OTHER_TENANT);
+        assertThat(scheduler.resolveTenant(null)).isEqualTo(WorkScheduler.OTHER_TENANT);
+    }
+
+    private void queue(String tenant, Priority priority) throws InterruptedException {
+        int before = totalQueued();
+        Thread thread = new Thread(() -> {
+            try (WorkPermit permit = scheduler.acquire(tenant, priority)) {
+                order.add(scheduler.resolveTenant(tenant));
+            }
+        });
+        threads.add(thread);
+        thread.start();
+
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (totalQueued() == before && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    private int totalQueued() {
+        return Arrays.stream(Priority.values()).mapToInt(scheduler::getQueued).sum();
+    }
+
+    private void joinAll() throws InterruptedException {
+        for (Thread thread : threads) {
+            thread.join(5_000);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package uk.gov.hmcts.reform.api.validation.rules;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+import uk.gov.hmcts.reform.api.config.UploadValidationProperties;
+import uk.gov.hmcts.reform.api.errorhandling.exceptions.InvalidFileException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ValidationPipelineTest {
+
+    private final List<String> ran = new ArrayList<>();
+    private UploadValidationProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setup() {
+        properties = new UploadValidationProperties();
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void groupsRulesByCostKeepingRegistrationOrder() {
+        ValidationPipeline pipeline = pipeline(
+            rule("parse", RuleCost.PARSE, false),
+            rule("header-b", RuleCost.HEADER, false),
+            rule("declared", RuleCost.DECLARED, false),
+            rule("header-a", RuleCost.HEADER, false)
+        );
+
+        assertThat(pipeline.ruleNames(RuleCost.DECLARED)).containsExactly("declared");
+        assertThat(pipeline.ruleNames(RuleCost.HEADER)).containsExactly("header-b", "header-a");
+        assertThat(pipeline.ruleNames(RuleCost.DETECTION)).isEmpty();
+        assertThat(pipeline.ruleNames(RuleCost.PARSE)).containsExactly("parse");
+    }
+
+    @Test
+    void stopsAtFirstRejectionAndRecordsIt() {
+        ValidationPipeline pipeline = pipeline(
+            rule("first", RuleCost.HEADER, true),
+            rule("second", RuleCost.HEADER, false)
+        );
+
+        assertThatThrownBy(() -> pipeline.run(candidate(), RuleCost.HEADER)).isInstanceOf(InvalidFileException.class);
+        assertThat(ran).containsExactly("first");
+        assertThat(meterRegistry.get(ValidationPipeline.RULE_METRIC).tag("rule", "first").tag("outcome", "rejected")
+            .timer()
+            .count()).isEqualTo(1);
+    }
+
+    @Test
+    void skipsDisabledRules() {
+        properties.getRules().setDisabled(List.of("declared"));
+
+        ValidationPipeline pipeline = pipeline(rule("declared", RuleCost.DECLARED, true));
+        pipeline.run(candidate(), RuleCost.DECLARED);
+
+        assertThat(ran).isEmpty();
+    }
+
+    @Test
+    void refusesToDisableParserRules() {
+        properties.getRules().setDisabled(List.of("parse"));
+
+        assertThatThrownBy(() -> pipeline(rule("parse", RuleCost.PARSE, false)))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("cannot be disabled");
+    }
+
+    @Test
+    void refusesUnknownDisabledRule() {
+        properties.getRules().setDisabled(List.of("missing"));
+
+        assertThatThrownBy(() -> pipeline(rule("declared", RuleCost.DECLARED, false)))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("missing");
+    }
+
+    private ValidationPipeline pipeline(ValidationRule... rules) {
+        return new ValidationPipeline(List.of(rules), properties, meterRegistry);
+    }
+
+    private static UploadCandidate candidate() {
+        return new UploadCandidate(new MockMultipartFile("file", "test.pdf", "application/pdf", new byte[] {1}));
+    }
+
+    private ValidationRule rule(String name, RuleCost cost, boolean rejects) {
+        return new ValidationRule() {
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public RuleCost getCost() {
+                return cost;
+            }
+
+            @Override
+            public void check(UploadCandidate candidate) {
+                ran.add(name);
+                if (rejects) {
+                    throw new InvalidFileException("Rejected by " + name + ".");
+                }
+            }
+        };
+    }
+}
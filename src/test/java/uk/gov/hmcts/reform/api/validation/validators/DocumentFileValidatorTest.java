@@ -1,15 +1,43 @@
 package uk.gov.hmcts.reform.api.validation.validators;
 
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.encryption.AccessPermission;
+import org.apache.pdfbox.pdmodel.encryption.StandardProtectionPolicy;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.util.unit.DataSize;
+import uk.gov.hmcts.reform.api.admission.AdmissionController;
+import uk.gov.hmcts.reform.api.buffers.BufferPool;
+import uk.gov.hmcts.reform.api.concurrency.RequestCoalescer;
+import uk.gov.hmcts.reform.api.config.AdmissionProperties;
+import uk.gov.hmcts.reform.api.config.BufferPoolProperties;
+import uk.gov.hmcts.reform.api.config.ParseSandboxProperties;
 import uk.gov.hmcts.reform.api.config.UploadValidationProperties;
 import uk.gov.hmcts.reform.api.errorhandling.exceptions.InvalidFileException;
+import uk.gov.hmcts.reform.api.imaging.ImageQualityGate;
+import uk.gov.hmcts.reform.api.intake.DocumentSpooler;
+import uk.gov.hmcts.reform.api.sandbox.ParseSandbox;
+import uk.gov.hmcts.reform.api.sandbox.ParseWorkerPool;
+import uk.gov.hmcts.reform.api.validation.rules.DeclaredSizeRule;
+import uk.gov.hmcts.reform.api.validation.rules.DeclaredTypeRule;
+import uk.gov.hmcts.reform.api.validation.rules.ImageStructureRule;
+import uk.gov.hmcts.reform.api.validation.rules.MediaTypeRule;
+import uk.gov.hmcts.reform.api.validation.rules.PdfEncryptionRule;
+import uk.gov.hmcts.reform.api.validation.rules.PdfStructureRule;
+import uk.gov.hmcts.reform.api.validation.rules.PngHeaderRule;
+import uk.gov.hmcts.reform.api.validation.rules.SignatureRule;
+import uk.gov.hmcts.reform.api.validation.rules.ValidationPipeline;
+import uk.gov.hmcts.reform.api.validation.rules.ValidationRule;
 
+import javax.imageio.IIOImage;
 import javax.imageio.ImageIO;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
 import java.awt.image.BufferedImage;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
@@ -22,18 +50,28 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 class DocumentFileValidatorTest {
 
     private UploadValidationProperties properties;
+    private SimpleMeterRegistry meterRegistry;
     private DocumentFileValidator validator;
+    private ParseSandbox sandbox;
+    private ParallelFrameDecoder frameDecoder;
+    private ParseWorkerPool workerPool;
 
     @BeforeEach
     void setup() {
         properties = new UploadValidationProperties();
         properties.setMaxFileSize(DataSize.ofMegabytes(5));
         properties.setMaxPdfPages(5);
+        properties.setMaxTiffPages(3);
         properties.setMaxImagePixels(5_000);
         properties.setMinImageDimension(50);
         properties.setMaxImageDimension(100);
-        properties.setAllowedTypes(List.of("application/pdf", "image/png", "image/jpeg"));
-        validator = new DocumentFileValidator(properties);
+        properties.setAllowedTypes(List.of("application/pdf", "image/png", "image/jpeg", "image/tiff"));
+        validator = newValidator();
+    }
+
+    @AfterEach
+    void teardown() {
+        shutdown();
     }
 
     @Test
@@ -64,7 +102,7 @@ class DocumentFileValidatorTest {
     @Test
     void rejectsImageExceedingPixelLimit() throws IOException {
         properties.setMaxImagePixels(100); // tighten for test
-        validator = new DocumentFileValidator(properties);
+        validator = newValidator();
 
         byte[] image = createPng(60, 60); // within dimension range but over pixel cap
         MockMultipartFile file = new MockMultipartFile("file", "image.png", "image/png", image);
@@ -73,6 +111,32 @@ class DocumentFileValidatorTest {
         assertThat(ex.getMessage()).contains("pixel count");
     }
 
+    @Test
+    void acceptsMultiPageTiff() throws IOException {
+        byte[] tiff = createTiff(new int[][] {{60, 60}, {70, 60}, {60, 70}});
+        MockMultipartFile file = new MockMultipartFile("file", "scan.tiff", "image/tiff", tiff);
+
+        assertDoesNotThrow(() -> validator.isValid(file, null));
+    }
+
+    @Test
+    void rejectsTiffExceedingPageLimit() throws IOException {
+        byte[] tiff = createTiff(new int[][] {{60, 60}, {60, 60}, {60, 60}, {60, 60}});
+        MockMultipartFile file = new MockMultipartFile("file", "scan.tiff", "image/tiff", tiff);
+
+        InvalidFileException ex = assertThrows(InvalidFileException.class, () -> validator.isValid(file, null));
+        assertThat(ex.getMessage()).contains("page limit");
+    }
+
+    @Test
+    void rejectsTiffWithUndersizedLaterPage() throws IOException {
+        byte[] tiff = createTiff(new int[][] {{60, 60}, {20, 20}});
+        MockMultipartFile file = new MockMultipartFile("file", "scan.tiff", "image/tiff", tiff);
+
+        InvalidFileException ex = assertThrows(InvalidFileException.class, () -> validator.isValid(file, null));
+        assertThat(ex.getMessage()).contains("below minimum");
+    }
+
     @Test
     void rejectsUnsupportedType() {
         MockMultipartFile file = new MockMultipartFile("file", "note.txt", "text/plain", "hello".getBytes());
@@ -98,6 +162,124 @@ class DocumentFileValidatorTest {
         assertThat(ex.getMessage()).contains("File is required");
     }
 
+    @Test
+    void rejectsExtensionThatContradictsContentType() throws IOException {
+        MockMultipartFile file = new MockMultipartFile("file", "scan.pdf", "image/png", createPdf(1));
+
+        InvalidFileException ex = assertThrows(InvalidFileException.class, () -> validator.isValid(file, null));
+        assertThat(ex.getMessage()).contains("does not match");
+        assertThat(runs("signature")).isZero();
+    }
+
+    @Test
+    void rejectsEncryptedPdfFromTrailerBeforeParsing() throws IOException {
+        MockMultipartFile file = new MockMultipartFile("file", "locked.pdf", "application/pdf", createEncryptedPdf());
+
+        InvalidFileException ex = assertThrows(InvalidFileException.class, () -> validator.isValid(file, null));
+        assertThat(ex.getMessage()).contains("encryption");
+        assertThat(rejections("pdf-encryption")).isEqualTo(1);
+        assertThat(runs("pdf-structure")).isZero();
+    }
+
+    @Test
+    void rejectsOversizedPngFromHeaderBeforeDecoding() throws IOException {
+        byte[] image = createPng(60, 120); // over max dimension
+        MockMultipartFile file = new MockMultipartFile("file", "image.png", "image/png", image);
+
+        InvalidFileException ex = assertThrows(InvalidFileException.class, () -> validator.isValid(file, null));
+        assertThat(ex.getMessage()).contains("exceed maximum");
+        assertThat(rejections("png-header")).isEqualTo(1);
+        assertThat(runs("media-type")).isZero();
+        assertThat(runs("image-structure")).isZero();
+    }
+
+    @Test
+    void rejectsUnknownSignatureBeforeDetection() {
+        MockMultipartFile file = new MockMultipartFile("file", "scan.pdf", "application/pdf", "not a pdf".getBytes());
+
+        InvalidFileException ex = assertThrows(InvalidFileException.class, () -> validator.isValid(file, null));
+        assertThat(ex.getMessage()).contains("Unsupported file type");
+        assertThat(rejections("signature")).isEqualTo(1);
+        assertThat(runs("media-type")).isZero();
+    }
+
+    @Test
+    void flagsDarkImageByDefault() throws IOException {
+        byte[] image = createPng(60, 60);
+        MockMultipartFile file = new MockMultipartFile("file", "image.png", "image/png", image);
+
+        assertDoesNotThrow(() -> validator.isValid(file, null));
+    }
+
+    @Test
+    void rejectsDarkImageWhenQualityGateRejects() throws IOException {
+        properties.getQuality().setMode(UploadValidationProperties.Quality.Mode.REJECT);
+        validator = newValidator();
+
+        byte[] image = createPng(60, 60);
+        MockMultipartFile file = new MockMultipartFile("file", "image.png", "image/png", image);
+
+        InvalidFileException ex = assertThrows(InvalidFileException.class, () -> validator.isValid(file, null));
+        assertThat(ex.getMessage()).contains("too dark");
+    }
+
+    private DocumentFileValidator newValidator() {
+        shutdown();
+        meterRegistry = new SimpleMeterRegistry();
+        BufferPool bufferPool = new BufferPool(new BufferPoolProperties(), meterRegistry);
+        ImageQualityGate qualityGate = new ImageQualityGate(properties, bufferPool, meterRegistry);
+        final AdmissionController admissionController =
+            new AdmissionController(new AdmissionProperties(), meterRegistry);
+        workerPool = new ParseWorkerPool(new ParseSandboxProperties(), meterRegistry);
+        frameDecoder = new ParallelFrameDecoder(properties, qualityGate, bufferPool);
+        sandbox = new ParseSandbox(new ParseSandboxProperties(), meterRegistry);
+        List<ValidationRule> rules = List.of(
+            new DeclaredSizeRule(properties),
+            new DeclaredTypeRule(),
+            new SignatureRule(properties),
+            new PngHeaderRule(properties),
+            new PdfEncryptionRule(properties),
+            new MediaTypeRule(properties, admissionController),
+            new PdfStructureRule(properties, admissionController, bufferPool, workerPool),
+            new ImageStructureRule(
+                properties,
+                admissionController,
+                frameDecoder,
+                qualityGate,
+                workerPool
+            )
+        );
+        return new DocumentFileValidator(
+            new DocumentSpooler(properties),
+            new RequestCoalescer(meterRegistry),
+            new ValidationPipeline(rules, properties, meterRegistry),
+            sandbox
+        );
+    }
+
+    /**
+     * Stops the threads of the current validator's sandbox, frame decoder and worker pool.
+     */
+    private void shutdown() {
+        if (sandbox != null) {
+            sandbox.destroy();
+            frameDecoder.destroy();
+            workerPool.stop();
+        }
+    }
+
+    private long rejections(String rule) {
+        return meterRegistry.get("documents.validation.rule").tag("rule", rule).tag("outcome", "rejected")
+            .timer()
+            .count();
+    }
+
+    private long runs(String rule) {
+        return meterRegistry.get("documents.validation.rule").tag("rule", rule).timers().stream()
+            .mapToLong(Timer::count)
+            .sum();
+    }
+
     private byte[] createPdf(int pages) throws IOException {
         try (PDDocument document = new PDDocument()) {
             for (int i = 0; i < pages; i++) {
@@ -110,6 +292,35 @@ class DocumentFileValidatorTest {
         }
     }
 
+    private byte[] createEncryptedPdf() throws IOException {
+        try (PDDocument document = new PDDocument()) {
+            document.addPage(new PDPage());
+            document.protect(new StandardProtectionPolicy("owner", "user", new AccessPermission()));
+            try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+                document.save(out);
+                return out.toByteArray();
+            }
+        }
+    }
+
+    private byte[] createTiff(int[][] pages) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("tiff").next();
+        try (ByteArrayOutputStream out = new ByteArrayOutputStream();
+             ImageOutputStream stream = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(stream);
+            writer.prepareWriteSequence(null);
+            for (int[] page : pages) {
+                BufferedImage image = new BufferedImage(page[0], page[1], BufferedImage.TYPE_INT_RGB);
+                writer.writeToSequence(new IIOImage(image, null, null), null);
+            }
+            writer.endWriteSequence();
+            stream.flush();
+            return out.toByteArray();
+        } finally {
+            writer.dispose();
+        }
+    }
+
     private byte[] createPng(int width, int height) throws IOException {
         BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
         try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {